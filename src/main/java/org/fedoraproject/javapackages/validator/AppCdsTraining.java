@@ -0,0 +1,49 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.apache.commons.io.FileUtils;
+
+/// The training run of the AppCDS archive of the tool, see the `appcds`
+/// profile of `pom.xml` and `src/main/sh/launcher.sh`.
+///
+/// Validates RPM files with all the tests of the built-in factory, once through
+/// [Main] and once through [MainTmt], discarding their output. The classes
+/// loaded by both entry points, including those of the libraries reading RPM
+/// files and writing the results, end up in the archive dumped at exit.
+public final class AppCdsTraining {
+    private AppCdsTraining() {
+    }
+
+    /// Runs the training.
+    ///
+    /// @param args The RPM files or directories to validate.
+    /// @throws Exception If an entry point fails unexpectedly, the results of
+    ///                   the tests do not matter.
+    public static void main(String[] args) throws Exception {
+        var mainArgs = new ArrayList<String>();
+        for (var arg : args) {
+            mainArgs.add("-f");
+            mainArgs.add(arg);
+        }
+        var discard = new PrintStream(OutputStream.nullOutputStream());
+
+        var main = new Main();
+        main.setOutput(discard, discard);
+        main.run(mainArgs.toArray(String[]::new));
+
+        var tmtTestData = Files.createTempDirectory("javapackages-validator-training-");
+        var tmtTree = Files.createTempDirectory("javapackages-validator-training-");
+        try {
+            var mainTmt = MainTmt.create(tmtTestData, tmtTree);
+            mainTmt.setOutput(discard, discard);
+            mainTmt.run(mainArgs.toArray(String[]::new));
+        } finally {
+            FileUtils.deleteDirectory(tmtTestData.toFile());
+            FileUtils.deleteDirectory(tmtTree.toFile());
+        }
+    }
+}
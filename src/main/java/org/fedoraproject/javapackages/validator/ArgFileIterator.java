@@ -6,29 +6,99 @@ import java.nio.file.FileSystemLoopException;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 import io.kojan.javadeptools.rpm.RpmPackage;
 
 /// An iterator that processes argument file paths and yields `RpmPackage`
 /// objects. It resolves files and directories, handling symbolic links and
 /// nested directories.
-class ArgFileIterator implements Iterator<RpmPackage> {
+///
+/// The headers of the RPM files can be read ahead by a pool of worker threads,
+/// the packages are still returned in the order of the paths.
+class ArgFileIterator implements Iterator<RpmPackage>, AutoCloseable {
+
+    /// Exception thrown by [#next] when an RPM file cannot be read. The iteration
+    /// can continue with the following files.
+    static class LoadException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        /// The path of the RPM file.
+        private final Path path;
+
+        /// Constructs a `LoadException`.
+        ///
+        /// @param path  the path of the RPM file
+        /// @param cause the reason why the file could not be read
+        LoadException(Path path, Throwable cause) {
+            super("Unable to read RPM file " + path, cause);
+            this.path = path;
+        }
+
+        /// Returns the path of the RPM file which could not be read.
+        ///
+        /// @return the path of the RPM file
+        Path getPath() {
+            return path;
+        }
+    }
+
+    /// An RPM file whose header is being read.
+    ///
+    /// @param path the path of the RPM file
+    /// @param task the task reading the header
+    private static record Pending(Path path, FutureTask<RpmPackage> task) {
+    }
 
     /// Iterator over the provided argument paths.
     private Iterator<Path> argIterator;
     /// Iterator over the paths of RPM files within the current directory or file
     /// being processed.
     private Iterator<Path> pathIterator = null;
+    /// The worker threads reading the headers, or `null` if the headers are read
+    /// by the thread calling [#next].
+    private ExecutorService executor = null;
+    /// The maximum number of RPM files read ahead.
+    private int window = 1;
+    /// The RPM files read ahead, in the order of the paths.
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    /// The metrics of the reading of the headers, or `null`.
+    private Metrics metrics = null;
 
-    /// Creates an `ArgFileIterator` from a given collection of paths.
+    /// Creates an `ArgFileIterator` from a given collection of paths. The headers
+    /// are read by the thread calling [#next].
     ///
     /// @param args an iterable collection of paths
     /// @return an instance of `ArgFileIterator`
     public static ArgFileIterator create(Iterable<Path> args) {
+        return create(args, 1);
+    }
+
+    /// Creates an `ArgFileIterator` from a given collection of paths, reading the
+    /// headers by the given number of worker threads.
+    ///
+    /// @param args an iterable collection of paths
+    /// @param jobs the number of worker threads, `1` to read the headers by the
+    ///             thread calling [#next]
+    /// @return an instance of `ArgFileIterator`
+    public static ArgFileIterator create(Iterable<Path> args, int jobs) {
         var result = new ArgFileIterator();
+        if (jobs > 1) {
+            result.executor = Executors.newFixedThreadPool(jobs,
+                    Thread.ofPlatform().name("rpm-loader-", 0).daemon().factory());
+            result.window = 2 * jobs;
+        }
         result.argIterator = args.iterator();
         result.pathIterator = result.advance();
 
@@ -39,6 +109,30 @@ class ArgFileIterator implements Iterator<RpmPackage> {
         return result;
     }
 
+    /// Measures the reading of the headers of the RPM files.
+    ///
+    /// @param metrics the metrics recording the reading of each RPM file
+    /// @return this iterator
+    ArgFileIterator measuredBy(Metrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /// Lists the paths of the RPM files given by a collection of paths, in the
+    /// order in which an `ArgFileIterator` returns the packages. The RPM files
+    /// are not read.
+    ///
+    /// @param args an iterable collection of paths
+    /// @return the paths of the RPM files
+    public static List<Path> listPaths(Iterable<Path> args) {
+        var iterator = create(args);
+        var result = new ArrayList<Path>();
+        while (iterator.hasNextPath()) {
+            result.add(iterator.pathIterator.next());
+        }
+        return result;
+    }
+
     /// Advances the iterator to the next available path, resolving symbolic links
     /// and handling directories to locate RPM files.
     ///
@@ -72,12 +166,14 @@ class ArgFileIterator implements Iterator<RpmPackage> {
         return null;
     }
 
-    /// Checks if there are more RPM packages to iterate over.
+    /// Checks if there are more paths of RPM files.
     ///
-    /// @return `true` if more RPM packages are available, `false`
-    ///         otherwise
-    @Override
-    public boolean hasNext() {
+    /// @return `true` if more paths are available, `false` otherwise
+    private boolean hasNextPath() {
+        if (pathIterator == null) {
+            // All the paths have been listed
+            return false;
+        }
         try {
             if (pathIterator.hasNext()) {
                 return true;
@@ -85,7 +181,7 @@ class ArgFileIterator implements Iterator<RpmPackage> {
         } catch (Exception ex) {
             // Ignore loops
             if (ex.getCause() instanceof FileSystemLoopException) {
-                return hasNext();
+                return hasNextPath();
             } else {
                 throw ex;
             }
@@ -95,16 +191,63 @@ class ArgFileIterator implements Iterator<RpmPackage> {
         return pathIterator != null;
     }
 
+    /// Checks if there are more RPM packages to iterate over. Starts reading the
+    /// headers of the following RPM files, up to the read-ahead limit.
+    ///
+    /// @return `true` if more RPM packages are available, `false`
+    ///         otherwise
+    @Override
+    public boolean hasNext() {
+        while (pending.size() < window && hasNextPath()) {
+            var path = pathIterator.next();
+            var metrics = this.metrics;
+            var task = new FutureTask<>(() -> {
+                if (metrics == null) {
+                    return new RpmPackage(path);
+                }
+                var stopwatch = Metrics.Stopwatch.start();
+                try {
+                    return new RpmPackage(path);
+                } finally {
+                    metrics.addRpmLoad(path, stopwatch.stop(path.toString()));
+                }
+            });
+            if (executor != null) {
+                executor.execute(task);
+            }
+            pending.add(new Pending(path, task));
+        }
+        return !pending.isEmpty();
+    }
+
     /// Returns the next `RpmPackage` in the iteration.
     ///
     /// @return the next `RpmPackage`
-    /// @throws RuntimeException if an error occurs while retrieving the package
+    /// @throws LoadException if the RPM file cannot be read, the iteration can
+    ///                       continue afterwards
     @Override
     public RpmPackage next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        var next = pending.remove();
+        // Does nothing if the task has already been started by a worker thread
+        next.task().run();
         try {
-            return new RpmPackage(pathIterator.next());
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
+            return next.task().get();
+        } catch (ExecutionException ex) {
+            throw new LoadException(next.path(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LoadException(next.path(), ex);
+        }
+    }
+
+    /// Stops the worker threads.
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
         }
     }
 }
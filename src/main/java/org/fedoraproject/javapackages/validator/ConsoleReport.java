@@ -0,0 +1,177 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+
+import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.spi.Decoration;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
+import org.fedoraproject.javapackages.validator.util.ValidatorEvents;
+
+/// Writes the results of a run to the console as they are received.
+///
+/// The log entries of each result, other than failures and errors, are written
+/// as soon as the result is received, debug entries to the debug output. The
+/// failures and then the errors of all the results are written at the end,
+/// followed by a summary. They are kept as formatted lines, in memory up to
+/// [#MEMORY_LIMIT] bytes and beyond that in a temporary file, so that the
+/// results themselves are not kept.
+final class ConsoleReport implements ResultSink {
+    /// The size of the formatted lines kept in memory before they are spilled
+    /// to a temporary file, for each kind of entries.
+    static final int MEMORY_LIMIT = 1024 * 1024;
+
+    /// Formatted lines written later, stored as their length followed by their
+    /// UTF-8 bytes.
+    private static final class DeferredLines implements Closeable {
+        private final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private DataOutputStream data = new DataOutputStream(memory);
+        private Path file = null;
+
+        /// Adds a line.
+        ///
+        /// @param line The line.
+        /// @throws IOException If the temporary file cannot be written.
+        void add(String line) throws IOException {
+            var bytes = line.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+            if (file == null && memory.size() > MEMORY_LIMIT) {
+                file = Files.createTempFile("javapackages-validator-report-", ".tmp");
+                var os = new BufferedOutputStream(Files.newOutputStream(file));
+                memory.writeTo(os);
+                memory.reset();
+                data = new DataOutputStream(os);
+            }
+        }
+
+        /// Writes the lines in the order in which they were added.
+        ///
+        /// @param out The stream to write the lines to.
+        /// @throws IOException If the temporary file cannot be read.
+        void writeTo(PrintStream out) throws IOException {
+            data.flush();
+            var is = file != null ? new BufferedInputStream(Files.newInputStream(file)) : new ByteArrayInputStream(memory.toByteArray());
+            try (var in = new DataInputStream(is)) {
+                while (true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException _) {
+                        break;
+                    }
+                    out.println(new String(in.readNBytes(length), StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            data.close();
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final PrintStream debug;
+    private final TextDecorator decorator;
+    private final DeferredLines failLines = new DeferredLines();
+    private final DeferredLines errorLines = new DeferredLines();
+    private int passMessages = 0;
+    private int failMessages = 0;
+    private int errorMessages = 0;
+    private long entries = 0;
+    private final ValidatorEvents.ReportWrite event = new ValidatorEvents.ReportWrite();
+
+    /// Constructs a report.
+    ///
+    /// @param out       The standard output, receiving the log entries.
+    /// @param err       The standard error output, receiving the summary.
+    /// @param debug     The debug output, receiving the debug entries.
+    /// @param decorator The decorator of the output.
+    ConsoleReport(PrintStream out, PrintStream err, PrintStream debug, TextDecorator decorator) {
+        this.out = out;
+        this.err = err;
+        this.debug = debug;
+        this.decorator = decorator;
+        event.begin();
+    }
+
+    @Override
+    public void accept(NamedResult result) throws IOException {
+        for (var logEntry : result) {
+            ++entries;
+            if (LogEvent.fail.equals(logEntry.kind())) {
+                failLines.add(Main.decorated(logEntry, decorator));
+                ++failMessages;
+            } else if (LogEvent.error.equals(logEntry.kind())) {
+                errorLines.add(Main.decorated(logEntry, decorator));
+                ++errorMessages;
+            } else if (LogEvent.debug.equals(logEntry.kind())) {
+                if (debug != Main.NULL_OUTPUT_STREAM) {
+                    debug.println(Main.decorated(logEntry, decorator));
+                }
+            } else {
+                out.println(Main.decorated(logEntry, decorator));
+                if (LogEvent.pass.equals(logEntry.kind())) {
+                    ++passMessages;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int finish() throws IOException {
+        failLines.writeTo(out);
+        errorLines.writeTo(out);
+
+        var bold_red = new Decoration(Decoration.Color.red, Decoration.Modifier.bold);
+
+        int exitCode = 0;
+        if (failMessages == 0 && errorMessages == 0) {
+            if (passMessages > 0) {
+                err.println(MessageFormat.format("Summary: all tests {0}",
+                        decorator.decorate(Decorated.custom("passed", new Decoration(Decoration.Color.green, Decoration.Modifier.bold)))));
+            } else {
+                err.println("Summary: no output available");
+            }
+        } else if (errorMessages == 0) {
+            err.println(MessageFormat.format("Summary: {0} {1}",
+                    decorator.decorate(Decorated.plain(failMessages)), decorator.decorate(Decorated.custom(
+                    "failed tests" + (failMessages == 1 ? "" : "s"), bold_red))));
+            exitCode = 1;
+        } else if (failMessages == 0) {
+            err.println(MessageFormat.format("Summary: {0} {1} occured",
+                    decorator.decorate(Decorated.plain(errorMessages)), decorator.decorate(Decorated.custom(
+                    "error" + (errorMessages == 1 ? "" : "s"), bold_red))));
+            exitCode = 2;
+        }
+
+        if (event.shouldCommit()) {
+            event.entries = entries;
+            event.commit();
+        }
+        return exitCode;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (failLines; errorLines) {
+        }
+    }
+}
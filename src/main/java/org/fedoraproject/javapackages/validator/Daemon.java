@@ -0,0 +1,399 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import jdk.net.ExtendedSocketOptions;
+
+/// A long running validator process serving requests over a Unix domain
+/// socket.
+///
+/// A request carries the same arguments as the command line of [Main] or
+/// [MainTmt] together with the working directory of the client. The daemon
+/// runs it in its own JVM, reusing the class loaders of the compiled
+/// validators and their resolved dependencies, see
+/// [ValidatorClassLoaderCache], as well as the in-memory caches and the warmed
+/// up JIT of previous requests. The standard output and error of the run are
+/// streamed back to the client in the format produced by [Main#report],
+/// followed by the exit code. Requests are served one at a time.
+///
+/// The socket is only accessible to the user running the daemon and
+/// connections of processes running as other users are rejected.
+///
+/// Usage:
+///
+/// - `Daemon --listen <socket>` serves requests until stopped,
+/// - `Daemon --connect <socket> [--tmt] <arguments of Main>` runs a request
+///   and exits with its exit code; with `--tmt` the request is run as
+///   [MainTmt] with the `TMT_TEST_DATA` and `TMT_TREE` variables of the client,
+/// - `Daemon --stop <socket>` stops the daemon after the running request.
+public class Daemon implements AutoCloseable {
+
+    /// The version of the protocol, sent at the beginning of each request.
+    static final int PROTOCOL_VERSION = 1;
+
+    /// The frame carrying the exit code, which ends the response.
+    private static final byte FRAME_EXIT = 0;
+    /// The frame carrying a part of the standard output.
+    private static final byte FRAME_OUT = 1;
+    /// The frame carrying a part of the standard error output.
+    private static final byte FRAME_ERR = 2;
+
+    /// The size of the buffers of the streamed output.
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /// The kinds of requests.
+    enum Mode {
+        /// Runs [Main].
+        plain,
+        /// Runs [MainTmt].
+        tmt,
+        /// Stops the daemon.
+        stop,
+    }
+
+    /// A request of a client.
+    ///
+    /// @param mode             The kind of the request.
+    /// @param workingDirectory The working directory of the client.
+    /// @param tmtTestData      The TMT test data directory, or `null`.
+    /// @param tmtTree          The TMT tree directory, or `null`.
+    /// @param args             The arguments of [Main].
+    static record Request(Mode mode, Path workingDirectory, Path tmtTestData, Path tmtTree, List<String> args) {
+        private static void writePath(DataOutputStream os, Path path) throws IOException {
+            os.writeUTF(path != null ? path.toString() : "");
+        }
+
+        private static Path readPath(DataInputStream is) throws IOException {
+            var path = is.readUTF();
+            return path.isEmpty() ? null : Path.of(path);
+        }
+
+        void write(DataOutputStream os) throws IOException {
+            os.writeInt(PROTOCOL_VERSION);
+            os.writeUTF(mode.name());
+            writePath(os, workingDirectory);
+            writePath(os, tmtTestData);
+            writePath(os, tmtTree);
+            os.writeInt(args.size());
+            for (var arg : args) {
+                os.writeUTF(arg);
+            }
+        }
+
+        static Request read(DataInputStream is) throws IOException {
+            if (is.readInt() != PROTOCOL_VERSION) {
+                throw new IOException("Unsupported protocol version");
+            }
+            var mode = Mode.valueOf(is.readUTF());
+            var workingDirectory = readPath(is);
+            var tmtTestData = readPath(is);
+            var tmtTree = readPath(is);
+            int count = is.readInt();
+            if (count < 0) {
+                throw new IOException("Malformed request");
+            }
+            var args = new ArrayList<String>(Math.min(count, 1024));
+            for (int i = 0; i != count; ++i) {
+                args.add(is.readUTF());
+            }
+            return new Request(mode, workingDirectory, tmtTestData, tmtTree, args);
+        }
+    }
+
+    /// An output stream sending everything written to it as frames of one kind.
+    /// Frames of different kinds may be written concurrently.
+    private static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream os;
+        private final byte kind;
+
+        FrameOutputStream(DataOutputStream os, byte kind) {
+            this.os = os;
+            this.kind = kind;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            synchronized (os) {
+                os.writeByte(kind);
+                os.writeInt(len);
+                os.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (os) {
+                os.flush();
+            }
+        }
+    }
+
+    /// The path to the socket.
+    private final Path socket;
+    /// The listening socket.
+    private final ServerSocketChannel server;
+    /// The user running the daemon, the only one whose requests are served.
+    private final UserPrincipal owner;
+    /// The class loaders of validators kept across requests.
+    private final ValidatorClassLoaderCache classLoaders = new ValidatorClassLoaderCache();
+
+    /// Constructs a daemon listening on a socket. A socket file left behind by
+    /// a daemon which is no longer running is replaced.
+    ///
+    /// @param socket The path to the socket.
+    /// @throws IOException If the socket cannot be created or another daemon is
+    ///                     listening on it.
+    public Daemon(Path socket) throws IOException {
+        this.socket = socket;
+        var address = UnixDomainSocketAddress.of(socket);
+        if (Files.exists(socket)) {
+            try (var _ = SocketChannel.open(address)) {
+                throw new IOException("Another daemon is listening on " + socket);
+            } catch (ConnectException _) {
+                Files.delete(socket);
+            }
+        }
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(address);
+            // Connections made before the permissions are restricted are
+            // rejected by the owner check
+            Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+            this.owner = Files.getOwner(socket);
+        } catch (IOException | RuntimeException ex) {
+            server.close();
+            Files.deleteIfExists(socket);
+            throw ex;
+        }
+    }
+
+    /// Tests whether the peer of a connection runs as the user running the
+    /// daemon.
+    ///
+    /// @param channel The connection.
+    /// @return `true` if the peer is the owner of the daemon, `false` if it is
+    ///         not or the platform does not report it.
+    /// @throws IOException If the credentials of the peer cannot be read.
+    private boolean isOwner(SocketChannel channel) throws IOException {
+        try {
+            return owner.equals(channel.getOption(ExtendedSocketOptions.SO_PEERCRED).user());
+        } catch (UnsupportedOperationException _) {
+            return false;
+        }
+    }
+
+    /// Serves requests until the daemon is stopped or closed. Returns after the
+    /// running requests have been served.
+    ///
+    /// Connections are handled on platform threads, a request waiting for the
+    /// running one must not hold on to a carrier thread needed by the
+    /// validators of the running request.
+    ///
+    /// @throws IOException If a connection cannot be accepted.
+    public void serve() throws IOException {
+        try (var executor = Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name("daemon-connection-", 0).factory())) {
+            while (true) {
+                SocketChannel channel;
+                try {
+                    channel = server.accept();
+                } catch (ClosedChannelException _) {
+                    break;
+                }
+                executor.execute(() -> handle(channel));
+            }
+        }
+    }
+
+    /// Serves a single connection.
+    ///
+    /// @param channel The connection.
+    private void handle(SocketChannel channel) {
+        try (channel;
+                var is = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                var os = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+            if (!isOwner(channel)) {
+                return;
+            }
+            var request = Request.read(is);
+            int exitCode;
+            if (request.mode() == Mode.stop) {
+                close();
+                exitCode = 0;
+            } else {
+                exitCode = run(request, os);
+            }
+            synchronized (os) {
+                os.writeByte(FRAME_EXIT);
+                os.writeInt(exitCode);
+                os.flush();
+            }
+        } catch (IOException | IllegalArgumentException _) {
+            // The client has gone away or sent a malformed request, there is
+            // nobody to report to
+        }
+    }
+
+    /// Runs a request, streaming its output to the client.
+    ///
+    /// @param request The request.
+    /// @param os      The stream to the client.
+    /// @return The exit code.
+    private synchronized int run(Request request, DataOutputStream os) {
+        var out = new PrintStream(new BufferedOutputStream(new FrameOutputStream(os, FRAME_OUT), BUFFER_SIZE), false, StandardCharsets.UTF_8);
+        var err = new PrintStream(new BufferedOutputStream(new FrameOutputStream(os, FRAME_ERR), BUFFER_SIZE), false, StandardCharsets.UTF_8);
+
+        if (request.mode() == Mode.tmt && (request.tmtTestData() == null || request.tmtTree() == null)) {
+            err.println("error: tmt requests require the TMT_TEST_DATA and TMT_TREE directories");
+            err.flush();
+            return 1;
+        }
+
+        var main = request.mode() == Mode.tmt ? MainTmt.create(request.tmtTestData(), request.tmtTree()) : new Main();
+        main.setOutput(out, err);
+        main.workingDirectory = request.workingDirectory();
+        main.classLoaderCache = classLoaders;
+        try {
+            return main.run(request.args().toArray(String[]::new));
+        } catch (Exception ex) {
+            ex.printStackTrace(err);
+            return 1;
+        } finally {
+            out.flush();
+            err.flush();
+        }
+    }
+
+    /// Stops accepting requests and closes the class loaders once the running
+    /// request has been served.
+    ///
+    /// @throws IOException If the socket cannot be closed or deleted.
+    @Override
+    public void close() throws IOException {
+        server.close();
+        Files.deleteIfExists(socket);
+        synchronized (this) {
+            classLoaders.close();
+        }
+    }
+
+    /// Sends a request to a daemon and copies its output.
+    ///
+    /// @param socket  The path to the socket of the daemon.
+    /// @param request The request.
+    /// @param out     The stream to copy the standard output to.
+    /// @param err     The stream to copy the standard error output to.
+    /// @return The exit code of the request.
+    /// @throws IOException If the daemon cannot be reached or the connection
+    ///                     is interrupted.
+    static int send(Path socket, Request request, OutputStream out, OutputStream err) throws IOException {
+        try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+                var is = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+                var os = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            request.write(os);
+            os.flush();
+            while (true) {
+                byte kind;
+                try {
+                    kind = is.readByte();
+                } catch (EOFException ex) {
+                    throw new IOException("The daemon closed the connection without an exit code", ex);
+                }
+                if (kind == FRAME_EXIT) {
+                    out.flush();
+                    err.flush();
+                    return is.readInt();
+                }
+                var length = is.readInt();
+                if (length < 0 || (kind != FRAME_OUT && kind != FRAME_ERR)) {
+                    throw new IOException("Malformed response of the daemon");
+                }
+                var target = kind == FRAME_OUT ? out : err;
+                target.write(is.readNBytes(length));
+                target.flush();
+            }
+        }
+    }
+
+    private static void printHelp() {
+        System.out.println("Usage: Daemon --listen <socket>");
+        System.out.println("       Daemon --connect <socket> [--tmt] <arguments of Main>...");
+        System.out.println("       Daemon --stop <socket>");
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            printHelp();
+            System.exit(1);
+        }
+
+        var socket = Path.of(args[1]);
+        var workingDirectory = Path.of("").toAbsolutePath();
+        switch (args[0]) {
+            case "--listen" -> {
+                try (var daemon = new Daemon(socket)) {
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        try {
+                            Files.deleteIfExists(socket);
+                        } catch (IOException _) {
+                            // Nothing more can be done at this point
+                        }
+                    }));
+                    daemon.serve();
+                }
+            }
+            case "--connect" -> {
+                var mainArgs = Arrays.asList(args).subList(2, args.length);
+                Request request;
+                if (!mainArgs.isEmpty() && mainArgs.getFirst().equals("--tmt")) {
+                    var tmtTestData = System.getenv("TMT_TEST_DATA");
+                    var tmtTree = System.getenv("TMT_TREE");
+                    if (tmtTestData == null || tmtTree == null) {
+                        System.err.println("error: --tmt requires the TMT_TEST_DATA and TMT_TREE environment variables");
+                        printHelp();
+                        System.exit(1);
+                    }
+                    request = new Request(Mode.tmt, workingDirectory, Path.of(tmtTestData), Path.of(tmtTree),
+                            mainArgs.subList(1, mainArgs.size()));
+                } else {
+                    request = new Request(Mode.plain, workingDirectory, null, null, mainArgs);
+                }
+                System.exit(send(socket, request, System.out, System.err));
+            }
+            case "--stop" -> {
+                System.exit(send(socket, new Request(Mode.stop, workingDirectory, null, null, List.of()), System.out, System.err));
+            }
+            default -> {
+                printHelp();
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.fedoraproject.javapackages.validator.spi.LogEntry;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
 import org.fedoraproject.javapackages.validator.spi.Result;
 import org.fedoraproject.javapackages.validator.spi.ResultBuilder;
 import org.fedoraproject.javapackages.validator.spi.Validator;
@@ -13,11 +15,18 @@ import io.kojan.javadeptools.rpm.RpmPackage;
 /// An abstract implementation of a `Validator` that extends
 /// `ResultBuilder`. This class provides a base for validation logic with
 /// argument handling and error management.
+///
+/// Log entries less severe than the log level of the validator are dropped,
+/// the result of the validator is still merged from them. Validators emitting
+/// many entries of a low severity test [#isLogged] before building them.
 public abstract class DefaultValidator extends ResultBuilder implements Validator {
 
     /// Immutable list of arguments passed to the validator.
     private List<String> args = null;
 
+    /// The least severe kind of log entries retained.
+    private LogEvent logLevel = LogEvent.debug;
+
     /// Validates a collection of RPM packages using the provided arguments. Captures
     /// any exceptions and records them as errors.
     ///
@@ -27,9 +36,7 @@ public abstract class DefaultValidator extends ResultBuilder implements Validato
     /// @return the validation `Result`
     @Override
     public Result validate(Iterable<RpmPackage> rpms, List<String> args) {
-        if (args != null) {
-            this.args = Collections.unmodifiableList(new ArrayList<>(args));
-        }
+        setArgs(args);
         try {
             validate(rpms);
         } catch (Exception ex) {
@@ -39,6 +46,16 @@ public abstract class DefaultValidator extends ResultBuilder implements Validato
         return build();
     }
 
+    /// Stores an immutable copy of the arguments passed to the validator.
+    ///
+    /// @param args the list of arguments for validation, `null` leaves the
+    ///             arguments unchanged
+    protected void setArgs(List<String> args) {
+        if (args != null) {
+            this.args = Collections.unmodifiableList(new ArrayList<>(args));
+        }
+    }
+
     /// Returns the list of arguments provided during validation.
     ///
     /// @return an immutable list of arguments, or `null` if none were provided
@@ -46,6 +63,41 @@ public abstract class DefaultValidator extends ResultBuilder implements Validato
         return args;
     }
 
+    /// Sets the least severe kind of log entries retained by the validator.
+    ///
+    /// @param logLevel the least severe kind of retained log entries,
+    ///                 [LogEvent#debug] retains all the entries
+    public void setLogLevel(LogEvent logLevel) {
+        this.logLevel = logLevel;
+    }
+
+    /// Returns the least severe kind of log entries retained by the validator.
+    ///
+    /// @return the least severe kind of retained log entries
+    public LogEvent getLogLevel() {
+        return logLevel;
+    }
+
+    /// Checks whether log entries of a kind are retained by the validator.
+    /// The result of the validator must still be merged when they are not.
+    ///
+    /// @param kind the kind of log entries
+    /// @return `true` if the entries are retained, `false` otherwise
+    protected boolean isLogged(LogEvent kind) {
+        return kind.compareTo(logLevel) >= 0;
+    }
+
+    /// Adds a log entry unless it is less severe than the log level of the
+    /// validator.
+    ///
+    /// @param entry the log entry
+    @Override
+    public void addLog(LogEntry entry) {
+        if (isLogged(entry.kind())) {
+            super.addLog(entry);
+        }
+    }
+
     /// Abstract method to be implemented by subclasses for performing validation on
     /// the given RPM packages.
     ///
@@ -0,0 +1,188 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/// The lock of the validator dependencies, stored next to the
+/// `javapackages-validator.properties` file of the source path.
+///
+/// The lock records the `dependencies` and `repositories` properties it was
+/// resolved for and, for each dependency, its coordinates, its path relative to
+/// the local repository and the SHA-256 checksum of its content. As long as
+/// the properties are unchanged and the local repository holds the locked
+/// files with the locked checksums, the dependencies are used without
+/// resolving them, no repository system session is created and no network is
+/// needed. The lock is a standard Java properties file.
+///
+/// @param dependencies The `dependencies` property the lock was resolved for.
+/// @param repositories The `repositories` property the lock was resolved for.
+/// @param artifacts    The locked dependencies, in the order of the
+///                     `dependencies` property.
+record DependencyLock(String dependencies, String repositories, List<DependencyLock.Artifact> artifacts) {
+
+    /// The name of the lock file in the source path.
+    static final String FILE_NAME = "javapackages-validator.lock";
+
+    /// A locked dependency.
+    ///
+    /// @param coordinates The coordinates of the Maven artifact.
+    /// @param path        The path to the artifact relative to the local
+    ///                    repository, with `/` as the separator.
+    /// @param sha256      The SHA-256 checksum of the artifact.
+    record Artifact(String coordinates, String path, String sha256) {
+    }
+
+    DependencyLock {
+        artifacts = List.copyOf(artifacts);
+    }
+
+    /// Computes the SHA-256 checksum of a file.
+    ///
+    /// @param path The file.
+    /// @return The hexadecimal checksum.
+    /// @throws IOException If the file cannot be read.
+    static String sha256(Path path) throws IOException {
+        return Digests.digestFile(path);
+    }
+
+    /// Creates a lock of resolved dependencies.
+    ///
+    /// @param dependencies The `dependencies` property.
+    /// @param repositories The `repositories` property.
+    /// @param localRepo    The local repository.
+    /// @param coordinates  The coordinates of the resolved artifacts.
+    /// @param paths        The paths to the resolved artifacts, in the order
+    ///                     of the coordinates.
+    /// @return The lock.
+    /// @throws IOException If an artifact cannot be read.
+    static DependencyLock of(String dependencies, String repositories, Path localRepo, List<String> coordinates, List<Path> paths) throws IOException {
+        var artifacts = new ArrayList<Artifact>(paths.size());
+        for (int i = 0; i != paths.size(); ++i) {
+            var path = paths.get(i).toAbsolutePath();
+            var base = localRepo.toAbsolutePath();
+            var relative = path.startsWith(base) ? base.relativize(path).toString() : path.toString();
+            artifacts.add(new Artifact(coordinates.get(i), relative.replace(path.getFileSystem().getSeparator(), "/"), sha256(path)));
+        }
+        return new DependencyLock(dependencies, repositories, artifacts);
+    }
+
+    /// Reads the lock file of a source path.
+    ///
+    /// @param sourcePath The source path.
+    /// @return The lock, or `null` if there is no lock file.
+    /// @throws IOException If the lock file cannot be read or is malformed.
+    static DependencyLock read(Path sourcePath) throws IOException {
+        var path = sourcePath.resolve(FILE_NAME);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        var props = new Properties();
+        try (var reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        var artifacts = new ArrayList<Artifact>();
+        for (int i = 0; props.containsKey("artifact." + i); ++i) {
+            var coordinates = props.getProperty("artifact." + i);
+            var artifactPath = props.getProperty("artifact." + i + ".path");
+            var sha256 = props.getProperty("artifact." + i + ".sha256");
+            if (artifactPath == null || sha256 == null) {
+                throw new IOException("Malformed lock file " + path + ": incomplete artifact " + coordinates);
+            }
+            artifacts.add(new Artifact(coordinates, artifactPath, sha256));
+        }
+        return new DependencyLock(props.getProperty("dependencies", ""), props.getProperty("repositories", ""), artifacts);
+    }
+
+    private static String escape(String value) {
+        var result = new StringBuilder(value.length());
+        for (var c : value.toCharArray()) {
+            switch (c) {
+                case '\\' -> result.append("\\\\");
+                case '\n' -> result.append("\\n");
+                case '\r' -> result.append("\\r");
+                default -> result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /// Writes the lock file of a source path. Unlike [Properties#store], the
+    /// content only depends on the lock, so that the file can be kept under
+    /// version control.
+    ///
+    /// @param sourcePath The source path.
+    /// @throws IOException If the lock file cannot be written.
+    void write(Path sourcePath) throws IOException {
+        var content = new StringBuilder();
+        content.append("# Dependencies of the validators resolved by javapackages-validator").append('\n');
+        content.append("# Delete this file to resolve the dependencies again").append('\n');
+        content.append("dependencies=").append(escape(dependencies)).append('\n');
+        content.append("repositories=").append(escape(repositories)).append('\n');
+        for (int i = 0; i != artifacts.size(); ++i) {
+            var artifact = artifacts.get(i);
+            content.append("artifact.").append(i).append('=').append(escape(artifact.coordinates())).append('\n');
+            content.append("artifact.").append(i).append(".path=").append(escape(artifact.path())).append('\n');
+            content.append("artifact.").append(i).append(".sha256=").append(artifact.sha256()).append('\n');
+        }
+
+        var path = sourcePath.resolve(FILE_NAME);
+        var tempFile = Files.createTempFile(sourcePath, FILE_NAME, ".tmp");
+        try {
+            Files.writeString(tempFile, content, StandardCharsets.UTF_8);
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /// Tests whether the lock was resolved for the given properties.
+    ///
+    /// @param dependencies The `dependencies` property.
+    /// @param repositories The `repositories` property.
+    /// @return `true` if the properties are those of the lock.
+    boolean matches(String dependencies, String repositories) {
+        return this.dependencies.strip().equals(dependencies.strip())
+                && this.repositories.strip().equals(repositories.strip());
+    }
+
+    /// Resolves the locked artifacts in a local repository.
+    ///
+    /// @param localRepo The local repository.
+    /// @return The paths to the locked artifacts, or `null` if some artifact
+    ///         is missing or its checksum differs.
+    /// @throws IOException If an artifact cannot be read.
+    List<Path> resolve(Path localRepo) throws IOException {
+        var result = new ArrayList<Path>(artifacts.size());
+        for (var artifact : artifacts) {
+            var path = localRepo.resolve(artifact.path());
+            if (!Files.isRegularFile(path) || !sha256(path).equals(artifact.sha256())) {
+                return null;
+            }
+            result.add(path);
+        }
+        return result;
+    }
+
+    /// Checks resolved artifacts against the lock.
+    ///
+    /// @param resolved The lock of the resolved artifacts.
+    /// @throws RuntimeException If the checksum of some resolved artifact
+    ///                          differs from the locked one.
+    void verify(DependencyLock resolved) {
+        for (var artifact : resolved.artifacts()) {
+            for (var locked : artifacts) {
+                if (locked.coordinates().equals(artifact.coordinates()) && !locked.sha256().equals(artifact.sha256())) {
+                    throw new RuntimeException("Checksum of dependency " + artifact.coordinates()
+                            + " does not match the lock file " + FILE_NAME + ": expected "
+                            + locked.sha256() + ", got " + artifact.sha256());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import org.fedoraproject.javapackages.validator.util.CodeDigest;
+
+/// Helpers computing the digests which identify the inputs of the result cache
+/// and of the incremental compiler, see [ResultCache] and
+/// [IncrementalCompiler].
+final class Digests {
+
+    /// Private constructor, this is a utility class.
+    private Digests() {
+    }
+
+    /// Updates a digest with an integer.
+    ///
+    /// @param digest The digest.
+    /// @param value  The integer.
+    static void updateInt(MessageDigest digest, int value) {
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(value).array());
+    }
+
+    /// Updates a digest with a string, preceded by its length, so that the
+    /// boundaries of consecutive strings are part of the digest.
+    ///
+    /// @param digest The digest.
+    /// @param value  The string.
+    static void updateString(MessageDigest digest, String value) {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        updateInt(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    /// Updates a digest with the content of a file.
+    ///
+    /// @param digest The digest.
+    /// @param path   The file.
+    /// @throws IOException If the file cannot be read.
+    static void updateFile(MessageDigest digest, Path path) throws IOException {
+        try (var is = Files.newInputStream(path)) {
+            var buffer = new byte[64 * 1024];
+            for (int read; (read = is.read(buffer)) != -1;) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    /// Computes the SHA-256 digest of the content of a file.
+    ///
+    /// @param path The file.
+    /// @return The digest in hexadecimal.
+    /// @throws IOException If the file cannot be read.
+    static String digestFile(Path path) throws IOException {
+        var digest = CodeDigest.sha256();
+        updateFile(digest, path);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,673 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.apache.commons.io.FileUtils;
+import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.util.CodeDigest;
+
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+
+/// Compiles the validator sources of the source path into the output
+/// directory, recompiling only what has changed.
+///
+/// The output directory holds a manifest of the compiled sources: the digest
+/// of the content of each source file, the class files compiled from it, the
+/// top level types it declares and the top level types it refers to. The
+/// manifest also holds the digest of the compilation environment, that is the
+/// release of the compiler and the content of the class path entries. Changes
+/// are detected by content, not by modification time, so that a fresh
+/// checkout of unchanged sources does not cause a recompilation.
+///
+/// When only some of the source files have changed, they are recompiled
+/// together with the source files referring to the types they declare,
+/// transitively. Anything else, a changed environment or a failure of the
+/// incremental compilation, causes a full recompilation.
+///
+/// Optionally, the compiled classes are also kept in a cache directory, keyed
+/// by the digest of the whole input, so that other output directories on the
+/// same host, for example those of parallel jobs, reuse them.
+final class IncrementalCompiler {
+
+    /// The name of the manifest file in the output directory.
+    static final String MANIFEST_NAME = ".javapackages-validator-manifest";
+    /// The name of the directory of resolved dependencies in the output
+    /// directory, which is kept by the compiler.
+    static final String LOCAL_REPOSITORY = "local-repo";
+    /// The maximum number of outputs kept in the cache directory.
+    static final int MAX_CACHED_OUTPUTS = 16;
+
+    /// The version of the format of the manifest, part of every digest.
+    private static final int FORMAT_VERSION = 1;
+
+    /// The compiled state of a source file.
+    ///
+    /// @param digest          The digest of the content of the source file.
+    /// @param classFiles      The class files compiled from the source file,
+    ///                        relative to the output directory.
+    /// @param declaredTypes   The qualified names of the top level types
+    ///                        declared by the source file.
+    /// @param referencedTypes The qualified names of the top level types the
+    ///                        source file refers to.
+    static record Unit(String digest, Set<String> classFiles, Set<String> declaredTypes, Set<String> referencedTypes) {
+    }
+
+    /// The manifest of an output directory.
+    ///
+    /// @param key         The digest of the whole input of the compilation.
+    /// @param environment The digest of the compilation environment.
+    /// @param units       The compiled source files by their paths relative
+    ///                    to the source path.
+    static record Manifest(String key, String environment, Map<String, Unit> units) {
+    }
+
+    /// The path to the directory of the sources.
+    private final Path sourcePath;
+    /// The output directory.
+    private final Path outputDir;
+    /// The release of the compiler.
+    private final String release;
+    /// The class path of the compilation.
+    private final List<Path> classPaths;
+    /// The cache directory of compiled outputs, or `null`.
+    private final Path cacheDir;
+    /// The logger.
+    private final Logger logger;
+
+    /// Constructs a compiler.
+    ///
+    /// @param sourcePath The path to the directory of the sources.
+    /// @param outputDir  The output directory, which must exist.
+    /// @param release    The release of the compiler.
+    /// @param classPaths The class path of the compilation.
+    /// @param cacheDir   The cache directory of compiled outputs, or `null`.
+    /// @param logger     The logger.
+    IncrementalCompiler(Path sourcePath, Path outputDir, String release, List<Path> classPaths, Path cacheDir, Logger logger) {
+        this.sourcePath = sourcePath;
+        this.outputDir = outputDir;
+        this.release = release;
+        this.classPaths = List.copyOf(classPaths);
+        this.cacheDir = cacheDir;
+        this.logger = logger;
+    }
+
+    /// Lists the regular files under a directory.
+    ///
+    /// @param directory The directory.
+    /// @param suffix    The required suffix of the file names.
+    /// @return The files by their paths relative to the directory, with `/`
+    ///         as the separator.
+    /// @throws IOException If the directory cannot be read.
+    private static Map<String, Path> listFiles(Path directory, String suffix) throws IOException {
+        var result = new TreeMap<String, Path>();
+        try (var files = Files.find(directory, Integer.MAX_VALUE, (path, attributes) ->
+                attributes.isRegularFile() && path.toString().endsWith(suffix), FileVisitOption.FOLLOW_LINKS)) {
+            for (var path : files.toList()) {
+                var name = directory.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+                result.put(name, path);
+            }
+        }
+        return result;
+    }
+
+    /// Computes the digest of the compilation environment: the release of the
+    /// compiler and the content of the class path entries, in their order. The
+    /// locations of the entries do not matter, so that the environments of
+    /// different output directories can be equal.
+    ///
+    /// @return The digest.
+    /// @throws IOException If a class path entry cannot be read.
+    private String environmentDigest() throws IOException {
+        var digest = CodeDigest.sha256();
+        Digests.updateInt(digest, FORMAT_VERSION);
+        Digests.updateString(digest, release);
+        for (var classPath : classPaths) {
+            if (Files.isDirectory(classPath)) {
+                Digests.updateString(digest, "directory");
+                for (var entry : listFiles(classPath, "").entrySet()) {
+                    Digests.updateString(digest, entry.getKey());
+                    Digests.updateString(digest, Digests.digestFile(entry.getValue()));
+                }
+            } else if (Files.isRegularFile(classPath)) {
+                Digests.updateString(digest, "file");
+                Digests.updateString(digest, Digests.digestFile(classPath));
+            } else {
+                Digests.updateString(digest, "missing");
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /// Computes the digest of the whole input of the compilation.
+    ///
+    /// @param environment   The digest of the compilation environment.
+    /// @param sourceDigests The digests of the source files by their relative
+    ///                      paths.
+    /// @return The digest.
+    private static String key(String environment, Map<String, String> sourceDigests) {
+        var digest = CodeDigest.sha256();
+        Digests.updateString(digest, environment);
+        for (var source : new TreeMap<>(sourceDigests).entrySet()) {
+            Digests.updateString(digest, source.getKey());
+            Digests.updateString(digest, source.getValue());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void writeString(DataOutputStream os, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        os.writeInt(bytes.length);
+        os.write(bytes);
+    }
+
+    private static String readString(DataInputStream is) throws IOException {
+        int length = is.readInt();
+        if (length < 0) {
+            throw new IOException("Malformed compilation manifest");
+        }
+        return new String(is.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream os, Set<String> values) throws IOException {
+        os.writeInt(values.size());
+        for (var value : values) {
+            writeString(os, value);
+        }
+    }
+
+    private static Set<String> readStrings(DataInputStream is) throws IOException {
+        var result = new TreeSet<String>();
+        for (int count = is.readInt(); count > 0; --count) {
+            result.add(readString(is));
+        }
+        return result;
+    }
+
+    /// Writes a manifest, first to a temporary file, so that no partially
+    /// written manifest is ever read.
+    ///
+    /// @param directory The directory of the manifest.
+    /// @param manifest  The manifest.
+    /// @throws IOException If the manifest cannot be written.
+    static void writeManifest(Path directory, Manifest manifest) throws IOException {
+        var tempFile = Files.createTempFile(directory, MANIFEST_NAME, ".tmp");
+        try {
+            try (var os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                os.writeInt(FORMAT_VERSION);
+                writeString(os, manifest.key());
+                writeString(os, manifest.environment());
+                os.writeInt(manifest.units().size());
+                for (var unit : manifest.units().entrySet()) {
+                    writeString(os, unit.getKey());
+                    writeString(os, unit.getValue().digest());
+                    writeStrings(os, unit.getValue().classFiles());
+                    writeStrings(os, unit.getValue().declaredTypes());
+                    writeStrings(os, unit.getValue().referencedTypes());
+                }
+            }
+            Files.move(tempFile, directory.resolve(MANIFEST_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /// Reads a manifest.
+    ///
+    /// @param directory The directory of the manifest.
+    /// @return The manifest, or `null` if there is none or it cannot be read.
+    static Manifest readManifest(Path directory) {
+        var path = directory.resolve(MANIFEST_NAME);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (var is = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (is.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            var key = readString(is);
+            var environment = readString(is);
+            var units = new TreeMap<String, Unit>();
+            for (int count = is.readInt(); count > 0; --count) {
+                var name = readString(is);
+                units.put(name, new Unit(readString(is), readStrings(is), readStrings(is), readStrings(is)));
+            }
+            return new Manifest(key, environment, units);
+        } catch (IOException _) {
+            return null;
+        }
+    }
+
+    /// Tests whether all the class files of a manifest are present.
+    ///
+    /// @param directory The directory of the class files.
+    /// @param manifest  The manifest.
+    /// @return `true` if no class file is missing.
+    private static boolean isComplete(Path directory, Manifest manifest) {
+        return manifest.units().values().stream().flatMap(unit -> unit.classFiles().stream())
+                .allMatch(classFile -> Files.isRegularFile(directory.resolve(classFile)));
+    }
+
+    /// Deletes the content of the output directory except the resolved
+    /// dependencies.
+    ///
+    /// @throws IOException If some file cannot be deleted.
+    private void cleanOutput() throws IOException {
+        try (var files = Files.list(outputDir)) {
+            for (var path : files.toList()) {
+                if (!path.getFileName().toString().equals(LOCAL_REPOSITORY)) {
+                    FileUtils.forceDelete(path.toFile());
+                }
+            }
+        }
+    }
+
+    /// Copies the class files and the manifest from one directory to another.
+    ///
+    /// @param from     The source directory.
+    /// @param to       The target directory.
+    /// @param manifest The manifest of the source directory.
+    /// @throws IOException If some file cannot be copied.
+    private static void copyOutput(Path from, Path to, Manifest manifest) throws IOException {
+        for (var unit : manifest.units().values()) {
+            for (var classFile : unit.classFiles()) {
+                var target = to.resolve(classFile);
+                Files.createDirectories(target.getParent());
+                Files.copy(from.resolve(classFile), target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.copy(from.resolve(MANIFEST_NAME), to.resolve(MANIFEST_NAME), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /// Fills the output directory from the cache directory.
+    ///
+    /// @param key The digest of the whole input of the compilation.
+    /// @return The manifest of the cached output, or `null` if there is no
+    ///         usable cached output.
+    private Manifest loadCached(String key) {
+        if (cacheDir == null) {
+            return null;
+        }
+        var cached = cacheDir.resolve(key);
+        var manifest = readManifest(cached);
+        if (manifest == null || !manifest.key().equals(key) || !isComplete(cached, manifest)) {
+            return null;
+        }
+        try {
+            cleanOutput();
+            copyOutput(cached, outputDir, manifest);
+            Files.setLastModifiedTime(cached, FileTime.from(Instant.now()));
+            return manifest;
+        } catch (IOException ex) {
+            logger.debug("Cannot use cached compiled classes: {0}", Decorated.plain(ex));
+            return null;
+        }
+    }
+
+    /// Stores the output directory in the cache directory, unless another
+    /// process has already stored it. Failures are ignored, the cache is only
+    /// an optimization.
+    ///
+    /// @param manifest The manifest of the output directory.
+    private void storeCached(Manifest manifest) {
+        if (cacheDir == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(cacheDir);
+            var target = cacheDir.resolve(manifest.key());
+            if (Files.isDirectory(target)) {
+                return;
+            }
+            var tempDir = Files.createTempDirectory(cacheDir, manifest.key() + ".tmp");
+            try {
+                copyOutput(outputDir, tempDir, manifest);
+                Files.move(tempDir, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException _) {
+                // Stored by another process in the meantime
+            } finally {
+                if (Files.exists(tempDir)) {
+                    FileUtils.deleteDirectory(tempDir.toFile());
+                }
+            }
+            evictCached();
+        } catch (IOException ex) {
+            logger.debug("Cannot store compiled classes in cache: {0}", Decorated.plain(ex));
+        }
+    }
+
+    /// Deletes the least recently used outputs from the cache directory
+    /// beyond [#MAX_CACHED_OUTPUTS].
+    ///
+    /// @throws IOException If the cache directory cannot be read.
+    private void evictCached() throws IOException {
+        List<Path> outputs;
+        try (var files = Files.list(cacheDir)) {
+            outputs = files.filter(path -> Files.isDirectory(path) && !path.getFileName().toString().contains(".")).toList();
+        }
+        var byAge = new ArrayList<>(outputs);
+        byAge.sort(Comparator.comparing((Path path) -> {
+            try {
+                return Files.getLastModifiedTime(path);
+            } catch (IOException _) {
+                return FileTime.fromMillis(0);
+            }
+        }).reversed());
+        for (var path : byAge.subList(Math.min(MAX_CACHED_OUTPUTS, byAge.size()), byAge.size())) {
+            try {
+                FileUtils.deleteDirectory(path.toFile());
+            } catch (IOException _) {
+                // Possibly being deleted by another process
+            }
+        }
+    }
+
+    /// Finds the outermost type enclosing an element.
+    ///
+    /// @param element The element.
+    /// @return The top level type, or `null` if the element is not enclosed
+    ///         by a type.
+    private static TypeElement topLevelType(Element element) {
+        TypeElement result = null;
+        for (var e = element; e != null; e = e.getEnclosingElement()) {
+            if (e instanceof TypeElement type) {
+                result = type;
+            }
+        }
+        return result;
+    }
+
+    /// Runs the compiler on some of the source files.
+    ///
+    /// @param sources     The source files to compile by their relative paths.
+    /// @param digests     The digests of the source files.
+    /// @param output      The stream receiving the diagnostics.
+    /// @return The compiled units, or `null` if the compilation failed.
+    /// @throws IOException If the compiler cannot be run.
+    private Map<String, Unit> javac(Map<String, Path> sources, Map<String, String> digests, StringWriter output) throws IOException {
+        var javac = ToolProvider.getSystemJavaCompiler();
+        var names = new HashMap<Path, String>();
+        var classFiles = new HashMap<String, Set<String>>();
+        var declaredTypes = new HashMap<String, Set<String>>();
+        var referencedTypes = new HashMap<String, Set<String>>();
+        for (var source : sources.entrySet()) {
+            names.put(source.getValue().toAbsolutePath().normalize(), source.getKey());
+            classFiles.put(source.getKey(), new TreeSet<>());
+            declaredTypes.put(source.getKey(), new TreeSet<>());
+            referencedTypes.put(source.getKey(), new TreeSet<>());
+        }
+
+        try (var standardFileManager = javac.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8)) {
+            var compilationUnits = standardFileManager.getJavaFileObjectsFromPaths(sources.values());
+
+            // Records the class files generated from each source file
+            var fileManager = new ForwardingJavaFileManager<StandardJavaFileManager>(standardFileManager) {
+                @Override
+                public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                        FileObject sibling) throws IOException {
+                    var file = super.getJavaFileForOutput(location, className, kind, sibling);
+                    var name = sibling != null ? names.get(Path.of(sibling.toUri()).normalize()) : null;
+                    if (kind == JavaFileObject.Kind.CLASS && name != null) {
+                        var classFile = outputDir.relativize(Path.of(file.toUri())).toString();
+                        classFiles.get(name).add(classFile.replace(outputDir.getFileSystem().getSeparator(), "/"));
+                    }
+                    return file;
+                }
+            };
+
+            var compilerOptions = new ArrayList<String>();
+            compilerOptions.add("-d");
+            compilerOptions.add(outputDir.toString());
+            compilerOptions.add("-proc:none");
+            compilerOptions.add("--release");
+            compilerOptions.add(release);
+            // The class files of the source files which are not recompiled
+            compilerOptions.add("-cp");
+            compilerOptions.add(Stream.concat(Stream.of(outputDir), classPaths.stream())
+                    .map(Path::toString).collect(Collectors.joining(":")));
+
+            var task = (JavacTask) javac.getTask(output, fileManager, null, compilerOptions, null, compilationUnits);
+            var trees = Trees.instance(task);
+
+            // Records the top level types declared by each source file and the
+            // top level types it refers to
+            task.addTaskListener(new TaskListener() {
+                @Override
+                public void finished(TaskEvent event) {
+                    if (event.getKind() != TaskEvent.Kind.ANALYZE || event.getTypeElement() == null) {
+                        return;
+                    }
+                    var name = names.get(Path.of(event.getSourceFile().toUri()).normalize());
+                    if (name == null) {
+                        return;
+                    }
+                    declaredTypes.get(name).add(event.getTypeElement().getQualifiedName().toString());
+                    var references = referencedTypes.get(name);
+                    new TreePathScanner<Void, Void>() {
+                        private void addReference() {
+                            var type = topLevelType(trees.getElement(getCurrentPath()));
+                            if (type != null) {
+                                references.add(type.getQualifiedName().toString());
+                            }
+                        }
+
+                        @Override
+                        public Void visitIdentifier(IdentifierTree tree, Void p) {
+                            addReference();
+                            return super.visitIdentifier(tree, p);
+                        }
+
+                        @Override
+                        public Void visitMemberSelect(MemberSelectTree tree, Void p) {
+                            addReference();
+                            return super.visitMemberSelect(tree, p);
+                        }
+
+                        @Override
+                        public Void visitMemberReference(MemberReferenceTree tree, Void p) {
+                            addReference();
+                            return super.visitMemberReference(tree, p);
+                        }
+                    }.scan(trees.getPath(event.getTypeElement()), null);
+                }
+            });
+
+            if (!task.call()) {
+                return null;
+            }
+        }
+
+        var result = new TreeMap<String, Unit>();
+        for (var name : sources.keySet()) {
+            result.put(name, new Unit(digests.get(name), classFiles.get(name), declaredTypes.get(name), referencedTypes.get(name)));
+        }
+        return result;
+    }
+
+    /// Compiles all the source files into a clean output directory.
+    ///
+    /// @param key         The digest of the whole input.
+    /// @param environment The digest of the compilation environment.
+    /// @param sources     The source files by their relative paths.
+    /// @param digests     The digests of the source files.
+    /// @return The manifest of the output directory.
+    /// @throws IOException If the compiler cannot be run.
+    private Manifest compileAll(String key, String environment, Map<String, Path> sources, Map<String, String> digests) throws IOException {
+        cleanOutput();
+        logger.debug("Compiling source files: {0}", Decorated.plain(sources.values()));
+        var output = new StringWriter();
+        new PrintWriter(output, true).println("Failed to compile sources:");
+        var units = javac(sources, digests, output);
+        if (units == null) {
+            throw new RuntimeException(output.getBuffer().toString());
+        }
+        return new Manifest(key, environment, units);
+    }
+
+    /// Compiles the changed source files and the source files depending on
+    /// them.
+    ///
+    /// @param previous    The manifest of the output directory.
+    /// @param key         The digest of the whole input.
+    /// @param sources     The source files by their relative paths.
+    /// @param digests     The digests of the source files.
+    /// @return The manifest of the output directory, or `null` if the
+    ///         compilation failed.
+    /// @throws IOException If the compiler cannot be run.
+    private Manifest compileChanged(Manifest previous, String key, Map<String, Path> sources, Map<String, String> digests) throws IOException {
+        var recompiled = new TreeSet<String>();
+        var affectedTypes = new TreeSet<String>();
+        for (var name : sources.keySet()) {
+            var unit = previous.units().get(name);
+            if (unit == null || !unit.digest().equals(digests.get(name))) {
+                recompiled.add(name);
+                if (unit != null) {
+                    affectedTypes.addAll(unit.declaredTypes());
+                }
+            }
+        }
+        var removed = new TreeSet<String>(previous.units().keySet());
+        removed.removeAll(sources.keySet());
+        for (var name : removed) {
+            affectedTypes.addAll(previous.units().get(name).declaredTypes());
+        }
+
+        // Dependents of the changed types, transitively, as a change of a type
+        // can change the meaning of the types using it
+        for (boolean changed = true; changed;) {
+            changed = false;
+            for (var unit : previous.units().entrySet()) {
+                var name = unit.getKey();
+                if (sources.containsKey(name) && !recompiled.contains(name)
+                        && unit.getValue().referencedTypes().stream().anyMatch(affectedTypes::contains)) {
+                    recompiled.add(name);
+                    affectedTypes.addAll(unit.getValue().declaredTypes());
+                    changed = true;
+                }
+            }
+        }
+
+        for (var name : recompiled.stream().filter(previous.units()::containsKey).toList()) {
+            for (var classFile : previous.units().get(name).classFiles()) {
+                Files.deleteIfExists(outputDir.resolve(classFile));
+            }
+        }
+        for (var name : removed) {
+            for (var classFile : previous.units().get(name).classFiles()) {
+                Files.deleteIfExists(outputDir.resolve(classFile));
+            }
+        }
+
+        var units = new TreeMap<String, Unit>(previous.units());
+        units.keySet().removeAll(removed);
+        if (!recompiled.isEmpty()) {
+            var toCompile = new TreeMap<String, Path>();
+            for (var name : recompiled) {
+                toCompile.put(name, sources.get(name));
+            }
+            logger.debug("Recompiling changed source files: {0}", Decorated.plain(toCompile.values()));
+            var compiled = javac(toCompile, digests, new StringWriter());
+            if (compiled == null) {
+                return null;
+            }
+            units.putAll(compiled);
+        }
+        return new Manifest(key, previous.environment(), units);
+    }
+
+    /// Brings the output directory up to date with the source files.
+    ///
+    /// @throws IOException If a file cannot be read or written.
+    void compile() throws IOException {
+        var sources = listFiles(sourcePath, ".java");
+        var digests = new TreeMap<String, String>();
+        try {
+            sources.entrySet().parallelStream().forEach(source -> {
+                try {
+                    var digest = Digests.digestFile(source.getValue());
+                    synchronized (digests) {
+                        digests.put(source.getKey(), digest);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        var environment = environmentDigest();
+        var key = key(environment, digests);
+
+        var previous = readManifest(outputDir);
+        if (previous != null && previous.key().equals(key) && isComplete(outputDir, previous)) {
+            logger.debug("Not recompiling source files");
+            return;
+        }
+
+        var cached = loadCached(key);
+        if (cached != null) {
+            logger.debug("Using compiled classes from cache {0}", Decorated.outer(cacheDir.resolve(key)));
+            return;
+        }
+
+        Manifest manifest = null;
+        if (previous == null) {
+            logger.debug("No compiled classes are present in the output directory");
+        } else if (!previous.environment().equals(environment)) {
+            logger.debug("Compiler release or class path has changed");
+        } else if (!isComplete(outputDir, previous)) {
+            logger.debug("Output directory has been modified");
+        } else {
+            manifest = compileChanged(previous, key, sources, digests);
+            if (manifest == null) {
+                logger.debug("Incremental compilation failed, recompiling all source files");
+            }
+        }
+        if (manifest == null) {
+            manifest = compileAll(key, environment, sources, digests);
+        }
+        writeManifest(outputDir, manifest);
+        storeCached(manifest);
+    }
+}
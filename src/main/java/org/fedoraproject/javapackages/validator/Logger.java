@@ -14,10 +14,21 @@ class Logger {
 
     /// A mapping of log events to their respective output streams.
     private EnumMap<LogEvent, PrintStream> streams = new EnumMap<>(LogEvent.class);
+    /// The decorator of the messages.
+    private final TextDecorator decorator;
 
-    /// Constructs a `Logger` instance with a default debug stream.
+    /// Constructs a `Logger` instance discarding debug messages.
     public Logger() {
-        setStream(LogEvent.debug, Main.getDebugOutputStream());
+        this(Main.NULL_OUTPUT_STREAM, TextDecorator.NO_DECORATOR);
+    }
+
+    /// Constructs a `Logger` instance with a debug stream.
+    ///
+    /// @param debugStream the output stream of debug messages
+    /// @param decorator   the decorator of the messages
+    public Logger(PrintStream debugStream, TextDecorator decorator) {
+        this.decorator = decorator;
+        setStream(LogEvent.debug, debugStream);
     }
 
     /// Assigns a specific output stream to a given log event.
@@ -28,16 +39,37 @@ class Logger {
         streams.put(logEvent, stream);
     }
 
+    /// Checks whether messages of a log event are written anywhere. Callers
+    /// can skip computing the arguments of messages which are not.
+    ///
+    /// @param logEvent the log event type
+    /// @return `false` if the messages are discarded, `true` otherwise
+    public boolean isEnabled(LogEvent logEvent) {
+        var stream = streams.get(logEvent);
+        return stream != null && stream != Main.NULL_OUTPUT_STREAM;
+    }
+
+    /// Checks whether debug messages are written anywhere.
+    ///
+    /// @return `false` if debug messages are discarded, `true` otherwise
+    public boolean isDebugEnabled() {
+        return isEnabled(LogEvent.debug);
+    }
+
     /// Logs a message associated with a specific log event, formatting the message
-    /// pattern with the provided decorated arguments.
+    /// pattern with the provided decorated arguments. Nothing is formatted if
+    /// the messages of the log event are discarded.
     ///
     /// @param logEvent  the log event type
     /// @param pattern   the message format pattern
     /// @param arguments the decorated arguments for formatting the message
     private void log(LogEvent logEvent, String pattern, Decorated... arguments) {
-        streams.get(logEvent).append("[" + Main.decorate(logEvent.getDecorated()) + "] ")
+        if (!isEnabled(logEvent)) {
+            return;
+        }
+        streams.get(logEvent).append("[" + decorator.decorate(logEvent.getDecorated()) + "] ")
         .println(MessageFormat.format(pattern, Stream.of(arguments)
-                .map(Main::decorate).toArray()));
+                .map(decorator::decorate).toArray()));
     }
 
     /// Logs a debug message with a formatted pattern and decorated arguments.
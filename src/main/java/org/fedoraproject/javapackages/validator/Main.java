@@ -5,8 +5,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
@@ -21,9 +19,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
@@ -31,15 +29,14 @@ import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.tools.ToolProvider;
-
-import org.apache.commons.compress.utils.Iterators;
-import org.apache.commons.io.FileUtils;
 import org.eclipse.aether.AbstractRepositoryListener;
 import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.artifact.DefaultArtifact;
@@ -52,26 +49,57 @@ import org.fedoraproject.javapackages.validator.spi.Decorated;
 import org.fedoraproject.javapackages.validator.spi.Decoration;
 import org.fedoraproject.javapackages.validator.spi.LogEntry;
 import org.fedoraproject.javapackages.validator.spi.LogEvent;
+import org.fedoraproject.javapackages.validator.spi.Result;
 import org.fedoraproject.javapackages.validator.spi.ResultBuilder;
 import org.fedoraproject.javapackages.validator.spi.TestResult;
 import org.fedoraproject.javapackages.validator.spi.Validator;
 import org.fedoraproject.javapackages.validator.spi.ValidatorFactory;
+import org.fedoraproject.javapackages.validator.util.DataRequirements;
+import org.fedoraproject.javapackages.validator.util.JarFactCache;
+import org.fedoraproject.javapackages.validator.util.PayloadScanEngine;
+import org.fedoraproject.javapackages.validator.util.PayloadValidator;
+import org.fedoraproject.javapackages.validator.util.ScanMetrics;
+import org.fedoraproject.javapackages.validator.util.ScanPool;
+import org.fedoraproject.javapackages.validator.util.ValidatorEvents;
 
 import io.kojan.javadeptools.rpm.RpmPackage;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
 
 public class Main {
-    static TextDecorator DECORATOR = TextDecorator.NO_DECORATOR;
-    static PrintStream debugOutputStream = new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8);
+    /// The debug output stream when debugging output is not displayed.
+    static final PrintStream NULL_OUTPUT_STREAM = new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8);
 
     protected Parameters parameters;
     protected Logger logger;
     protected Map<String, ResultBuilder> reports = new TreeMap<>();
-
-    protected static TextDecorator getDecorator() {
-        return DECORATOR;
+    static final String LOAD_RPMS_TEST_NAME = "/load-rpms";
+    private ClassLoader validatorClassLoader = Main.class.getClassLoader();
+    /// The standard output of the run.
+    protected PrintStream out = System.out;
+    /// The standard error output of the run.
+    protected PrintStream err = System.err;
+    /// The decorator of the text output of the run.
+    private TextDecorator decorator = TextDecorator.NO_DECORATOR;
+    /// The debug output of the run.
+    private PrintStream debugOutputStream = NULL_OUTPUT_STREAM;
+    /// The directory against which relative paths are resolved, or `null` for
+    /// the working directory of the process.
+    Path workingDirectory = null;
+    /// The class loaders of validators kept across runs, or `null`.
+    ValidatorClassLoaderCache classLoaderCache = null;
+    /// The class loader of the validators owned by a [ValidationEngine], or
+    /// `null` to create one for this run.
+    ClassLoader sharedClassLoader = null;
+    /// The performance metrics of the run, or `null` if they are not
+    /// collected.
+    Metrics metrics = null;
+
+    protected TextDecorator getDecorator() {
+        return decorator;
     }
 
-    protected static PrintStream getDebugOutputStream() {
+    protected PrintStream getDebugOutputStream() {
         return debugOutputStream;
     }
 
@@ -86,6 +114,17 @@ public class Main {
         static final Flag HELP = new Flag("-h", "--help");
         static final Flag COLOR = new Flag("-r", "--color");
         static final Flag DEBUG = new Flag("-x", "--debug");
+        static final Flag LOOK_AHEAD = new Flag("--look-ahead");
+        static final Flag JOBS = new Flag("-j", "--jobs");
+        static final Flag CACHE_DIR = new Flag("--cache-dir");
+        static final Flag CACHE_SIZE = new Flag("--cache-size");
+        static final Flag NO_CACHE = new Flag("--no-cache");
+        static final Flag CLEAR_CACHE = new Flag("--clear-cache");
+        static final Flag OFFLINE = new Flag("--offline");
+        static final Flag METRICS = new Flag("--metrics");
+        static final Flag JFR = new Flag("--jfr");
+        static final Flag LOG_LEVEL = new Flag("--log-level");
+        static final Flag PAGED_HTML = new Flag("--paged-html");
 
         public boolean equals(String arg) {
             return Stream.of(options()).anyMatch(arg::equals);
@@ -97,28 +136,54 @@ public class Main {
         }
 
         static final Flag[] ALL_FLAGS = new Flag[] {
-            SOURCE_PATH, OUTPUT_DIRECTORY, CLASS_PATH, FILE, /*URL,*/ HELP, COLOR, DEBUG,
+            SOURCE_PATH, OUTPUT_DIRECTORY, CLASS_PATH, FILE, /*URL,*/ HELP, COLOR, DEBUG, LOOK_AHEAD, JOBS,
+            CACHE_DIR, CACHE_SIZE, NO_CACHE, CLEAR_CACHE, OFFLINE, METRICS, JFR, LOG_LEVEL,
+            PAGED_HTML,
         };
     }
 
-    private static void printHelp() {
-        System.out.println("Usage: Main [optional flags] <validator factory name | test name>... [test arguments] <-f RPM files or directories to test>...");
-        System.out.println("Optional flags:");
-        System.out.println("    " + Flag.HELP + " - Print help message");
-        System.out.println("    " + Flag.DEBUG + " - Display debugging output");
-        System.out.println("    " + Flag.COLOR + " - Display colored output");
-        System.out.println();
-        System.out.println("Options for specifying validators:");
-        System.out.println("    " + Flag.SOURCE_PATH + " - File path of a source file");
-        System.out.println("    " + Flag.OUTPUT_DIRECTORY + " - Output directory for the sources");
-        System.out.println("    " + Flag.CLASS_PATH + " - Additional class path entry");
-        System.out.println();
-        System.out.println("Test names can be immediately followed by space-separated square parentheses");
-        System.out.println("the contents of which will be passed as arguments to the test.");
-        System.out.println();
-        System.out.println("Options for specifying tested RPM files, can be specified multiple times:");
-        System.out.println("    " + Flag.FILE + " - File path of an RPM file or a directory");
-        // System.out.println("    " + Flag.URL + " - URL of an .rpm file");
+    /// Redirects the output of the run.
+    ///
+    /// @param out The standard output.
+    /// @param err The standard error output.
+    void setOutput(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    private void printHelp() {
+        out.println("Usage: Main [optional flags] <validator factory name | test name>... [test arguments] <-f RPM files or directories to test>...");
+        out.println("Optional flags:");
+        out.println("    " + Flag.HELP + " - Print help message");
+        out.println("    " + Flag.DEBUG + " - Display debugging output");
+        out.println("    " + Flag.COLOR + " - Display colored output");
+        out.println("    " + Flag.LOG_LEVEL + " - Least severe kind of log entries kept by the validators, one of "
+                + Stream.of(LogEvent.values()).map(LogEvent::name).collect(Collectors.joining(", "))
+                + ", default: " + LogEvent.debug + " with " + Flag.DEBUG + ", otherwise " + defaultLogLevel());
+        out.println("    " + Flag.LOOK_AHEAD + " - Maximum number of RPM files read ahead of each validator, default: " + Parameters.DEFAULT_LOOK_AHEAD);
+        out.println("    " + Flag.JOBS + " - Number of threads reading RPM files, scanning their payloads in parallel and writing tmt reports, default: number of available processors");
+        out.println("    " + Flag.CACHE_DIR + " - Directory of the persistent result cache, default: no cache");
+        out.println("    " + Flag.CACHE_SIZE + " - Maximum size of the result cache in MiB, default: " + ResultCache.DEFAULT_MAX_SIZE / (1024 * 1024));
+        out.println("    " + Flag.NO_CACHE + " - Neither read nor write the result cache");
+        out.println("    " + Flag.CLEAR_CACHE + " - Delete all cached results before running the tests");
+        out.println("    " + Flag.OFFLINE + " - Resolve validator dependencies only from the local repository");
+        out.println("    " + Flag.METRICS + " - Directory to write performance metrics of the run to, default: none");
+        out.println("    " + Flag.JFR + " - File to write a Flight Recorder recording of the run to, default: none");
+        if (writesTmtReports()) {
+            out.println("    " + Flag.PAGED_HTML + " - Write the HTML reports of tmt as pages loading the log entries in chunks");
+        }
+        out.println();
+        out.println("Options for specifying validators:");
+        out.println("    " + Flag.SOURCE_PATH + " - File path of a source file");
+        out.println("    " + Flag.OUTPUT_DIRECTORY + " - Output directory for the sources");
+        out.println("    " + Flag.CLASS_PATH + " - Additional class path entry");
+        out.println();
+        out.println("Test names can be immediately followed by space-separated square parentheses");
+        out.println("the contents of which will be passed as arguments to the test.");
+        out.println();
+        out.println("Options for specifying tested RPM files, can be specified multiple times:");
+        out.println("    " + Flag.FILE + " - File path of an RPM file or a directory");
+        // out.println("    " + Flag.URL + " - URL of an .rpm file");
 
     }
 
@@ -136,23 +201,37 @@ public class Main {
         }
     }
 
-    protected static Object decorate(Decorated decorated) {
+    protected Object decorate(Decorated decorated) {
         return new Object() {
             @Override
             public String toString() {
-                return Main.getDecorator().decorate(decorated);
+                return getDecorator().decorate(decorated);
             }
         };
     }
 
-    private void resolveDependencies(Properties props) {
+    private void resolveDependencies(Properties props) throws IOException {
         var deps = props.getProperty("dependencies", "");
         if (deps.isBlank()) {
             return;
         }
+        var reposProp = props.getProperty("repositories", "");
+        var localRepo = parameters.outputDir.resolve("local-repo");
+
+        // Locked dependencies present in the local repository need no resolution
+        var lock = DependencyLock.read(parameters.sourcePath);
+        if (lock != null && lock.matches(deps, reposProp)) {
+            var locked = lock.resolve(localRepo);
+            if (locked != null) {
+                logger.debug("Using dependencies locked in {0}", Decorated.actual(parameters.sourcePath.resolve(DependencyLock.FILE_NAME)));
+                parameters.classPaths.addAll(locked);
+                logger.debug("Class path after dependency resolution: {0}", Decorated.plain(parameters.classPaths));
+                return;
+            }
+        }
+
         var repos = new LinkedHashMap<String, String>();
         repos.put("central", "https://repo.maven.apache.org/maven2");
-        var reposProp = props.getProperty("repositories", "");
         if (!reposProp.isBlank()) {
             var reposSplit = reposProp.split(" +");
             for (var i = 0; i < reposSplit.length; i++) {
@@ -164,10 +243,13 @@ public class Main {
         var remoteRepos = repos.entrySet().stream()
                 .map(repo -> new RemoteRepository.Builder(repo.getKey(), "default", repo.getValue()).build())
                 .collect(Collectors.toList());
+        var coordinates = Arrays.asList(deps.strip().split(" +"));
+        var paths = new ArrayList<Path>(coordinates.size());
         var aether = new RepositorySystemSupplier().get();
         var sbs = new SessionBuilderSupplier(aether);
         try (var session = sbs.get()
-                .withLocalRepositoryBaseDirectories(parameters.outputDir.resolve("local-repo"))
+                .withLocalRepositoryBaseDirectories(localRepo)
+                .setOffline(parameters.offline)
                 .withRepositoryListener(new AbstractRepositoryListener() {
                     @Override
                     public void artifactResolved(RepositoryEvent event) {
@@ -176,20 +258,29 @@ public class Main {
                     }
                 }).build()) {
             aether.resolveArtifacts(session,
-                    Arrays.stream(deps.split(" +")).map(DefaultArtifact::new)
+                    coordinates.stream().map(DefaultArtifact::new)
                             .map(art -> new ArtifactRequest(art, remoteRepos, "")).collect(Collectors.toList()))
-                    .stream().map(res -> res.getArtifact().getPath()).forEach(parameters.classPaths::add);
+                    .stream().map(res -> res.getArtifact().getPath()).forEach(paths::add);
         } catch (ArtifactResolutionException e) {
             throw new RuntimeException(e);
         }
+
+        var resolved = DependencyLock.of(deps, reposProp, localRepo, coordinates, paths);
+        if (lock != null && lock.matches(deps, reposProp)) {
+            lock.verify(resolved);
+        }
+        try {
+            resolved.write(parameters.sourcePath);
+        } catch (IOException ex) {
+            // The source path may be read-only, the lock only saves resolution
+            logger.debug("Failed to write the dependency lock: {0}", Decorated.plain(ex));
+        }
+
+        parameters.classPaths.addAll(paths);
         logger.debug("Class path after dependency resolution: {0}", Decorated.plain(parameters.classPaths));
     }
 
-    private void compileFiles() throws IOException {
-        var compilerOptions = new ArrayList<String>();
-        compilerOptions.add("-d");
-        compilerOptions.add(parameters.outputDir.toString());
-
+    private void compileFiles() throws Exception {
         var props = new Properties();
         var propsPath = parameters.sourcePath.resolve("javapackages-validator.properties");
         if (Files.isRegularFile(propsPath)) {
@@ -198,8 +289,6 @@ public class Main {
             }
         }
 
-        var sourceMtime = getRecursiveFileTime(parameters.sourcePath, (_, _) -> true).get();
-
         var outputDirectory = parameters.outputDir;
         if (Files.isSymbolicLink(outputDirectory)) {
             outputDirectory = Files.readSymbolicLink(outputDirectory);
@@ -207,60 +296,39 @@ public class Main {
             Files.createDirectories(outputDirectory);
         }
 
-        var targetMtime = getRecursiveFileTime(outputDirectory, (_, a) -> !a.isDirectory());
-        var targetDMtime = getRecursiveFileTime(outputDirectory, (_, a) -> a.isDirectory()).get();
-
-        boolean recompile = false;
+        phase("dependency-resolution", () -> {
+            resolveDependencies(props);
+            return null;
+        });
 
-        if (targetMtime.isEmpty()) {
-            recompile = true;
-            logger.debug("No class files are present on the specified output directory");
-        } else if (sourceMtime.compareTo(targetMtime.get()) > 0) {
-            recompile = true;
-            logger.debug("Source path is more up-to-date than the specified output directory");
-        } else if (targetDMtime.compareTo(targetMtime.get()) > 0) {
-            recompile = true;
-            logger.debug("Output directory has possibly been modified");
-        }
+        // Compiled classes are shared through the result cache directory
+        var compileCache = parameters.cacheDir != null && !parameters.noCache ? parameters.cacheDir.resolve("classes") : null;
+        var compiler = new IncrementalCompiler(parameters.sourcePath, outputDirectory, props.getProperty("compiler.release", "25"),
+                parameters.classPaths, compileCache, logger);
+        phase("compilation", () -> {
+            compiler.compile();
+            return null;
+        });
+    }
 
-        if (recompile) {
-            FileUtils.cleanDirectory(outputDirectory.toFile());
+    /// Runs a phase of the run, measuring it if metrics are collected. The
+    /// phase is measured on the whole process, as the work of the validation
+    /// and reporting phases is done by the worker threads.
+    ///
+    /// @param <T>    The type of the result of the phase.
+    /// @param name   The name of the phase.
+    /// @param action The phase.
+    /// @return The result of the phase.
+    /// @throws Exception If the phase throws.
+    private <T> T phase(String name, Callable<T> action) throws Exception {
+        if (metrics == null) {
+            return action.call();
         }
-
-        resolveDependencies(props);
-
-        if (recompile) {
-            var javac = ToolProvider.getSystemJavaCompiler();
-            var fileManager = javac.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
-
-            var sourceFiles = Files.find(parameters.sourcePath, Integer.MAX_VALUE, (path, attributes) ->
-                !attributes.isDirectory() && path.toString().endsWith(".java"), FileVisitOption.FOLLOW_LINKS
-            ).toList();
-            var compilationUnits = fileManager.getJavaFileObjectsFromPaths(sourceFiles);
-
-            logger.debug("Compiling source files: {0}", Decorated.plain(sourceFiles));
-
-            compilerOptions.add("-proc:none");
-
-            compilerOptions.add("--release");
-            compilerOptions.add(props.getProperty("compiler.release", "25"));
-
-            if (!parameters.classPaths.isEmpty()) {
-                compilerOptions.add("-cp");
-                compilerOptions.add(parameters.classPaths.stream().map(Path::toString).collect(Collectors.joining(":")));
-            }
-
-            try {
-                var output = new StringWriter();
-                new PrintWriter(output).println("Failed to compile sources:");
-                if (!javac.getTask(output, fileManager, null, compilerOptions, null, compilationUnits).call()) {
-                    throw new RuntimeException(output.getBuffer().toString());
-                }
-            } finally {
-                fileManager.close();
-            }
-        } else {
-            logger.debug("Not recompiling source files");
+        var stopwatch = Metrics.Stopwatch.startProcess();
+        try {
+            return action.call();
+        } finally {
+            metrics.addPhase(stopwatch.stop(name));
         }
     }
 
@@ -302,23 +370,62 @@ public class Main {
     }
 
     protected Path resolveRelativePath(Path path) {
-        return path;
+        return workingDirectory != null ? workingDirectory.resolve(path) : path;
     }
 
     protected static class Parameters {
+        static final int DEFAULT_LOOK_AHEAD = 16;
+
         Path sourcePath = null;
         Path outputDir = null;
         List<Path> classPaths = new ArrayList<>(0);
         List<Path> argPaths = new ArrayList<>(0);
         Set<String> factories = new TreeSet<>();
         Map<String, Optional<List<String>>> validatorArgs = new LinkedHashMap<>();
+        int lookAhead = DEFAULT_LOOK_AHEAD;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        Path cacheDir = null;
+        long cacheSize = ResultCache.DEFAULT_MAX_SIZE;
+        boolean noCache = false;
+        boolean clearCache = false;
+        boolean offline = false;
+        Path metricsDir = null;
+        Path jfrFile = null;
+        LogEvent logLevel = LogEvent.debug;
+        boolean pagedHtml = false;
+
+        Parameters() {
+        }
+
+        /// Constructs a copy of parameters.
+        ///
+        /// @param other The parameters to copy.
+        Parameters(Parameters other) {
+            this.sourcePath = other.sourcePath;
+            this.outputDir = other.outputDir;
+            this.classPaths = new ArrayList<>(other.classPaths);
+            this.argPaths = new ArrayList<>(other.argPaths);
+            this.factories = new TreeSet<>(other.factories);
+            this.validatorArgs = new LinkedHashMap<>(other.validatorArgs);
+            this.lookAhead = other.lookAhead;
+            this.jobs = other.jobs;
+            this.cacheDir = other.cacheDir;
+            this.cacheSize = other.cacheSize;
+            this.noCache = other.noCache;
+            this.clearCache = other.clearCache;
+            this.offline = other.offline;
+            this.metricsDir = other.metricsDir;
+            this.jfrFile = other.jfrFile;
+            this.logLevel = other.logLevel;
+            this.pagedHtml = other.pagedHtml;
+        }
     }
 
     private int parseArguments(String[] args) throws Exception {
         parameters = new Parameters();
 
         if (args.length == 0) {
-            System.out.println("error: no arguments provided");
+            out.println("error: no arguments provided");
             printHelp();
             return 1;
         } else if (Flag.HELP.equals(args[0])) {
@@ -326,13 +433,14 @@ public class Main {
             return 0;
         }
 
+        LogEvent logLevel = null;
         Flag lastFlag = null;
         for (int i = 0; i != args.length; ++i) {
             if (args[i].startsWith("-")) {
                 lastFlag = null;
 
                 for (Flag flag : Flag.ALL_FLAGS) {
-                    if (flag.equals(args[i])) {
+                    if (flag.equals(args[i]) && (flag != Flag.PAGED_HTML || writesTmtReports())) {
                         lastFlag = flag;
                         ++i;
                         break;
@@ -353,10 +461,22 @@ public class Main {
                     parameters.factories.add(args[i]);
                 }
             } else if (lastFlag == Flag.COLOR) {
-                DECORATOR = AnsiDecorator.INSTANCE;
+                decorator = AnsiDecorator.INSTANCE;
                 --i;
             } else if (lastFlag == Flag.DEBUG) {
-                debugOutputStream = System.err;
+                debugOutputStream = err;
+                --i;
+            } else if (lastFlag == Flag.NO_CACHE) {
+                parameters.noCache = true;
+                --i;
+            } else if (lastFlag == Flag.CLEAR_CACHE) {
+                parameters.clearCache = true;
+                --i;
+            } else if (lastFlag == Flag.OFFLINE) {
+                parameters.offline = true;
+                --i;
+            } else if (lastFlag == Flag.PAGED_HTML) {
+                parameters.pagedHtml = true;
                 --i;
             } else if (lastFlag == Flag.SOURCE_PATH) {
                 parameters.sourcePath = resolveRelativePathCommon(args[i]);
@@ -365,14 +485,85 @@ public class Main {
             } else if (lastFlag == Flag.CLASS_PATH) {
                 parameters.classPaths.add(resolveRelativePathCommon(args[i]));
             } else if (lastFlag == Flag.FILE) {
-                parameters.argPaths.add(Path.of(args[i]));
+                parameters.argPaths.add(workingDirectory != null ? workingDirectory.resolve(args[i]) : Path.of(args[i]));
+            } else if (lastFlag == Flag.LOOK_AHEAD) {
+                parameters.lookAhead = Integer.parseInt(args[i]);
+                if (parameters.lookAhead < 1) {
+                    throw new RuntimeException("Look-ahead must be a positive number: " + args[i]);
+                }
+            } else if (lastFlag == Flag.JOBS) {
+                parameters.jobs = Integer.parseInt(args[i]);
+                if (parameters.jobs < 1) {
+                    throw new RuntimeException("Number of jobs must be a positive number: " + args[i]);
+                }
+            } else if (lastFlag == Flag.METRICS) {
+                parameters.metricsDir = resolveRelativePathCommon(args[i]);
+            } else if (lastFlag == Flag.LOG_LEVEL) {
+                try {
+                    logLevel = LogEvent.valueOf(args[i]);
+                } catch (IllegalArgumentException _) {
+                    throw new RuntimeException("Unknown log level: " + args[i]);
+                }
+            } else if (lastFlag == Flag.JFR) {
+                parameters.jfrFile = resolveRelativePathCommon(args[i]);
+            } else if (lastFlag == Flag.CACHE_DIR) {
+                parameters.cacheDir = resolveRelativePathCommon(args[i]);
+            } else if (lastFlag == Flag.CACHE_SIZE) {
+                try {
+                    parameters.cacheSize = Math.multiplyExact(Long.parseLong(args[i]), 1024L * 1024);
+                } catch (NumberFormatException | ArithmeticException _) {
+                    throw new RuntimeException("Invalid cache size: " + args[i]);
+                }
+                if (parameters.cacheSize < 0) {
+                    throw new RuntimeException("Cache size must not be negative: " + args[i]);
+                }
             }
         }
 
+        if (parameters.clearCache && parameters.cacheDir == null) {
+            throw new RuntimeException("Option " + Flag.CLEAR_CACHE + " requires " + Flag.CACHE_DIR);
+        }
+
+        if (logLevel != null) {
+            parameters.logLevel = logLevel;
+        } else {
+            parameters.logLevel = debugOutputStream != NULL_OUTPUT_STREAM ? LogEvent.debug : defaultLogLevel();
+        }
+
+        if (parameters.metricsDir != null) {
+            metrics = new Metrics();
+        }
+
+        prepare();
+        return -1;
+    }
+
+    /// Returns whether the results are written as tmt reports, only then the
+    /// options of the tmt reports are accepted.
+    ///
+    /// @return `false`
+    protected boolean writesTmtReports() {
+        return false;
+    }
+
+    /// Returns the log level of the validators when neither a log level nor
+    /// the debugging output is requested. The debug entries are only displayed
+    /// with the debugging output, so they are not kept by default.
+    ///
+    /// @return The least severe kind of log entries kept by the validators.
+    protected LogEvent defaultLogLevel() {
+        return LogEvent.skip;
+    }
+
+    /// Completes the parsed parameters: adds the validator itself to the class
+    /// path and expands the class path wildcards.
+    ///
+    /// @throws Exception If the class path cannot be listed.
+    void prepare() throws Exception {
         var validatorPath = Path.of(MainTmt.class.getProtectionDomain().getCodeSource().getLocation().toURI());
         parameters.classPaths.add(validatorPath);
 
-        logger = new Logger();
+        logger = new Logger(debugOutputStream, decorator);
 
         logger.debug("Source path: {0}", Decorated.plain(parameters.sourcePath));
         logger.debug("Output directory: {0}", Decorated.plain(parameters.outputDir));
@@ -390,19 +581,22 @@ public class Main {
                 }
             }
         }
-
-        return -1;
     }
 
-    private Map<String, Validator> discover() throws Exception {
-        if (parameters.sourcePath != null && parameters.outputDir == null) {
-            throw new RuntimeException("If source path is specified then the output directory needs to be specified too");
-        }
-
+    /// Compiles the validator sources, if any, and creates the class loader of
+    /// the validators.
+    ///
+    /// @return The class loader of the validators.
+    /// @throws Exception If the sources cannot be compiled or their
+    ///                   dependencies cannot be resolved.
+    URLClassLoader createValidatorClassLoader() throws Exception {
+        String compileKey = null;
+        var serviceContent = new ByteArrayOutputStream(0);
         if (parameters.outputDir != null) {
             compileFiles();
+            var current = IncrementalCompiler.readManifest(parameters.outputDir);
+            compileKey = current != null ? current.key() : null;
 
-            var serviceContent = new ByteArrayOutputStream(0);
             for (var serviceFile : Files.find(parameters.sourcePath, Integer.MAX_VALUE,
                     (p, a) -> !a.isDirectory() && p.getFileName().equals(Path.of(ValidatorFactory.class.getCanonicalName()))).toList()) {
                 try (var is = Files.newInputStream(serviceFile)) {
@@ -425,23 +619,121 @@ public class Main {
         for (var classPath : parameters.classPaths) {
             classPaths.add(classPath.toUri().toURL());
         }
+        var classLoader = new URLClassLoader(classPaths.toArray(URL[]::new));
+        if (serviceContent.size() != 0) {
+            try {
+                indexFactories(classLoader, serviceContent.toString(StandardCharsets.UTF_8), compileKey);
+            } catch (Exception ex) {
+                classLoader.close();
+                throw ex;
+            }
+        }
+        return classLoader;
+    }
+
+    /// Writes the indexes of the factories of the validator sources into the
+    /// output directory, see [ValidatorIndex]. The factories are only
+    /// instantiated if the compiled classes or the service files have changed
+    /// since the indexes were written.
+    ///
+    /// @param classLoader    The class loader of the validators.
+    /// @param serviceContent The content of the service files of the sources.
+    /// @param compileKey     The key of the compiled classes, or `null` if it
+    ///                       is not known.
+    /// @throws IOException If an index cannot be written.
+    private void indexFactories(ClassLoader classLoader, String serviceContent, String compileKey) throws IOException {
+        var factoryNames = new TreeSet<String>();
+        for (var line : serviceContent.lines().toList()) {
+            var comment = line.indexOf('#');
+            var name = (comment != -1 ? line.substring(0, comment) : line).strip();
+            if (!name.isEmpty()) {
+                factoryNames.add(name);
+            }
+        }
+        var key = compileKey != null ? ValidatorIndex.key(compileKey, serviceContent) : null;
+        if (key != null && key.equals(ValidatorIndex.readKey(parameters.outputDir))) {
+            return;
+        }
+        ValidatorIndex.clear(parameters.outputDir);
+
+        var oldClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            for (var provider : ServiceLoader.<ValidatorFactory>load(ValidatorFactory.class, classLoader).stream().toList()) {
+                var factoryName = provider.type().getName();
+                if (!factoryNames.contains(factoryName)) {
+                    continue;
+                }
+                logger.debug("Writing the index of factory {0}", Decorated.struct(factoryName));
+                ValidatorIndex.write(parameters.outputDir, factoryName, ValidatorIndex.of(provider.get().getValidators()));
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(oldClassLoader);
+        }
+        if (key != null) {
+            ValidatorIndex.writeKey(parameters.outputDir, key);
+        }
+    }
+
+    Map<String, Validator> discover() throws Exception {
+        if (parameters.sourcePath != null && parameters.outputDir == null) {
+            throw new RuntimeException("If source path is specified then the output directory needs to be specified too");
+        }
+
+        ClassLoader classLoader;
+        if (sharedClassLoader != null) {
+            classLoader = sharedClassLoader;
+        } else if (classLoaderCache != null) {
+            var key = new ValidatorClassLoaderCache.Key(parameters.sourcePath, parameters.outputDir, List.copyOf(parameters.classPaths));
+            var stamp = new ArrayList<Optional<FileTime>>();
+            stamp.add(parameters.sourcePath != null ? getRecursiveFileTime(parameters.sourcePath, (_, _) -> true) : Optional.empty());
+            for (var classPath : key.classPaths()) {
+                stamp.add(Files.exists(classPath) ? getRecursiveFileTime(classPath, (_, _) -> true) : Optional.empty());
+            }
+            if (classLoaderCache.isCurrent(key, stamp)) {
+                logger.debug("Reusing the class loader of the validators from a previous run");
+            }
+            classLoader = classLoaderCache.get(key, stamp, this::createValidatorClassLoader);
+        } else {
+            // Do not close the cloassloaders, they are used later
+            classLoader = createValidatorClassLoader();
+        }
+        return phase("discovery", () -> discover(classLoader));
+    }
+
+    private Map<String, Validator> discover(ClassLoader classLoader) throws Exception {
         var validators = new ArrayList<Validator>();
 
         logger.debug("Factory arguments: {0}", Decorated.plain(parameters.factories.stream().toList()));
 
         var oldClassLoader = Thread.currentThread().getContextClassLoader();
         try {
-            // Do not close the cloassloaders, they are used later
-            var classLoader = new URLClassLoader(classPaths.toArray(URL[]::new));
+            validatorClassLoader = classLoader;
             Thread.currentThread().setContextClassLoader(classLoader);
-            ServiceLoader.<ValidatorFactory>load(ValidatorFactory.class, classLoader).stream().forEach(provider -> {
-                var factory = provider.get();
-                if (parameters.factories.isEmpty() || parameters.factories.contains(factory.getClass().getName())) {
-                    validators.addAll(factory.getValidators());
-                } else {
-                    logger.debug("Ignoring factory {0} as it is not listed as an argument", Decorated.struct(factory.getClass().getName()));
+            for (var provider : ServiceLoader.<ValidatorFactory>load(ValidatorFactory.class, classLoader).stream().toList()) {
+                var factoryName = provider.type().getName();
+                if (!parameters.factories.isEmpty() && !parameters.factories.contains(factoryName)) {
+                    logger.debug("Ignoring factory {0} as it is not listed as an argument", Decorated.struct(factoryName));
+                    continue;
                 }
-            });
+                // An indexed factory is not called if it implements none of the
+                // requested tests or if the validators of the requested tests
+                // can be instantiated on their own
+                var index = parameters.validatorArgs.isEmpty() ? null : ValidatorIndex.read(classLoader, factoryName);
+                if (index != null) {
+                    var testNames = parameters.validatorArgs.keySet().stream().filter(index.tests()::containsKey).toList();
+                    if (testNames.isEmpty()) {
+                        logger.debug("Ignoring factory {0} as its index lists none of the requested tests", Decorated.struct(factoryName));
+                        continue;
+                    }
+                    if (index.instantiable()) {
+                        logger.debug("Instantiating the validators of the requested tests of factory {0}", Decorated.struct(factoryName));
+                        validators.addAll(ValidatorIndex.instantiate(classLoader, index, testNames));
+                        continue;
+                    }
+                }
+                validators.addAll(provider.get().getValidators());
+            }
         } finally {
             Thread.currentThread().setContextClassLoader(oldClassLoader);
         }
@@ -482,26 +774,30 @@ public class Main {
                     Decorated.actual(testName));
         }
 
-        logger.debug("Available tests:{0}", Decorated.plain(validators.stream().map(v ->
-            System.lineSeparator() + decorate(Decorated.struct(v.getTestName()))
-        ).collect(Collectors.joining())));
+        if (logger.isDebugEnabled()) {
+            logger.debug("Available tests:{0}", Decorated.plain(validators.stream().map(v ->
+                System.lineSeparator() + decorate(Decorated.struct(v.getTestName()))
+            ).collect(Collectors.joining())));
+        }
 
         return validatorTests;
     }
 
     protected Map<String, Validator> select(Map<String, Validator> validators) throws Exception {
-        logger.debug("Main arguments: {0}", Decorated.plain(parameters.validatorArgs.entrySet().stream().map(e -> {
-            var result = new StringBuilder();
-            result.append(System.lineSeparator());
-            result.append(decorate(Decorated.custom(e.getKey(), new Decoration(Decoration.Color.green, Decoration.Modifier.bright))).toString());
-            if (e.getValue().isPresent()) {
-                var args = e.getValue().get();
-                result.append(decorate(Decorated.custom(" [ ", new Decoration(Decoration.Color.blue, Decoration.Modifier.bright))).toString());
-                result.append(args.stream().map(a -> decorate(Decorated.custom(a, new Decoration(Decoration.Color.cyan))).toString()).collect(Collectors.joining(" ")));
-                result.append(decorate(Decorated.custom(" ]", new Decoration(Decoration.Color.blue, Decoration.Modifier.bright))).toString());
-            }
-            return result.toString();
-        }).collect(Collectors.joining())));
+        if (logger.isDebugEnabled()) {
+            logger.debug("Main arguments: {0}", Decorated.plain(parameters.validatorArgs.entrySet().stream().map(e -> {
+                var result = new StringBuilder();
+                result.append(System.lineSeparator());
+                result.append(decorate(Decorated.custom(e.getKey(), new Decoration(Decoration.Color.green, Decoration.Modifier.bright))).toString());
+                if (e.getValue().isPresent()) {
+                    var args = e.getValue().get();
+                    result.append(decorate(Decorated.custom(" [ ", new Decoration(Decoration.Color.blue, Decoration.Modifier.bright))).toString());
+                    result.append(args.stream().map(a -> decorate(Decorated.custom(a, new Decoration(Decoration.Color.cyan))).toString()).collect(Collectors.joining(" ")));
+                    result.append(decorate(Decorated.custom(" ]", new Decoration(Decoration.Color.blue, Decoration.Modifier.bright))).toString());
+                }
+                return result.toString();
+            }).collect(Collectors.joining())));
+        }
 
         if (!parameters.validatorArgs.isEmpty()) {
             var it = validators.keySet().iterator();
@@ -526,119 +822,358 @@ public class Main {
         return validators;
     }
 
-    protected List<NamedResult> execute(Collection<Validator> validators) throws Exception {
-        var rpms = new ArrayList<RpmPackage>();
-        /*
-        parameters.argUrls.parallelStream().forEach(path -> {
-            RpmPackage rpm;
-            try {
-                rpm = new RpmPackage(path);
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
-            }
-            synchronized (rpms) {
-                rpms.add(rpm);
-            }
-        });
-        */
-        Iterators.addAll(rpms, ArgFileIterator.create(parameters.argPaths));
-        var resultList = new ArrayList<>(validators).parallelStream().map(validator -> {
-            var oldClassLoader = Thread.currentThread().getContextClassLoader();
-            try {
-                Thread.currentThread().setContextClassLoader(validator.getClass().getClassLoader());
-                var startTime = Instant.now();
-                var result = validator.validate(rpms, parameters.validatorArgs
-                        .getOrDefault(validator.getTestName(), Optional.empty()).orElse(null));
-                var endTime = Instant.now();
-                return new NamedResult(result, validator.getTestName(), startTime, endTime);
-            } catch (Exception ex) {
-                var result = new ResultBuilder();
-                result.error(ex);
-                return new NamedResult(result.build(), validator.getTestName());
-            } finally {
-                Thread.currentThread().setContextClassLoader(oldClassLoader);
-            }
-        }).toList();
+    /// Passes results to a sink in the order of the tests, holding back the
+    /// results that complete before the results of the preceding tests.
+    private static final class OrderedResults {
+        private final List<String> testNames;
+        private final ResultSink sink;
+        private final Map<Integer, NamedResult> pending = new TreeMap<>();
+        private int next = 0;
+
+        OrderedResults(List<String> testNames, ResultSink sink) {
+            this.testNames = testNames;
+            this.sink = sink;
+        }
 
-        for (var validator : validators) {
-            if (validator.getClass().getClassLoader() instanceof AutoCloseable ac) {
-                ac.close();
+        void add(NamedResult result) throws Exception {
+            pending.put(testNames.indexOf(result.getTestName()), result);
+            NamedResult ready;
+            while ((ready = pending.remove(next)) != null) {
+                sink.accept(ready);
+                ++next;
             }
         }
 
-        return resultList;
+        void flush() throws Exception {
+            for (var result : pending.values()) {
+                sink.accept(result);
+            }
+            pending.clear();
+        }
     }
 
-    protected static final String decoratedObjects(LogEntry entry, TextDecorator decorator) {
-        return MessageFormat.format(decorator.escape(entry.pattern()),
-                Stream.of(entry.objects()).map(a -> decorator.decorate(a)).toArray());
+    protected void execute(Collection<Validator> validators, ResultSink sink) throws Exception {
+        // The RPMs are streamed to all the validators while the arguments are
+        // still being read
+        try (var rpmFiles = ArgFileIterator.create(parameters.argPaths, parameters.jobs).measuredBy(metrics)) {
+            execute(validators, rpmFiles, openCache(), sink);
+        }
     }
 
-    protected static final String decorated(LogEntry entry) {
-        return "[" + decorate(entry.kind().getDecorated()) + "] " + decoratedObjects(entry, Main.getDecorator());
+    /// Runs validators on RPM packages and collects their results.
+    ///
+    /// @param validators The validators.
+    /// @param source     The RPM packages, read only once.
+    /// @param cache      The result cache, or `null`.
+    /// @return The results of the validators.
+    /// @throws Exception If the RPM packages cannot be read.
+    /// @see #execute(Collection, Iterator, ResultCache, ResultSink)
+    List<NamedResult> execute(Collection<Validator> validators, Iterator<RpmPackage> source, ResultCache cache) throws Exception {
+        var results = new ArrayList<NamedResult>(validators.size());
+        execute(validators, source, cache, new ResultSink() {
+            @Override
+            public void accept(NamedResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public int finish() {
+                return 0;
+            }
+        });
+        return results;
     }
 
-    protected int report(List<NamedResult> results) throws Exception {
-        int passMessages = 0;
-        for (var result : results) {
-            for (var logEntry : result) {
-                if (!LogEvent.fail.equals(logEntry.kind()) && !LogEvent.error.equals(logEntry.kind())) {
-                    if (LogEvent.debug.equals(logEntry.kind())) {
-                        getDebugOutputStream().println(decorated(logEntry));
-                    } else {
-                        System.out.println(decorated(logEntry));
+    /// Runs validators on RPM packages, each validator runs on its own thread
+    /// so that no validator waits for another one to consume the RPMs.
+    ///
+    /// The results are passed to the sink in the order of the validators as
+    /// soon as they and the results of all the preceding validators are
+    /// available, they are not kept after that.
+    ///
+    /// @param validators The validators.
+    /// @param source     The RPM packages, read only once.
+    /// @param cache      The result cache, or `null`. The cache keys are
+    ///                   computed from the path arguments, which must list
+    ///                   the RPM packages. The facts about JAR files are
+    ///                   stored in the directory of the result cache.
+    /// @param sink       The sink receiving the results.
+    /// @throws Exception If the RPM packages cannot be read or if the sink
+    ///                   fails.
+    void execute(Collection<Validator> validators, Iterator<RpmPackage> source, ResultCache cache, ResultSink sink) throws Exception {
+        var pipeline = new RpmPipeline(source, parameters.lookAhead);
+        var jarFacts = new JarFactCache(cache != null ? cache.getDirectory() : null);
+
+        // Validators reading the payload are run together so that the payload
+        // of each RPM is decompressed only once, validators reading only the
+        // header never open the payload
+        var testNames = new ArrayList<String>(validators.size());
+        var payloadValidators = new ArrayList<PayloadValidator>();
+        var tasks = new ArrayList<Callable<List<NamedResult>>>(validators.size());
+        var plan = new StringBuilder();
+        var cachedResults = new ArrayList<NamedResult>();
+        var cacheKeys = cache != null ? cacheKeys(validators) : Map.<String, String>of();
+        for (var validator : validators) {
+            testNames.add(validator.getTestName());
+            if (validator instanceof DefaultValidator defaultValidator) {
+                defaultValidator.setLogLevel(parameters.logLevel);
+            }
+            String stage;
+            var key = cacheKeys.get(validator.getTestName());
+            var cached = key != null ? cache.load(key) : null;
+            if (cached != null) {
+                stage = "cached result";
+                cachedResults.add(new NamedResult(cached, validator.getTestName()));
+            } else if (validator instanceof PayloadValidator payloadValidator && PayloadScanEngine.canDrive(payloadValidator)) {
+                stage = "shared payload scan";
+                payloadValidators.add(payloadValidator);
+            } else {
+                stage = DataRequirements.isHeaderOnly(validator) ? "header only" : "own payload reads";
+                var rpms = pipeline.subscribe();
+                tasks.add(measured(List.of(validator.getTestName()), () -> {
+                    try (rpms) {
+                        return List.of(execute(validator, rpms));
                     }
+                }));
+            }
+            plan.append(System.lineSeparator()).append(decorate(Decorated.struct(validator.getTestName())))
+                    .append(": ").append(stage).append(" ").append(DataRequirements.of(validator));
+        }
+        logger.debug("Run plan:{0}", Decorated.plain(plan));
+        if (!payloadValidators.isEmpty()) {
+            var rpms = pipeline.subscribe();
+            tasks.add(measured(payloadValidators.stream().map(Validator::getTestName).toList(), () -> {
+                try (rpms) {
+                    return execute(payloadValidators, rpms);
+                }
+            }));
+        }
+
+        var ordered = new OrderedResults(testNames, sink);
+        for (var result : cachedResults) {
+            ordered.add(result);
+        }
 
-                    if (LogEvent.pass.equals(logEntry.kind())) {
-                        ++passMessages;
+        // CPU time and allocations can only be measured on platform threads
+        try (var scanPool = new ScanPool(parameters.jobs);
+                var executor = metrics != null
+                ? Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name("validator-", 0).factory())
+                : Executors.newVirtualThreadPerTaskExecutor()) {
+            // When all the results are cached, the RPM files are not read at all
+            if (!tasks.isEmpty() || cachedResults.isEmpty()) {
+                var completion = new ExecutorCompletionService<List<NamedResult>>(executor);
+                pipeline.start();
+                for (var task : tasks) {
+                    completion.submit(() -> scanPool.call(() -> jarFacts.call(task)));
+                }
+                // The results are passed to the sink on this thread as the
+                // tasks complete
+                for (int i = 0; i < tasks.size(); ++i) {
+                    for (var result : completion.take().get()) {
+                        if (cache != null) {
+                            storeResult(cache, cacheKeys, result);
+                        }
+                        ordered.add(result);
                     }
                 }
+                pipeline.await();
             }
         }
+        ordered.flush();
 
-        int failMessages = 0;
-        for (var result : results) {
-            for (var logEntry : result) {
-                if (LogEvent.fail.equals(logEntry.kind())) {
-                    System.out.println(decorated(logEntry));
-                    ++failMessages;
-                }
+        if (cache != null) {
+            try {
+                cache.evict();
+            } catch (IOException ex) {
+                // The cache is only an optimization
+                logger.debug("Cannot evict cached results: {0}", Decorated.plain(ex));
             }
         }
 
-        int errorMessages = 0;
-        for (var result : results) {
-            for (var logEntry : result) {
-                if (LogEvent.error.equals(logEntry.kind())) {
-                    System.out.println(decorated(logEntry));
-                    ++errorMessages;
+        if (!pipeline.getLoadFailures().isEmpty()) {
+            var result = new ResultBuilder();
+            for (var failure : pipeline.getLoadFailures()) {
+                result.error("{0}: {1}", Decorated.outer(failure.getPath()), Decorated.plain(failure.getCause()));
+            }
+            sink.accept(new NamedResult(result.build(), LOAD_RPMS_TEST_NAME));
+        }
+
+        // Class loaders kept across runs are closed by their owners
+        if (classLoaderCache == null && sharedClassLoader == null) {
+            for (var validator : validators) {
+                if (validator.getClass().getClassLoader() instanceof AutoCloseable ac) {
+                    ac.close();
                 }
             }
         }
 
-        var bold_red = new Decoration(Decoration.Color.red, Decoration.Modifier.bold);
+    }
+
+    /// Measures a task running validators if metrics are collected.
+    ///
+    /// @param tests The test names of the validators.
+    /// @param task  The task.
+    /// @return The task, measured.
+    private Callable<List<NamedResult>> measured(List<String> tests, Callable<List<NamedResult>> task) {
+        if (metrics == null) {
+            return task;
+        }
+        return () -> {
+            var scan = new ScanMetrics();
+            var stopwatch = Metrics.Stopwatch.start();
+            try {
+                return scan.call(task);
+            } finally {
+                metrics.addValidators(tests, stopwatch.stop(String.join(" ", tests)), scan);
+            }
+        };
+    }
+
+    /// Opens the result cache, clearing it first if requested. The facts about
+    /// JAR files are stored in the same directory, see [JarFactCache].
+    ///
+    /// @return The result cache, or `null` if no result cache is used.
+    /// @throws IOException If the cache directory cannot be created or cleared.
+    ResultCache openCache() throws IOException {
+        ResultCache cache = null;
+        if (parameters.cacheDir != null) {
+            cache = new ResultCache(parameters.cacheDir, parameters.cacheSize);
+            if (parameters.clearCache) {
+                logger.debug("Clearing result cache {0}", Decorated.outer(parameters.cacheDir));
+                cache.clear();
+            }
+            if (parameters.noCache) {
+                cache = null;
+            }
+        }
+        return cache;
+    }
+
+    /// Computes the result cache keys of the validators. Only the headers of
+    /// the RPM files are read.
+    ///
+    /// @param validators The validators.
+    /// @return A map of test names to the cache keys, without the validators
+    ///         whose results cannot be cached.
+    private Map<String, String> cacheKeys(Collection<Validator> validators) {
+        byte[] inputDigest;
+        try {
+            inputDigest = ResultCache.inputDigest(ArgFileIterator.listPaths(parameters.argPaths));
+        } catch (IOException ex) {
+            // Unreadable RPM files are reported when the validators are run
+            logger.debug("Not using result cache: {0}", Decorated.plain(ex));
+            return Map.of();
+        }
 
-        int exitCode = 0;
-        if (failMessages == 0 && errorMessages == 0) {
-            if (passMessages > 0) {
-                System.err.println(MessageFormat.format("Summary: all tests {0}",
-                        decorate(Decorated.custom("passed", new Decoration(Decoration.Color.green, Decoration.Modifier.bold)))));
+        var result = new TreeMap<String, String>();
+        for (var validator : validators) {
+            var key = ResultCache.key(validator, getValidatorArgs(validator), parameters.logLevel, inputDigest);
+            if (key != null) {
+                result.put(validator.getTestName(), key);
             } else {
-                System.err.println("Summary: no output available");
+                logger.debug("Result of test {0} cannot be cached", Decorated.struct(validator.getTestName()));
             }
-        } else if (errorMessages == 0) {
-            System.err.println(MessageFormat.format("Summary: {0} {1}",
-                    decorate(Decorated.plain(failMessages)), decorate(Decorated.custom(
-                    "failed tests" + (failMessages == 1 ? "" : "s"), bold_red))));
-            exitCode = 1;
-        } else if (failMessages == 0) {
-            System.err.println(MessageFormat.format("Summary: {0} {1} occured",
-                    decorate(Decorated.plain(errorMessages)), decorate(Decorated.custom(
-                    "error" + (errorMessages == 1 ? "" : "s"), bold_red))));
-            exitCode = 2;
         }
+        return result;
+    }
+
+    /// Stores the result of a validator in the result cache. Errors are not
+    /// stored, as they may not happen again. A result which cannot be stored
+    /// is only logged, the cache is only an optimization.
+    ///
+    /// @param cache     The result cache.
+    /// @param cacheKeys The cache keys, by test names.
+    /// @param result    The result to store.
+    private void storeResult(ResultCache cache, Map<String, String> cacheKeys, NamedResult result) {
+        var key = cacheKeys.get(result.getTestName());
+        if (key != null && !TestResult.error.equals(result.getResult())) {
+            try {
+                cache.store(key, result);
+            } catch (IOException ex) {
+                logger.debug("Cannot store result of {0} in cache: {1}",
+                        Decorated.struct(result.getTestName()), Decorated.plain(ex));
+            }
+        }
+    }
 
-        return exitCode;
+    private List<String> getValidatorArgs(Validator validator) {
+        return parameters.validatorArgs.getOrDefault(validator.getTestName(), Optional.empty()).orElse(null);
+    }
+
+    private NamedResult execute(Validator validator, Iterable<RpmPackage> rpms) {
+        var oldClassLoader = Thread.currentThread().getContextClassLoader();
+        var event = new ValidatorEvents.ValidatorInvocation();
+        event.begin();
+        Result result = null;
+        try {
+            Thread.currentThread().setContextClassLoader(validator.getClass().getClassLoader());
+            var startTime = Instant.now();
+            result = validator.validate(rpms, getValidatorArgs(validator));
+            var endTime = Instant.now();
+            return new NamedResult(result, validator.getTestName(), startTime, endTime);
+        } catch (Exception ex) {
+            var error = new ResultBuilder();
+            error.error(ex);
+            return new NamedResult(error.build(), validator.getTestName());
+        } finally {
+            Thread.currentThread().setContextClassLoader(oldClassLoader);
+            if (event.shouldCommit()) {
+                event.testName = validator.getTestName();
+                event.validatorClass = validator.getClass().getName();
+                event.result = result != null ? result.getResult().toString() : null;
+                event.commit();
+            }
+        }
+    }
+
+    private List<NamedResult> execute(List<PayloadValidator> validators, Iterable<RpmPackage> rpms) {
+        var oldClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            // All the validators were discovered through this class loader
+            Thread.currentThread().setContextClassLoader(validatorClassLoader);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Sharing payload scan between validators:{0}", Decorated.plain(validators.stream().map(
+                        validator -> System.lineSeparator() + decorate(Decorated.struct(validator.getTestName()))
+                ).collect(Collectors.joining())));
+            }
+            var event = new ValidatorEvents.ValidatorInvocation();
+            event.begin();
+            var startTime = Instant.now();
+            new PayloadScanEngine(validators).run(rpms, this::getValidatorArgs);
+            var endTime = Instant.now();
+            if (event.shouldCommit()) {
+                event.testName = validators.stream().map(Validator::getTestName).collect(Collectors.joining(" "));
+                event.validatorClass = validators.get(0).getClass().getName();
+                event.commit();
+            }
+            return validators.stream().map(validator ->
+                    new NamedResult(validator.build(), validator.getTestName(), startTime, endTime)).toList();
+        } catch (Exception ex) {
+            return validators.stream().map(validator -> {
+                var error = new ResultBuilder();
+                error.error(ex);
+                return new NamedResult(error.build(), validator.getTestName());
+            }).toList();
+        } finally {
+            Thread.currentThread().setContextClassLoader(oldClassLoader);
+        }
+    }
+
+    protected static final String decoratedObjects(LogEntry entry, TextDecorator decorator) {
+        return MessageFormat.format(decorator.escape(entry.pattern()),
+                Stream.of(entry.objects()).map(a -> decorator.decorate(a)).toArray());
+    }
+
+    protected static final String decorated(LogEntry entry, TextDecorator decorator) {
+        return "[" + decorator.decorate(entry.kind().getDecorated()) + "] " + decoratedObjects(entry, decorator);
+    }
+
+    /// Opens the sink receiving the results of the run.
+    ///
+    /// @return The sink.
+    /// @throws Exception If the sink cannot be opened.
+    ResultSink openReport() throws Exception {
+        return new ConsoleReport(out, err, debugOutputStream, decorator);
     }
 
     public int run(String[] args) throws Exception {
@@ -647,13 +1182,47 @@ public class Main {
         if (exitcode >= 0) {
             return exitcode;
         }
+        if (parameters.jfrFile == null) {
+            return runParsed();
+        }
+
+        try (var recording = new Recording(Configuration.getConfiguration("default"))) {
+            for (var eventType : ValidatorEvents.TYPES) {
+                recording.enable(eventType).withoutThreshold();
+            }
+            recording.setDestination(parameters.jfrFile);
+            recording.start();
+            try {
+                return runParsed();
+            } finally {
+                // The recording is written to its destination when stopped
+                recording.stop();
+            }
+        }
+    }
+
+    private int runParsed() throws Exception {
+        int exitcode;
         var validators = select(discover());
 
-        logger.debug("Selected validators:{0}", Decorated.plain(validators.keySet().stream().map(
-                testName -> System.lineSeparator() + decorate(Decorated.struct(testName))
-        ).collect(Collectors.joining())));
+        if (logger.isDebugEnabled()) {
+            logger.debug("Selected validators:{0}", Decorated.plain(validators.keySet().stream().map(
+                    testName -> System.lineSeparator() + decorate(Decorated.struct(testName))
+            ).collect(Collectors.joining())));
+        }
+
+        // The results are reported while the remaining validators run
+        try (var report = openReport()) {
+            phase("validation", () -> {
+                execute(validators.values(), report);
+                return null;
+            });
+            exitcode = phase("reporting", report::finish);
+        }
 
-        exitcode = report(execute(validators.values()));
+        if (metrics != null) {
+            metrics.write(parameters.metricsDir);
+        }
         return exitcode;
     }
 
@@ -4,14 +4,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.time.Duration;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -19,9 +15,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
-import org.apache.commons.collections4.IterableUtils;
 import org.apache.commons.io.IOUtils;
 import org.fedoraproject.javapackages.validator.spi.Decorated;
 import org.fedoraproject.javapackages.validator.spi.LogEntry;
@@ -58,58 +54,93 @@ public class MainTmt extends Main {
     }
 
     static final class HtmlTablePrintStream extends PrintStream {
+        /// The rendered headers of the pages, by the result of the test, so
+        /// that the script and the style sheet are only loaded once.
+        private static final Map<TestResult, String> HEADERS = new ConcurrentHashMap<>();
+
         public HtmlTablePrintStream(OutputStream os, TestResult result) throws IOException {
             super(os, false, StandardCharsets.UTF_8);
-            var maxValue = switch (result)
-            {
-            case skip -> LogEvent.skip;
-            case pass -> LogEvent.pass;
-            case info -> LogEvent.info;
-            case warn -> LogEvent.warn;
-            case fail -> LogEvent.fail;
-            case error -> LogEvent.error;
-            };
+            try {
+                print(HEADERS.computeIfAbsent(result, HtmlTablePrintStream::header));
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
 
-            String filterJs = IOUtils.toString(MainTmt.class.getResource("/tmt_html/filter.js"), StandardCharsets.UTF_8);
-            String styleCss = IOUtils.toString(MainTmt.class.getResource("/tmt_html/style.css"), StandardCharsets.UTF_8);
+        private static String header(TestResult result) {
+            String filterJs;
+            String styleCss;
+            try {
+                filterJs = IOUtils.toString(MainTmt.class.getResource("/tmt_html/filter.js"), StandardCharsets.UTF_8);
+                styleCss = IOUtils.toString(MainTmt.class.getResource("/tmt_html/style.css"), StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
 
-            var ps = new PrintStream(super.out, false, StandardCharsets.UTF_8);
-            ps.append("""
+            var html = new StringBuilder();
+            html.append("""
 <!DOCTYPE html>
 <html>
 <script src="https://ajax.googleapis.com/ajax/libs/jquery/3.6.3/jquery.min.js"></script>
 <script type="text/javascript">
 """);
-            ps.append(filterJs);
-            ps.append("""
+            html.append(filterJs);
+            html.append("""
 </script>
 <style type="text/css">
 """);
-            ps.append(styleCss);
-            ps.append("""
+            html.append(styleCss);
+            html.append("""
 </style>
+""");
+            html.append(filterTable(result));
+            html.append("""
+
+<table>
+""");
+            return html.toString();
+        }
+
+        /// Renders the table of the checkboxes selecting the kinds of the log
+        /// entries shown. The kinds at least as severe as the result are
+        /// selected by default.
+        ///
+        /// @param result The result of the test.
+        /// @return The table.
+        static String filterTable(TestResult result) {
+            var maxValue = switch (result)
+            {
+            case skip -> LogEvent.skip;
+            case pass -> LogEvent.pass;
+            case info -> LogEvent.info;
+            case warn -> LogEvent.warn;
+            case fail -> LogEvent.fail;
+            case error -> LogEvent.error;
+            };
+
+            var html = new StringBuilder();
+            html.append("""
 <table>
 <tr>
     <th>Filter:</th>
 """);
             for (var event : LogEvent.values()) {
-                ps.append("    ");
-                ps.append("<th><input type=\"checkbox\" class=\"filter_checkbox");
+                html.append("    ");
+                html.append("<th><input type=\"checkbox\" class=\"filter_checkbox");
                 if (event.compareTo(maxValue) >= 0) {
-                    ps.append(" checkbox_shown_by_default");
+                    html.append(" checkbox_shown_by_default");
                 }
-                ps.append("\" id=\"checkbox_" + event + "\" value=\"" + event + "\"><label for=\"checkbox_" + event + "\">");
-                ps.append(Character.toUpperCase(event.toString().charAt(0)));
-                ps.append(event.toString().substring(1));
-                ps.append("</label></th>");
-                ps.println();
+                html.append("\" id=\"checkbox_" + event + "\" value=\"" + event + "\"><label for=\"checkbox_" + event + "\">");
+                html.append(Character.toUpperCase(event.toString().charAt(0)));
+                html.append(event.toString().substring(1));
+                html.append("</label></th>");
+                html.append(System.lineSeparator());
             }
-            ps.append("""
+            html.append("""
 </tr>
 </table>
-
-<table>
 """);
+            return html.toString();
         }
 
         public void printRow(LogEntry entry) {
@@ -210,90 +241,25 @@ public class MainTmt extends Main {
         return validators;
     }
 
-    private static String getFormattedDuration(Instant startTime, Instant endTime) {
-        var duration = Duration.between(startTime, endTime);
-        // TODO Wait for resolution within TF
-        // return String.format("%02d:%02d:%02d.%03d", duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart(), duration.toMillisPart());
-
-        return "%02d:%02d:%02d".formatted(duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+    @Override
+    ResultSink openReport() throws IOException {
+        return new TmtReport(TMT_TEST_DATA, additionalLogs, reports, parameters.jobs, parameters.pagedHtml, getDecorator());
     }
 
+    /// Accepts the options of the tmt reports.
+    ///
+    /// @return `true`
     @Override
-    protected int report(List<NamedResult> results) throws Exception {
-        Files.createDirectories(TMT_TEST_DATA.resolve("results"));
-
-        var testResults = IterableUtils.chainedIterable(results, this.reports.entrySet().stream()
-                .map(e -> new NamedResult(e.getValue().build(), e.getKey())).toList());
-
-        for (var namedResult : testResults) {
-            var resultFile = "results/";
-            resultFile += namedResult.getTestName().substring(1).replace('/', '.');
-
-            var chainedLogs = IterableUtils.chainedIterable(additionalLogs
-                    .getOrDefault(namedResult.getTestName(), Collections.emptyList()), namedResult);
-
-            try (var os = Files.newOutputStream(TMT_TEST_DATA.resolve(resultFile + ".log"));
-                    var ps = new PrintStream(os, false, StandardCharsets.UTF_8)) {
-                for (var entry : chainedLogs) {
-                    ps.println(Main.decorated(entry));
-                }
-            }
-            try (var os = Files.newOutputStream(TMT_TEST_DATA.resolve(resultFile + ".html"));
-                    var ps = new HtmlTablePrintStream(os, namedResult.getResult())) {
-                for (var entry : chainedLogs) {
-                    ps.printRow(entry);
-                }
-            }
-
-            var resultYaml = new StringBuilder();
-            resultYaml.append("- name: '");
-            resultYaml.append(namedResult.getTestName());
-            resultYaml.append("'");
-            resultYaml.append(System.lineSeparator());
-            resultYaml.append("  result: ");
-            resultYaml.append(namedResult.getResult());
-            resultYaml.append(System.lineSeparator());
-
-            var startTime = namedResult.getStartTime();
-            if (startTime != null) {
-                resultYaml.append("  start-time: '");
-                resultYaml.append(startTime.atOffset(ZoneOffset.ofHours(1)).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-                resultYaml.append("'");
-                resultYaml.append(System.lineSeparator());
-            }
-
-            var endTime = namedResult.getEndTime();
-            if (endTime != null) {
-                resultYaml.append("  end-time: '");
-                resultYaml.append(endTime.atOffset(ZoneOffset.ofHours(1)).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-                resultYaml.append("'");
-                resultYaml.append(System.lineSeparator());
-            }
-
-            if (startTime != null && endTime != null) {
-                resultYaml.append("  duration: ");
-                resultYaml.append(getFormattedDuration(startTime, endTime));
-                resultYaml.append(System.lineSeparator());
-            }
-
-            resultYaml.append("  log: ");
-            resultYaml.append(System.lineSeparator());
-            resultYaml.append("   - '");
-            resultYaml.append(resultFile);
-            resultYaml.append(".log'");
-            resultYaml.append(System.lineSeparator());
-            resultYaml.append("   - '");
-            resultYaml.append(resultFile);
-            resultYaml.append(".html'");
-            resultYaml.append(System.lineSeparator());
-
-            try (var os = Files.newOutputStream(TMT_TEST_DATA.resolve("results.yaml"),
-                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-                os.write(resultYaml.toString().getBytes(StandardCharsets.UTF_8));
-            }
-        }
+    protected boolean writesTmtReports() {
+        return true;
+    }
 
-        return 0;
+    /// Keeps all the log entries, the logs of the results are written in full.
+    ///
+    /// @return [LogEvent#debug]
+    @Override
+    protected LogEvent defaultLogLevel() {
+        return LogEvent.debug;
     }
 
     @Override
@@ -320,7 +286,7 @@ public class MainTmt extends Main {
         try {
             return super.run(args);
         } catch (Throwable t) {
-            t.printStackTrace();
+            t.printStackTrace(err);
             writeCrashLog(t);
             return 2;
         }
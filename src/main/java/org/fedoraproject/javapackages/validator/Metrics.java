@@ -0,0 +1,429 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.fedoraproject.javapackages.validator.util.ScanMetrics;
+
+/// Performance metrics of a run, written by the `--metrics` option.
+///
+/// The resources used by each validator and by the loading of each RPM package
+/// are measured on the threads doing the work, the resources used by a
+/// validator include those of the tasks it forks to other threads, see
+/// [ScanMetrics]. The phases of the run are
+/// measured on the whole process, as their work is done by other threads than
+/// the one waiting for the phase to complete. CPU time and allocated bytes are
+/// only available on JVMs which support measuring them, otherwise they are
+/// `-1`.
+///
+/// The metrics are written as `metrics.json` and as `metrics.txt` in the
+/// OpenMetrics text format, all the metrics being gauges prefixed with
+/// `javapackages_validator_`.
+final class Metrics {
+    /// The name of the JSON file.
+    static final String JSON_FILE = "metrics.json";
+    /// The name of the OpenMetrics file.
+    static final String OPENMETRICS_FILE = "metrics.txt";
+
+    private static final String PREFIX = "javapackages_validator_";
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private static final com.sun.management.OperatingSystemMXBean OS =
+            ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os ? os : null;
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) {
+            if (threads.isCurrentThreadCpuTimeSupported() && !threads.isThreadCpuTimeEnabled()) {
+                threads.setThreadCpuTimeEnabled(true);
+            }
+            if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threads;
+        }
+        return null;
+    }
+
+    private static long cpuTime(boolean process) {
+        if (process) {
+            return OS != null ? OS.getProcessCpuTime() : -1;
+        }
+        return THREADS != null && THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes(boolean process) {
+        if (THREADS == null || !THREADS.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        return process ? THREADS.getTotalThreadAllocatedBytes() : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /// The resources used by some work.
+    ///
+    /// @param name           The name of the work.
+    /// @param wallNanos      The elapsed time, in nanoseconds.
+    /// @param cpuNanos       The CPU time, in nanoseconds, or `-1`.
+    /// @param allocatedBytes The bytes allocated on the heap, or `-1`.
+    static record Sample(String name, long wallNanos, long cpuNanos, long allocatedBytes) {
+    }
+
+    /// The resources used by validators run together.
+    ///
+    /// @param tests  The test names of the validators.
+    /// @param sample The resources used by the thread running the validators
+    ///               and by the tasks they forked.
+    /// @param scan   The work done reading RPM payloads and JAR files, also by
+    ///               the threads forked by the validators.
+    static record ValidatorSample(List<String> tests, Sample sample, ScanMetrics scan) {
+    }
+
+    /// Measures the resources used by the current thread or by the whole
+    /// process from its start.
+    static final class Stopwatch {
+        private final boolean process;
+        private final long wallStart = System.nanoTime();
+        private final long cpuStart;
+        private final long allocatedStart;
+
+        private Stopwatch(boolean process) {
+            this.process = process;
+            this.cpuStart = cpuTime(process);
+            this.allocatedStart = allocatedBytes(process);
+        }
+
+        /// Starts measuring the resources used by the current thread.
+        ///
+        /// @return The stopwatch.
+        static Stopwatch start() {
+            return new Stopwatch(false);
+        }
+
+        /// Starts measuring the resources used by all the threads of the
+        /// process, including the ones which terminate before the stop.
+        ///
+        /// @return The stopwatch.
+        static Stopwatch startProcess() {
+            return new Stopwatch(true);
+        }
+
+        /// Stops measuring, must be called by the thread which started the
+        /// stopwatch unless it measures the whole process.
+        ///
+        /// @param name The name of the measured work.
+        /// @return The resources used since the start.
+        Sample stop(String name) {
+            long cpuEnd = cpuTime(process);
+            long allocatedEnd = allocatedBytes(process);
+            return new Sample(name, System.nanoTime() - wallStart,
+                    cpuStart != -1 && cpuEnd != -1 ? cpuEnd - cpuStart : -1,
+                    allocatedStart != -1 && allocatedEnd != -1 ? allocatedEnd - allocatedStart : -1);
+        }
+    }
+
+    private final List<Sample> phases = Collections.synchronizedList(new ArrayList<>());
+    private final List<ValidatorSample> validators = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Path, Sample> rpmLoads = new ConcurrentHashMap<>();
+
+    /// Adds a phase of the run, a phase run multiple times is summed.
+    ///
+    /// @param sample The resources used by the phase.
+    void addPhase(Sample sample) {
+        synchronized (phases) {
+            for (var it = phases.listIterator(); it.hasNext();) {
+                var present = it.next();
+                if (present.name().equals(sample.name())) {
+                    it.set(new Sample(present.name(), present.wallNanos() + sample.wallNanos(),
+                            sum(present.cpuNanos(), sample.cpuNanos()), sum(present.allocatedBytes(), sample.allocatedBytes())));
+                    return;
+                }
+            }
+            phases.add(sample);
+        }
+    }
+
+    /// Adds validators run together on one thread. The CPU time and the bytes
+    /// allocated by the tasks forked by the validators are added to those of
+    /// the thread.
+    ///
+    /// @param tests  The test names of the validators.
+    /// @param sample The resources used by the thread.
+    /// @param scan   The work done reading RPM payloads and JAR files.
+    void addValidators(List<String> tests, Sample sample, ScanMetrics scan) {
+        var total = new Sample(sample.name(), sample.wallNanos(),
+                sample.cpuNanos() != -1 ? sample.cpuNanos() + scan.getForkedCpuNanos() : -1,
+                sample.allocatedBytes() != -1 ? sample.allocatedBytes() + scan.getForkedAllocatedBytes() : -1);
+        validators.add(new ValidatorSample(List.copyOf(tests), total, scan));
+    }
+
+    /// Adds the loading of the header of an RPM package.
+    ///
+    /// @param path   The path of the RPM package.
+    /// @param sample The resources used by the thread loading the package.
+    void addRpmLoad(Path path, Sample sample) {
+        rpmLoads.put(path, sample);
+    }
+
+    /// Returns the phases of the run, in the order in which they were first
+    /// added.
+    ///
+    /// @return The phases.
+    List<Sample> getPhases() {
+        synchronized (phases) {
+            return List.copyOf(phases);
+        }
+    }
+
+    /// Returns the validators, sorted by their test names.
+    ///
+    /// @return The validators.
+    List<ValidatorSample> getValidators() {
+        synchronized (validators) {
+            var result = new ArrayList<>(validators);
+            result.sort(Comparator.comparing(validator -> validator.tests().toString()));
+            return result;
+        }
+    }
+
+    /// Returns the payload scans of all the validators, by RPM package.
+    ///
+    /// @return The sums of the scans, sorted by the paths of the packages.
+    Map<Path, ScanMetrics.RpmScan> getRpmScans() {
+        var result = new TreeMap<Path, ScanMetrics.RpmScan>();
+        for (var validator : getValidators()) {
+            validator.scan().getRpmScans().forEach((path, scan) -> result.merge(path, scan, ScanMetrics.RpmScan::plus));
+        }
+        return result;
+    }
+
+    private static long sum(long a, long b) {
+        return a != -1 && b != -1 ? a + b : -1;
+    }
+
+    private static long total(Iterable<ValidatorSample> validators, ToLongFunction<ScanMetrics> counter) {
+        long result = 0;
+        for (var validator : validators) {
+            result += counter.applyAsLong(validator.scan());
+        }
+        return result;
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static String jsonString(String value) {
+        var result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> result.append("\\\"");
+                case '\\' -> result.append("\\\\");
+                case '\n' -> result.append("\\n");
+                case '\r' -> result.append("\\r");
+                case '\t' -> result.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+                }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    private static String jsonSeconds(long nanos) {
+        return nanos != -1 ? seconds(nanos) : "null";
+    }
+
+    private static String jsonBytes(long bytes) {
+        return bytes != -1 ? Long.toString(bytes) : "null";
+    }
+
+    private static void jsonSample(StringBuilder json, Sample sample) {
+        json.append("\"wallSeconds\": ").append(seconds(sample.wallNanos()));
+        json.append(", \"cpuSeconds\": ").append(jsonSeconds(sample.cpuNanos()));
+        json.append(", \"allocatedBytes\": ").append(jsonBytes(sample.allocatedBytes()));
+    }
+
+    /// Formats the metrics as JSON.
+    ///
+    /// @return The JSON document.
+    String toJson() {
+        var validators = getValidators();
+        var rpmScans = getRpmScans();
+        var rpms = new TreeMap<Path, Sample>(rpmLoads);
+        rpmScans.keySet().forEach(path -> rpms.putIfAbsent(path, null));
+
+        var json = new StringBuilder();
+        json.append("{\n  \"phases\": [");
+        var separator = "\n";
+        for (var phase : getPhases()) {
+            json.append(separator).append("    {\"name\": ").append(jsonString(phase.name())).append(", ");
+            jsonSample(json, phase);
+            json.append("}");
+            separator = ",\n";
+        }
+        json.append("\n  ],\n  \"validators\": [");
+        separator = "\n";
+        for (var validator : validators) {
+            json.append(separator).append("    {\"tests\": [");
+            json.append(String.join(", ", validator.tests().stream().map(Metrics::jsonString).toList())).append("], ");
+            jsonSample(json, validator.sample());
+            json.append(", \"payloadBytes\": ").append(validator.scan().getPayloadBytes());
+            json.append(", \"cpioEntries\": ").append(validator.scan().getCpioEntries());
+            json.append(", \"jarsOpened\": ").append(validator.scan().getJarsOpened());
+            json.append(", \"classesInspected\": ").append(validator.scan().getClassesInspected());
+            json.append("}");
+            separator = ",\n";
+        }
+        json.append("\n  ],\n  \"rpms\": [");
+        separator = "\n";
+        for (var entry : rpms.entrySet()) {
+            json.append(separator).append("    {\"path\": ").append(jsonString(entry.getKey().toString()));
+            var load = entry.getValue();
+            if (load != null) {
+                json.append(", \"loadWallSeconds\": ").append(seconds(load.wallNanos()));
+                json.append(", \"loadCpuSeconds\": ").append(jsonSeconds(load.cpuNanos()));
+                json.append(", \"loadAllocatedBytes\": ").append(jsonBytes(load.allocatedBytes()));
+            }
+            var scan = rpmScans.getOrDefault(entry.getKey(), new ScanMetrics.RpmScan(0, 0, 0));
+            json.append(", \"scanWallSeconds\": ").append(seconds(scan.nanos()));
+            json.append(", \"payloadBytes\": ").append(scan.payloadBytes());
+            json.append(", \"cpioEntries\": ").append(scan.cpioEntries());
+            json.append("}");
+            separator = ",\n";
+        }
+        json.append("\n  ],\n  \"totals\": {");
+        json.append("\"rpms\": ").append(rpms.size());
+        json.append(", \"payloadBytes\": ").append(total(validators, ScanMetrics::getPayloadBytes));
+        json.append(", \"cpioEntries\": ").append(total(validators, ScanMetrics::getCpioEntries));
+        json.append(", \"jarsOpened\": ").append(total(validators, ScanMetrics::getJarsOpened));
+        json.append(", \"classesInspected\": ").append(total(validators, ScanMetrics::getClassesInspected));
+        json.append("}\n}\n");
+        return json.toString();
+    }
+
+    private static String label(String name, String value) {
+        return name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    /// Writes metric families in the OpenMetrics text format.
+    private static final class OpenMetricsWriter {
+        private final StringBuilder text = new StringBuilder();
+
+        /// Writes a gauge family with its samples. Values in nanoseconds are
+        /// written in seconds, samples with the value `-1` are skipped.
+        ///
+        /// @param <T>    The type of the measured items.
+        /// @param name   The name of the family, without the prefix.
+        /// @param unit   The unit of the family, or `null`.
+        /// @param help   The description of the family.
+        /// @param items  The measured items.
+        /// @param labels The labels of an item, or `null` for none.
+        /// @param value  The value of an item.
+        <T> void gauge(String name, String unit, String help, Collection<T> items,
+                Function<T, String> labels, ToLongFunction<T> value) {
+            text.append("# TYPE ").append(PREFIX).append(name).append(" gauge\n");
+            if (unit != null) {
+                text.append("# UNIT ").append(PREFIX).append(name).append(" ").append(unit).append("\n");
+            }
+            text.append("# HELP ").append(PREFIX).append(name).append(" ").append(help).append("\n");
+            for (var item : items) {
+                long v = value.applyAsLong(item);
+                if (v == -1) {
+                    continue;
+                }
+                text.append(PREFIX).append(name);
+                var l = labels.apply(item);
+                if (l != null) {
+                    text.append("{").append(l).append("}");
+                }
+                text.append(" ").append("seconds".equals(unit) ? seconds(v) : Long.toString(v)).append("\n");
+            }
+        }
+    }
+
+    /// Formats the metrics in the OpenMetrics text format.
+    ///
+    /// @return The OpenMetrics exposition, terminated by `# EOF`.
+    String toOpenMetrics() {
+        var phases = getPhases();
+        var validators = getValidators();
+        var loads = new TreeMap<Path, Sample>(rpmLoads).entrySet();
+        var scans = getRpmScans().entrySet();
+        var out = new OpenMetricsWriter();
+
+        Function<Sample, String> phase = sample -> label("phase", sample.name());
+        out.gauge("phase_wall_seconds", "seconds", "Elapsed time of a phase of the run.",
+                phases, phase, Sample::wallNanos);
+        out.gauge("phase_cpu_seconds", "seconds", "CPU time of the process during a phase of the run.",
+                phases, phase, Sample::cpuNanos);
+        out.gauge("phase_allocated_bytes", "bytes", "Bytes allocated by the process during a phase of the run.",
+                phases, phase, Sample::allocatedBytes);
+
+        Function<ValidatorSample, String> tests = validator -> label("tests", String.join(" ", validator.tests()));
+        out.gauge("validator_wall_seconds", "seconds", "Elapsed time of validators.",
+                validators, tests, validator -> validator.sample().wallNanos());
+        out.gauge("validator_cpu_seconds", "seconds", "CPU time of validators, including the tasks they fork to other threads.",
+                validators, tests, validator -> validator.sample().cpuNanos());
+        out.gauge("validator_allocated_bytes", "bytes", "Bytes allocated by validators, including the tasks they fork to other threads.",
+                validators, tests, validator -> validator.sample().allocatedBytes());
+        out.gauge("validator_payload_bytes", "bytes", "Size of the RPM payload entries read by validators.",
+                validators, tests, validator -> validator.scan().getPayloadBytes());
+        out.gauge("validator_cpio_entries", null, "Number of RPM payload entries read by validators.",
+                validators, tests, validator -> validator.scan().getCpioEntries());
+        out.gauge("validator_jars_opened", null, "Number of JAR files opened by validators.",
+                validators, tests, validator -> validator.scan().getJarsOpened());
+        out.gauge("validator_classes_inspected", null, "Number of class files inspected by validators.",
+                validators, tests, validator -> validator.scan().getClassesInspected());
+
+        out.gauge("rpm_load_wall_seconds", "seconds", "Elapsed time of reading the header of an RPM package.",
+                loads, entry -> label("rpm", entry.getKey().toString()), entry -> entry.getValue().wallNanos());
+        out.gauge("rpm_load_cpu_seconds", "seconds", "CPU time of reading the header of an RPM package.",
+                loads, entry -> label("rpm", entry.getKey().toString()), entry -> entry.getValue().cpuNanos());
+        out.gauge("rpm_scan_wall_seconds", "seconds", "Elapsed time of the payload scans of an RPM package by all validators.",
+                scans, entry -> label("rpm", entry.getKey().toString()), entry -> entry.getValue().nanos());
+        out.gauge("rpm_payload_bytes", "bytes", "Size of the payload entries of an RPM package read by all validators.",
+                scans, entry -> label("rpm", entry.getKey().toString()), entry -> entry.getValue().payloadBytes());
+        out.gauge("rpm_cpio_entries", null, "Number of payload entries of an RPM package read by all validators.",
+                scans, entry -> label("rpm", entry.getKey().toString()), entry -> entry.getValue().cpioEntries());
+
+        out.text.append("# EOF\n");
+        return out.text.toString();
+    }
+
+    private static void writeAtomically(Path path, String content) throws IOException {
+        var temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /// Writes the metrics as [#JSON_FILE] and [#OPENMETRICS_FILE].
+    ///
+    /// @param directory The directory of the files, created if needed.
+    /// @throws IOException If the files cannot be written.
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        writeAtomically(directory.resolve(JSON_FILE), toJson());
+        writeAtomically(directory.resolve(OPENMETRICS_FILE), toOpenMetrics());
+    }
+}
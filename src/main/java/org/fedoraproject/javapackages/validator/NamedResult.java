@@ -10,7 +10,7 @@ import org.fedoraproject.javapackages.validator.spi.TestResult;
 /// Represents a test result with an associated name and optional start and end
 /// times. This class delegates result operations to another [Result]
 /// instance.
-class NamedResult implements Result {
+public class NamedResult implements Result {
 
     /// The delegate result instance.
     private Result delegate;
@@ -72,14 +72,14 @@ class NamedResult implements Result {
     /// Returns the start time of the test execution, if available.
     ///
     /// @return the start time, or `null` if not set
-    Instant getStartTime() {
+    public Instant getStartTime() {
         return startTime;
     }
 
     /// Returns the end time of the test execution, if available.
     ///
     /// @return the end time, or `null` if not set
-    Instant getEndTime() {
+    public Instant getEndTime() {
         return endTime;
     }
 }
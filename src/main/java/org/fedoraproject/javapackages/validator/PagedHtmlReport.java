@@ -0,0 +1,170 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.fedoraproject.javapackages.validator.MainTmt.HtmlTablePrintStream;
+import org.fedoraproject.javapackages.validator.spi.LogEntry;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
+import org.fedoraproject.javapackages.validator.spi.TestResult;
+
+/// Writes the log entries of a test as an HTML page rendering them lazily, for
+/// logs too large for [HtmlTablePrintStream].
+///
+/// The entries are written in chunks of [#CHUNK_SIZE] entries to a directory
+/// next to the page, each chunk as a script passing a JSON array of
+/// `[kind, message]` pairs to the script of the page. Unlike plain JSON files,
+/// such scripts can also be loaded by a page opened from the local file
+/// system. The page only lists the kinds of the entries of each chunk, the
+/// chunks are loaded while the page is scrolled down and those without any
+/// entry of the selected kinds are skipped. The script and the style sheet of
+/// the pages are shared, see [#writeAssets(Path)].
+final class PagedHtmlReport implements Closeable {
+    /// The directory of the shared assets, next to the pages.
+    static final String ASSETS_DIRECTORY = "_assets";
+
+    /// The number of entries of a chunk.
+    static final int CHUNK_SIZE = 1000;
+
+    private static final List<String> ASSETS = List.of("report.js", "style.css");
+
+    private final Path htmlFile;
+    private final Path dataDirectory;
+    private final TestResult result;
+    private final List<Integer> chunkKinds = new ArrayList<>();
+    private final StringBuilder chunk = new StringBuilder();
+    private int chunkEntries = 0;
+    private int kinds = 0;
+
+    /// Constructs a report.
+    ///
+    /// @param htmlFile      The page.
+    /// @param dataDirectory The directory of the chunks, next to the page.
+    /// @param result        The result of the test.
+    /// @throws IOException If the directory of the chunks cannot be created.
+    PagedHtmlReport(Path htmlFile, Path dataDirectory, TestResult result) throws IOException {
+        this.htmlFile = htmlFile;
+        this.dataDirectory = dataDirectory;
+        this.result = result;
+        Files.createDirectories(dataDirectory);
+    }
+
+    /// Writes the assets shared by the pages.
+    ///
+    /// @param directory The directory of the pages.
+    /// @throws IOException If the assets cannot be written.
+    static void writeAssets(Path directory) throws IOException {
+        var assets = directory.resolve(ASSETS_DIRECTORY);
+        Files.createDirectories(assets);
+        for (var asset : ASSETS) {
+            try (var is = MainTmt.class.getResourceAsStream("/tmt_html/" + asset)) {
+                Files.copy(is, assets.resolve(asset), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /// Formats a string as a JSON string which can be embedded in an HTML
+    /// script element.
+    private static String jsonString(String value) {
+        var result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> result.append("\\\"");
+                case '\\' -> result.append("\\\\");
+                case '\n' -> result.append("\\n");
+                case '\r' -> result.append("\\r");
+                case '\t' -> result.append("\\t");
+                case '<', '\u2028', '\u2029' -> result.append(String.format("\\u%04x", (int) c));
+                default -> {
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+                }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /// Adds a log entry.
+    ///
+    /// @param entry The log entry.
+    /// @throws IOException If a chunk cannot be written.
+    void add(LogEntry entry) throws IOException {
+        if (chunkEntries == 0) {
+            chunk.append("jpvReport.chunk(").append(chunkKinds.size()).append(", [");
+        } else {
+            chunk.append(",");
+        }
+        chunk.append(System.lineSeparator()).append('[').append(entry.kind().ordinal()).append(", ");
+        chunk.append(jsonString(Main.decoratedObjects(entry, HtmlDecorator.INSTANCE))).append(']');
+        kinds |= 1 << entry.kind().ordinal();
+        if (++chunkEntries == CHUNK_SIZE) {
+            writeChunk();
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        chunk.append("]);").append(System.lineSeparator());
+        Files.writeString(dataDirectory.resolve(chunkKinds.size() + ".js"), chunk, StandardCharsets.UTF_8);
+        chunkKinds.add(kinds);
+        chunk.setLength(0);
+        chunkEntries = 0;
+        kinds = 0;
+    }
+
+    /// Writes the last chunk and the page.
+    ///
+    /// @throws IOException If the chunk or the page cannot be written.
+    @Override
+    public void close() throws IOException {
+        if (chunkEntries != 0) {
+            writeChunk();
+        }
+
+        var dataPath = URLEncoder.encode(dataDirectory.getFileName().toString(), StandardCharsets.UTF_8).replace("+", "%20") + "/";
+        var html = new StringBuilder();
+        html.append("""
+<!DOCTYPE html>
+<html>
+<head>
+<meta charset="utf-8">
+<link rel="stylesheet" type="text/css" href="%1$s/style.css">
+<script type="text/javascript" src="%1$s/report.js"></script>
+</head>
+<body>
+""".formatted(ASSETS_DIRECTORY));
+        html.append(HtmlTablePrintStream.filterTable(result));
+        html.append("""
+
+<table id="entries">
+</table>
+<script type="text/javascript">
+""");
+        html.append("jpvReport.open(").append(jsonString(dataPath)).append(", [");
+        html.append(Stream.of(LogEvent.values()).map(event -> jsonString(event.toString())).collect(Collectors.joining(", ")));
+        html.append("], [");
+        html.append(Stream.of(LogEvent.values()).map(event -> jsonString(HtmlDecorator.INSTANCE.decorate(event.getDecorated())))
+                .collect(Collectors.joining(", ")));
+        html.append("], [");
+        html.append(chunkKinds.stream().map(Object::toString).collect(Collectors.joining(", ")));
+        html.append("]);");
+        html.append(System.lineSeparator());
+        html.append("""
+</script>
+</body>
+</html>
+""");
+        Files.writeString(htmlFile, html, StandardCharsets.UTF_8);
+    }
+}
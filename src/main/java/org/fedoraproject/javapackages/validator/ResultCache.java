@@ -0,0 +1,435 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.spi.Decoration;
+import org.fedoraproject.javapackages.validator.spi.LogEntry;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
+import org.fedoraproject.javapackages.validator.spi.Result;
+import org.fedoraproject.javapackages.validator.spi.ResultBuilder;
+import org.fedoraproject.javapackages.validator.spi.TestResult;
+import org.fedoraproject.javapackages.validator.spi.Validator;
+import org.fedoraproject.javapackages.validator.util.CodeDigest;
+import org.fedoraproject.javapackages.validator.util.Common;
+import org.fedoraproject.javapackages.validator.util.EntryPathTable;
+import org.fedoraproject.javapackages.validator.util.JarAccess;
+import org.fedoraproject.javapackages.validator.util.JarFactCache;
+import org.fedoraproject.javapackages.validator.util.JarFacts;
+import org.fedoraproject.javapackages.validator.util.PayloadEntry;
+import org.fedoraproject.javapackages.validator.util.PayloadScanEngine;
+import org.fedoraproject.javapackages.validator.util.PayloadScanner;
+import org.fedoraproject.javapackages.validator.util.RpmFileManifest;
+import org.fedoraproject.javapackages.validator.util.RpmHeaderDigest;
+
+/// A persistent cache of validation results, stored as one file per result in
+/// a directory.
+///
+/// A result is stored under a key derived from the validator class together
+/// with the bytecode of its class hierarchy, the code shared by the validators,
+/// see [#codeDigest], the test name, the arguments of the validator and the
+/// paths and main header digests of the validated RPM files, see
+/// [RpmHeaderDigest]. When the key of a validator is found, the
+/// validator does not need to be run, its log entries and test result are
+/// replayed instead. The decorated objects of the log entries are stored as
+/// their string representation together with their decoration.
+///
+/// The directory is shared with the facts about JAR files stored by
+/// [JarFactCache]. The least recently used results and facts are evicted once
+/// their total size exceeds the limit of the cache.
+class ResultCache {
+
+    /// The default maximum total size of the cached results in bytes.
+    static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    /// The version of the format of the cached results, part of every key.
+    private static final int FORMAT_VERSION = 1;
+    /// The file name suffix of the cached results.
+    private static final String SUFFIX = ".result";
+
+    /// The helper classes used by the validators, whose bytecode is part of
+    /// every key.
+    private static final Class<?>[] HELPER_CLASSES = {
+        Common.class,
+        EntryPathTable.class,
+        JarAccess.class,
+        JarFactCache.class,
+        JarFacts.class,
+        PayloadEntry.class,
+        PayloadScanEngine.class,
+        PayloadScanner.class,
+        RpmFileManifest.class,
+    };
+
+    /// The digests of the code shared by the validators loaded by a class
+    /// loader, see [#codeDigest].
+    private static final Map<ClassLoader, Optional<byte[]>> CODE_DIGESTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /// The directory holding the cached results.
+    private final Path directory;
+    /// The maximum total size of the cached results in bytes.
+    private final long maxSize;
+
+    /// Constructs a cache, creating its directory if needed.
+    ///
+    /// @param directory The directory holding the cached results.
+    /// @param maxSize   The maximum total size of the cached results in bytes.
+    /// @throws IOException If the directory cannot be created.
+    ResultCache(Path directory, long maxSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxSize = maxSize;
+    }
+
+    private static void writeString(DataOutputStream os, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        os.writeInt(bytes.length);
+        os.write(bytes);
+    }
+
+    private static String readString(DataInputStream is) throws IOException {
+        int length = is.readInt();
+        if (length < 0) {
+            throw new IOException("Malformed cached result");
+        }
+        return new String(is.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    /// Computes the digest of the validated RPM files, reading only their
+    /// headers.
+    ///
+    /// @param rpmFiles The paths to the RPM files, in the order of validation.
+    /// @return The digest.
+    /// @throws IOException If the header of some of the RPM files cannot be
+    ///                     read.
+    static byte[] inputDigest(List<Path> rpmFiles) throws IOException {
+        List<byte[]> headerDigests;
+        try {
+            headerDigests = rpmFiles.parallelStream().map(path -> {
+                try {
+                    return RpmHeaderDigest.sha256(path);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }).toList();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        var digest = CodeDigest.sha256();
+        for (int i = 0; i != rpmFiles.size(); ++i) {
+            Digests.updateString(digest, rpmFiles.get(i).toString());
+            digest.update(headerDigests.get(i));
+        }
+        return digest.digest();
+    }
+
+    /// Computes the digest of the bytecode of a validator class, its nested
+    /// classes, its superclasses and the interfaces it implements, other than
+    /// those of the platform.
+    ///
+    /// @param validatorClass The validator class.
+    /// @return The digest, or `null` if the bytecode of some of the classes is
+    ///         not available.
+    private static byte[] bytecodeDigest(Class<?> validatorClass) {
+        var digest = CodeDigest.sha256();
+        var interfaces = new TreeMap<String, Class<?>>();
+        for (Class<?> cls = validatorClass; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            if (!CodeDigest.update(digest, cls.getNestHost())) {
+                return null;
+            }
+            var pending = new ArrayDeque<>(List.of(cls.getInterfaces()));
+            while (!pending.isEmpty()) {
+                var type = pending.poll();
+                if (type.getClassLoader() != null && interfaces.putIfAbsent(type.getName(), type) == null) {
+                    pending.addAll(List.of(type.getInterfaces()));
+                }
+            }
+        }
+        for (var type : interfaces.values()) {
+            if (!CodeDigest.update(digest, type.getNestHost())) {
+                return null;
+            }
+        }
+        return digest.digest();
+    }
+
+    /// Updates a digest with the content of the JAR files on a class path.
+    /// Directories are skipped, the classes they contain are covered by the
+    /// bytecode digests.
+    ///
+    /// @param digest    The digest.
+    /// @param classPath The entries of the class path.
+    /// @throws IOException If a JAR file cannot be read.
+    private static void updateClassPath(MessageDigest digest, List<Path> classPath) throws IOException {
+        for (var path : classPath) {
+            if (Files.isRegularFile(path)) {
+                Digests.updateString(digest, path.toString());
+                Digests.updateFile(digest, path);
+            }
+        }
+    }
+
+    /// Computes the digest of the code shared by the validators loaded by a
+    /// class loader: the bytecode of the helper classes, the version of the
+    /// tool and the content of the JAR files on the class path of the tool
+    /// and of the class loader, which include the dependencies of the tool
+    /// and of the validators. The digest is computed once for each class
+    /// loader.
+    ///
+    /// @param classLoader The class loader of the validators.
+    /// @return The digest, or `null` if some of the code is not available.
+    static byte[] codeDigest(ClassLoader classLoader) {
+        return CODE_DIGESTS.computeIfAbsent(classLoader, loader -> {
+            var digest = CodeDigest.sha256();
+            if (!CodeDigest.update(digest, HELPER_CLASSES)) {
+                return Optional.empty();
+            }
+            Digests.updateString(digest, Objects.toString(ResultCache.class.getPackage().getImplementationVersion(), ""));
+            var classPath = new ArrayList<Path>();
+            for (var entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+                if (!entry.isEmpty()) {
+                    classPath.add(Path.of(entry));
+                }
+            }
+            for (var current = loader; current != null; current = current.getParent()) {
+                if (current instanceof URLClassLoader urlClassLoader) {
+                    for (var url : urlClassLoader.getURLs()) {
+                        if (url.getProtocol().equals("file")) {
+                            try {
+                                classPath.add(Path.of(url.toURI()));
+                            } catch (URISyntaxException | IllegalArgumentException _) {
+                                return Optional.empty();
+                            }
+                        }
+                    }
+                }
+            }
+            try {
+                updateClassPath(digest, classPath);
+            } catch (IOException _) {
+                return Optional.empty();
+            }
+            return Optional.of(digest.digest());
+        }).orElse(null);
+    }
+
+    /// Computes the key of the result of a validator.
+    ///
+    /// @param validator   The validator.
+    /// @param args        The arguments of the validator, or `null`.
+    /// @param inputDigest The digest of the validated RPM files, see
+    ///                    [#inputDigest].
+    /// @return The key, or `null` if the result of the validator cannot be
+    ///         cached.
+    static String key(Validator validator, List<String> args, byte[] inputDigest) {
+        return key(validator, args, LogEvent.debug, inputDigest);
+    }
+
+    /// Computes the key of the result of a validator keeping only some of its
+    /// log entries. Results keeping all the entries have the same key as
+    /// computed by [#key(Validator, List, byte\[\])].
+    ///
+    /// @param validator   The validator.
+    /// @param args        The arguments of the validator, or `null`.
+    /// @param logLevel    The least severe kind of log entries kept.
+    /// @param inputDigest The digest of the validated RPM files, see
+    ///                    [#inputDigest].
+    /// @return The key, or `null` if the result of the validator cannot be
+    ///         cached.
+    static String key(Validator validator, List<String> args, LogEvent logLevel, byte[] inputDigest) {
+        var bytecode = bytecodeDigest(validator.getClass());
+        var code = codeDigest(validator.getClass().getClassLoader());
+        if (bytecode == null || code == null) {
+            return null;
+        }
+
+        var digest = CodeDigest.sha256();
+        Digests.updateInt(digest, FORMAT_VERSION);
+        Digests.updateString(digest, validator.getClass().getName());
+        digest.update(bytecode);
+        digest.update(code);
+        Digests.updateString(digest, validator.getTestName());
+        if (args == null) {
+            Digests.updateInt(digest, -1);
+        } else {
+            Digests.updateInt(digest, args.size());
+            for (var arg : args) {
+                Digests.updateString(digest, arg);
+            }
+        }
+        if (logLevel != LogEvent.debug) {
+            Digests.updateString(digest, logLevel.name());
+        }
+        digest.update(inputDigest);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /// Returns the directory holding the cached results.
+    ///
+    /// @return The directory.
+    Path getDirectory() {
+        return directory;
+    }
+
+    private Path resolve(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    /// Loads a cached result and marks it as recently used.
+    ///
+    /// @param key The key of the result.
+    /// @return The result, or `null` if the result is not cached or the cached
+    ///         result cannot be read.
+    Result load(String key) {
+        var path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try (var is = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (is.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown format of cached result");
+            }
+            var result = new ResultBuilder();
+            result.mergeResult(TestResult.valueOf(readString(is)));
+            for (int entries = is.readInt(); entries > 0; --entries) {
+                var kind = LogEvent.valueOf(readString(is));
+                var pattern = readString(is);
+                var objects = new Decorated[is.readInt()];
+                for (int i = 0; i != objects.length; ++i) {
+                    var text = readString(is);
+                    var color = readString(is);
+                    var modifiers = new Decoration.Modifier[is.readInt()];
+                    for (int j = 0; j != modifiers.length; ++j) {
+                        modifiers[j] = Decoration.Modifier.valueOf(readString(is));
+                    }
+                    objects[i] = Decorated.custom(text, new Decoration(
+                            color.isEmpty() ? Optional.empty() : Optional.of(Decoration.Color.valueOf(color)), modifiers));
+                }
+                result.addLog(new LogEntry(kind, pattern, objects));
+            }
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return result.build();
+        } catch (IOException | IllegalArgumentException | NegativeArraySizeException _) {
+            // The cached result is unusable, it is replaced by the new result
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException _) {
+                // Ignore, the result is evicted later
+            }
+            return null;
+        }
+    }
+
+    /// Stores a result. The result is first written to a temporary file, so
+    /// that no partially written result is ever loaded.
+    ///
+    /// @param key    The key of the result.
+    /// @param result The result.
+    /// @throws IOException If the result cannot be written.
+    void store(String key, Result result) throws IOException {
+        var tempFile = Files.createTempFile(directory, key, ".tmp");
+        try {
+            try (var os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                os.writeInt(FORMAT_VERSION);
+                writeString(os, result.getResult().name());
+                var entries = new ArrayList<LogEntry>();
+                result.forEach(entries::add);
+                os.writeInt(entries.size());
+                for (var entry : entries) {
+                    writeString(os, entry.kind().name());
+                    writeString(os, entry.pattern());
+                    os.writeInt(entry.objects().length);
+                    for (var object : entry.objects()) {
+                        writeString(os, String.valueOf(object.getObject()));
+                        writeString(os, object.getDecoration().color().map(Enum::name).orElse(""));
+                        os.writeInt(object.getDecoration().modifiers().length);
+                        for (var modifier : object.getDecoration().modifiers()) {
+                            writeString(os, modifier.name());
+                        }
+                    }
+                }
+            }
+            Files.move(tempFile, resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static boolean isCacheFile(Path path) {
+        var name = path.getFileName().toString();
+        return name.endsWith(SUFFIX) || name.endsWith(JarFactCache.SUFFIX);
+    }
+
+    /// Lists the cached results and the stored facts about JAR files with their
+    /// attributes.
+    ///
+    /// @return The cached files.
+    /// @throws IOException If the directory cannot be read.
+    private List<Map.Entry<Path, BasicFileAttributes>> list() throws IOException {
+        var result = new ArrayList<Map.Entry<Path, BasicFileAttributes>>();
+        try (var files = Files.list(directory)) {
+            for (var path : files.filter(p -> isCacheFile(p)).toList()) {
+                try {
+                    result.add(Map.entry(path, Files.readAttributes(path, BasicFileAttributes.class)));
+                } catch (IOException _) {
+                    // Removed concurrently
+                }
+            }
+        }
+        return result;
+    }
+
+    /// Deletes the least recently used results and facts about JAR files until
+    /// the total size of the cache does not exceed its limit.
+    ///
+    /// @throws IOException If the directory cannot be read or a result cannot
+    ///                     be deleted.
+    void evict() throws IOException {
+        var results = list();
+        long size = results.stream().mapToLong(result -> result.getValue().size()).sum();
+        results.sort(Comparator.comparing(result -> result.getValue().lastModifiedTime()));
+        for (var it = results.iterator(); size > maxSize && it.hasNext();) {
+            var result = it.next();
+            Files.deleteIfExists(result.getKey());
+            size -= result.getValue().size();
+        }
+    }
+
+    /// Deletes all the cached results and facts about JAR files.
+    ///
+    /// @throws IOException If the directory cannot be read or a result cannot
+    ///                     be deleted.
+    void clear() throws IOException {
+        for (var result : list()) {
+            Files.deleteIfExists(result.getKey());
+        }
+    }
+}
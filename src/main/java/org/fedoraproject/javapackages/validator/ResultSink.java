@@ -0,0 +1,31 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.IOException;
+
+/// Receives the results of the tests of a run as soon as they are available,
+/// rather than all of them at the end of the run.
+///
+/// The results are received in the order of the tests, followed by the result
+/// of loading the RPM files, if any failed. A sink is not required to be thread
+/// safe, all the results are passed by the same thread.
+interface ResultSink extends AutoCloseable {
+    /// Receives the result of a test.
+    ///
+    /// @param result The result.
+    /// @throws Exception If the result cannot be processed.
+    void accept(NamedResult result) throws Exception;
+
+    /// Completes the report of the run after the last result.
+    ///
+    /// @return The exit code of the run.
+    /// @throws Exception If the report cannot be completed.
+    int finish() throws Exception;
+
+    /// Releases the resources of the sink, whether the report was completed or
+    /// not.
+    ///
+    /// @throws IOException If the resources cannot be released.
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,225 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// A bounded producer/consumer pipeline streaming RPM packages to multiple
+/// consumers.
+///
+/// A producer thread pulls the packages from the source iterator and hands
+/// each of them to every open subscription. Each subscription buffers at most
+/// the configured look-ahead number of packages, so the producer runs ahead of
+/// the slowest consumer by at most that many packages and the input is never
+/// held in memory as a whole.
+///
+/// RPM files which cannot be read are skipped and collected, see
+/// [#getLoadFailures].
+class RpmPipeline {
+
+    /// Marker placed in the subscription queues after the last package.
+    private static final Object END = new Object();
+
+    /// The source of the RPM packages.
+    private final Iterator<RpmPackage> source;
+    /// The maximum number of packages buffered by each subscription.
+    private final int lookAhead;
+    /// The subscriptions to the packages.
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    /// The producer thread, or `null` if not started.
+    private Thread producer = null;
+    /// The RPM files which could not be read.
+    private final List<ArgFileIterator.LoadException> loadFailures = new ArrayList<>(0);
+    /// The exception thrown by the source, or `null`.
+    private volatile RuntimeException failure = null;
+
+    /// A sequence of all the RPM packages produced by the pipeline.
+    ///
+    /// The packages are streamed to the first iterator. The paths of the
+    /// packages taken from the pipeline are kept, an iterator created after
+    /// that reads these packages again from their files, so that consumers
+    /// iterating over the packages more than once see all of them.
+    class Subscription implements Iterable<RpmPackage>, AutoCloseable {
+
+        /// The packages produced but not yet consumed.
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(lookAhead);
+        /// Whether the consumer no longer accepts packages.
+        private volatile boolean closed = false;
+        /// The paths of the packages taken from the queue, in their order.
+        private final List<Path> taken = new ArrayList<>();
+        /// Whether the end marker has been taken from the queue.
+        private boolean ended = false;
+
+        /// Hands an item to the consumer, waiting for space in the queue unless the
+        /// subscription is closed. Closing the subscription clears the queue, which
+        /// releases the wait.
+        ///
+        /// @param item The RPM package or the end marker.
+        /// @throws InterruptedException If the producer is interrupted.
+        private void offer(Object item) throws InterruptedException {
+            if (!closed) {
+                queue.put(item);
+                if (closed) {
+                    queue.clear();
+                }
+            }
+        }
+
+        /// Returns the package at a position of the sequence, taking it from the
+        /// queue if no iterator has reached that position yet.
+        ///
+        /// @param index The position.
+        /// @return The package, or `null` after the last one.
+        private synchronized RpmPackage get(int index) {
+            if (index < taken.size()) {
+                try {
+                    return new RpmPackage(taken.get(index));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            if (ended) {
+                return null;
+            }
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+            if (item == END) {
+                ended = true;
+                return null;
+            }
+            var rpm = RpmPackage.class.cast(item);
+            taken.add(rpm.getPath());
+            return rpm;
+        }
+
+        /// Returns an iterator over the packages.
+        ///
+        /// @return An iterator over the packages.
+        @Override
+        public Iterator<RpmPackage> iterator() {
+            return new Iterator<>() {
+                private int index = 0;
+                private RpmPackage next = null;
+
+                @Override
+                public boolean hasNext() {
+                    if (next == null) {
+                        next = get(index);
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public RpmPackage next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    var result = next;
+                    next = null;
+                    ++index;
+                    return result;
+                }
+            };
+        }
+
+        /// Stops handing packages to this subscription and releases the buffered
+        /// ones.
+        @Override
+        public void close() {
+            closed = true;
+            queue.clear();
+        }
+    }
+
+    /// Constructs a pipeline.
+    ///
+    /// @param source    The source of the RPM packages.
+    /// @param lookAhead The maximum number of packages buffered for each
+    ///                  consumer.
+    RpmPipeline(Iterator<RpmPackage> source, int lookAhead) {
+        this.source = source;
+        this.lookAhead = lookAhead;
+    }
+
+    /// Creates a new subscription. All subscriptions must be created before the
+    /// pipeline is started.
+    ///
+    /// @return The new subscription.
+    Subscription subscribe() {
+        if (producer != null) {
+            throw new IllegalStateException("The pipeline has already been started");
+        }
+        var result = new Subscription();
+        subscriptions.add(result);
+        return result;
+    }
+
+    /// Starts the producer thread.
+    void start() {
+        producer = Thread.ofPlatform().name("rpm-producer").daemon().start(this::produce);
+    }
+
+    /// Pulls all the packages from the source and hands them to the
+    /// subscriptions. The source is consumed to the end even if all the
+    /// subscriptions are closed, so that unreadable input is always detected.
+    private void produce() {
+        try {
+            while (source.hasNext()) {
+                RpmPackage rpm;
+                try {
+                    rpm = source.next();
+                } catch (ArgFileIterator.LoadException ex) {
+                    loadFailures.add(ex);
+                    continue;
+                }
+                for (var subscription : subscriptions) {
+                    subscription.offer(rpm);
+                }
+            }
+        } catch (RuntimeException ex) {
+            failure = ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (var subscription : subscriptions) {
+                try {
+                    subscription.offer(END);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /// Waits for the producer to finish.
+    ///
+    /// @throws InterruptedException If the current thread is interrupted.
+    /// @throws RuntimeException     The exception thrown by the source, if any.
+    void await() throws InterruptedException {
+        producer.join();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /// Returns the RPM files which could not be read, in the order of the input.
+    /// Must only be called after [#await] has returned.
+    ///
+    /// @return The failures to read RPM files.
+    List<ArgFileIterator.LoadException> getLoadFailures() {
+        return loadFailures;
+    }
+}
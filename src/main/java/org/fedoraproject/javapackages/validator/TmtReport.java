@@ -0,0 +1,247 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.collections4.IterableUtils;
+import org.fedoraproject.javapackages.validator.MainTmt.HtmlTablePrintStream;
+import org.fedoraproject.javapackages.validator.spi.LogEntry;
+import org.fedoraproject.javapackages.validator.spi.ResultBuilder;
+import org.fedoraproject.javapackages.validator.util.ValidatorEvents;
+
+/// Writes the results of a run as tmt test artifacts as they are received.
+///
+/// Each result is written to a `.log` and an `.html` file by a pool of
+/// threads, each log entry is formatted in a single pass over the result that
+/// writes both files. The `.html` file is either a single table or, in the
+/// paged mode, a page loading the entries in chunks, see [PagedHtmlReport].
+/// At most twice as many results as there are threads are held while waiting
+/// to be written. The `results.yaml` file listing the results is written in
+/// the order of the results through a single buffered writer, the entry of a
+/// result only once its files are written, so that it never lists files whose
+/// writing failed.
+final class TmtReport implements ResultSink {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path testData;
+    private final Map<String, List<LogEntry>> additionalLogs;
+    private final Map<String, ResultBuilder> reports;
+    private final boolean paged;
+    private final TextDecorator decorator;
+    private final ExecutorService executor;
+    private final Semaphore pending;
+    private final Deque<Write> writes = new ArrayDeque<>();
+    private final BufferedWriter resultsYaml;
+    private Exception failure;
+
+    /// The writing of the files of a result.
+    ///
+    /// @param yaml   The entry of the result in `results.yaml`.
+    /// @param future The completion of the writing.
+    private static record Write(String yaml, Future<?> future) {
+    }
+
+    /// Constructs a report.
+    ///
+    /// @param testData       The tmt test data directory.
+    /// @param additionalLogs Log entries written before the entries of the
+    ///                       results, by test names.
+    /// @param reports        Results written after all the received results,
+    ///                       by test names.
+    /// @param jobs           The number of threads writing the results.
+    /// @param paged          Whether the `.html` files are paged.
+    /// @param decorator      The decorator of the `.log` files.
+    /// @throws IOException If the results directory cannot be created or
+    ///                     `results.yaml` cannot be opened.
+    TmtReport(Path testData, Map<String, List<LogEntry>> additionalLogs, Map<String, ResultBuilder> reports, int jobs,
+            boolean paged, TextDecorator decorator) throws IOException {
+        this.testData = testData;
+        this.additionalLogs = additionalLogs;
+        this.reports = reports;
+        this.paged = paged;
+        this.decorator = decorator;
+        Files.createDirectories(testData.resolve("results"));
+        if (paged) {
+            PagedHtmlReport.writeAssets(testData.resolve("results"));
+        }
+        this.resultsYaml = Files.newBufferedWriter(testData.resolve("results.yaml"), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.executor = Executors.newFixedThreadPool(jobs, Thread.ofPlatform().name("tmt-report-", 0).factory());
+        this.pending = new Semaphore(2 * jobs);
+    }
+
+    private static String getFormattedDuration(Instant startTime, Instant endTime) {
+        var duration = Duration.between(startTime, endTime);
+        // TODO Wait for resolution within TF
+        // return String.format("%02d:%02d:%02d.%03d", duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart(), duration.toMillisPart());
+
+        return "%02d:%02d:%02d".formatted(duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+    }
+
+    @Override
+    public void accept(NamedResult namedResult) throws IOException, InterruptedException {
+        var resultFile = "results/";
+        resultFile += namedResult.getTestName().substring(1).replace('/', '.');
+
+        var yaml = yamlEntry(namedResult, resultFile);
+
+        var logs = IterableUtils.chainedIterable(additionalLogs
+                .getOrDefault(namedResult.getTestName(), Collections.emptyList()), namedResult);
+        var path = testData.resolve(resultFile);
+        var logFile = testData.resolve(resultFile + ".log");
+        var htmlFile = testData.resolve(resultFile + ".html");
+        var dataDirectory = testData.resolve(resultFile + ".d");
+        pending.acquire();
+        writes.add(new Write(yaml, executor.submit(() -> {
+            try {
+                writeFiles(namedResult, logs, path, logFile, htmlFile, dataDirectory);
+                return null;
+            } finally {
+                pending.release();
+            }
+        })));
+        appendWritten(false);
+    }
+
+    /// Appends the `results.yaml` entries of the results whose files are
+    /// written, in the order of the results. The first failure to write the
+    /// files of a result is kept to be thrown by [#finish()], the entry of that
+    /// result is left out.
+    ///
+    /// @param wait Whether to wait for all the pending writes.
+    /// @throws IOException          If `results.yaml` cannot be written.
+    /// @throws InterruptedException If interrupted while waiting.
+    private void appendWritten(boolean wait) throws IOException, InterruptedException {
+        while (!writes.isEmpty() && (wait || writes.getFirst().future().isDone())) {
+            var write = writes.removeFirst();
+            try {
+                write.future().get();
+                resultsYaml.append(write.yaml());
+            } catch (ExecutionException ex) {
+                var cause = ex.getCause() instanceof Exception exception ? exception : ex;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+    }
+
+    private static String yamlEntry(NamedResult namedResult, String resultFile) {
+        var resultYaml = new StringBuilder();
+        resultYaml.append("- name: '");
+        resultYaml.append(namedResult.getTestName());
+        resultYaml.append("'");
+        resultYaml.append(System.lineSeparator());
+        resultYaml.append("  result: ");
+        resultYaml.append(namedResult.getResult());
+        resultYaml.append(System.lineSeparator());
+
+        var startTime = namedResult.getStartTime();
+        if (startTime != null) {
+            resultYaml.append("  start-time: '");
+            resultYaml.append(startTime.atOffset(ZoneOffset.ofHours(1)).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            resultYaml.append("'");
+            resultYaml.append(System.lineSeparator());
+        }
+
+        var endTime = namedResult.getEndTime();
+        if (endTime != null) {
+            resultYaml.append("  end-time: '");
+            resultYaml.append(endTime.atOffset(ZoneOffset.ofHours(1)).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            resultYaml.append("'");
+            resultYaml.append(System.lineSeparator());
+        }
+
+        if (startTime != null && endTime != null) {
+            resultYaml.append("  duration: ");
+            resultYaml.append(getFormattedDuration(startTime, endTime));
+            resultYaml.append(System.lineSeparator());
+        }
+
+        resultYaml.append("  log: ");
+        resultYaml.append(System.lineSeparator());
+        resultYaml.append("   - '");
+        resultYaml.append(resultFile);
+        resultYaml.append(".log'");
+        resultYaml.append(System.lineSeparator());
+        resultYaml.append("   - '");
+        resultYaml.append(resultFile);
+        resultYaml.append(".html'");
+        resultYaml.append(System.lineSeparator());
+
+        return resultYaml.toString();
+    }
+
+    private void writeFiles(NamedResult namedResult, Iterable<LogEntry> logs, Path path, Path logFile, Path htmlFile,
+            Path dataDirectory) throws IOException {
+        var event = new ValidatorEvents.ReportWrite();
+        event.begin();
+        long entries = 0;
+        try (var log = new PrintStream(new BufferedOutputStream(Files.newOutputStream(logFile), BUFFER_SIZE), false, StandardCharsets.UTF_8);
+                var htmlOs = paged ? null : new BufferedOutputStream(Files.newOutputStream(htmlFile), BUFFER_SIZE);
+                var table = paged ? null : new HtmlTablePrintStream(htmlOs, namedResult.getResult());
+                var pages = paged ? new PagedHtmlReport(htmlFile, dataDirectory, namedResult.getResult()) : null) {
+            for (var entry : logs) {
+                log.println(Main.decorated(entry, decorator));
+                if (pages != null) {
+                    pages.add(entry);
+                } else {
+                    table.printRow(entry);
+                }
+                ++entries;
+            }
+        }
+
+        if (event.shouldCommit()) {
+            event.testName = namedResult.getTestName();
+            event.path = path.toString();
+            event.entries = entries;
+            event.bytes = Files.size(logFile) + Files.size(htmlFile);
+            event.commit();
+        }
+    }
+
+    @Override
+    public int finish() throws Exception {
+        for (var entry : reports.entrySet()) {
+            accept(new NamedResult(entry.getValue().build(), entry.getKey()));
+        }
+        appendWritten(true);
+        resultsYaml.flush();
+
+        if (failure != null) {
+            throw failure;
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Waits for the pending writes
+        try (resultsYaml) {
+            executor.close();
+        }
+    }
+}
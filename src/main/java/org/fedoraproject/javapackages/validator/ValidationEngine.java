@@ -0,0 +1,290 @@
+package org.fedoraproject.javapackages.validator;
+
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// An embeddable validator, running the tests of [Main] in the calling process
+/// and returning their results instead of printing them.
+///
+/// The engine compiles the validator sources, resolves their dependencies and
+/// loads the validator factories once, when it is built. Each validation then
+/// obtains new validators from the factories, validators hold the results of
+/// a run. An engine can be used any number of times, concurrently from
+/// multiple threads, until it is closed.
+///
+/// ```java
+/// try (var engine = ValidationEngine.builder()
+///         .sourcePath(Path.of("validators/src"))
+///         .outputDirectory(Path.of("validators/classes"))
+///         .test("/java/bytecode-version")
+///         .build()) {
+///     for (var result : engine.validateFiles(List.of(Path.of("build/RPMS")))) {
+///         System.out.println(result.getTestName() + ": " + result.getResult());
+///     }
+/// }
+/// ```
+public final class ValidationEngine implements AutoCloseable {
+
+    /// A builder of [ValidationEngine].
+    public static final class Builder {
+        private final Main.Parameters parameters = new Main.Parameters();
+
+        private Builder() {
+        }
+
+        /// Sets the directory of the validator sources, which requires an
+        /// output directory too.
+        ///
+        /// @param sourcePath The source path.
+        /// @return This builder.
+        public Builder sourcePath(Path sourcePath) {
+            parameters.sourcePath = sourcePath;
+            return this;
+        }
+
+        /// Sets the output directory of the compiled validator sources.
+        ///
+        /// @param outputDir The output directory.
+        /// @return This builder.
+        public Builder outputDirectory(Path outputDir) {
+            parameters.outputDir = outputDir;
+            return this;
+        }
+
+        /// Adds an entry of the class path of the validators. An entry ending
+        /// with `*` stands for all the JAR files in its parent directory.
+        ///
+        /// @param classPath The class path entry.
+        /// @return This builder.
+        public Builder classPath(Path classPath) {
+            parameters.classPaths.add(classPath);
+            return this;
+        }
+
+        /// Restricts the validators to those of a factory. Validators of all
+        /// the factories are used unless a factory is added.
+        ///
+        /// @param factory The fully qualified class name of the factory.
+        /// @return This builder.
+        public Builder factory(String factory) {
+            parameters.factories.add(factory);
+            return this;
+        }
+
+        /// Selects a test without arguments. All the tests are run unless a
+        /// test is selected.
+        ///
+        /// @param testName The name of the test.
+        /// @return This builder.
+        public Builder test(String testName) {
+            parameters.validatorArgs.put(testName, Optional.empty());
+            return this;
+        }
+
+        /// Selects a test with arguments. All the tests are run unless a test
+        /// is selected.
+        ///
+        /// @param testName The name of the test.
+        /// @param args     The arguments of the test.
+        /// @return This builder.
+        public Builder test(String testName, List<String> args) {
+            parameters.validatorArgs.put(testName, Optional.of(List.copyOf(args)));
+            return this;
+        }
+
+        /// Sets the maximum number of RPM packages read ahead of each
+        /// validator.
+        ///
+        /// @param lookAhead The number of RPM packages, at least 1.
+        /// @return This builder.
+        public Builder lookAhead(int lookAhead) {
+            if (lookAhead < 1) {
+                throw new IllegalArgumentException("Look-ahead must be a positive number: " + lookAhead);
+            }
+            parameters.lookAhead = lookAhead;
+            return this;
+        }
+
+        /// Sets the number of threads reading RPM files and scanning their
+        /// payloads in parallel in each validation of files.
+        ///
+        /// @param jobs The number of threads, at least 1.
+        /// @return This builder.
+        public Builder jobs(int jobs) {
+            if (jobs < 1) {
+                throw new IllegalArgumentException("Number of jobs must be a positive number: " + jobs);
+            }
+            parameters.jobs = jobs;
+            return this;
+        }
+
+        /// Sets the directory of the persistent result cache used by the
+        /// validations of files, see [ResultCache].
+        ///
+        /// @param cacheDir The cache directory, or `null` for no cache.
+        /// @return This builder.
+        public Builder cacheDirectory(Path cacheDir) {
+            parameters.cacheDir = cacheDir;
+            return this;
+        }
+
+        /// Sets the maximum size of the result cache.
+        ///
+        /// @param cacheSize The size in bytes.
+        /// @return This builder.
+        public Builder cacheSize(long cacheSize) {
+            if (cacheSize < 0) {
+                throw new IllegalArgumentException("Cache size must not be negative: " + cacheSize);
+            }
+            parameters.cacheSize = cacheSize;
+            return this;
+        }
+
+        /// Sets whether the dependencies of the validator sources are resolved
+        /// only from the local repository of the output directory.
+        ///
+        /// @param offline Whether no remote repository is used.
+        /// @return This builder.
+        public Builder offline(boolean offline) {
+            parameters.offline = offline;
+            return this;
+        }
+
+        /// Sets the least severe kind of log entries kept in the results of
+        /// validators extending [DefaultValidator], all the entries are kept by
+        /// default.
+        ///
+        /// @param logLevel The least severe kind of kept log entries.
+        /// @return This builder.
+        public Builder logLevel(LogEvent logLevel) {
+            parameters.logLevel = logLevel;
+            return this;
+        }
+
+        /// Builds the engine: compiles the validator sources if needed, loads
+        /// the validators and checks that the selected tests exist.
+        ///
+        /// @return The engine.
+        /// @throws Exception If the validators cannot be compiled or loaded or
+        ///                   some selected test does not exist.
+        public ValidationEngine build() throws Exception {
+            var main = new Main();
+            main.parameters = new Main.Parameters(parameters);
+            main.prepare();
+            if (main.parameters.sourcePath != null && main.parameters.outputDir == null) {
+                throw new IllegalArgumentException("If source path is specified then the output directory needs to be specified too");
+            }
+            var classLoader = main.createValidatorClassLoader();
+            try {
+                main.sharedClassLoader = classLoader;
+                var testNames = new TreeSet<>(main.select(main.discover()).keySet());
+                return new ValidationEngine(main.parameters, classLoader, testNames);
+            } catch (Exception ex) {
+                classLoader.close();
+                throw ex;
+            }
+        }
+    }
+
+    /// The parameters of the validations, without path arguments.
+    private final Main.Parameters parameters;
+    /// The class loader of the validators.
+    private final URLClassLoader classLoader;
+    /// The names of the tests run by each validation.
+    private final Set<String> testNames;
+
+    private ValidationEngine(Main.Parameters parameters, URLClassLoader classLoader, Set<String> testNames) {
+        this.parameters = parameters;
+        this.classLoader = classLoader;
+        this.testNames = Collections.unmodifiableSet(testNames);
+    }
+
+    /// Creates a builder of an engine.
+    ///
+    /// @return A new builder.
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /// Returns the names of the tests run by each validation.
+    ///
+    /// @return An unmodifiable sorted set of test names.
+    public Set<String> getTestNames() {
+        return testNames;
+    }
+
+    /// Creates the state of a single validation.
+    ///
+    /// @param argPaths The path arguments.
+    /// @return The state of the validation.
+    private Main createRun(List<Path> argPaths) {
+        var main = new Main();
+        main.parameters = new Main.Parameters(parameters);
+        main.parameters.argPaths = new ArrayList<>(argPaths);
+        main.sharedClassLoader = classLoader;
+        main.logger = new Logger();
+        return main;
+    }
+
+    /// Runs the tests of a validation, including the errors of tests
+    /// implemented by multiple validators.
+    ///
+    /// @param main   The state of the validation.
+    /// @param source The RPM packages.
+    /// @param cache  The result cache, or `null`.
+    /// @return The results.
+    /// @throws Exception If the validators cannot be loaded.
+    private static List<NamedResult> run(Main main, Iterator<RpmPackage> source, ResultCache cache) throws Exception {
+        var validators = main.select(main.discover());
+        var results = new ArrayList<NamedResult>(main.execute(validators.values(), source, cache));
+        for (var report : main.reports.entrySet()) {
+            results.add(new NamedResult(report.getValue().build(), report.getKey()));
+        }
+        return results;
+    }
+
+    /// Validates RPM packages. No results are cached, as the packages are
+    /// not identified by files.
+    ///
+    /// @param rpms The RPM packages, iterated only once.
+    /// @return The results of the tests, in the order of the validators.
+    /// @throws Exception If the validators cannot be loaded.
+    public List<NamedResult> validate(Iterable<RpmPackage> rpms) throws Exception {
+        return run(createRun(List.of()), rpms.iterator(), null);
+    }
+
+    /// Validates RPM files. RPM files which cannot be read are reported as
+    /// errors of a result named `/load-rpms`.
+    ///
+    /// @param paths The RPM files or directories containing them.
+    /// @return The results of the tests, in the order of the validators.
+    /// @throws Exception If the validators cannot be loaded or the result
+    ///                   cache cannot be opened.
+    public List<NamedResult> validateFiles(List<Path> paths) throws Exception {
+        var main = createRun(paths);
+        try (var rpmFiles = ArgFileIterator.create(paths, parameters.jobs)) {
+            return run(main, rpmFiles, main.openCache());
+        }
+    }
+
+    /// Closes the class loader of the validators. The results returned by
+    /// the engine remain usable.
+    ///
+    /// @throws IOException If the class loader cannot be closed.
+    @Override
+    public void close() throws IOException {
+        classLoader.close();
+    }
+}
@@ -0,0 +1,97 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/// The class loaders of validators kept by a long running process across runs
+/// of [Main], see [Daemon].
+///
+/// Creating the class loader involves the staleness check and the compilation
+/// of the validator sources, the resolution of their dependencies and the
+/// loading of the validator classes. A class loader is reused as long as the
+/// source path, the output directory and the class path of the run are the
+/// same and neither the files of the source path nor the class path entries
+/// have been modified since it was created. At most [#MAX_ENTRIES] class
+/// loaders are kept, the least recently used one is closed first.
+final class ValidatorClassLoaderCache implements AutoCloseable {
+
+    /// The maximum number of class loaders kept.
+    static final int MAX_ENTRIES = 4;
+
+    /// The options of a run determining the class loader of the validators.
+    ///
+    /// @param sourcePath The source path, or `null`.
+    /// @param outputDir  The output directory, or `null`.
+    /// @param classPaths The class path entries, before dependency resolution.
+    static record Key(Path sourcePath, Path outputDir, List<Path> classPaths) {
+    }
+
+    /// A class loader together with the modification times of the source path
+    /// and the class path entries when it was created.
+    private static record Entry(List<Optional<FileTime>> stamp, URLClassLoader classLoader) {
+    }
+
+    /// The class loaders by the options they were created for, in the order
+    /// of their use.
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /// Tests whether a class loader can be reused.
+    ///
+    /// @param key   The options of the run.
+    /// @param stamp The time of the most recently modified file of the source
+    ///              path followed by the times of the most recently modified
+    ///              files of the class path entries.
+    /// @return `true` if [#get] returns an existing class loader.
+    synchronized boolean isCurrent(Key key, List<Optional<FileTime>> stamp) {
+        var entry = entries.get(key);
+        return entry != null && entry.stamp().equals(stamp);
+    }
+
+    /// Returns the class loader of the validators of a run, creating it if
+    /// there is none or the sources or the class path entries have been
+    /// modified. Outdated and evicted class loaders are closed, the runs must
+    /// not overlap.
+    ///
+    /// @param key     The options of the run.
+    /// @param stamp   The modification times, see [#isCurrent].
+    /// @param factory Creates a new class loader.
+    /// @return The class loader.
+    /// @throws Exception If the class loader cannot be created.
+    synchronized URLClassLoader get(Key key, List<Optional<FileTime>> stamp, Callable<URLClassLoader> factory) throws Exception {
+        var entry = entries.get(key);
+        if (entry != null && entry.stamp().equals(stamp)) {
+            return entry.classLoader();
+        }
+        if (entry != null) {
+            entries.remove(key);
+            entry.classLoader().close();
+        }
+        var classLoader = factory.call();
+        entries.put(key, new Entry(stamp, classLoader));
+        var iterator = entries.values().iterator();
+        while (entries.size() > MAX_ENTRIES) {
+            var eldest = iterator.next();
+            iterator.remove();
+            eldest.classLoader().close();
+        }
+        return classLoader;
+    }
+
+    /// Closes all the class loaders.
+    ///
+    /// @throws IOException If some class loader cannot be closed.
+    @Override
+    public synchronized void close() throws IOException {
+        for (var entry : entries.values()) {
+            entry.classLoader().close();
+        }
+        entries.clear();
+    }
+}
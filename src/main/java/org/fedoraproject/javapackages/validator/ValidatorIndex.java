@@ -0,0 +1,209 @@
+package org.fedoraproject.javapackages.validator;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.fedoraproject.javapackages.validator.spi.Validator;
+import org.fedoraproject.javapackages.validator.util.CodeDigest;
+
+/// The index of the tests implemented by a validator factory, mapping each
+/// test name to the classes of the validators implementing it.
+///
+/// The index of a factory is the resource
+/// `META-INF/javapackages-validator/tests/<factory class name>`, a standard
+/// Java properties file whose keys are test names and whose values are
+/// space-separated fully qualified class names of validators. When specific
+/// tests are requested, an indexed factory implementing none of them is not
+/// called and none of its validator classes are loaded.
+///
+/// If the index contains the key [#INSTANTIATE_KEY] with the value `true`,
+/// the validators of the factory are equivalent to new instances of their
+/// classes, created by their public no-arg constructors. The factory is then
+/// not called either, only the validators of the requested tests are
+/// instantiated. Otherwise the validators of the requested tests are those
+/// returned by their factory.
+final class ValidatorIndex {
+    /// The directory of the indexes, relative to a class path root.
+    static final String DIRECTORY = "META-INF/javapackages-validator/tests";
+    /// The key of an index telling whether the validators of the factory can
+    /// be instantiated without the factory, it is not a test name as test
+    /// names start with `/`.
+    static final String INSTANTIATE_KEY = "instantiate";
+    /// The file holding the key of the indexes written under a class path
+    /// root, relative to the root, see [#key].
+    private static final String KEY_FILE = DIRECTORY + "/.key";
+
+    private ValidatorIndex() {
+    }
+
+    /// The index of a factory.
+    ///
+    /// @param tests        The class names of the validators, by test names.
+    /// @param instantiable Whether the validators can be instantiated without
+    ///                     the factory.
+    static record Index(Map<String, List<String>> tests, boolean instantiable) {
+    }
+
+    /// Returns the name of the index resource of a factory.
+    ///
+    /// @param factoryName The fully qualified class name of the factory.
+    /// @return The resource name.
+    static String resourceName(String factoryName) {
+        return DIRECTORY + "/" + factoryName;
+    }
+
+    /// Reads the index of a factory.
+    ///
+    /// @param classLoader The class loader of the factory.
+    /// @param factoryName The fully qualified class name of the factory.
+    /// @return The index, or `null` if the factory has no index.
+    /// @throws IOException If the index cannot be read.
+    static Index read(ClassLoader classLoader, String factoryName) throws IOException {
+        var resource = classLoader.getResource(resourceName(factoryName));
+        if (resource == null) {
+            return null;
+        }
+        var props = new Properties();
+        try (var is = resource.openStream()) {
+            props.load(is);
+        }
+        var instantiable = Boolean.parseBoolean((String) props.remove(INSTANTIATE_KEY));
+        var result = new TreeMap<String, List<String>>();
+        for (var testName : props.stringPropertyNames()) {
+            result.put(testName, Arrays.asList(props.getProperty(testName).strip().split("\\s+")));
+        }
+        return new Index(result, instantiable);
+    }
+
+    /// Creates the index of validators. The validators can be instantiated
+    /// without their factory if each of their classes is public, implements a
+    /// single test and has a public no-arg constructor creating a validator of
+    /// the same test.
+    ///
+    /// @param validators The validators of a factory.
+    /// @return The index.
+    static Index of(Collection<Validator> validators) {
+        var result = new TreeMap<String, List<String>>();
+        var classes = new HashSet<Class<?>>();
+        var instantiable = true;
+        for (var validator : validators) {
+            result.computeIfAbsent(validator.getTestName(), _ -> new ArrayList<>()).add(validator.getClass().getName());
+            instantiable = instantiable && classes.add(validator.getClass()) && isInstantiable(validator);
+        }
+        return new Index(result, instantiable);
+    }
+
+    private static boolean isInstantiable(Validator validator) {
+        var type = validator.getClass();
+        if (!Modifier.isPublic(type.getModifiers()) || Modifier.isAbstract(type.getModifiers())
+                || type.getEnclosingClass() != null && !Modifier.isStatic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return validator.getTestName().equals(type.getConstructor().newInstance().getTestName());
+        } catch (ReflectiveOperationException | RuntimeException _) {
+            return false;
+        }
+    }
+
+    /// Instantiates the validators of some of the tests of an index, see
+    /// [Index#instantiable].
+    ///
+    /// @param classLoader The class loader of the factory.
+    /// @param index       The index.
+    /// @param testNames   The test names.
+    /// @return The validators of the tests listed in the index.
+    /// @throws ReflectiveOperationException If a validator cannot be
+    ///                                      instantiated.
+    static List<Validator> instantiate(ClassLoader classLoader, Index index, Collection<String> testNames)
+            throws ReflectiveOperationException {
+        var result = new ArrayList<Validator>();
+        for (var testName : testNames) {
+            for (var className : index.tests().getOrDefault(testName, List.of())) {
+                var type = Class.forName(className, true, classLoader).asSubclass(Validator.class);
+                result.add(type.getConstructor().newInstance());
+            }
+        }
+        return result;
+    }
+
+    /// Computes the key of the indexes of compiled factories, which changes
+    /// whenever the indexes need to be written again.
+    ///
+    /// @param compileKey     The key of the compiled classes.
+    /// @param serviceContent The content of the service files listing the
+    ///                       factories.
+    /// @return The key.
+    static String key(String compileKey, String serviceContent) {
+        var digest = CodeDigest.sha256();
+        Digests.updateString(digest, compileKey);
+        Digests.updateString(digest, serviceContent);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /// Reads the key of the indexes written under a class path root.
+    ///
+    /// @param root The class path root directory.
+    /// @return The key, or `null` if no indexes have been written.
+    /// @throws IOException If the key cannot be read.
+    static String readKey(Path root) throws IOException {
+        var path = root.resolve(KEY_FILE);
+        return Files.isRegularFile(path) ? Files.readString(path, StandardCharsets.UTF_8) : null;
+    }
+
+    /// Deletes the indexes written under a class path root together with
+    /// their key.
+    ///
+    /// @param root The class path root directory.
+    /// @throws IOException If an index cannot be deleted.
+    static void clear(Path root) throws IOException {
+        var directory = root.resolve(DIRECTORY);
+        if (Files.isDirectory(directory)) {
+            try (var files = Files.list(directory)) {
+                for (var file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /// Writes the key of the indexes written under a class path root.
+    ///
+    /// @param root The class path root directory.
+    /// @param key  The key.
+    /// @throws IOException If the key cannot be written.
+    static void writeKey(Path root, String key) throws IOException {
+        var path = root.resolve(KEY_FILE);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, key, StandardCharsets.UTF_8);
+    }
+
+    /// Writes the index of a factory under a class path root.
+    ///
+    /// @param root        The class path root directory.
+    /// @param factoryName The fully qualified class name of the factory.
+    /// @param index       The index.
+    /// @throws IOException If the index cannot be written.
+    static void write(Path root, String factoryName, Index index) throws IOException {
+        var props = new Properties();
+        index.tests().forEach((testName, classNames) -> props.setProperty(testName, String.join(" ", classNames)));
+        props.setProperty(INSTANTIATE_KEY, Boolean.toString(index.instantiable()));
+        var path = root.resolve(resourceName(factoryName));
+        Files.createDirectories(path.getParent());
+        try (var os = Files.newOutputStream(path)) {
+            props.store(os, "Tests of " + factoryName);
+        }
+    }
+}
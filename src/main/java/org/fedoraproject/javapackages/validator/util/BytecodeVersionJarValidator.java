@@ -1,15 +1,17 @@
 package org.fedoraproject.javapackages.validator.util;
 
 import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
 
 import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
 import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
 import org.fedoraproject.javapackages.validator.spi.TestResult;
 
 import io.kojan.javadeptools.rpm.RpmPackage;
@@ -19,7 +21,29 @@ import io.kojan.javadeptools.rpm.RpmPackage;
 ///
 /// This validator processes JAR files contained in RPM packages and extracts
 /// bytecode version information from their compiled `.class` files.
-public abstract class BytecodeVersionJarValidator extends JarValidator {
+///
+/// The bytecode versions are taken from the facts about the JAR files, see
+/// [JarFacts], so that JAR files seen before are not read again. Subclasses
+/// which still override the deprecated
+/// [#acceptJarEntry(RpmPackage, CpioArchiveEntry, byte\[\])] are passed the
+/// content of every JAR file as before.
+public abstract class BytecodeVersionJarValidator extends JarFactValidator {
+
+    /// Whether a class overrides the deprecated
+    /// [#acceptJarEntry(RpmPackage, CpioArchiveEntry, byte\[\])].
+    private static final ClassValue<Boolean> READS_CONTENT = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (var current = type; current != BytecodeVersionJarValidator.class; current = current.getSuperclass()) {
+                try {
+                    current.getDeclaredMethod("acceptJarEntry", RpmPackage.class, CpioArchiveEntry.class, byte[].class);
+                    return true;
+                } catch (NoSuchMethodException _) {
+                }
+            }
+            return false;
+        }
+    };
 
     /// Record representing a Java bytecode version with major and minor numbers.
     ///
@@ -32,31 +56,86 @@ public abstract class BytecodeVersionJarValidator extends JarValidator {
         }
     }
 
-    /// Processes an individual JAR entry within an RPM package, extracting bytecode
-    /// versions.
+    /// Returns the kinds of data the validator reads, which is the content of
+    /// the JAR files. Only the headers of their class files are read.
+    ///
+    /// @return The kinds of data read by the validator.
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER, RpmData.JAR_CONTENT);
+    }
+
+    /// Requests the content of all the JAR files if the subclass overrides
+    /// [#acceptJarEntry(RpmPackage, CpioArchiveEntry, byte\[\])], otherwise
+    /// only of those whose facts are not cached.
+    ///
+    /// @param rpm   The RPM package being scanned.
+    /// @param entry The payload entry.
+    /// @return `true` if the content of the JAR file is needed.
+    @Override
+    public boolean needsContent(RpmPackage rpm, PayloadEntry entry) {
+        if (READS_CONTENT.get(getClass())) {
+            return entry.getHeader().getName().endsWith(".jar");
+        }
+        return super.needsContent(rpm, entry);
+    }
+
+    /// Passes the content of JAR files to
+    /// [#acceptJarEntry(RpmPackage, CpioArchiveEntry, byte\[\])] if the
+    /// subclass overrides it, otherwise passes the facts about JAR files to
+    /// [#acceptJarFacts].
+    ///
+    /// @param rpm     The RPM package being scanned.
+    /// @param entry   The payload entry.
+    /// @param content The content of the entry, or `null`.
+    /// @throws Exception If an error occurs while processing the JAR entry.
+    @Override
+    public void visitEntry(RpmPackage rpm, PayloadEntry entry, InputStream content) throws Exception {
+        if (READS_CONTENT.get(getClass())) {
+            if (content != null && entry.isRegularFile()) {
+                acceptJarEntry(rpm, entry.getHeader(), content.readAllBytes());
+            }
+            return;
+        }
+        super.visitEntry(rpm, entry, content);
+    }
+
+    /// Processes the content of an individual JAR entry within an RPM package,
+    /// collecting the facts about the JAR file and passing them to
+    /// [#acceptJarFacts].
     ///
     /// @param rpm      The RPM package containing the JAR file.
     /// @param rpmEntry The archive entry representing the JAR file.
     /// @param content  The byte content of the JAR file.
     /// @throws Exception If an error occurs while reading or processing the JAR
     ///                   file.
-    @Override
+    /// @deprecated The JAR files are no longer read by this validator, override
+    ///             [#acceptJarFacts] or
+    ///             [#validate(RpmPackage, Path, Map)] instead. Overriding this
+    ///             method disables the reuse of the facts about JAR files.
+    @Deprecated(since = "2.0.0", forRemoval = true)
     public void acceptJarEntry(RpmPackage rpm, CpioArchiveEntry rpmEntry, byte[] content) throws Exception {
+        try (var jar = JarAccess.open(new ByteArrayInputStream(content), content.length)) {
+            acceptJarFacts(rpm, rpmEntry, JarFacts.read(jar));
+        }
+    }
+
+    /// Processes an individual JAR entry within an RPM package, validating the
+    /// bytecode versions of its class files.
+    ///
+    /// @param rpm      The RPM package containing the JAR file.
+    /// @param rpmEntry The archive entry representing the JAR file.
+    /// @param facts    The facts about the JAR file.
+    /// @throws Exception If some class file is truncated.
+    @Override
+    public void acceptJarFacts(RpmPackage rpm, CpioArchiveEntry rpmEntry, JarFacts facts) throws Exception {
         var jarPath = Path.of(rpmEntry.getName().substring(1));
         var classVersions = new TreeMap<Path, Version>();
-
-        try (var jarStream = new JarInputStream(new ByteArrayInputStream(content))) {
-            for (JarEntry jarEntry; (jarEntry = jarStream.getNextJarEntry()) != null;) {
-                var classPath = Path.of(jarEntry.getName());
-
-                if (classPath.toString().endsWith(".class")) {
-                    var dataInput = new DataInputStream(jarStream);
-                    dataInput.readInt(); // Skip magic number
-                    var minorVersion = dataInput.readShort();
-                    var majorVersion = dataInput.readShort();
-                    classVersions.put(classPath, new Version(majorVersion, minorVersion));
-                }
+        for (var entry : facts.getClassVersions().entrySet()) {
+            if (entry.getValue() == null) {
+                throw new EOFException("Truncated class file " + entry.getKey() + " in " + jarPath);
             }
+            classVersions.put(Path.of(entry.getKey()), entry.getValue());
         }
 
         validate(rpm, jarPath, classVersions);
@@ -77,6 +156,12 @@ public abstract class BytecodeVersionJarValidator extends JarValidator {
     /// @param classVersions A map of class file paths to their corresponding
     ///                      bytecode versions.
     public void validate(RpmPackage rpm, Path jarPath, Map<Path, Version> classVersions) {
+        if (!isLogged(LogEvent.info)) {
+            if (!classVersions.isEmpty()) {
+                mergeResult(TestResult.info);
+            }
+            return;
+        }
         for (var entry : classVersions.entrySet()) {
             info("{0}: {1}: {2}: bytecode version: {3}",
                     Decorated.rpm(rpm),
@@ -0,0 +1,72 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/// Digests of the bytecode of classes, identifying the version of the code
+/// which produced data kept across runs.
+public final class CodeDigest {
+
+    /// Private constructor, this is a utility class.
+    private CodeDigest() {
+    }
+
+    /// Creates a SHA-256 digest.
+    ///
+    /// @return The digest.
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /// Updates a digest with the names and the bytecode of classes. Classes
+    /// which are the hosts of their nests contribute all their nest members.
+    ///
+    /// @param digest  The digest.
+    /// @param classes The classes.
+    /// @return `false` if the bytecode of some of the classes is not
+    ///         available.
+    public static boolean update(MessageDigest digest, Class<?>... classes) {
+        for (var cls : classes) {
+            var members = cls.getNestHost() == cls ? cls.getNestMembers() : new Class<?>[] {cls};
+            Arrays.sort(members, Comparator.comparing(Class::getName));
+            for (var member : members) {
+                var loader = member.getClassLoader();
+                if (loader == null) {
+                    return false;
+                }
+                try (var is = loader.getResourceAsStream(member.getName().replace('.', '/') + ".class")) {
+                    if (is == null) {
+                        return false;
+                    }
+                    var name = member.getName().getBytes(StandardCharsets.UTF_8);
+                    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(name.length).array());
+                    digest.update(name);
+                    digest.update(is.readAllBytes());
+                } catch (IOException _) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /// Computes the digest of the names and the bytecode of classes, see
+    /// [#update(MessageDigest, Class...)].
+    ///
+    /// @param classes The classes.
+    /// @return The digest, or `null` if the bytecode of some of the classes is
+    ///         not available.
+    public static byte[] of(Class<?>... classes) {
+        var digest = sha256();
+        return update(digest, classes) ? digest.digest() : null;
+    }
+}
@@ -1,16 +1,12 @@
 package org.fedoraproject.javapackages.validator.util;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
-import org.apache.commons.io.IOUtils;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import io.kojan.javadeptools.rpm.RpmArchiveInputStream;
 import io.kojan.javadeptools.rpm.RpmInfo;
 import io.kojan.javadeptools.rpm.RpmPackage;
 
@@ -18,13 +14,14 @@ import io.kojan.javadeptools.rpm.RpmPackage;
 /// entries.
 public class Common {
 
-    /// Retrieves the file system path for a given CPIO archive entry.
+    /// Retrieves the file system path for a given CPIO archive entry. When the
+    /// paths of many entries of the same package are needed, [EntryPathTable]
+    /// avoids normalizing the same directories repeatedly.
     ///
     /// @param entry The CPIO archive entry to resolve.
     /// @return The resolved file system path of the entry.
-    @SuppressFBWarnings(value = {"DMI_HARDCODED_ABSOLUTE_FILENAME"})
     public static Path getEntryPath(CpioArchiveEntry entry) {
-        return Path.of("/").resolve(Path.of("/").relativize(Path.of("/").resolve(Path.of(entry.getName()))));
+        return EntryPathTable.normalize(entry.getName());
     }
 
     /// Retrieves the package name of an RPM package.
@@ -37,7 +34,9 @@ public class Common {
     }
 
     /// Retrieves a sorted map of file paths from an RPM package mapped to their
-    /// symlink targets.
+    /// symlink targets. The files are read from the RPM header, see
+    /// [RpmFileManifest]. Iterating the [RpmFileManifest] directly avoids
+    /// sorting the entries, which are already in the order of their names.
     ///
     /// @param rpm The RPM package to inspect.
     /// @return A sorted map where keys are archive entries representing file paths,
@@ -47,16 +46,8 @@ public class Common {
     public static SortedMap<CpioArchiveEntry, Path> rpmFilesAndSymlinks(RpmPackage rpm) throws IOException {
         var result = new TreeMap<CpioArchiveEntry, Path>((lhs, rhs) -> lhs.getName().compareTo(rhs.getName()));
 
-        try (var is = new RpmArchiveInputStream(rpm.getPath())) {
-            for (CpioArchiveEntry rpmEntry; (rpmEntry = is.getNextEntry()) != null;) {
-                Path target = null;
-
-                if (rpmEntry.isSymbolicLink()) {
-                    target = Path.of(IOUtils.toString(is, StandardCharsets.UTF_8));
-                }
-
-                result.put(rpmEntry, target);
-            }
+        for (var entry : RpmFileManifest.read(rpm)) {
+            result.put(entry.getHeader(), entry.getSymlinkTarget());
         }
 
         return result;
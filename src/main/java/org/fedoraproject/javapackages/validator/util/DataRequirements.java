@@ -0,0 +1,40 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/// Declaration of the data a validator reads from RPM packages.
+///
+/// The declaration lets the caller plan the least I/O needed for each RPM
+/// package, for example never opening the payload when only header data is
+/// required. Payload validators express which entries they need the content
+/// of by [RpmEntryVisitor#needsContent], which is evaluated against the
+/// [RpmFileManifest] before the payload is opened.
+public interface DataRequirements {
+
+    /// Returns the kinds of data the validator reads from RPM packages.
+    ///
+    /// @return The kinds of data read by the validator.
+    Set<RpmData> getRequiredData();
+
+    /// Returns the kinds of data an object reads from RPM packages. Objects which
+    /// do not declare their requirements are assumed to read everything.
+    ///
+    /// @param validator The validator.
+    /// @return The kinds of data read by the validator.
+    static Set<RpmData> of(Object validator) {
+        if (validator instanceof DataRequirements requirements) {
+            return requirements.getRequiredData();
+        }
+        return EnumSet.allOf(RpmData.class);
+    }
+
+    /// Tests whether an object reads only the RPM header, including the file
+    /// list recorded in it.
+    ///
+    /// @param validator The validator.
+    /// @return `true` if the payload is never read by the validator.
+    static boolean isHeaderOnly(Object validator) {
+        return EnumSet.of(RpmData.HEADER).containsAll(of(validator));
+    }
+}
@@ -4,11 +4,12 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.SortedMap;
 
-import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
 import org.fedoraproject.javapackages.validator.DefaultValidator;
 import org.fedoraproject.javapackages.validator.spi.Decorated;
 
@@ -20,7 +21,16 @@ import io.kojan.javadeptools.rpm.RpmPackage;
 /// This validator checks for duplicate file paths present in multiple RPM
 /// packages and determines whether they are allowed based on specific
 /// conditions.
-public abstract class DuplicateFileValidator extends DefaultValidator {
+public abstract class DuplicateFileValidator extends DefaultValidator implements DataRequirements {
+
+    /// Returns the kinds of data the validator reads, which is the file list in
+    /// the RPM header.
+    ///
+    /// @return The kinds of data read by the validator.
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER);
+    }
 
     /// Validates duplicate files in a collection of RPM packages.
     ///
@@ -28,54 +38,64 @@ public abstract class DuplicateFileValidator extends DefaultValidator {
     /// @throws Exception If an error occurs while processing the packages.
     @Override
     public void validate(Iterable<RpmPackage> rpms) throws Exception {
-        var files = new TreeMap<String, ArrayList<Map.Entry<CpioArchiveEntry, Path>>>();
-
-        for (var rpm : rpms) {
-            if (!rpm.getInfo().isSourcePackage()) {
-                for (var entry : Common.rpmFilesAndSymlinks(rpm).entrySet()) {
-                    files.computeIfAbsent(Common.getEntryPath(entry.getKey()).toString(), _ -> new ArrayList<>())
-                        .add(Map.entry(entry.getKey(), rpm.getPath()));
+        try (var index = new FileCollisionIndex()) {
+            for (var rpm : rpms) {
+                if (!rpm.getInfo().isSourcePackage()) {
+                    index.add(rpm);
                 }
             }
+            validate(index.collisions());
         }
+    }
 
+    /// Validates the paths provided by more than one RPM package.
+    ///
+    /// @param files A map of the colliding paths to their providers.
+    /// @throws Exception If an error occurs during validation.
+    private void validate(SortedMap<String, List<FileCollisionIndex.Provider>> files) throws Exception {
+        // The headers of the providers passed to the subclass are only read once
+        var infos = new HashMap<Path, RpmInfo>();
         for (var entry : files.entrySet()) {
-            if (entry.getValue().size() > 1) {
-                var providers = new ArrayList<RpmInfo>(entry.getValue().size());
-                for (var providerEntry : entry.getValue()) {
-                    providers.add(new RpmPackage(providerEntry.getValue()).getInfo());
-                }
-                var okDifferentArchs = new Boolean[] {true};
-
-                // Check if all providers are of different architectures (except noarch)
-                providers.sort((lhs, rhs) -> {
-                    int cmp = lhs.getArch().compareTo(rhs.getArch());
-                    if (cmp == 0 || lhs.getArch().equals("noarch") || rhs.getArch().equals("noarch")) {
-                        okDifferentArchs[0] = false;
-                    }
-                    return cmp;
-                });
-
-                // Check if all instances of the file entry are directories
-                boolean okDirectory = entry.getValue().stream().map(Map.Entry::getKey).allMatch(CpioArchiveEntry::isDirectory);
-
-                Decorated decoratedFile = Decorated.actual(entry.getKey());
-                Decorated decoratedProviders = Decorated.actual(entry.getValue().stream().map(p -> p.getValue().getFileName()).toList());
-
-                if (okDifferentArchs[0]) {
-                    pass("File {0} provided by RPMs of unique architectures: {1}",
-                            decoratedFile, decoratedProviders);
-                    return;
+            var sorted = new ArrayList<>(entry.getValue());
+            var okDifferentArchs = new Boolean[] {true};
+
+            // Check if all providers are of different architectures (except noarch)
+            sorted.sort((lhs, rhs) -> {
+                int cmp = lhs.arch().compareTo(rhs.arch());
+                if (cmp == 0 || lhs.arch().equals("noarch") || rhs.arch().equals("noarch")) {
+                    okDifferentArchs[0] = false;
                 }
+                return cmp;
+            });
 
-                if (okDirectory) {
-                    pass("Directory {0} provided by multiple RPMs: {1}",
-                            decoratedFile, decoratedProviders);
-                    return;
-                }
+            // Check if all instances of the file entry are directories
+            boolean okDirectory = entry.getValue().stream().allMatch(FileCollisionIndex.Provider::directory);
+
+            Decorated decoratedFile = Decorated.actual(entry.getKey());
+            Decorated decoratedProviders = Decorated.actual(entry.getValue().stream().map(p -> p.path().getFileName()).toList());
+
+            if (okDifferentArchs[0]) {
+                pass("File {0} provided by RPMs of unique architectures: {1}",
+                        decoratedFile, decoratedProviders);
+                return;
+            }
 
-                validate(Path.of(entry.getKey()), Collections.unmodifiableCollection(providers));
+            if (okDirectory) {
+                pass("Directory {0} provided by multiple RPMs: {1}",
+                        decoratedFile, decoratedProviders);
+                return;
+            }
+
+            var providers = new ArrayList<RpmInfo>(sorted.size());
+            for (var provider : sorted) {
+                var info = infos.get(provider.path());
+                if (info == null) {
+                    info = new RpmPackage(provider.path()).getInfo();
+                    infos.put(provider.path(), info);
+                }
+                providers.add(info);
             }
+            validate(Path.of(entry.getKey()), Collections.unmodifiableCollection(providers));
         }
     }
 
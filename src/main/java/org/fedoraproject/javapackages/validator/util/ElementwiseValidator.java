@@ -4,6 +4,8 @@ import java.util.function.Predicate;
 
 import org.fedoraproject.javapackages.validator.DefaultValidator;
 import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
+import org.fedoraproject.javapackages.validator.spi.TestResult;
 
 import io.kojan.javadeptools.rpm.RpmInfo;
 import io.kojan.javadeptools.rpm.RpmPackage;
@@ -20,6 +22,28 @@ public abstract class ElementwiseValidator extends DefaultValidator {
     /// A predicate used to filter which RPM packages should be validated.
     private Predicate<RpmInfo> filter;
 
+    /// A forked instance of the validator which validated a single RPM package.
+    ///
+    /// @param validator The forked instance.
+    /// @param exception The exception thrown during the validation, or `null`.
+    private static record Shard(ElementwiseValidator validator, Exception exception) {
+    }
+
+    /// Whether the classes of validators override [#fork].
+    private static final ClassValue<Boolean> FORKABLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (var current = type; current != ElementwiseValidator.class; current = current.getSuperclass()) {
+                try {
+                    current.getDeclaredMethod("fork");
+                    return true;
+                } catch (NoSuchMethodException _) {
+                }
+            }
+            return false;
+        }
+    };
+
     /// Constructs an `ElementwiseValidator` with a default filter that allows
     /// all RPMs.
     protected ElementwiseValidator() {
@@ -42,15 +66,125 @@ public abstract class ElementwiseValidator extends DefaultValidator {
     /// @throws Exception If an error occurs during validation.
     @Override
     public void validate(Iterable<RpmPackage> rpms) throws Exception {
-        for (var rpm : rpms) {
-            if (filter.test(rpm.getInfo())) {
-                validate(rpm);
-            } else {
-                skip("{0} filtered out {1}",
-                        Decorated.struct(getClass().getCanonicalName()),
-                        Decorated.rpm(rpm));
+        if (!canFork()) {
+            for (var rpm : rpms) {
+                if (accepts(rpm)) {
+                    validateRecorded(rpm);
+                }
+            }
+            return;
+        }
+
+        OrderedParallelism.forEachOrdered(rpms, rpm -> {
+            ElementwiseValidator shard = null;
+            try {
+                shard = forkShard();
+                if (shard.accepts(rpm)) {
+                    shard.validateRecorded(rpm);
+                }
+                return new Shard(shard, null);
+            } catch (Exception ex) {
+                return new Shard(shard, ex);
+            }
+        }, result -> {
+            if (result.validator() != null) {
+                merge(result.validator());
             }
+            if (result.exception() != null) {
+                throw result.exception();
+            }
+        });
+    }
+
+    /// Validates a single RPM package, recording a
+    /// [ValidatorEvents.RpmValidation] event.
+    ///
+    /// @param rpm The RPM package to validate.
+    /// @throws Exception If an error occurs during validation.
+    private void validateRecorded(RpmPackage rpm) throws Exception {
+        var event = new ValidatorEvents.RpmValidation();
+        event.begin();
+        try {
+            validate(rpm);
+        } finally {
+            if (event.shouldCommit()) {
+                event.testName = getTestName();
+                event.nevra = ValidatorEvents.nevra(rpm);
+                event.commit();
+            }
+        }
+    }
+
+    /// Creates a new instance of this validator used to validate a single RPM
+    /// package in parallel with other packages. The results of the forked
+    /// instances are merged back into this validator in the order of the
+    /// packages, so the result is the same as if the packages were validated
+    /// sequentially.
+    ///
+    /// Validators opt in to parallel validation by overriding this method to
+    /// return a fresh instance configured in the same way as this one. The
+    /// default implementation returns `null`, in which case all the packages
+    /// are validated sequentially by this instance. An overriding method which
+    /// may return `null` must also override [#canFork].
+    ///
+    /// @return A new instance of this validator, or `null`.
+    protected ElementwiseValidator fork() {
+        return null;
+    }
+
+    /// Tests whether this validator supports parallel validation without
+    /// creating a new instance. The default implementation tests whether the
+    /// class of the validator overrides [#fork]. Validators which only support
+    /// forking in some configurations override this method as well.
+    ///
+    /// @return `true` if [#fork] returns a new instance.
+    protected boolean canFork() {
+        return FORKABLE.get(getClass());
+    }
+
+    /// Forks this validator and passes it the arguments of this validator.
+    ///
+    /// @return A new instance of this validator.
+    /// @throws IllegalStateException If [#fork] returns `null`.
+    ElementwiseValidator forkShard() {
+        var shard = fork();
+        if (shard == null) {
+            throw new IllegalStateException(getClass().getName() + ".fork() returned null");
+        }
+        shard.setArgs(getArgs());
+        shard.setLogLevel(getLogLevel());
+        return shard;
+    }
+
+    /// Merges the log entries and the result of a forked instance into this
+    /// validator.
+    ///
+    /// @param shard The forked instance.
+    void merge(ElementwiseValidator shard) {
+        for (var entry : shard.build()) {
+            addLog(entry);
+        }
+        mergeResult(shard.getResult());
+    }
+
+    /// Tests whether an RPM package passes the filter of this validator. Packages
+    /// which do not pass are skipped with a log message, if skip entries are
+    /// kept.
+    ///
+    /// @param rpm The RPM package to test.
+    /// @return `true` if the package shall be validated, `false` otherwise.
+    protected boolean accepts(RpmPackage rpm) {
+        if (filter.test(rpm.getInfo())) {
+            return true;
+        }
+        if (isLogged(LogEvent.skip)) {
+            skip("{0} filtered out {1}",
+                    Decorated.struct(getClass().getCanonicalName()),
+                    Decorated.rpm(rpm));
+        } else {
+            mergeResult(TestResult.skip);
         }
+        return false;
     }
 
     /// Validates a single [RpmPackage]. Implementations must define the
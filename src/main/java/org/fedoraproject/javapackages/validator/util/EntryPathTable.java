@@ -0,0 +1,103 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/// A table of the normalized paths of the entries of a single RPM package.
+///
+/// Entry names are normalized into absolute paths only once, the same name
+/// always yields the same [Path] instance. The path of an entry is derived from
+/// the interned path of its parent directory, so that the directories shared by
+/// many entries are normalized only once. Names which are already in normal
+/// form, which is the case for nearly all RPM packages, do not go through the
+/// general normalization of [Path].
+public final class EntryPathTable {
+
+    /// The root directory.
+    @SuppressFBWarnings(value = {"DMI_HARDCODED_ABSOLUTE_FILENAME"})
+    private static final Path ROOT = Path.of("/");
+
+    /// The interned paths, by their normalized names.
+    private final Map<String, Path> paths = new HashMap<>();
+
+    /// Constructs an empty table.
+    public EntryPathTable() {
+        paths.put("/", ROOT);
+    }
+
+    /// Converts an entry name into an absolute name in normal form, if it can be
+    /// done without general path normalization.
+    ///
+    /// @param name The entry name, possibly starting with `./`.
+    /// @return The absolute normalized name, or `null` if the name contains
+    ///         empty, `.` or `..` elements or a trailing slash.
+    private static String simpleName(String name) {
+        int start = name.startsWith("./") ? 1 : 0;
+        if (name.length() <= start || name.charAt(start) != '/') {
+            return null;
+        }
+        int length = name.length();
+        if (length > start + 1 && name.charAt(length - 1) == '/') {
+            return null;
+        }
+        for (int i = start; i < length; ++i) {
+            if (name.charAt(i) == '/' && i + 1 < length) {
+                char c = name.charAt(i + 1);
+                if (c == '/') {
+                    return null;
+                }
+                if (c == '.') {
+                    int end = name.indexOf('/', i + 1);
+                    int element = (end == -1 ? length : end) - (i + 1);
+                    if (element == 1 || (element == 2 && name.charAt(i + 2) == '.')) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return start == 0 ? name : name.substring(start);
+    }
+
+    /// Normalizes an entry name into an absolute path without interning it.
+    ///
+    /// @param name The entry name.
+    /// @return The normalized absolute path.
+    static Path normalize(String name) {
+        var simple = simpleName(name);
+        if (simple != null) {
+            return Path.of(simple);
+        }
+        return ROOT.resolve(ROOT.relativize(ROOT.resolve(Path.of(name))));
+    }
+
+    /// Returns the normalized absolute path of an entry.
+    ///
+    /// @param name The entry name, as stored in the RPM package.
+    /// @return The normalized absolute path, the same instance for equal names.
+    public Path get(String name) {
+        var simple = simpleName(name);
+        if (simple == null) {
+            var path = normalize(name);
+            return paths.computeIfAbsent(path.toString(), _ -> path);
+        }
+        return intern(simple);
+    }
+
+    /// Interns an absolute name in normal form.
+    ///
+    /// @param name The normalized name.
+    /// @return The interned path.
+    private Path intern(String name) {
+        var result = paths.get(name);
+        if (result == null) {
+            int slash = name.lastIndexOf('/');
+            var parent = intern(slash == 0 ? "/" : name.substring(0, slash));
+            result = parent.resolve(name.substring(slash + 1));
+            paths.put(name, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,344 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// An index of the files of many RPM packages which finds the paths provided by
+/// more than one package.
+///
+/// While the packages are added, a record consisting of a hash of the path,
+/// the ordinal number of the package and the path itself is kept for each
+/// file. The records are sorted by their hashes in runs of bounded size, which
+/// are written to temporary files when the memory reserved for them is
+/// exhausted. The memory of a run is allocated as the records are added. When
+/// the collisions are requested, the runs are merged to find the hashes shared
+/// by more than one record, the paths of which are compared to resolve hash
+/// collisions of distinct paths. No RPM header is read again.
+///
+/// Only the path to the RPM file and the architecture of each package are
+/// kept, which is what describing the providers of a path needs.
+final class FileCollisionIndex implements AutoCloseable {
+
+    /// The number of bits of a record holding the position of the record in
+    /// its run.
+    private static final int INDEX_BITS = 24;
+    /// The mask of the bits of a record holding the position of the record in
+    /// its run.
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    /// The minimal number of records of a run.
+    private static final int MIN_RUN_SIZE = 1 << 16;
+    /// The maximal number of records of a run.
+    private static final int MAX_RUN_SIZE = 1 << INDEX_BITS;
+    /// The initial capacity of the run held in memory.
+    private static final int INITIAL_CAPACITY = 1024;
+    /// The estimated size of the memory taken by a record, including its path.
+    private static final int RECORD_SIZE = 128;
+    /// The bit of the owner of a record set if the path is a directory.
+    private static final int DIRECTORY_FLAG = Integer.MIN_VALUE;
+
+    /// A single provider of a colliding path.
+    ///
+    /// @param arch      The architecture of the RPM package.
+    /// @param path      The path to the RPM file.
+    /// @param directory Whether the path is a directory in this package.
+    static record Provider(String arch, Path path, boolean directory) {
+    }
+
+    /// The paths to the added RPM files, indexed by their ordinal number.
+    private final List<Path> paths = new ArrayList<>();
+    /// The architectures of the added packages, indexed by their ordinal
+    /// number.
+    private final List<String> archs = new ArrayList<>();
+    /// The maximum number of records held in memory.
+    private final int runSize;
+    /// The records not yet written to a run file, the hash of the path
+    /// followed by the position of the record in the run.
+    private long[] records = new long[0];
+    /// The ordinal numbers of the packages of the records, together with
+    /// [#DIRECTORY_FLAG], by the position of the record.
+    private int[] owners = new int[0];
+    /// The paths of the records, by the position of the record.
+    private String[] names = new String[0];
+    /// The number of valid elements of [#records].
+    private int size = 0;
+    /// The temporary files holding the sorted runs.
+    private final List<Path> runs = new ArrayList<>(0);
+
+    /// Constructs an index with the size of the runs based on the available
+    /// memory.
+    FileCollisionIndex() {
+        this((int) Math.clamp(Runtime.getRuntime().maxMemory() / 16 / RECORD_SIZE, MIN_RUN_SIZE, MAX_RUN_SIZE));
+    }
+
+    /// Constructs an index.
+    ///
+    /// @param runSize The maximum number of records held in memory.
+    FileCollisionIndex(int runSize) {
+        if (runSize <= 0 || runSize > MAX_RUN_SIZE) {
+            throw new IllegalArgumentException("The run size must be positive and at most " + MAX_RUN_SIZE);
+        }
+        this.runSize = runSize;
+    }
+
+    /// Computes the hash of a path recorded in the index.
+    ///
+    /// @param path The path.
+    /// @return The hash, which occupies the bits of a record not used by the
+    ///         position of the record, other than the sign bit, so that the
+    ///         records are sorted by their hashes.
+    private static long hash(String path) {
+        // FNV-1a followed by the finalizer of MurmurHash3
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i != path.length(); ++i) {
+            h = (h ^ path.charAt(i)) * 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (h ^ (h >>> 33)) >>> (INDEX_BITS + 1);
+    }
+
+    /// Adds the files of an RPM package to the index.
+    ///
+    /// @param rpm The RPM package.
+    /// @throws IOException If the RPM header cannot be read or a run cannot be
+    ///                     written.
+    void add(RpmPackage rpm) throws IOException {
+        var manifest = RpmFileManifest.read(rpm);
+        int owner = paths.size();
+        paths.add(rpm.getPath());
+        archs.add(rpm.getInfo().getArch());
+
+        for (var entry : manifest) {
+            if (size == runSize) {
+                spill();
+            }
+            if (size == records.length) {
+                int capacity = Math.min(Math.max(INITIAL_CAPACITY, 2 * size), runSize);
+                records = Arrays.copyOf(records, capacity);
+                owners = Arrays.copyOf(owners, capacity);
+                names = Arrays.copyOf(names, capacity);
+            }
+            var path = entry.getPath().toString();
+            records[size] = (hash(path) << INDEX_BITS) | size;
+            owners[size] = entry.getHeader().isDirectory() ? owner | DIRECTORY_FLAG : owner;
+            names[size] = path;
+            ++size;
+        }
+    }
+
+    /// Writes the records held in memory to a new sorted run.
+    ///
+    /// @throws IOException If the run cannot be written.
+    private void spill() throws IOException {
+        Arrays.sort(records, 0, size);
+        var run = Files.createTempFile("javapackages-validator-", ".run");
+        runs.add(run);
+        try (var os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            for (int i = 0; i != size; ++i) {
+                int index = (int) (records[i] & INDEX_MASK);
+                os.writeLong(records[i] >>> INDEX_BITS);
+                os.writeInt(owners[index]);
+                os.writeUTF(names[index]);
+            }
+        }
+        Arrays.fill(names, 0, size, null);
+        size = 0;
+    }
+
+    /// A cursor over a sorted run.
+    private static interface Cursor {
+        /// Returns the hash of the path of the current record.
+        ///
+        /// @return The hash.
+        long hash();
+
+        /// Returns the ordinal number of the package of the current record,
+        /// together with [#DIRECTORY_FLAG].
+        ///
+        /// @return The owner.
+        int owner();
+
+        /// Returns the path of the current record.
+        ///
+        /// @return The path.
+        String name();
+
+        /// Moves to the next record.
+        ///
+        /// @return `false` if there are no more records.
+        /// @throws IOException If the run cannot be read.
+        boolean advance() throws IOException;
+    }
+
+    /// A cursor over the run held in memory.
+    private class MemoryCursor implements Cursor {
+        private int position = -1;
+
+        private int index() {
+            return (int) (records[position] & INDEX_MASK);
+        }
+
+        @Override
+        public long hash() {
+            return records[position] >>> INDEX_BITS;
+        }
+
+        @Override
+        public int owner() {
+            return owners[index()];
+        }
+
+        @Override
+        public String name() {
+            return names[index()];
+        }
+
+        @Override
+        public boolean advance() {
+            return ++position < size;
+        }
+    }
+
+    /// A cursor over a run written to a file.
+    private static class FileCursor implements Cursor {
+        private final DataInputStream is;
+        private long hash;
+        private int owner;
+        private String name;
+
+        FileCursor(Path run) throws IOException {
+            this.is = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        }
+
+        @Override
+        public long hash() {
+            return hash;
+        }
+
+        @Override
+        public int owner() {
+            return owner;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean advance() throws IOException {
+            try {
+                hash = is.readLong();
+            } catch (EOFException _) {
+                is.close();
+                return false;
+            }
+            owner = is.readInt();
+            name = is.readUTF();
+            return true;
+        }
+    }
+
+    /// Adds the paths of a group of records sharing their hash which are
+    /// provided by more than one package.
+    ///
+    /// @param group  The owners and paths of the records.
+    /// @param result The map of the colliding paths to their providers.
+    private void addCollisions(List<Map.Entry<Integer, String>> group, SortedMap<String, List<Provider>> result) {
+        var byName = new HashMap<String, List<Provider>>();
+        for (var record : group) {
+            int owner = record.getKey() & ~DIRECTORY_FLAG;
+            byName.computeIfAbsent(record.getValue(), _ -> new ArrayList<>(2))
+                    .add(new Provider(archs.get(owner), paths.get(owner), (record.getKey() & DIRECTORY_FLAG) != 0));
+        }
+        for (var entry : byName.entrySet()) {
+            // Distinct paths which only share their hash are dropped
+            if (entry.getValue().size() > 1) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /// Finds the paths provided by more than one of the added packages.
+    ///
+    /// @return A map of the colliding paths to their providers, in the order in
+    ///         which the packages were added.
+    /// @throws IOException If a run cannot be read.
+    SortedMap<String, List<Provider>> collisions() throws IOException {
+        Arrays.sort(records, 0, size);
+        // Records of equal hashes are ordered by their package, the runs hold
+        // the records of consecutive packages
+        var queue = new PriorityQueue<Map.Entry<Integer, Cursor>>(Comparator
+                .comparingLong((Map.Entry<Integer, Cursor> entry) -> entry.getValue().hash())
+                .thenComparing(Map.Entry::getKey));
+        var cursors = new ArrayList<Cursor>(runs.size() + 1);
+        try {
+            for (var run : runs) {
+                cursors.add(new FileCursor(run));
+            }
+            cursors.add(new MemoryCursor());
+            for (int i = 0; i != cursors.size(); ++i) {
+                if (cursors.get(i).advance()) {
+                    queue.add(Map.entry(i, cursors.get(i)));
+                }
+            }
+
+            var result = new TreeMap<String, List<Provider>>();
+            var group = new ArrayList<Map.Entry<Integer, String>>();
+            long groupHash = -1;
+            while (!queue.isEmpty()) {
+                var next = queue.poll();
+                var cursor = next.getValue();
+                if (cursor.hash() != groupHash) {
+                    if (group.size() > 1) {
+                        addCollisions(group, result);
+                    }
+                    group.clear();
+                    groupHash = cursor.hash();
+                }
+                group.add(Map.entry(cursor.owner(), cursor.name()));
+                if (cursor.advance()) {
+                    queue.add(next);
+                }
+            }
+            if (group.size() > 1) {
+                addCollisions(group, result);
+            }
+            return result;
+        } finally {
+            for (var cursor : cursors) {
+                if (cursor instanceof FileCursor fileCursor) {
+                    fileCursor.is.close();
+                }
+            }
+        }
+    }
+
+    /// Deletes the temporary files holding the runs.
+    ///
+    /// @throws IOException If a file cannot be deleted.
+    @Override
+    public void close() throws IOException {
+        for (var run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+}
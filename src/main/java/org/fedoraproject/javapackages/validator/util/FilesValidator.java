@@ -1,19 +1,29 @@
 package org.fedoraproject.javapackages.validator.util;
 
 import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Set;
 
-import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
 import org.fedoraproject.javapackages.validator.spi.Decorated;
 
-import io.kojan.javadeptools.rpm.RpmArchiveInputStream;
 import io.kojan.javadeptools.rpm.RpmInfo;
 import io.kojan.javadeptools.rpm.RpmPackage;
 
 /// Abstract class for validating files within an RPM package.
 ///
 /// This validator processes the files inside an RPM package and checks whether
-/// they meet the defined validation rules.
-public abstract class FilesValidator extends ElementwiseValidator {
+/// they meet the defined validation rules. The files are read from the RPM
+/// header, the payload is not decompressed.
+public abstract class FilesValidator extends ElementwiseValidator implements DataRequirements {
+
+    /// Returns the kinds of data the validator reads, which is the file list in
+    /// the RPM header.
+    ///
+    /// @return The kinds of data read by the validator.
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER);
+    }
 
     /// Determines whether a file inside the RPM package is allowed.
     ///
@@ -26,25 +36,20 @@ public abstract class FilesValidator extends ElementwiseValidator {
     /// Validates the files inside an RPM package.
     ///
     /// @param rpm The RPM package to validate.
-    /// @throws Exception If an error occurs while processing the package.
+    /// @throws Exception If an error occurs during validation.
     @Override
     public void validate(RpmPackage rpm) throws Exception {
-        try (var is = new RpmArchiveInputStream(rpm.getPath())) {
-            boolean pass = true;
-            for (CpioArchiveEntry rpmEntry; (rpmEntry = is.getNextEntry()) != null;) {
-                Path entryName = Common.getEntryPath(rpmEntry);
-
-                if (!allowedFile(rpm.getInfo(), entryName)) {
-                    pass = false;
-                    fail("{0}: Illegal file: {1}",
-                            Decorated.rpm(rpm),
-                            Decorated.actual(entryName));
-                }
-            }
-
-            if (pass) {
-                pass("{0}: Listed files - ok", Decorated.rpm(rpm));
+        boolean pass = true;
+        for (var entry : RpmFileManifest.read(rpm)) {
+            if (!allowedFile(rpm.getInfo(), entry.getPath())) {
+                pass = false;
+                fail("{0}: Illegal file: {1}",
+                        Decorated.rpm(rpm),
+                        Decorated.actual(entry.getPath()));
             }
         }
+        if (pass) {
+            pass("{0}: Listed files - ok", Decorated.rpm(rpm));
+        }
     }
 }
@@ -0,0 +1,164 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.channels.ByteArraySeekableByteChannel;
+
+/// Random access to the entries of a JAR file read from an RPM payload.
+///
+/// The JAR file is copied to memory, or to a temporary file if it is large,
+/// without being inflated. Its central directory is then read and only the
+/// entries which are requested are inflated, so that the cost of inspecting a
+/// JAR file depends on the entries needed rather than on the size of the JAR
+/// file.
+public final class JarAccess implements AutoCloseable {
+
+    /// The maximum size of a JAR file which is kept in memory, larger JAR files
+    /// are copied to a temporary file.
+    private static final long MEMORY_LIMIT = 16 * 1024 * 1024;
+
+    /// The ZIP file reading the central directory.
+    private final ZipFile zipFile;
+    /// The temporary file holding the JAR file, or `null`.
+    private final Path tempFile;
+
+    private JarAccess(ZipFile zipFile, Path tempFile) {
+        this.zipFile = zipFile;
+        this.tempFile = tempFile;
+    }
+
+    /// Opens a JAR file from its content.
+    ///
+    /// @param content The content of the JAR file.
+    /// @param size    The size of the JAR file, if known, or `-1`.
+    /// @return The opened JAR file.
+    /// @throws IOException If the content cannot be read or is not a valid ZIP
+    ///                     file.
+    public static JarAccess open(InputStream content, long size) throws IOException {
+        if (size >= 0 && size <= MEMORY_LIMIT) {
+            return open(ByteArraySeekableByteChannel.wrap(IOUtils.toByteArray(content)), null);
+        }
+
+        var tempFile = Files.createTempFile("javapackages-validator-", ".jar");
+        try {
+            Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return open(FileChannel.open(tempFile, StandardOpenOption.READ), tempFile);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+    }
+
+    /// Opens a JAR file from a channel.
+    ///
+    /// @param channel  The channel over the JAR file.
+    /// @param tempFile The temporary file to delete on close, or `null`.
+    /// @return The opened JAR file.
+    /// @throws IOException If the channel is not a valid ZIP file.
+    private static JarAccess open(SeekableByteChannel channel, Path tempFile) throws IOException {
+        try {
+            var result = new JarAccess(ZipFile.builder().setSeekableByteChannel(channel).get(), tempFile);
+            ScanMetrics.recordJarOpened();
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /// Returns the names of all the entries, as listed in the central directory.
+    ///
+    /// @return The names of the entries.
+    public List<String> getEntryNames() {
+        var result = new ArrayList<String>();
+        for (var entry : Collections.list(zipFile.getEntries())) {
+            result.add(entry.getName());
+        }
+        return result;
+    }
+
+    /// Checks whether an entry is present.
+    ///
+    /// @param name The name of the entry.
+    /// @return `true` if the entry is present, `false` otherwise.
+    public boolean hasEntry(String name) {
+        return zipFile.getEntry(name) != null;
+    }
+
+    /// Opens an entry for reading, inflating only that entry.
+    ///
+    /// @param name The name of the entry.
+    /// @return The content of the entry, or `null` if the entry is not present.
+    /// @throws IOException If the entry cannot be read.
+    public InputStream getInputStream(String name) throws IOException {
+        var entry = zipFile.getEntry(name);
+        if (entry == null) {
+            return null;
+        }
+        return zipFile.getInputStream(entry);
+    }
+
+    /// Reads the whole content of an entry.
+    ///
+    /// @param name The name of the entry.
+    /// @return The content of the entry, or `null` if the entry is not present.
+    /// @throws IOException If the entry cannot be read.
+    public byte[] readEntry(String name) throws IOException {
+        try (var is = getInputStream(name)) {
+            return is != null ? IOUtils.toByteArray(is) : null;
+        }
+    }
+
+    /// Reads the beginning of an entry. Only as much of the entry is inflated as
+    /// is needed to obtain the requested number of bytes, stored entries are read
+    /// directly.
+    ///
+    /// @param name   The name of the entry.
+    /// @param length The maximum number of bytes to read.
+    /// @return The first `length` bytes of the entry, or fewer if the entry is
+    ///         shorter, or `null` if the entry is not present.
+    /// @throws IOException If the entry cannot be read.
+    public byte[] readEntryPrefix(String name, int length) throws IOException {
+        try (var is = getInputStream(name)) {
+            return is != null ? is.readNBytes(length) : null;
+        }
+    }
+
+    /// Reads the manifest of the JAR file.
+    ///
+    /// @return The manifest, or `null` if the JAR file has no manifest.
+    /// @throws IOException If the manifest cannot be read.
+    public Manifest getManifest() throws IOException {
+        try (var is = getInputStream(JarFile.MANIFEST_NAME)) {
+            return is != null ? new Manifest(is) : null;
+        }
+    }
+
+    /// Closes the JAR file and deletes the temporary file, if any.
+    ///
+    /// @throws IOException If an I/O error occurs.
+    @Override
+    public void close() throws IOException {
+        try {
+            zipFile.close();
+        } finally {
+            if (tempFile != null) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/// A cache of the [JarFacts] of JAR files, keyed by the digests of the JAR
+/// files recorded in the RPM headers, see [PayloadEntry#getDigest].
+///
+/// The same JAR file is often shipped unchanged by many builds of a package
+/// and by its variants for different architectures. Its facts are collected
+/// only once, the JAR file is neither inflated nor read from the payload
+/// again. The cache keeps the least recently used facts in memory up to a
+/// limit and optionally stores them as one file per JAR file in a directory,
+/// so that they are also reused by later runs. The stored facts are tagged
+/// with the digest of the code collecting them and are collected again once
+/// that code changes.
+///
+/// Each run uses its own cache, bound to the threads of the run by [#call],
+/// see [#current].
+public final class JarFactCache {
+
+    /// The file name suffix of the stored facts.
+    public static final String SUFFIX = ".jarfacts";
+
+    /// The default limit of the estimated memory occupied by the cached facts in
+    /// bytes.
+    static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+    /// The version of the format of the stored facts.
+    private static final int FORMAT_VERSION = 1;
+
+    /// The digest of the code collecting the facts, or `null` if it is not
+    /// available, in which case no facts are stored.
+    private static final byte[] EXTRACTOR_DIGEST = CodeDigest.of(JarFacts.class, JarAccess.class,
+            BytecodeVersionJarValidator.Version.class);
+
+    /// The cache bound to the current thread.
+    private static final ThreadLocal<JarFactCache> CURRENT = new ThreadLocal<>();
+
+    /// The facts held in memory, by digests, in the order of access.
+    private final LinkedHashMap<String, JarFacts> memory = new LinkedHashMap<>(16, 0.75f, true);
+    /// The limit of the estimated size of [#memory] in bytes.
+    private final long memoryLimit;
+    /// The estimated size of [#memory] in bytes.
+    private long memorySize = 0;
+    /// The directory holding the stored facts, or `null`.
+    private final Path directory;
+
+    /// Constructs a cache which holds facts only in memory.
+    ///
+    /// @param memoryLimit The limit of the estimated memory occupied by the
+    ///                    cached facts in bytes.
+    JarFactCache(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        this.directory = null;
+    }
+
+    /// Constructs a cache storing the facts in a directory.
+    ///
+    /// @param directory   The directory in which the facts are stored across
+    ///                    runs, or `null` to hold the facts only in memory.
+    /// @param memoryLimit The limit of the estimated memory occupied by the
+    ///                    cached facts in bytes.
+    /// @throws IOException If the directory cannot be created.
+    JarFactCache(Path directory, long memoryLimit) throws IOException {
+        this.memoryLimit = memoryLimit;
+        this.directory = directory != null && EXTRACTOR_DIGEST != null ? Files.createDirectories(directory) : null;
+    }
+
+    /// Constructs a cache with the default memory limit.
+    ///
+    /// @param directory The directory in which the facts are stored across runs,
+    ///                  or `null` to hold the facts only in memory.
+    /// @throws IOException If the directory cannot be created.
+    public JarFactCache(Path directory) throws IOException {
+        this(directory, DEFAULT_MEMORY_LIMIT);
+    }
+
+    /// Returns the cache bound to the current thread. If no cache is bound, the
+    /// facts are collected from every JAR file, they are only shared by the
+    /// visitors of the same payload entry.
+    ///
+    /// @return The cache bound to the current thread, or a cache which does not
+    ///         keep any facts.
+    public static JarFactCache current() {
+        var cache = CURRENT.get();
+        return cache != null ? cache : new JarFactCache(0);
+    }
+
+    /// Runs an action with this cache bound to the current thread.
+    ///
+    /// @param <T>    The type of the result of the action.
+    /// @param action The action.
+    /// @return The result of the action.
+    /// @throws Exception If the action throws.
+    public <T> T call(Callable<T> action) throws Exception {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /// Binds the cache of the current thread, if any, to the threads running a
+    /// task.
+    ///
+    /// @param <T>  The type of the argument of the task.
+    /// @param <R>  The type of the result of the task.
+    /// @param task The task, it should not throw.
+    /// @return The task running with the cache of the current thread.
+    static <T, R> Function<T, R> propagate(Function<T, R> task) {
+        var cache = CURRENT.get();
+        if (cache == null) {
+            return task;
+        }
+        return argument -> {
+            var previous = CURRENT.get();
+            CURRENT.set(cache);
+            try {
+                return task.apply(argument);
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    private synchronized JarFacts getMemory(String digest) {
+        return memory.get(digest);
+    }
+
+    private synchronized void putMemory(String digest, JarFacts facts) {
+        var previous = memory.put(digest, facts);
+        if (previous != null) {
+            memorySize -= previous.estimateSize();
+        }
+        memorySize += facts.estimateSize();
+        for (var it = memory.values().iterator(); memorySize > memoryLimit && it.hasNext();) {
+            memorySize -= it.next().estimateSize();
+            it.remove();
+        }
+    }
+
+    private static Path resolve(Path directory, String digest) {
+        return directory.resolve(digest.replace(':', '-') + SUFFIX);
+    }
+
+    /// Loads stored facts and marks them as recently used.
+    ///
+    /// @param directory The directory holding the stored facts.
+    /// @param digest    The digest of the JAR file.
+    /// @return The facts, or `null` if the facts are not stored or cannot be
+    ///         read.
+    private static JarFacts load(Path directory, String digest) {
+        var path = resolve(directory, digest);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try (var is = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (is.readInt() != FORMAT_VERSION || !Arrays.equals(is.readNBytes(EXTRACTOR_DIGEST.length), EXTRACTOR_DIGEST)) {
+                throw new IOException("Unknown format of stored JAR facts");
+            }
+            var facts = JarFacts.read(is);
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return facts;
+        } catch (IOException _) {
+            // The stored facts are unusable, they are replaced by new facts
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException _) {
+                // Ignore, the facts are evicted later
+            }
+            return null;
+        }
+    }
+
+    /// Stores facts, first writing them to a temporary file, so that no
+    /// partially written facts are ever loaded. Failures are ignored, the facts
+    /// are collected again by the next run.
+    ///
+    /// @param directory The directory holding the stored facts.
+    /// @param digest    The digest of the JAR file.
+    /// @param facts     The facts.
+    private static void store(Path directory, String digest, JarFacts facts) {
+        try {
+            var tempFile = Files.createTempFile(directory, digest.replace(':', '-'), ".tmp");
+            try {
+                try (var os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    os.writeInt(FORMAT_VERSION);
+                    os.write(EXTRACTOR_DIGEST);
+                    facts.write(os);
+                }
+                Files.move(tempFile, resolve(directory, digest), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException _) {
+            // Ignore, the cache is only an optimization
+        }
+    }
+
+    /// Looks up the facts about a JAR file without reading its content.
+    ///
+    /// @param entry The payload entry of the JAR file.
+    /// @return The facts, or `null` if they are not cached.
+    public JarFacts get(PayloadEntry entry) {
+        var digest = entry.getDigest();
+        if (digest == null) {
+            return null;
+        }
+        var facts = getMemory(digest);
+        if (facts == null && directory != null) {
+            facts = load(directory, digest);
+            if (facts != null) {
+                putMemory(digest, facts);
+            }
+        }
+        return facts;
+    }
+
+    /// Returns the facts about a JAR file, collecting them from its content if
+    /// they are not cached yet.
+    ///
+    /// @param entry   The payload entry of the JAR file.
+    /// @param content The content of the JAR file, which is not read if the
+    ///                facts are cached.
+    /// @return The facts.
+    /// @throws IOException If the JAR file cannot be read.
+    public JarFacts compute(PayloadEntry entry, InputStream content) throws IOException {
+        // Facts already collected for another visitor of the same entry
+        var facts = entry.getJarFacts();
+        if (facts == null) {
+            facts = get(entry);
+        }
+        if (facts == null) {
+            try (var jar = JarAccess.open(content, entry.getHeader().getSize())) {
+                facts = JarFacts.read(jar);
+            }
+            var digest = entry.getDigest();
+            if (digest != null) {
+                putMemory(digest, facts);
+                if (directory != null) {
+                    store(directory, digest, facts);
+                }
+            }
+        }
+        entry.setJarFacts(facts);
+        return facts;
+    }
+}
@@ -0,0 +1,109 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.fedoraproject.javapackages.validator.spi.Validator;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// Interface for processing the facts about JAR files within RPM packages,
+/// see [JarFacts].
+///
+/// Unlike [RpmJarConsumer], which reads the JAR files themselves, this
+/// interface is implemented by consumers which only need the bytecode
+/// versions, module names or manifest attributes of the JAR files. The facts
+/// about JAR files seen before are taken from the [JarFactCache] of the run,
+/// see [JarFactCache#current], without reading the JAR files at all.
+public interface JarFactConsumer extends Consumer<RpmPackage>, RpmEntryVisitor {
+
+    /// Processes an RPM package by scanning its contents and collecting the
+    /// facts about its JAR files. The payload is not opened if the RPM package
+    /// contains no JAR files or if the facts about all of them are cached.
+    ///
+    /// @param rpm The RPM package to process.
+    /// @throws RuntimeException If an exception occurs while reading the RPM
+    ///                          package.
+    @Override
+    default void accept(RpmPackage rpm) {
+        try {
+            var self = List.of(this);
+            for (var failure : PayloadScanner.scanIfNeeded(rpm, self).values()) {
+                throw failure;
+            }
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /// Requests the manifest entries, so that the facts are processed even
+    /// when the facts about all the JAR files are cached.
+    ///
+    /// @return `true`
+    @Override
+    default boolean visitsManifest() {
+        return true;
+    }
+
+    /// Requests the content of regular files with the `.jar` extension, unless
+    /// the facts about the JAR file are already cached.
+    ///
+    /// @param rpm   The RPM package being scanned.
+    /// @param entry The payload entry.
+    /// @return `true` if the content of the JAR file is needed.
+    @Override
+    default boolean needsContent(RpmPackage rpm, PayloadEntry entry) {
+        if (!entry.getHeader().getName().endsWith(".jar")) {
+            return false;
+        }
+        var facts = entry.getJarFacts();
+        if (facts == null) {
+            facts = JarFactCache.current().get(entry);
+            // Kept with the entry, so that the facts are not lost to an
+            // eviction before the entry is visited
+            entry.setJarFacts(facts);
+        }
+        return facts == null;
+    }
+
+    /// Passes the facts about JAR files to [#acceptJarFacts], collecting them
+    /// from the content of the JAR files if they are not cached.
+    ///
+    /// @param rpm     The RPM package being scanned.
+    /// @param entry   The payload entry.
+    /// @param content The content of the entry, or `null`.
+    /// @throws Exception If an error occurs while processing the JAR entry.
+    @Override
+    default void visitEntry(RpmPackage rpm, PayloadEntry entry, InputStream content) throws Exception {
+        // The content is only requested for JAR files
+        var event = new ValidatorEvents.JarProcessing();
+        event.begin();
+        var jar = content != null;
+        try {
+            var facts = content != null ? JarFactCache.current().compute(entry, content) : entry.getJarFacts();
+            if (facts != null && entry.isRegularFile()) {
+                jar = true;
+                acceptJarFacts(rpm, entry.getHeader(), facts);
+            }
+        } finally {
+            if (jar && event.shouldCommit()) {
+                event.testName = this instanceof Validator validator ? validator.getTestName() : getClass().getName();
+                event.nevra = ValidatorEvents.nevra(rpm);
+                event.entryPath = entry.getHeader().getName();
+                event.size = entry.getHeader().getSize();
+                event.read = content != null;
+                event.commit();
+            }
+        }
+    }
+
+    /// Handles the facts about an individual JAR file within an RPM package.
+    ///
+    /// @param rpm      The RPM package containing the JAR entry.
+    /// @param rpmEntry The archive entry representing the JAR file.
+    /// @param facts    The facts about the JAR file.
+    /// @throws Exception If an error occurs while processing the JAR entry.
+    void acceptJarFacts(RpmPackage rpm, CpioArchiveEntry rpmEntry, JarFacts facts) throws Exception;
+}
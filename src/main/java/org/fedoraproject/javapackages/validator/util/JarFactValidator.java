@@ -0,0 +1,56 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.fedoraproject.javapackages.validator.spi.Decoration;
+
+import io.kojan.javadeptools.rpm.RpmInfo;
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// Abstract class for validating the facts about JAR files within an RPM
+/// package.
+///
+/// This validator processes RPM packages and applies validation rules to the
+/// facts about the JAR files contained within them, see [JarFacts]. It
+/// extends [PayloadValidator] and implements [JarFactConsumer], so that JAR
+/// files seen before are not read again. Validators which need the content of
+/// the JAR files extend [JarValidator] instead.
+public abstract class JarFactValidator extends PayloadValidator implements JarFactConsumer {
+
+    /// Decoration style for highlighting JAR paths.
+    public static final Decoration DECORATION_JAR = JarValidator.DECORATION_JAR;
+
+    /// Constructs a validator, which excludes source RPM packages.
+    protected JarFactValidator() {
+        super(Predicate.not(RpmInfo::isSourcePackage));
+    }
+
+    /// Constructs a validator with a custom filtering condition.
+    ///
+    /// @param filter A predicate used to determine whether validation should be
+    ///               applied.
+    protected JarFactValidator(Predicate<RpmInfo> filter) {
+        super(filter);
+    }
+
+    /// Returns the kinds of data the validator reads, which is the content of
+    /// the JAR files.
+    ///
+    /// @return The kinds of data read by the validator.
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER, RpmData.JAR_CONTENT);
+    }
+
+    /// Validates an RPM package by collecting the facts about its JAR files and
+    /// applying validation rules.
+    ///
+    /// @param rpm The RPM package to validate.
+    /// @throws Exception If an error occurs during validation.
+    @Override
+    public void validate(RpmPackage rpm) throws Exception {
+        accept(rpm);
+    }
+}
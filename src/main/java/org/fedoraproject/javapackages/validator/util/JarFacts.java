@@ -0,0 +1,237 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.module.InvalidModuleDescriptorException;
+import java.lang.module.ModuleDescriptor;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.fedoraproject.javapackages.validator.util.BytecodeVersionJarValidator.Version;
+
+/// The facts about a JAR file needed by the JAR validators: the bytecode
+/// versions of its class files, the names of its module descriptors and the
+/// main attributes of its manifest.
+///
+/// The facts are small compared to the JAR file and they only depend on its
+/// content, so that they can be kept by [JarFactCache] under the digest of the
+/// JAR file.
+public final class JarFacts {
+
+    /// The size of the magic number and the version numbers at the beginning of
+    /// a class file.
+    private static final int CLASS_HEADER_SIZE = 8;
+
+    private static final Pattern VERSIONS_PATTERN = Pattern.compile("META-INF/versions/\\d+/module-info\\.class");
+
+    /// A module descriptor of a JAR file.
+    ///
+    /// @param entryName  The name of the JAR entry holding the descriptor.
+    /// @param moduleName The name of the module, or `null` if the descriptor
+    ///                   is invalid.
+    /// @param error      The reason why the descriptor is invalid, or `null`
+    ///                   if it is valid or no reason is known.
+    public static record ModuleInfo(String entryName, String moduleName, String error) {
+    }
+
+    /// The bytecode versions by the names of the class files, in the order of
+    /// the central directory. Truncated class files have no version.
+    private final Map<String, Version> classVersions;
+    /// The module descriptors, in the order of the central directory.
+    private final List<ModuleInfo> moduleInfos;
+    /// The main attributes of the manifest, with case insensitive names, or
+    /// `null` if the JAR file has no valid manifest.
+    private final Map<String, String> manifestAttributes;
+    /// The reason why the manifest is invalid, or `null`.
+    private final String manifestError;
+
+    private JarFacts(Map<String, Version> classVersions, List<ModuleInfo> moduleInfos,
+            Map<String, String> manifestAttributes, String manifestError) {
+        this.classVersions = Collections.unmodifiableMap(classVersions);
+        this.moduleInfos = List.copyOf(moduleInfos);
+        this.manifestAttributes = manifestAttributes != null ? Collections.unmodifiableMap(manifestAttributes) : null;
+        this.manifestError = manifestError;
+    }
+
+    /// Collects the facts about a JAR file. Only the headers of the class files,
+    /// the module descriptors and the manifest are inflated.
+    ///
+    /// @param jar The JAR file.
+    /// @return The facts.
+    /// @throws IOException If the JAR file cannot be read.
+    public static JarFacts read(JarAccess jar) throws IOException {
+        var classVersions = new LinkedHashMap<String, Version>();
+        var moduleInfos = new ArrayList<ModuleInfo>();
+        for (var name : jar.getEntryNames()) {
+            if (name.endsWith(".class")) {
+                var header = jar.readEntryPrefix(name, CLASS_HEADER_SIZE);
+                Version version = null;
+                if (header.length == CLASS_HEADER_SIZE) {
+                    var buffer = ByteBuffer.wrap(header);
+                    buffer.getInt(); // Skip magic number
+                    var minorVersion = buffer.getShort();
+                    var majorVersion = buffer.getShort();
+                    version = new Version(majorVersion, minorVersion);
+                }
+                classVersions.put(name, version);
+            }
+            if (name.equals("module-info.class")
+                    || (name.startsWith("META-INF/versions/") && VERSIONS_PATTERN.matcher(name).matches())) {
+                try {
+                    var md = ModuleDescriptor.read(ByteBuffer.wrap(jar.readEntry(name)));
+                    moduleInfos.add(new ModuleInfo(name, md.name(), null));
+                } catch (InvalidModuleDescriptorException e) {
+                    moduleInfos.add(new ModuleInfo(name, null, e.getMessage()));
+                }
+            }
+        }
+        ScanMetrics.recordClassesInspected(classVersions.size());
+
+        Map<String, String> manifestAttributes = null;
+        String manifestError = null;
+        try {
+            var mf = jar.getManifest();
+            if (mf != null) {
+                manifestAttributes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                for (var attribute : mf.getMainAttributes().entrySet()) {
+                    manifestAttributes.put(attribute.getKey().toString(), attribute.getValue().toString());
+                }
+            }
+        } catch (IOException ex) {
+            manifestError = String.valueOf(ex.getMessage());
+        }
+
+        return new JarFacts(classVersions, moduleInfos, manifestAttributes, manifestError);
+    }
+
+    /// Returns the bytecode versions of the class files.
+    ///
+    /// @return An unmodifiable map of the names of the class files to their
+    ///         versions, in the order of the central directory. The version of
+    ///         a truncated class file is `null`.
+    public Map<String, Version> getClassVersions() {
+        return classVersions;
+    }
+
+    /// Returns the module descriptors, both the main one and the versioned
+    /// ones.
+    ///
+    /// @return An unmodifiable list of the module descriptors.
+    public List<ModuleInfo> getModuleInfos() {
+        return moduleInfos;
+    }
+
+    /// Returns the main attributes of the manifest.
+    ///
+    /// @return An unmodifiable map of the case insensitive names of the main
+    ///         attributes to their values, or `null` if the JAR file has no
+    ///         manifest.
+    /// @throws IOException If the manifest of the JAR file is invalid.
+    public Map<String, String> getManifestAttributes() throws IOException {
+        if (manifestError != null) {
+            throw new IOException(manifestError);
+        }
+        return manifestAttributes;
+    }
+
+    /// Estimates the memory occupied by the facts.
+    ///
+    /// @return The estimated size in bytes.
+    long estimateSize() {
+        long result = 64;
+        for (var name : classVersions.keySet()) {
+            result += 64 + name.length();
+        }
+        result += 64L * moduleInfos.size();
+        if (manifestAttributes != null) {
+            for (var attribute : manifestAttributes.entrySet()) {
+                result += 64 + attribute.getKey().length() + attribute.getValue().length();
+            }
+        }
+        return result;
+    }
+
+    private static void writeString(DataOutputStream os, String value) throws IOException {
+        if (value == null) {
+            os.writeInt(-1);
+        } else {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            os.writeInt(bytes.length);
+            os.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream is) throws IOException {
+        int length = is.readInt();
+        if (length < -1) {
+            throw new IOException("Malformed JAR facts");
+        }
+        return length == -1 ? null : new String(is.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    /// Writes the facts to a stream.
+    ///
+    /// @param os The stream.
+    /// @throws IOException If the stream cannot be written.
+    void write(DataOutputStream os) throws IOException {
+        os.writeInt(classVersions.size());
+        for (var entry : classVersions.entrySet()) {
+            writeString(os, entry.getKey());
+            var version = entry.getValue();
+            os.writeBoolean(version != null);
+            if (version != null) {
+                os.writeShort(version.major());
+                os.writeShort(version.minor());
+            }
+        }
+        os.writeInt(moduleInfos.size());
+        for (var moduleInfo : moduleInfos) {
+            writeString(os, moduleInfo.entryName());
+            writeString(os, moduleInfo.moduleName());
+            writeString(os, moduleInfo.error());
+        }
+        os.writeInt(manifestAttributes != null ? manifestAttributes.size() : -1);
+        if (manifestAttributes != null) {
+            for (var attribute : manifestAttributes.entrySet()) {
+                writeString(os, attribute.getKey());
+                writeString(os, attribute.getValue());
+            }
+        }
+        writeString(os, manifestError);
+    }
+
+    /// Reads facts written by [#write].
+    ///
+    /// @param is The stream.
+    /// @return The facts.
+    /// @throws IOException If the stream cannot be read or is malformed.
+    static JarFacts read(DataInputStream is) throws IOException {
+        var classVersions = new LinkedHashMap<String, Version>();
+        for (int count = is.readInt(); count > 0; --count) {
+            var name = readString(is);
+            classVersions.put(name, is.readBoolean() ? new Version(is.readShort(), is.readShort()) : null);
+        }
+        var moduleInfos = new ArrayList<ModuleInfo>();
+        for (int count = is.readInt(); count > 0; --count) {
+            moduleInfos.add(new ModuleInfo(readString(is), readString(is), readString(is)));
+        }
+        Map<String, String> manifestAttributes = null;
+        int count = is.readInt();
+        if (count >= 0) {
+            manifestAttributes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (; count > 0; --count) {
+                manifestAttributes.put(readString(is), readString(is));
+            }
+        }
+        var manifestError = readString(is);
+        return new JarFacts(classVersions, moduleInfos, manifestAttributes, manifestError);
+    }
+}
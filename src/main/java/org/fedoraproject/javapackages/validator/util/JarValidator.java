@@ -1,18 +1,20 @@
 package org.fedoraproject.javapackages.validator.util;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.function.Predicate;
 
+import io.kojan.javadeptools.rpm.RpmPackage;
 import org.fedoraproject.javapackages.validator.spi.Decoration;
 
 import io.kojan.javadeptools.rpm.RpmInfo;
-import io.kojan.javadeptools.rpm.RpmPackage;
 
 /// Abstract class for validating JAR files within an RPM package.
 ///
 /// This validator processes RPM packages and applies validation rules to JAR
-/// files contained within them. It extends [ElementwiseValidator] and
+/// files contained within them. It extends [PayloadValidator] and
 /// implements [RpmJarConsumer] to facilitate JAR file validation.
-public abstract class JarValidator extends ElementwiseValidator implements RpmJarConsumer {
+public abstract class JarValidator extends PayloadValidator implements RpmJarConsumer {
 
     /// Decoration style for highlighting JAR paths.
     public static final Decoration DECORATION_JAR = new Decoration(Decoration.Color.blue, Decoration.Modifier.bright);
@@ -30,6 +32,15 @@ public abstract class JarValidator extends ElementwiseValidator implements RpmJa
         super(filter);
     }
 
+    /// Returns the kinds of data the validator reads, which is the content of
+    /// the JAR files.
+    ///
+    /// @return The kinds of data read by the validator.
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER, RpmData.JAR_CONTENT);
+    }
+
     /// Validates an RPM package by scanning for JAR files and applying validation
     /// rules.
     ///
@@ -0,0 +1,68 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/// Runs a task for each element of a sequence in parallel and passes the
+/// results to a consumer sequentially, in the order of the elements.
+///
+/// Only a bounded number of tasks is in flight at any time, so the sequence is
+/// never materialized as a whole.
+final class OrderedParallelism {
+
+    /// Consumer of the task results.
+    ///
+    /// @param <R> The type of the results.
+    /// @param <E> The type of the exception thrown by the consumer.
+    @FunctionalInterface
+    interface ResultConsumer<R, E extends Exception> {
+        /// Consumes a single result.
+        ///
+        /// @param result The result.
+        /// @throws E If the consumer decides to stop the processing.
+        void accept(R result) throws E;
+    }
+
+    /// Private constructor, this is a utility class.
+    private OrderedParallelism() {
+    }
+
+    /// Runs the task for each element in the [ScanPool] of the current thread
+    /// and hands the results to the consumer in the order of the elements. When
+    /// the consumer throws, the tasks which are still in flight are cancelled.
+    /// The tasks run with the [ScanMetrics] and the [JarFactCache] bound to the
+    /// current thread.
+    ///
+    /// @param <T>      The type of the elements.
+    /// @param <R>      The type of the results.
+    /// @param <E>      The type of the exception thrown by the consumer.
+    /// @param elements The elements.
+    /// @param task     The task to run for each element, it should not throw.
+    /// @param consumer The consumer of the results.
+    /// @throws E If the consumer throws.
+    static <T, R, E extends Exception> void forEachOrdered(Iterable<T> elements,
+            Function<? super T, ? extends R> task, ResultConsumer<? super R, E> consumer) throws E {
+        var pool = ScanPool.current();
+        int window = Math.max(2, 2 * pool.getParallelism());
+        var pending = new ArrayDeque<ForkJoinTask<? extends R>>(window);
+        Function<T, R> bound = ScanMetrics.propagate(JarFactCache.propagate(task::apply));
+
+        try {
+            for (var element : elements) {
+                pending.addLast(pool.submit(() -> bound.apply(element)));
+                if (pending.size() >= window) {
+                    consumer.accept(pending.removeFirst().join());
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                consumer.accept(pending.removeFirst().join());
+            }
+        } finally {
+            for (var future : pending) {
+                future.cancel(false);
+            }
+        }
+    }
+}
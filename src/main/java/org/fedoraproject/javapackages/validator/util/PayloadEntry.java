@@ -0,0 +1,102 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.nio.file.Path;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+
+/// A single entry of an RPM payload as presented to [RpmEntryVisitor]
+/// instances or listed by [RpmFileManifest].
+///
+/// The entry path is normalized and the symlink target is read only once per
+/// entry, regardless of the number of visitors receiving it.
+public final class PayloadEntry {
+
+    /// The CPIO header of the entry.
+    private final CpioArchiveEntry header;
+    /// The normalized absolute path of the entry.
+    private final Path path;
+    /// The target of the symbolic link or `null`.
+    private final Path symlinkTarget;
+    /// The digest of the content recorded in the RPM header or `null`.
+    private final String digest;
+    /// The facts of the JAR file shared by the visitors of the entry, see
+    /// [JarFactCache].
+    private JarFacts jarFacts;
+
+    /// Constructs a payload entry.
+    ///
+    /// @param header        The CPIO header of the entry.
+    /// @param path          The normalized absolute path of the entry.
+    /// @param symlinkTarget The target of the symbolic link or `null` if the
+    ///                      entry is not a symbolic link.
+    /// @param digest        The digest of the content or `null`.
+    PayloadEntry(CpioArchiveEntry header, Path path, Path symlinkTarget, String digest) {
+        this.header = header;
+        this.path = path;
+        this.symlinkTarget = symlinkTarget;
+        this.digest = digest;
+    }
+
+    /// Returns the CPIO header of the entry.
+    ///
+    /// @return The CPIO header of the entry.
+    public CpioArchiveEntry getHeader() {
+        return header;
+    }
+
+    /// Returns the normalized absolute path of the entry, as obtained by
+    /// [Common#getEntryPath].
+    ///
+    /// @return The path of the entry.
+    public Path getPath() {
+        return path;
+    }
+
+    /// Returns the target of the symbolic link.
+    ///
+    /// @return The target of the symbolic link or `null` if the entry is not a
+    ///         symbolic link.
+    public Path getSymlinkTarget() {
+        return symlinkTarget;
+    }
+
+    /// Returns the digest of the content of the entry, as recorded in the RPM
+    /// header. Only digests of the SHA-2 family are reported, they are
+    /// prefixed by the name of the algorithm, for example `sha256:` followed
+    /// by the hexadecimal digest.
+    ///
+    /// @return The digest of the content or `null` if the entry is not a
+    ///         regular file or the RPM header records no suitable digest.
+    public String getDigest() {
+        return digest;
+    }
+
+    JarFacts getJarFacts() {
+        return jarFacts;
+    }
+
+    void setJarFacts(JarFacts jarFacts) {
+        this.jarFacts = jarFacts;
+    }
+
+    /// Checks whether the entry is a regular file.
+    ///
+    /// @return `true` if the entry is a regular file, `false` otherwise.
+    public boolean isRegularFile() {
+        return header.isRegularFile();
+    }
+
+    /// Checks whether the entry is a directory.
+    ///
+    /// @return `true` if the entry is a directory, `false` otherwise.
+    public boolean isDirectory() {
+        return header.isDirectory();
+    }
+
+    /// Checks whether the entry is a symbolic link.
+    ///
+    /// @return `true` if the entry is a symbolic link, `false` otherwise.
+    public boolean isSymbolicLink() {
+        return header.isSymbolicLink();
+    }
+}
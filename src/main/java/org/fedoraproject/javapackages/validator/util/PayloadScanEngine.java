@@ -0,0 +1,186 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// Runs a group of [PayloadValidator] instances over a sequence of RPM
+/// packages so that the payload of each package is decompressed only once,
+/// regardless of the number of validators reading it.
+///
+/// An exception thrown by a validator is recorded as an error of that
+/// validator, which then does not receive any further packages, in the same
+/// way as if it was validated on its own. Only validators accepted by
+/// [#canDrive] are driven by the engine.
+public class PayloadScanEngine {
+
+    /// The validators driven by this engine.
+    private final List<PayloadValidator> validators;
+
+    /// The outcome of a single validator scanning a single RPM package.
+    ///
+    /// @param validator The validator.
+    /// @param shard     The instance which performed the scan, either the
+    ///                  validator itself or its fork.
+    /// @param exception The exception thrown during the scan, or `null`.
+    private static record Scan(PayloadValidator validator, PayloadValidator shard, Exception exception) {
+    }
+
+    /// Constructs an engine driving the given validators.
+    ///
+    /// @param validators The validators.
+    public PayloadScanEngine(Collection<? extends PayloadValidator> validators) {
+        this.validators = List.copyOf(validators);
+    }
+
+    /// Tests whether a validator can be driven by the engine. Subclasses which
+    /// override how RPM packages are validated, by any of the `validate`
+    /// methods or by the `accept` method of [RpmJarConsumer] or
+    /// [JarFactConsumer], are only run on their own, as the
+    /// engine would bypass the overriding method.
+    ///
+    /// @param validator The validator.
+    /// @return `true` if the validator validates the RPM packages only by
+    ///         visiting their payload.
+    public static boolean canDrive(PayloadValidator validator) {
+        for (Class<?> type = validator.getClass(); type != PayloadValidator.class; type = type.getSuperclass()) {
+            // JAR validators validate packages by accept
+            if (type != JarValidator.class && type != JarFactValidator.class && declares(type, "validate", RpmPackage.class)
+                    || declares(type, "validate", Iterable.class)
+                    || declares(type, "validate", Iterable.class, List.class)
+                    || declares(type, "accept", RpmPackage.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean declares(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            type.getDeclaredMethod(name, parameterTypes);
+            return true;
+        } catch (NoSuchMethodException _) {
+            return false;
+        }
+    }
+
+    /// Validates the RPM packages with all the validators. The results are
+    /// afterwards obtained from the individual validators.
+    ///
+    /// If all the validators support forking, see [ElementwiseValidator#fork],
+    /// the RPM packages are scanned in parallel and the results of the forked
+    /// instances are merged in the order of the packages.
+    ///
+    /// @param rpms The RPM packages to validate.
+    /// @param args A function returning the arguments of a validator, or
+    ///             `null` if there are none.
+    public void run(Iterable<RpmPackage> rpms, Function<? super PayloadValidator, List<String>> args) {
+        var active = new ArrayList<PayloadValidator>(validators.size());
+        for (var validator : validators) {
+            validator.beginScan(args.apply(validator));
+            active.add(validator);
+        }
+
+        if (validators.stream().allMatch(PayloadValidator::canFork)) {
+            // Forks of failed validators are scanned too, their results are
+            // discarded when merging
+            OrderedParallelism.forEachOrdered(rpms, rpm -> scan(rpm, validators),
+                    scans -> complete(active, scans));
+        } else {
+            for (var rpm : rpms) {
+                if (active.isEmpty()) {
+                    break;
+                }
+                complete(active, scan(rpm, List.copyOf(active)));
+            }
+        }
+    }
+
+    /// Scans the payload of a single RPM package. Validators which support
+    /// forking scan it with a forked instance, whether the packages are
+    /// scanned in parallel or not, so that their results do not depend on
+    /// the other validators they are run with.
+    ///
+    /// @param rpm        The RPM package.
+    /// @param validators The validators to scan the package with.
+    /// @return The outcome of the scan for each of the validators.
+    private static List<Scan> scan(RpmPackage rpm, List<PayloadValidator> validators) {
+        var shards = new ArrayList<PayloadValidator>(validators.size());
+        var subscribers = new ArrayList<PayloadValidator>(validators.size());
+        var failures = new IdentityHashMap<PayloadValidator, Exception>(0);
+
+        for (var validator : validators) {
+            // A validator which fails to fork fails with its own instance
+            var shard = validator;
+            try {
+                if (validator.canFork()) {
+                    shard = PayloadValidator.class.cast(validator.forkShard());
+                }
+                if (shard.subscribe(rpm)) {
+                    subscribers.add(shard);
+                }
+            } catch (RuntimeException ex) {
+                failures.put(shard, ex);
+            }
+            shards.add(shard);
+        }
+
+        if (!subscribers.isEmpty()) {
+            try {
+                failures.putAll(scanPlanned(rpm, subscribers));
+            } catch (IOException ex) {
+                for (var shard : subscribers) {
+                    failures.put(shard, ex);
+                }
+            }
+        }
+
+        var result = new ArrayList<Scan>(validators.size());
+        for (int i = 0; i != validators.size(); ++i) {
+            result.add(new Scan(validators.get(i), shards.get(i), failures.get(shards.get(i))));
+        }
+        return result;
+    }
+
+    /// Plans the I/O for a single RPM package and scans it. The payload is read
+    /// if some of the validators visits all the payload entries or needs the
+    /// content of some of the files, see [PayloadScanner#needsContent].
+    ///
+    /// @param <V>        The type of the validators.
+    /// @param rpm        The RPM package.
+    /// @param validators The validators subscribed to the package.
+    /// @return A map of validators which have thrown to the exception thrown.
+    /// @throws IOException If reading the RPM header or the payload fails.
+    static <V extends PayloadValidator> Map<V, Exception> scanPlanned(RpmPackage rpm, List<V> validators) throws IOException {
+        if (validators.stream().anyMatch(validator -> validator.getRequiredData().contains(RpmData.PAYLOAD_ENTRIES))) {
+            return PayloadScanner.scan(rpm, validators, true);
+        }
+        return PayloadScanner.scanIfNeeded(rpm, validators);
+    }
+
+    /// Merges the outcome of scanning a single RPM package into the validators
+    /// which have not failed yet.
+    ///
+    /// @param active The validators which have not failed yet.
+    /// @param scans  The outcome of the scan.
+    private static void complete(List<PayloadValidator> active, List<Scan> scans) {
+        for (var scan : scans) {
+            if (active.stream().noneMatch(validator -> validator == scan.validator())) {
+                continue;
+            }
+            if (scan.shard() != scan.validator()) {
+                scan.validator().merge(scan.shard());
+            }
+            if (scan.exception() != null) {
+                active.removeIf(validator -> validator == scan.validator());
+                scan.validator().error(scan.exception());
+            }
+        }
+    }
+}
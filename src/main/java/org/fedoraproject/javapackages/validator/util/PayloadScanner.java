@@ -0,0 +1,349 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+
+import io.kojan.javadeptools.rpm.RpmArchiveInputStream;
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// Decompresses the payload of an RPM package once and fans out its entries
+/// to any number of [RpmEntryVisitor] instances.
+public class PayloadScanner {
+
+    /// The maximum size of an entry whose content is shared by multiple visitors
+    /// through memory, larger entries are shared through a temporary file.
+    private static final long SHARED_CONTENT_MEMORY_LIMIT = 16 * 1024 * 1024;
+
+    /// Scans the payload of an RPM package with a single visitor.
+    ///
+    /// @param rpm     The RPM package to scan.
+    /// @param visitor The visitor.
+    /// @throws Exception If reading the payload fails or the visitor throws.
+    public static void scan(RpmPackage rpm, RpmEntryVisitor visitor) throws Exception {
+        for (var failure : scan(rpm, List.of(visitor)).values()) {
+            throw failure;
+        }
+    }
+
+    /// Scans the payload of an RPM package, passing each entry to all visitors.
+    ///
+    /// A visitor which throws an exception does not receive any further calls,
+    /// the remaining visitors are not affected. The payload is not read any
+    /// further once no visitors remain.
+    ///
+    /// @param <V>      The type of the visitors.
+    /// @param rpm      The RPM package to scan.
+    /// @param visitors The visitors.
+    /// @return A map of visitors which have thrown to the exception thrown.
+    /// @throws IOException If reading the payload fails.
+    public static <V extends RpmEntryVisitor> Map<V, Exception> scan(RpmPackage rpm, List<V> visitors) throws IOException {
+        return scan(rpm, visitors, true);
+    }
+
+    /// Scans the payload of an RPM package, passing each entry to all visitors,
+    /// or only notifies the visitors of the start and the end of the scan
+    /// without opening the payload. In the latter case the visitors requesting
+    /// it by [RpmEntryVisitor#visitsManifest] receive the entries of the
+    /// [RpmFileManifest] without their content, unless some visitor turns out
+    /// to need the content of some file, in which case the payload is read
+    /// after all.
+    ///
+    /// @param <V>         The type of the visitors.
+    /// @param rpm         The RPM package to scan.
+    /// @param visitors    The visitors.
+    /// @param openPayload Whether to read the payload.
+    /// @return A map of visitors which have thrown to the exception thrown.
+    /// @throws IOException If reading the payload fails.
+    public static <V extends RpmEntryVisitor> Map<V, Exception> scan(RpmPackage rpm, List<V> visitors, boolean openPayload) throws IOException {
+        return scan(rpm, null, visitors, openPayload);
+    }
+
+    /// Scans the payload of an RPM package only if some of the visitors needs
+    /// the content of some file, see [#needsContent]. The file manifest of the
+    /// package is read only once.
+    ///
+    /// @param <V>      The type of the visitors.
+    /// @param rpm      The RPM package to scan.
+    /// @param visitors The visitors.
+    /// @return A map of visitors which have thrown to the exception thrown.
+    /// @throws IOException If reading the RPM header or the payload fails.
+    static <V extends RpmEntryVisitor> Map<V, Exception> scanIfNeeded(RpmPackage rpm, List<V> visitors) throws IOException {
+        var manifest = RpmFileManifest.read(rpm);
+        return scan(rpm, manifest, visitors, needsContent(rpm, manifest, visitors));
+    }
+
+    /// Scans the payload of an RPM package whose file manifest has already been
+    /// read, see [#scan(RpmPackage, List, boolean)]. Otherwise the manifest is
+    /// read once if the scan needs it and passed to the visitors, see
+    /// [RpmEntryVisitor#visitStart(RpmPackage, RpmFileManifest)].
+    ///
+    /// @param <V>         The type of the visitors.
+    /// @param rpm         The RPM package to scan.
+    /// @param manifest    The file manifest of the RPM package, or `null` to
+    ///                    read it if needed.
+    /// @param visitors    The visitors.
+    /// @param openPayload Whether to read the payload.
+    /// @return A map of visitors which have thrown to the exception thrown.
+    /// @throws IOException If reading the payload fails.
+    static <V extends RpmEntryVisitor> Map<V, Exception> scan(RpmPackage rpm, RpmFileManifest manifest, List<V> visitors,
+            boolean openPayload) throws IOException {
+        var failures = new IdentityHashMap<V, Exception>(0);
+        var active = new ArrayList<V>(visitors.size());
+
+        if (manifest == null) {
+            if (openPayload) {
+                try {
+                    manifest = RpmFileManifest.read(rpm);
+                } catch (IOException _) {
+                    // Visitors then read the header themselves, any problem of
+                    // the header is reported by the payload reader
+                }
+            } else if (visitors.stream().anyMatch(RpmEntryVisitor::visitsManifest)) {
+                manifest = RpmFileManifest.read(rpm);
+            }
+        }
+
+        for (var visitor : visitors) {
+            try {
+                visitor.visitStart(rpm, manifest);
+                active.add(visitor);
+            } catch (Exception ex) {
+                failures.put(visitor, ex);
+            }
+        }
+
+        if (!active.isEmpty()) {
+            if (!openPayload && active.stream().anyMatch(RpmEntryVisitor::visitsManifest)) {
+                openPayload = !readManifest(rpm, manifest, active, failures);
+            }
+            if (openPayload) {
+                readPayload(rpm, manifest, active, failures);
+            }
+        }
+
+        for (var visitor : active) {
+            try {
+                visitor.visitEnd(rpm);
+            } catch (Exception ex) {
+                failures.put(visitor, ex);
+            }
+        }
+
+        return failures;
+    }
+
+    /// Reads the payload of an RPM package and passes each entry to the active
+    /// visitors. Visitors which throw an exception are removed from the active
+    /// ones.
+    ///
+    /// @param <V>      The type of the visitors.
+    /// @param rpm      The RPM package to scan.
+    /// @param manifest The file manifest of the RPM package, or `null` if it
+    ///                 cannot be read.
+    /// @param active   The visitors which have not failed yet.
+    /// @param failures The map to record the failures to.
+    /// @throws IOException If reading the payload fails.
+    private static <V extends RpmEntryVisitor> void readPayload(RpmPackage rpm, RpmFileManifest manifest, List<V> active,
+            Map<V, Exception> failures) throws IOException {
+        var paths = new EntryPathTable();
+        var digests = readDigests(manifest);
+        var visitors = active.size();
+        // Whether each active visitor needs the content of the current entry,
+        // visitors which fail are only removed from the active ones
+        var needsContent = new boolean[visitors];
+        var event = new ValidatorEvents.PayloadDecompression();
+        event.begin();
+        var startTime = System.nanoTime();
+        long payloadBytes = 0;
+        long cpioEntries = 0;
+        try (var is = new RpmArchiveInputStream(rpm.getPath())) {
+            for (CpioArchiveEntry header; !active.isEmpty() && (header = is.getNextEntry()) != null;) {
+                payloadBytes += header.getSize();
+                ++cpioEntries;
+                Path symlinkTarget = null;
+                if (header.isSymbolicLink()) {
+                    symlinkTarget = Path.of(IOUtils.toString(is, StandardCharsets.UTF_8));
+                }
+                var path = paths.get(header.getName());
+                var entry = new PayloadEntry(header, path, symlinkTarget, header.isRegularFile() ? digests.get(path) : null);
+
+                var readers = 0;
+                Arrays.fill(needsContent, false);
+                if (entry.isRegularFile()) {
+                    for (int i = 0; i != active.size(); ++i) {
+                        if (active.get(i).needsContent(rpm, entry)) {
+                            needsContent[i] = true;
+                            ++readers;
+                        }
+                    }
+                }
+
+                // A single reader consumes the archive stream directly, multiple
+                // readers share one copy of the content, large entries are not
+                // copied to memory
+                byte[] content = null;
+                Path contentFile = null;
+                if (readers > 1) {
+                    if (header.getSize() <= SHARED_CONTENT_MEMORY_LIMIT) {
+                        content = IOUtils.toByteArray(is);
+                    } else {
+                        contentFile = Files.createTempFile("javapackages-validator-", ".tmp");
+                        Files.copy(is, contentFile, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+
+                try {
+                    var it = active.iterator();
+                    for (int i = 0; it.hasNext(); ++i) {
+                        var visitor = it.next();
+                        var contentStream = needsContent[i] ? openContent(is, content, contentFile) : null;
+                        try (contentStream) {
+                            visitor.visitEntry(rpm, entry, contentStream);
+                        } catch (Exception ex) {
+                            failures.put(visitor, ex);
+                            it.remove();
+                        }
+                    }
+                } finally {
+                    if (contentFile != null) {
+                        Files.delete(contentFile);
+                    }
+                }
+            }
+        } finally {
+            ScanMetrics.recordPayload(rpm.getPath(), System.nanoTime() - startTime, payloadBytes, cpioEntries);
+            if (event.shouldCommit()) {
+                event.nevra = ValidatorEvents.nevra(rpm);
+                event.rpmPath = rpm.getPath().toString();
+                event.visitors = visitors;
+                event.payloadBytes = payloadBytes;
+                event.cpioEntries = cpioEntries;
+                event.commit();
+            }
+        }
+    }
+
+    /// Passes the entries of the file manifest of an RPM package to the active
+    /// visitors which request them, unless some visitor needs the content of
+    /// some file. Visitors which throw an exception are removed from the active
+    /// ones.
+    ///
+    /// @param <V>      The type of the visitors.
+    /// @param rpm      The RPM package to scan.
+    /// @param manifest The file manifest of the RPM package.
+    /// @param active   The visitors which have not failed yet.
+    /// @param failures The map to record the failures to.
+    /// @return `false` if the payload needs to be read instead.
+    private static <V extends RpmEntryVisitor> boolean readManifest(RpmPackage rpm, RpmFileManifest manifest, List<V> active,
+            Map<V, Exception> failures) {
+        for (var entry : manifest) {
+            if (entry.isRegularFile()) {
+                for (var visitor : active) {
+                    if (visitor.needsContent(rpm, entry)) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        for (var entry : manifest) {
+            for (var it = active.iterator(); it.hasNext();) {
+                var visitor = it.next();
+                if (!visitor.visitsManifest()) {
+                    continue;
+                }
+                try {
+                    visitor.visitEntry(rpm, entry, null);
+                } catch (Exception ex) {
+                    failures.put(visitor, ex);
+                    it.remove();
+                }
+            }
+        }
+        return true;
+    }
+
+    /// Reads the digests of the regular files of an RPM package from its file
+    /// manifest.
+    ///
+    /// @param manifest The file manifest of the RPM package, or `null` if it
+    ///                 cannot be read.
+    /// @return A map of the paths of the files to their digests, see
+    ///         [PayloadEntry#getDigest].
+    private static Map<Path, String> readDigests(RpmFileManifest manifest) {
+        if (manifest == null) {
+            return Map.of();
+        }
+        var result = new HashMap<Path, String>();
+        for (var entry : manifest) {
+            if (entry.getDigest() != null) {
+                result.put(entry.getPath(), entry.getDigest());
+            }
+        }
+        return result;
+    }
+
+    /// Opens the content of the current payload entry for a single visitor.
+    ///
+    /// @param is          The archive stream positioned at the content.
+    /// @param content     The content copied to memory, or `null`.
+    /// @param contentFile The content copied to a temporary file, or `null`.
+    /// @return The content of the entry.
+    /// @throws IOException If the temporary file cannot be opened.
+    private static InputStream openContent(InputStream is, byte[] content, Path contentFile) throws IOException {
+        if (content != null) {
+            return new ByteArrayInputStream(content);
+        } else if (contentFile != null) {
+            return Files.newInputStream(contentFile);
+        }
+        return CloseShieldInputStream.wrap(is);
+    }
+
+    /// Tests whether any of the visitors needs the content of a file of an RPM
+    /// package. The files are read from the RPM header, see [RpmFileManifest],
+    /// so that the payload does not have to be opened when no content is
+    /// needed.
+    ///
+    /// @param rpm      The RPM package.
+    /// @param visitors The visitors.
+    /// @return `true` if some visitor needs the content of some regular file.
+    /// @throws IOException If the RPM header cannot be read.
+    public static boolean needsContent(RpmPackage rpm, List<? extends RpmEntryVisitor> visitors) throws IOException {
+        return needsContent(rpm, RpmFileManifest.read(rpm), visitors);
+    }
+
+    /// Tests whether any of the visitors needs the content of a file listed in
+    /// the file manifest of an RPM package.
+    ///
+    /// @param rpm      The RPM package.
+    /// @param manifest The file manifest of the RPM package.
+    /// @param visitors The visitors.
+    /// @return `true` if some visitor needs the content of some regular file.
+    static boolean needsContent(RpmPackage rpm, RpmFileManifest manifest, List<? extends RpmEntryVisitor> visitors) {
+        for (var entry : manifest) {
+            if (entry.isRegularFile()) {
+                for (var visitor : visitors) {
+                    if (visitor.needsContent(rpm, entry)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import io.kojan.javadeptools.rpm.RpmInfo;
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// Abstract class for validators which inspect the payload of RPM packages
+/// entry by entry.
+///
+/// When validated on its own, the validator scans the payload of each package
+/// by itself. When run together with other payload validators by
+/// [PayloadScanEngine], the payload of each package is decompressed only once
+/// and shared by all of them.
+///
+/// Unless the validator requires [RpmData#PAYLOAD_ENTRIES], the payload is
+/// only opened if the file list in the RPM header contains an entry whose
+/// content the validator needs. Otherwise only [#visitStart] and [#visitEnd]
+/// are called.
+public abstract class PayloadValidator extends ElementwiseValidator implements RpmEntryVisitor, DataRequirements {
+
+    /// Constructs a payload validator which accepts all RPMs.
+    protected PayloadValidator() {
+        super();
+    }
+
+    /// Constructs a payload validator with a custom filter.
+    ///
+    /// @param filter A predicate to determine which RPMs should be validated.
+    protected PayloadValidator(Predicate<RpmInfo> filter) {
+        super(filter);
+    }
+
+    /// Returns the kinds of data the validator reads. By default all the entries
+    /// of the payload are visited.
+    ///
+    /// @return The kinds of data read by the validator.
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER, RpmData.PAYLOAD_ENTRIES, RpmData.FILE_CONTENT);
+    }
+
+    /// Validates an RPM package by scanning its payload.
+    ///
+    /// @param rpm The RPM package to validate.
+    /// @throws Exception If an error occurs during validation.
+    @Override
+    public void validate(RpmPackage rpm) throws Exception {
+        var self = List.of(this);
+        for (var failure : PayloadScanEngine.scanPlanned(rpm, self).values()) {
+            throw failure;
+        }
+    }
+
+    /// Prepares the validator for being driven by [PayloadScanEngine].
+    ///
+    /// @param args The arguments of the validator, or `null`.
+    void beginScan(List<String> args) {
+        setArgs(args);
+    }
+
+    /// Tests whether the validator subscribes to the payload of an RPM package
+    /// within [PayloadScanEngine].
+    ///
+    /// @param rpm The RPM package.
+    /// @return `true` if the payload shall be passed to this validator.
+    boolean subscribe(RpmPackage rpm) {
+        return accepts(rpm);
+    }
+}
@@ -1,7 +1,9 @@
 package org.fedoraproject.javapackages.validator.util;
 
 import java.lang.reflect.Method;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import org.fedoraproject.javapackages.validator.spi.Decorated;
@@ -13,7 +15,7 @@ import io.kojan.javadeptools.rpm.RpmPackage;
 ///
 /// This validator dynamically retrieves and validates a specified attribute from
 /// the RPM metadata using reflection.
-public abstract class RpmAttributeValidator extends ElementwiseValidator {
+public abstract class RpmAttributeValidator extends ElementwiseValidator implements DataRequirements {
 
     /// The name of the RPM attribute being validated.
     private final String attributeName;
@@ -36,6 +38,14 @@ public abstract class RpmAttributeValidator extends ElementwiseValidator {
         this.attributeName = attributeName;
     }
 
+    /// Returns the kinds of data the validator reads, which is the RPM header.
+    ///
+    /// @return The kinds of data read by the validator.
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER);
+    }
+
     /// Checks whether the specified attribute value is allowed for the given RPM
     /// package.
     ///
@@ -0,0 +1,17 @@
+package org.fedoraproject.javapackages.validator.util;
+
+/// The kinds of data a validator reads from RPM packages, see
+/// [DataRequirements].
+public enum RpmData {
+    /// The RPM header, such as the name, version, architecture and
+    /// dependencies of the package, and the list of files recorded in it, see
+    /// [RpmFileManifest].
+    HEADER,
+    /// All the entries of the payload, including those whose content is not
+    /// read.
+    PAYLOAD_ENTRIES,
+    /// The content of the JAR files in the payload.
+    JAR_CONTENT,
+    /// The content of other files in the payload.
+    FILE_CONTENT,
+}
@@ -0,0 +1,74 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.InputStream;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// Visitor of the entries of an RPM payload.
+///
+/// Visitors are driven by [PayloadScanner], which decompresses the payload of
+/// an RPM package once and hands every entry to all visitors subscribed to
+/// that package. The content of an entry is only streamed to the visitors
+/// which request it by [#needsContent]. When no visitor needs the content of any
+/// file, the payload is not decompressed at all, and only the visitors which
+/// request it by [#visitsManifest] visit the entries of the [RpmFileManifest].
+@FunctionalInterface
+public interface RpmEntryVisitor {
+
+    /// Called before the first entry of the RPM package is visited.
+    ///
+    /// @param rpm The RPM package being scanned.
+    /// @throws Exception If an error occurs during the visit.
+    default void visitStart(RpmPackage rpm) throws Exception {
+    }
+
+    /// Called before the first entry of the RPM package is visited, with the
+    /// file manifest of the package read by [PayloadScanner] for the scan, so
+    /// that the visitor does not read the RPM header again. Calls
+    /// [#visitStart(RpmPackage)] by default.
+    ///
+    /// @param rpm      The RPM package being scanned.
+    /// @param manifest The file manifest of the RPM package, or `null` if the
+    ///                 scan does not read it.
+    /// @throws Exception If an error occurs during the visit.
+    default void visitStart(RpmPackage rpm, RpmFileManifest manifest) throws Exception {
+        visitStart(rpm);
+    }
+
+    /// Determines whether the content of a regular file entry shall be passed to
+    /// [#visitEntry].
+    ///
+    /// @param rpm   The RPM package being scanned.
+    /// @param entry The payload entry.
+    /// @return `true` if the content is needed, `false` otherwise.
+    default boolean needsContent(RpmPackage rpm, PayloadEntry entry) {
+        return false;
+    }
+
+    /// Determines whether the entries of the [RpmFileManifest] shall be passed to
+    /// [#visitEntry] when the payload is not read because no visitor needs the
+    /// content of any file. Otherwise the visitor only receives the start and
+    /// the end of the scan in that case.
+    ///
+    /// @return `true` if the manifest entries are needed, `false` otherwise.
+    default boolean visitsManifest() {
+        return false;
+    }
+
+    /// Visits a single payload entry.
+    ///
+    /// @param rpm     The RPM package being scanned.
+    /// @param entry   The payload entry.
+    /// @param content The content of the entry, or `null` if the content was not
+    ///                requested. The stream must not be used after this method
+    ///                returns.
+    /// @throws Exception If an error occurs during the visit.
+    void visitEntry(RpmPackage rpm, PayloadEntry entry, InputStream content) throws Exception;
+
+    /// Called after the last entry of the RPM package has been visited.
+    ///
+    /// @param rpm The RPM package being scanned.
+    /// @throws Exception If an error occurs during the visit.
+    default void visitEnd(RpmPackage rpm) throws Exception {
+    }
+}
@@ -0,0 +1,298 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.apache.commons.compress.archivers.cpio.CpioConstants;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+/// The list of files of an RPM package, as recorded in its header.
+///
+/// The manifest is read from the RPM header only, the payload is not
+/// decompressed. The entries correspond to the entries read by
+/// [PayloadScanner], in the same order, including ghost files. The content of
+/// the files is not available, but the digests of regular files recorded in
+/// the header are, see [PayloadEntry#getDigest].
+public final class RpmFileManifest implements Iterable<PayloadEntry> {
+
+    private static final int HEADER_MAGIC = 0x8EADE801;
+    static final int LEAD_SIZE = 96;
+
+    private static final int TYPE_INT16 = 3;
+    private static final int TYPE_INT32 = 4;
+    private static final int TYPE_INT64 = 5;
+    private static final int TYPE_STRING_ARRAY = 8;
+
+    private static final int TAG_OLDFILENAMES = 1027;
+    private static final int TAG_FILESIZES = 1028;
+    private static final int TAG_FILEMODES = 1030;
+    private static final int TAG_FILEDIGESTS = 1035;
+    private static final int TAG_FILELINKTOS = 1036;
+    private static final int TAG_DIRINDEXES = 1116;
+    private static final int TAG_BASENAMES = 1117;
+    private static final int TAG_DIRNAMES = 1118;
+    private static final int TAG_LONGFILESIZES = 5008;
+    private static final int TAG_FILEDIGESTALGO = 5011;
+
+    /// The names of the digest algorithms of the SHA-2 family by their numbers
+    /// in the RPM header. Weaker algorithms do not identify file contents.
+    private static final Map<Long, String> DIGEST_ALGORITHMS = Map.of(
+            8L, "sha256",
+            9L, "sha384",
+            10L, "sha512",
+            11L, "sha224");
+    private static final Pattern HEX_DIGEST = Pattern.compile("[0-9a-f]+");
+
+    /// The entries of the manifest.
+    private final List<PayloadEntry> entries;
+
+    private RpmFileManifest(List<PayloadEntry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /// A parsed RPM header structure.
+    ///
+    /// @param index The index entries, four integers per entry: tag, type,
+    ///              offset and count.
+    /// @param store The data store.
+    private static record Header(int[] index, ByteBuffer store) {
+        /// Finds the index entry of a tag.
+        ///
+        /// @param tag  The tag.
+        /// @param type The expected type of the tag.
+        /// @return The position of the entry in the index, or `-1` if the tag is
+        ///         not present.
+        /// @throws IOException If the tag has an unexpected type.
+        int find(int tag, int type) throws IOException {
+            for (int i = 0; i < index.length; i += 4) {
+                if (index[i] == tag) {
+                    if (index[i + 1] != type) {
+                        throw new IOException("Malformed RPM header: unexpected type " + index[i + 1] + " of tag " + tag);
+                    }
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /// Reads the numbers stored under a tag.
+        ///
+        /// @param tag  The tag.
+        /// @param type The type of the numbers.
+        /// @return The numbers, or `null` if the tag is not present. Numbers of
+        ///         type INT16 and INT32 are read as unsigned.
+        /// @throws IOException If the tag is malformed.
+        long[] numbers(int tag, int type) throws IOException {
+            int i = find(tag, type);
+            if (i == -1) {
+                return null;
+            }
+            int width = switch (type) {
+                case TYPE_INT16 -> 2;
+                case TYPE_INT32 -> 4;
+                default -> 8;
+            };
+            int offset = index[i + 2];
+            int count = index[i + 3];
+            if (offset < 0 || count < 0 || (long) offset + (long) count * width > store.limit()) {
+                throw new IOException("Malformed RPM header: tag " + tag + " out of bounds");
+            }
+            var result = new long[count];
+            for (int j = 0; j != count; ++j) {
+                result[j] = switch (type) {
+                    case TYPE_INT16 -> Short.toUnsignedLong(store.getShort(offset + j * width));
+                    case TYPE_INT32 -> Integer.toUnsignedLong(store.getInt(offset + j * width));
+                    default -> store.getLong(offset + j * width);
+                };
+            }
+            return result;
+        }
+
+        /// Reads the strings stored under a tag of type STRING_ARRAY.
+        ///
+        /// @param tag The tag.
+        /// @return The strings, or `null` if the tag is not present.
+        /// @throws IOException If the tag is malformed.
+        String[] strings(int tag) throws IOException {
+            int i = find(tag, TYPE_STRING_ARRAY);
+            if (i == -1) {
+                return null;
+            }
+            int offset = index[i + 2];
+            int count = index[i + 3];
+            if (offset < 0 || count < 0 || count > store.limit()) {
+                throw new IOException("Malformed RPM header: tag " + tag + " out of bounds");
+            }
+            var result = new String[count];
+            for (int j = 0; j != count; ++j) {
+                int end = offset;
+                while (end < store.limit() && store.get(end) != 0) {
+                    ++end;
+                }
+                if (end == store.limit()) {
+                    throw new IOException("Malformed RPM header: unterminated string in tag " + tag);
+                }
+                result[j] = new String(store.array(), offset, end - offset, StandardCharsets.UTF_8);
+                offset = end + 1;
+            }
+            return result;
+        }
+    }
+
+    /// Reads the introduction of a header structure.
+    ///
+    /// @param is The input stream positioned at the header structure.
+    /// @return The number of index entries and the size of the data store.
+    /// @throws IOException If the header cannot be read.
+    static int[] readIntro(DataInputStream is) throws IOException {
+        if (is.readInt() != HEADER_MAGIC) {
+            throw new IOException("Malformed RPM header: bad magic");
+        }
+        is.readInt();
+        int count = is.readInt();
+        int size = is.readInt();
+        if (count < 0 || size < 0 || count > (Integer.MAX_VALUE / 16) || size > (Integer.MAX_VALUE - 16 * count)) {
+            throw new IOException("Malformed RPM header: bad size");
+        }
+        return new int[] {count, size};
+    }
+
+    /// Reads the main header of an RPM file.
+    ///
+    /// @param is The input stream positioned at the beginning of the file.
+    /// @return The main header.
+    /// @throws IOException If the header cannot be read.
+    private static Header readMainHeader(DataInputStream is) throws IOException {
+        is.skipNBytes(LEAD_SIZE);
+
+        // The signature header is padded to a multiple of 8 bytes
+        var signature = readIntro(is);
+        is.skipNBytes(16L * signature[0] + signature[1] + (8 - signature[1] % 8) % 8);
+
+        var intro = readIntro(is);
+        var index = new int[4 * intro[0]];
+        for (int i = 0; i != index.length; ++i) {
+            index[i] = is.readInt();
+        }
+        var store = new byte[intro[1]];
+        is.readFully(store);
+        return new Header(index, ByteBuffer.wrap(store));
+    }
+
+    /// Reads the file manifest of an RPM package.
+    ///
+    /// @param rpm The RPM package.
+    /// @return The file manifest.
+    /// @throws IOException If the RPM header cannot be read.
+    public static RpmFileManifest read(RpmPackage rpm) throws IOException {
+        return read(rpm.getPath());
+    }
+
+    /// Reads the file manifest of an RPM file.
+    ///
+    /// @param path The path to the RPM file.
+    /// @return The file manifest.
+    /// @throws IOException If the RPM header cannot be read.
+    public static RpmFileManifest read(Path path) throws IOException {
+        Header header;
+        try (var is = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            header = readMainHeader(is);
+        } catch (EOFException ex) {
+            throw new IOException("Malformed RPM header of " + path + ": unexpected end of file", ex);
+        }
+
+        var fileNames = header.strings(TAG_OLDFILENAMES);
+        var baseNames = header.strings(TAG_BASENAMES);
+        if (fileNames == null && baseNames != null) {
+            var dirNames = header.strings(TAG_DIRNAMES);
+            var dirIndexes = header.numbers(TAG_DIRINDEXES, TYPE_INT32);
+            if (dirNames == null || dirIndexes == null || dirIndexes.length != baseNames.length) {
+                throw new IOException("Malformed RPM header of " + path + ": inconsistent file names");
+            }
+            fileNames = new String[baseNames.length];
+            for (int i = 0; i != baseNames.length; ++i) {
+                if (dirIndexes[i] >= dirNames.length) {
+                    throw new IOException("Malformed RPM header of " + path + ": inconsistent file names");
+                }
+                fileNames[i] = dirNames[(int) dirIndexes[i]] + baseNames[i];
+            }
+        }
+        if (fileNames == null) {
+            return new RpmFileManifest(List.of());
+        }
+
+        var modes = header.numbers(TAG_FILEMODES, TYPE_INT16);
+        var sizes = header.numbers(TAG_LONGFILESIZES, TYPE_INT64);
+        if (sizes == null) {
+            sizes = header.numbers(TAG_FILESIZES, TYPE_INT32);
+        }
+        var linkTos = header.strings(TAG_FILELINKTOS);
+        if (modes == null || modes.length != fileNames.length || sizes == null || sizes.length != fileNames.length
+                || (linkTos != null && linkTos.length != fileNames.length)) {
+            throw new IOException("Malformed RPM header of " + path + ": inconsistent file attributes");
+        }
+
+        var digests = header.strings(TAG_FILEDIGESTS);
+        var digestAlgo = header.numbers(TAG_FILEDIGESTALGO, TYPE_INT32);
+        // Without the tag the digests are MD5
+        var digestPrefix = digestAlgo != null && digestAlgo.length == 1 ? DIGEST_ALGORITHMS.get(digestAlgo[0]) : null;
+        if (digests != null && digests.length != fileNames.length) {
+            throw new IOException("Malformed RPM header of " + path + ": inconsistent file digests");
+        }
+
+        var paths = new EntryPathTable();
+        var entries = new ArrayList<PayloadEntry>(fileNames.length);
+        for (int i = 0; i != fileNames.length; ++i) {
+            var cpioEntry = new CpioArchiveEntry(CpioConstants.FORMAT_NEW, fileNames[i]);
+            try {
+                cpioEntry.setMode(modes[i]);
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("Malformed RPM header of " + path + ": unknown mode of file " + fileNames[i], ex);
+            }
+            Path symlinkTarget = null;
+            String digest = null;
+            if (cpioEntry.isSymbolicLink()) {
+                var linkTo = linkTos != null ? linkTos[i] : "";
+                symlinkTarget = Path.of(linkTo);
+                cpioEntry.setSize(linkTo.getBytes(StandardCharsets.UTF_8).length);
+            } else if (cpioEntry.isRegularFile()) {
+                cpioEntry.setSize(sizes[i]);
+                if (digestPrefix != null && digests != null && HEX_DIGEST.matcher(digests[i]).matches()) {
+                    digest = digestPrefix + ":" + digests[i];
+                }
+            }
+            entries.add(new PayloadEntry(cpioEntry, paths.get(fileNames[i]), symlinkTarget, digest));
+        }
+
+        return new RpmFileManifest(entries);
+    }
+
+    /// Returns the entries of the manifest.
+    ///
+    /// @return An unmodifiable list of the entries, in the order of the payload.
+    public List<PayloadEntry> getEntries() {
+        return entries;
+    }
+
+    /// Returns an iterator over the entries of the manifest.
+    ///
+    /// @return An iterator over the entries.
+    @Override
+    public Iterator<PayloadEntry> iterator() {
+        return entries.iterator();
+    }
+}
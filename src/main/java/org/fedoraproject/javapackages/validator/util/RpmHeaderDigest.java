@@ -0,0 +1,61 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/// Computes the digest of the main header of an RPM file.
+///
+/// The main header identifies the content of an RPM package: it records the
+/// digests of all the files and of the payload. The signature header is not
+/// included, so that signing a package again does not change its digest. Only
+/// the headers are read, the payload is not.
+public final class RpmHeaderDigest {
+
+    private RpmHeaderDigest() {
+    }
+
+    /// Computes the SHA-256 digest of the main header of an RPM file.
+    ///
+    /// @param path The path to the RPM file.
+    /// @return The digest.
+    /// @throws IOException If the RPM header cannot be read.
+    public static byte[] sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        try (var is = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            is.skipNBytes(RpmFileManifest.LEAD_SIZE);
+
+            // The signature header is padded to a multiple of 8 bytes
+            var signature = RpmFileManifest.readIntro(is);
+            is.skipNBytes(16L * signature[0] + signature[1] + (8 - signature[1] % 8) % 8);
+
+            var intro = RpmFileManifest.readIntro(is);
+            digest.update(ByteBuffer.allocate(8).putInt(intro[0]).putInt(intro[1]).array());
+            var buffer = new byte[8192];
+            for (long remaining = 16L * intro[0] + intro[1]; remaining > 0;) {
+                int read = is.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new EOFException();
+                }
+                digest.update(buffer, 0, read);
+                remaining -= read;
+            }
+        } catch (EOFException ex) {
+            throw new IOException("Malformed RPM header of " + path + ": unexpected end of file", ex);
+        }
+
+        return digest.digest();
+    }
+}
@@ -1,42 +1,94 @@
 package org.fedoraproject.javapackages.validator.util;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.function.Consumer;
 
 import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
 import org.apache.commons.io.IOUtils;
+import org.fedoraproject.javapackages.validator.spi.Validator;
 
-import io.kojan.javadeptools.rpm.RpmArchiveInputStream;
 import io.kojan.javadeptools.rpm.RpmPackage;
 
 /// Functional interface for processing JAR files within RPM packages.
 ///
 /// This interface extends [Consumer] to allow for easy processing of RPM
-/// packages and extracting JAR files contained within them.
-public interface RpmJarConsumer extends Consumer<RpmPackage> {
+/// packages and extracting JAR files contained within them. It is also an
+/// [RpmEntryVisitor] requesting the content of JAR files, so that it can
+/// share a payload scan with other visitors.
+///
+/// Implementations read each JAR file directly from the payload, so that the
+/// memory used does not grow with the size of the JAR file. Consumers which
+/// only need the bytecode versions, module names or manifest attributes of the
+/// JAR files implement [JarFactConsumer] instead.
+public interface RpmJarConsumer extends Consumer<RpmPackage>, RpmEntryVisitor {
 
     /// Processes an RPM package by scanning its contents and extracting JAR files.
+    /// The payload is not opened if the RPM package contains no JAR files.
     ///
     /// @param rpm The RPM package to process.
     /// @throws RuntimeException If an exception occurs while reading the RPM
     ///                          package.
     @Override
     default void accept(RpmPackage rpm) {
-        try (var is = new RpmArchiveInputStream(rpm.getPath())) {
-            for (CpioArchiveEntry rpmEntry; (rpmEntry = is.getNextEntry()) != null;) {
-                if (!rpmEntry.isSymbolicLink() && rpmEntry.getName().endsWith(".jar")) {
-                    acceptJarEntry(rpm, rpmEntry, IOUtils.toByteArray(is));
-                }
+        try {
+            var self = List.of(this);
+            for (var failure : PayloadScanner.scanIfNeeded(rpm, self).values()) {
+                throw failure;
             }
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
     }
 
-    /// Handles an individual JAR file entry within an RPM package.
+    /// Requests the content of regular files with the `.jar` extension.
+    ///
+    /// @param rpm   The RPM package being scanned.
+    /// @param entry The payload entry.
+    /// @return `true` if the content of the JAR file is needed.
+    @Override
+    default boolean needsContent(RpmPackage rpm, PayloadEntry entry) {
+        return entry.getHeader().getName().endsWith(".jar");
+    }
+
+    /// Passes the content of JAR files to
+    /// [#acceptJarEntry(RpmPackage, CpioArchiveEntry, InputStream)].
+    ///
+    /// @param rpm     The RPM package being scanned.
+    /// @param entry   The payload entry.
+    /// @param content The content of the entry, or `null`.
+    /// @throws Exception If an error occurs while processing the JAR entry.
+    @Override
+    default void visitEntry(RpmPackage rpm, PayloadEntry entry, InputStream content) throws Exception {
+        if (content == null) {
+            return;
+        }
+        // The content is only requested for JAR files
+        var event = new ValidatorEvents.JarProcessing();
+        event.begin();
+        try {
+            acceptJarEntry(rpm, entry.getHeader(), content);
+        } finally {
+            if (event.shouldCommit()) {
+                event.testName = this instanceof Validator validator ? validator.getTestName() : getClass().getName();
+                event.nevra = ValidatorEvents.nevra(rpm);
+                event.entryPath = entry.getHeader().getName();
+                event.size = entry.getHeader().getSize();
+                event.read = true;
+                event.commit();
+            }
+        }
+    }
+
+    /// Handles an individual JAR file entry within an RPM package, reading the
+    /// JAR file as a stream. Consumers which need the whole JAR file in memory
+    /// read it from the stream, for example by [IOUtils#toByteArray(InputStream)].
     ///
     /// @param rpm      The RPM package containing the JAR entry.
     /// @param rpmEntry The archive entry representing the JAR file.
-    /// @param content  The byte content of the extracted JAR file.
+    /// @param content  The content of the JAR file. The stream ends at the end of
+    ///                 the JAR file and must not be used after this method
+    ///                 returns.
     /// @throws Exception If an error occurs while processing the JAR entry.
-    void acceptJarEntry(RpmPackage rpm, CpioArchiveEntry rpmEntry, byte[] content) throws Exception;
+    void acceptJarEntry(RpmPackage rpm, CpioArchiveEntry rpmEntry, InputStream content) throws Exception;
 }
@@ -0,0 +1,204 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/// Counters of the work done while reading RPM payloads and JAR files, see
+/// [#current].
+///
+/// The counters are bound to a thread by [#call], the readers of this package
+/// increment the counters bound to the calling thread, if any. Work which is
+/// forked to other threads by [OrderedParallelism] is counted by the counters
+/// of the thread which forked it, together with the CPU time and the bytes
+/// allocated by the forked tasks.
+public final class ScanMetrics {
+    /// The counters bound to the current thread.
+    private static final ThreadLocal<ScanMetrics> CURRENT = new ThreadLocal<>();
+    private static final com.sun.management.ThreadMXBean THREADS =
+            ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads ? threads : null;
+
+    /// The payload scans of a single RPM package.
+    ///
+    /// @param nanos        The time spent scanning the payload, in
+    ///                     nanoseconds.
+    /// @param payloadBytes The size of the payload entries read.
+    /// @param cpioEntries  The number of payload entries read.
+    public static record RpmScan(long nanos, long payloadBytes, long cpioEntries) {
+        /// Adds two scans of the same package.
+        ///
+        /// @param other The other scan.
+        /// @return The sum of the scans.
+        public RpmScan plus(RpmScan other) {
+            return new RpmScan(nanos + other.nanos, payloadBytes + other.payloadBytes, cpioEntries + other.cpioEntries);
+        }
+    }
+
+    private final LongAdder payloadBytes = new LongAdder();
+    private final LongAdder cpioEntries = new LongAdder();
+    private final LongAdder jarsOpened = new LongAdder();
+    private final LongAdder classesInspected = new LongAdder();
+    private final LongAdder forkedCpuNanos = new LongAdder();
+    private final LongAdder forkedAllocatedBytes = new LongAdder();
+    private final Map<Path, RpmScan> rpmScans = new ConcurrentHashMap<>();
+
+    /// Returns the counters bound to the current thread.
+    ///
+    /// @return The counters, or `null` if no counters are bound.
+    public static ScanMetrics current() {
+        return CURRENT.get();
+    }
+
+    /// Runs an action with these counters bound to the current thread.
+    ///
+    /// @param <T>    The type of the result of the action.
+    /// @param action The action.
+    /// @return The result of the action.
+    /// @throws Exception If the action throws.
+    public <T> T call(Callable<T> action) throws Exception {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    private static long threadCpuTime() {
+        return THREADS != null && THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long threadAllocatedBytes() {
+        return THREADS != null && THREADS.isThreadAllocatedMemorySupported() ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /// Binds the counters of the current thread, if any, to the threads running
+    /// a task. The CPU time and the bytes allocated by the task are added to
+    /// the counters.
+    ///
+    /// @param <T>  The type of the argument of the task.
+    /// @param <R>  The type of the result of the task.
+    /// @param task The task, it should not throw.
+    /// @return The task running with the counters of the current thread.
+    static <T, R> Function<T, R> propagate(Function<T, R> task) {
+        var metrics = CURRENT.get();
+        if (metrics == null) {
+            return task;
+        }
+        return argument -> {
+            var previous = CURRENT.get();
+            CURRENT.set(metrics);
+            long cpuStart = threadCpuTime();
+            long allocatedStart = threadAllocatedBytes();
+            try {
+                return task.apply(argument);
+            } finally {
+                long cpuEnd = threadCpuTime();
+                long allocatedEnd = threadAllocatedBytes();
+                if (cpuStart != -1 && cpuEnd != -1) {
+                    metrics.forkedCpuNanos.add(cpuEnd - cpuStart);
+                }
+                if (allocatedStart != -1 && allocatedEnd != -1) {
+                    metrics.forkedAllocatedBytes.add(allocatedEnd - allocatedStart);
+                }
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    /// Records a payload scan of an RPM package by the current thread.
+    ///
+    /// @param path         The path of the RPM package.
+    /// @param nanos        The time spent scanning the payload.
+    /// @param payloadBytes The size of the payload entries read.
+    /// @param cpioEntries  The number of payload entries read.
+    static void recordPayload(Path path, long nanos, long payloadBytes, long cpioEntries) {
+        var metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.payloadBytes.add(payloadBytes);
+            metrics.cpioEntries.add(cpioEntries);
+            metrics.rpmScans.merge(path, new RpmScan(nanos, payloadBytes, cpioEntries), RpmScan::plus);
+        }
+    }
+
+    /// Records a JAR file opened by the current thread.
+    static void recordJarOpened() {
+        var metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.jarsOpened.increment();
+        }
+    }
+
+    /// Records class files inspected by the current thread.
+    ///
+    /// @param count The number of class files.
+    static void recordClassesInspected(long count) {
+        var metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.classesInspected.add(count);
+        }
+    }
+
+    /// Returns the size of the payload entries read.
+    ///
+    /// @return The number of bytes.
+    public long getPayloadBytes() {
+        return payloadBytes.sum();
+    }
+
+    /// Returns the number of payload entries read.
+    ///
+    /// @return The number of entries.
+    public long getCpioEntries() {
+        return cpioEntries.sum();
+    }
+
+    /// Returns the number of JAR files opened.
+    ///
+    /// @return The number of JAR files.
+    public long getJarsOpened() {
+        return jarsOpened.sum();
+    }
+
+    /// Returns the number of class files inspected.
+    ///
+    /// @return The number of class files.
+    public long getClassesInspected() {
+        return classesInspected.sum();
+    }
+
+    /// Returns the CPU time of the tasks forked to other threads.
+    ///
+    /// @return The CPU time in nanoseconds, `0` if it is not measured.
+    public long getForkedCpuNanos() {
+        return forkedCpuNanos.sum();
+    }
+
+    /// Returns the bytes allocated by the tasks forked to other threads.
+    ///
+    /// @return The number of bytes, `0` if they are not measured.
+    public long getForkedAllocatedBytes() {
+        return forkedAllocatedBytes.sum();
+    }
+
+    /// Returns the payload scans by RPM package.
+    ///
+    /// @return A sorted copy of the scans, by the paths of the packages.
+    public Map<Path, RpmScan> getRpmScans() {
+        return new TreeMap<>(rpmScans);
+    }
+}
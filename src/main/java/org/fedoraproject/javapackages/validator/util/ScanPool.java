@@ -0,0 +1,67 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/// The pool of threads on which validators scan RPM packages in parallel, see
+/// [#current].
+///
+/// Scanning a package decompresses its payload and reads its JAR files, which
+/// blocks on I/O. The packages are therefore not scanned in the common
+/// [ForkJoinPool], which is shared by the whole JVM, but in a pool sized by
+/// the number of jobs of the run. Each run uses its own pool, bound to the
+/// threads of the run by [#call] and shared by all its validators.
+public final class ScanPool implements AutoCloseable {
+    /// The pool bound to the current thread.
+    private static final ThreadLocal<ScanPool> CURRENT = new ThreadLocal<>();
+
+    private final ForkJoinPool pool;
+
+    /// Constructs a pool.
+    ///
+    /// @param jobs The number of threads, at least 1.
+    public ScanPool(int jobs) {
+        this.pool = new ForkJoinPool(jobs);
+    }
+
+    /// Returns the pool of threads bound to the current thread. Tasks running
+    /// in a pool use the same pool.
+    ///
+    /// @return The pool bound to the current thread, or the common
+    ///         [ForkJoinPool] if no pool is bound.
+    static ForkJoinPool current() {
+        var scanPool = CURRENT.get();
+        if (scanPool != null) {
+            return scanPool.pool;
+        }
+        var pool = ForkJoinTask.getPool();
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    /// Runs an action with this pool bound to the current thread.
+    ///
+    /// @param <T>    The type of the result of the action.
+    /// @param action The action.
+    /// @return The result of the action.
+    /// @throws Exception If the action throws.
+    public <T> T call(Callable<T> action) throws Exception {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /// Waits for the running tasks and shuts the threads down.
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
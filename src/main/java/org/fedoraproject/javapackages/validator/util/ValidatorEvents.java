@@ -0,0 +1,169 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import java.util.List;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/// JDK Flight Recorder events of the execution of validators.
+///
+/// The events are emitted by the validation engine and by the utilities of this
+/// package, they are recorded when a recording is running, for example one
+/// started by the `--jfr` option or by `-XX:StartFlightRecording`. The fields
+/// of an event are only computed if the event is committed.
+public final class ValidatorEvents {
+    private static final String PREFIX = "org.fedoraproject.javapackages.validator.";
+    private static final String CATEGORY = "Java Packages Validator";
+
+    /// The types of the events.
+    public static final List<Class<? extends Event>> TYPES = List.of(ValidatorInvocation.class, RpmValidation.class,
+            JarProcessing.class, PayloadDecompression.class, ReportWrite.class);
+
+    private ValidatorEvents() {
+    }
+
+    /// Formats the NEVRA of an RPM package, the epoch is omitted if the
+    /// package has none.
+    ///
+    /// @param rpm The RPM package.
+    /// @return The NEVRA.
+    public static String nevra(RpmPackage rpm) {
+        var info = rpm.getInfo();
+        var result = new StringBuilder(info.getName()).append('-');
+        info.getEpoch().ifPresent(epoch -> result.append(epoch).append(':'));
+        result.append(info.getVersion()).append('-').append(info.getRelease()).append('.');
+        result.append(info.isSourcePackage() ? "src" : info.getArch());
+        return result.toString();
+    }
+
+    /// An invocation of validators, validators sharing a payload scan are
+    /// invoked together.
+    @Name(PREFIX + "ValidatorInvocation")
+    @Label("Validator")
+    @Description("Invocation of validators on all the RPM packages")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ValidatorInvocation extends Event {
+        /// The test names of the validators, separated by spaces.
+        @Label("Test Name")
+        public String testName;
+
+        /// The class name of the validator, or of the first of the validators.
+        @Label("Validator Class")
+        public String validatorClass;
+
+        /// The result of the validator, or `null` if it threw an exception or if
+        /// validators were invoked together.
+        @Label("Result")
+        public String result;
+    }
+
+    /// The validation of a single RPM package by an [ElementwiseValidator].
+    @Name(PREFIX + "RpmValidation")
+    @Label("RPM Validation")
+    @Description("Validation of a single RPM package")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class RpmValidation extends Event {
+        /// The test name of the validator.
+        @Label("Test Name")
+        public String testName;
+
+        /// The NEVRA of the package.
+        @Label("NEVRA")
+        public String nevra;
+    }
+
+    /// The processing of a JAR file by an [RpmJarConsumer].
+    @Name(PREFIX + "JarProcessing")
+    @Label("JAR File")
+    @Description("Processing of a JAR file of an RPM package")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class JarProcessing extends Event {
+        /// The test name of the consumer, or its class name if it is not a
+        /// validator.
+        @Label("Test Name")
+        public String testName;
+
+        /// The NEVRA of the package.
+        @Label("NEVRA")
+        public String nevra;
+
+        /// The path of the JAR file within the payload.
+        @Label("Entry Path")
+        public String entryPath;
+
+        /// The size of the JAR file.
+        @Label("Size")
+        @DataAmount
+        public long size;
+
+        /// Whether the JAR file was read rather than its facts taken from
+        /// [JarFactCache].
+        @Label("Read")
+        public boolean read;
+    }
+
+    /// The decompression of the payload of an RPM package by
+    /// [PayloadScanner].
+    @Name(PREFIX + "PayloadDecompression")
+    @Label("Payload Decompression")
+    @Description("Decompression of the payload of an RPM package")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class PayloadDecompression extends Event {
+        /// The NEVRA of the package.
+        @Label("NEVRA")
+        public String nevra;
+
+        /// The path of the RPM file.
+        @Label("RPM Path")
+        public String rpmPath;
+
+        /// The number of visitors of the payload.
+        @Label("Visitors")
+        public int visitors;
+
+        /// The size of the payload entries read.
+        @Label("Payload Bytes")
+        @DataAmount
+        public long payloadBytes;
+
+        /// The number of payload entries read.
+        @Label("Entries")
+        public long cpioEntries;
+    }
+
+    /// The writing of a report, either to a file or to the standard output.
+    @Name(PREFIX + "ReportWrite")
+    @Label("Report")
+    @Description("Writing of the results of a test or of the whole run")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ReportWrite extends Event {
+        /// The test name, or `null` for the report of all the tests.
+        @Label("Test Name")
+        public String testName;
+
+        /// The path of the written files without their extensions, or `null`
+        /// for the standard output.
+        @Label("Path")
+        public String path;
+
+        /// The number of log entries written.
+        @Label("Entries")
+        public long entries;
+
+        /// The size of the written files, `0` for the standard output.
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+}
@@ -1,16 +1,31 @@
 package org.fedoraproject.javapackages.validator.validators;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.fedoraproject.javapackages.validator.util.DataRequirements;
 import org.fedoraproject.javapackages.validator.util.ElementwiseValidator;
+import org.fedoraproject.javapackages.validator.util.RpmData;
 
 import io.kojan.javadeptools.rpm.RpmInfo;
 import io.kojan.javadeptools.rpm.RpmPackage;
 
-public class AttributeBuildRequiresValidator extends ElementwiseValidator {
+public class AttributeBuildRequiresValidator extends ElementwiseValidator implements DataRequirements {
     @Override
     public String getTestName() {
         return "/java/attributes/build-requires";
     }
 
+    @Override
+    protected AttributeBuildRequiresValidator fork() {
+        return new AttributeBuildRequiresValidator();
+    }
+
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER);
+    }
+
     public AttributeBuildRequiresValidator() {
         super(RpmInfo::isSourcePackage);
     }
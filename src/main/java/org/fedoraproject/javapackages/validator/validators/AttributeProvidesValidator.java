@@ -1,21 +1,35 @@
 package org.fedoraproject.javapackages.validator.validators;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import org.fedoraproject.javapackages.validator.spi.Decorated;
 import org.fedoraproject.javapackages.validator.spi.TestResult;
+import org.fedoraproject.javapackages.validator.util.DataRequirements;
 import org.fedoraproject.javapackages.validator.util.ElementwiseValidator;
+import org.fedoraproject.javapackages.validator.util.RpmData;
 
 import io.kojan.javadeptools.rpm.RpmDependency;
 import io.kojan.javadeptools.rpm.RpmInfo;
 import io.kojan.javadeptools.rpm.RpmPackage;
 
-public class AttributeProvidesValidator extends ElementwiseValidator {
+public class AttributeProvidesValidator extends ElementwiseValidator implements DataRequirements {
     @Override
     public String getTestName() {
         return "/java/attributes/provides";
     }
 
+    @Override
+    protected AttributeProvidesValidator fork() {
+        return new AttributeProvidesValidator();
+    }
+
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER);
+    }
+
     public AttributeProvidesValidator() {
         super(Predicate.not(RpmInfo::isSourcePackage));
     }
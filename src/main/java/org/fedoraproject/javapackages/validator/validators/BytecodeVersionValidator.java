@@ -4,6 +4,7 @@ import java.nio.file.Path;
 import java.util.Map;
 
 import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
 import org.fedoraproject.javapackages.validator.spi.TestResult;
 import org.fedoraproject.javapackages.validator.util.BytecodeVersionJarValidator;
 
@@ -21,6 +22,11 @@ public class BytecodeVersionValidator extends BytecodeVersionJarValidator {
         return "/java/bytecode-version";
     }
 
+    @Override
+    protected BytecodeVersionValidator fork() {
+        return new BytecodeVersionValidator();
+    }
+
     private static record Limits(short min, short max) {
     }
 
@@ -94,11 +100,14 @@ public class BytecodeVersionValidator extends BytecodeVersionJarValidator {
 
             if (!failed) {
                 mergeResult(TestResult.pass);
-                debug("{0}: {1}: {2}: bytecode version: {3}",
-                        Decorated.rpm(rpm),
-                        Decorated.custom(jarPath, DECORATION_JAR),
-                        Decorated.struct(entry.getKey()),
-                        Decorated.actual(entry.getValue()));
+                // One entry per class file, only built if kept
+                if (isLogged(LogEvent.debug)) {
+                    debug("{0}: {1}: {2}: bytecode version: {3}",
+                            Decorated.rpm(rpm),
+                            Decorated.custom(jarPath, DECORATION_JAR),
+                            Decorated.struct(entry.getKey()),
+                            Decorated.actual(entry.getValue()));
+                }
             }
         }
     }
@@ -1,14 +1,18 @@
 package org.fedoraproject.javapackages.validator.validators;
 
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 
 import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.util.DataRequirements;
 import org.fedoraproject.javapackages.validator.util.ElementwiseValidator;
+import org.fedoraproject.javapackages.validator.util.RpmData;
 
 import io.kojan.javadeptools.rpm.RpmInfo;
 import io.kojan.javadeptools.rpm.RpmPackage;
 
-public class JavaExclusiveArchValidator extends ElementwiseValidator {
+public class JavaExclusiveArchValidator extends ElementwiseValidator implements DataRequirements {
     private final String javaArches;
 
     @Override
@@ -16,6 +20,16 @@ public class JavaExclusiveArchValidator extends ElementwiseValidator {
         return "/java/exclusive_arch";
     }
 
+    @Override
+    protected JavaExclusiveArchValidator fork() {
+        return new JavaExclusiveArchValidator(javaArches);
+    }
+
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER);
+    }
+
     /// The expanded value of `rpm -E '%{java_arches}'` as of 18. 8. 2022 on Fedora 37
     private static final String JAVA_ARCHES = "aarch64 ppc64le s390x x86_64";
 
@@ -1,64 +1,55 @@
 package org.fedoraproject.javapackages.validator.validators;
 
-import java.io.ByteArrayInputStream;
-import java.lang.module.InvalidModuleDescriptorException;
-import java.lang.module.ModuleDescriptor;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
-import java.util.regex.Pattern;
 
 import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
-import org.apache.commons.io.IOUtils;
 import org.fedoraproject.javapackages.validator.spi.Decorated;
 import org.fedoraproject.javapackages.validator.util.Common;
-import org.fedoraproject.javapackages.validator.util.JarValidator;
+import org.fedoraproject.javapackages.validator.util.JarFacts;
+import org.fedoraproject.javapackages.validator.util.JarFactValidator;
 
 import io.kojan.javadeptools.rpm.RpmPackage;
 
-public class JpmsProvidesValidator extends JarValidator {
+public class JpmsProvidesValidator extends JarFactValidator {
     @Override
     public String getTestName() {
         return "/java/jpms-provides";
     }
 
-    private Map<String, String> jarModuleNames = new TreeMap<>();
+    @Override
+    protected JpmsProvidesValidator fork() {
+        return new JpmsProvidesValidator();
+    }
 
-    private static Pattern VERSIONS_PATTERN = Pattern.compile("META-INF/versions/\\d+/module-info\\.class");
+    private Map<String, String> jarModuleNames = new TreeMap<>();
+    private Set<String> providedModuleNames = new TreeSet<>();
 
     @Override
-    public void acceptJarEntry(RpmPackage rpm, CpioArchiveEntry rpmEntry, byte[] content) throws Exception {
+    public void acceptJarFacts(RpmPackage rpm, CpioArchiveEntry rpmEntry, JarFacts facts) throws Exception {
         var moduleNames = new ArrayList<Map.Entry<String, String>>();
         var rpmEntryString = Common.getEntryPath(rpmEntry).toString();
 
-        try (var is = new JarInputStream(new ByteArrayInputStream(content))) {
-            for (JarEntry entry; (entry = is.getNextJarEntry()) != null;) {
-                if (entry.getName().equals("module-info.class")
-                        || (entry.getName().startsWith("META-INF/versions/")
-                            && VERSIONS_PATTERN.matcher(entry.getName()).matches())) {
-                    try {
-                        var md = ModuleDescriptor.read(ByteBuffer.wrap(IOUtils.toByteArray(is)));
-                        moduleNames.add(Map.entry(entry.getName(), md.name()));
-                    } catch (InvalidModuleDescriptorException e) {
-                        fail("{0}: {1}: {2}: invalid module descriptor: {3}",
-                                Decorated.rpm(rpm),
-                                Decorated.outer(rpmEntryString),
-                                Decorated.struct(entry.getRealName()),
-                                Decorated.actual(e.getMessage()));
-                    }
-                }
+        for (var moduleInfo : facts.getModuleInfos()) {
+            if (moduleInfo.moduleName() != null) {
+                moduleNames.add(Map.entry(moduleInfo.entryName(), moduleInfo.moduleName()));
+            } else {
+                fail("{0}: {1}: {2}: invalid module descriptor: {3}",
+                        Decorated.rpm(rpm),
+                        Decorated.outer(rpmEntryString),
+                        Decorated.struct(moduleInfo.entryName()),
+                        Decorated.actual(moduleInfo.error()));
             }
+        }
 
-            if (moduleNames.isEmpty()) {
-                var mf = is.getManifest();
-                var moduleName = mf.getMainAttributes().getValue("Automatic-Module-Name");
-                if (moduleName != null) {
-                    moduleNames.add(Map.entry("META-INF/MANIFEST.MF:Automatic-Module-Name", moduleName));
-                }
+        if (moduleNames.isEmpty()) {
+            var attrs = facts.getManifestAttributes();
+            var moduleName = attrs != null ? attrs.get("Automatic-Module-Name") : null;
+            if (moduleName != null) {
+                moduleNames.add(Map.entry("META-INF/MANIFEST.MF:Automatic-Module-Name", moduleName));
             }
         }
 
@@ -86,9 +77,9 @@ public class JpmsProvidesValidator extends JarValidator {
     }
 
     @Override
-    public void validate(RpmPackage rpm) throws Exception {
+    public void visitStart(RpmPackage rpm) throws Exception {
         jarModuleNames.clear();
-        var providedModuleNames = new TreeSet<String>();
+        providedModuleNames.clear();
 
         for (var reldep : rpm.getInfo().getProvides()) {
             var name = reldep.getName();
@@ -98,8 +89,10 @@ public class JpmsProvidesValidator extends JarValidator {
                 debug("{0}: provides JPMS name: {1}", Decorated.rpm(rpm), Decorated.actual(name));
             }
         }
+    }
 
-        super.validate(rpm);
+    @Override
+    public void visitEnd(RpmPackage rpm) throws Exception {
         boolean ok = true;
 
         for (var providedModuleName : providedModuleNames) {
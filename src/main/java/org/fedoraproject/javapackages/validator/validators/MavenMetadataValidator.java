@@ -1,21 +1,25 @@
 package org.fedoraproject.javapackages.validator.validators;
 
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
 import org.apache.commons.io.IOUtils;
 import org.fedoraproject.javapackages.validator.spi.Decorated;
-import org.fedoraproject.javapackages.validator.util.Common;
-import org.fedoraproject.javapackages.validator.util.ElementwiseValidator;
+import org.fedoraproject.javapackages.validator.util.PayloadEntry;
+import org.fedoraproject.javapackages.validator.util.PayloadValidator;
+import org.fedoraproject.javapackages.validator.util.RpmData;
+import org.fedoraproject.javapackages.validator.util.RpmFileManifest;
 import org.fedoraproject.xmvn.metadata.PackageMetadata;
 
-import io.kojan.javadeptools.rpm.RpmArchiveInputStream;
 import io.kojan.javadeptools.rpm.RpmInfo;
 import io.kojan.javadeptools.rpm.RpmPackage;
 import io.kojan.xml.XMLException;
@@ -31,32 +35,58 @@ import io.kojan.xml.XMLException;
 /// - there are no JARs and POMs without Maven metadata.
 ///
 /// Ignores source RPMs.
-public class MavenMetadataValidator extends ElementwiseValidator {
+public class MavenMetadataValidator extends PayloadValidator {
     @Override
     public String getTestName() {
         return "/java/maven-metadata";
     }
 
+    @Override
+    protected MavenMetadataValidator fork() {
+        return new MavenMetadataValidator();
+    }
+
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER, RpmData.FILE_CONTENT);
+    }
+
     public MavenMetadataValidator() {
         super(Predicate.not(RpmInfo::isSourcePackage));
     }
 
+    private List<Map.Entry<PayloadEntry, byte[]>> metadataXmls = new ArrayList<>();
+    private Set<String> foundFiles = new TreeSet<>();
+
     @Override
-    public void validate(RpmPackage rpm) throws Exception {
-        var metadataXmls = new ArrayList<Map.Entry<CpioArchiveEntry, byte[]>>();
-        var foundFiles = new TreeSet<String>();
-        try (var is = new RpmArchiveInputStream(rpm.getPath())) {
-            for (CpioArchiveEntry rpmEntry; (rpmEntry = is.getNextEntry()) != null;) {
-                if (!rpmEntry.isRegularFile()) {
-                    continue;
-                }
-                foundFiles.add(Common.getEntryPath(rpmEntry).toString());
-                if (rpmEntry.getName().startsWith("/usr/share/maven-metadata/") && rpmEntry.getName().endsWith(".xml")) {
-                    metadataXmls.add(Map.entry(rpmEntry, IOUtils.toByteArray(is)));
-                }
+    public void visitStart(RpmPackage rpm, RpmFileManifest manifest) throws Exception {
+        metadataXmls.clear();
+        foundFiles.clear();
+        if (manifest == null) {
+            manifest = RpmFileManifest.read(rpm);
+        }
+        for (var entry : manifest) {
+            if (entry.isRegularFile()) {
+                foundFiles.add(entry.getPath().toString());
             }
         }
+    }
 
+    @Override
+    public boolean needsContent(RpmPackage rpm, PayloadEntry entry) {
+        var name = entry.getPath().toString();
+        return name.startsWith("/usr/share/maven-metadata/") && name.endsWith(".xml");
+    }
+
+    @Override
+    public void visitEntry(RpmPackage rpm, PayloadEntry entry, InputStream content) throws Exception {
+        if (content != null) {
+            metadataXmls.add(Map.entry(entry, IOUtils.toByteArray(content)));
+        }
+    }
+
+    @Override
+    public void visitEnd(RpmPackage rpm) throws Exception {
         if (metadataXmls.isEmpty()) {
             skip("{0}: maven metadata XML file not found", Decorated.rpm(rpm));
         }
@@ -83,7 +113,7 @@ public class MavenMetadataValidator extends ElementwiseValidator {
 
             for (var artifact : packageMetadata.getArtifacts()) {
                 var artifactPath = Path.of(artifact.getPath());
-                var metadataXml = Common.getEntryPath(entry.getKey());
+                var metadataXml = entry.getKey().getPath();
                 jarsWithoutMd.remove(artifactPath.toString());
                 pomsWithoutMd.remove(artifactPath.toString());
                 if (foundFiles.contains(artifactPath.toString())) {
@@ -1,28 +1,35 @@
 package org.fedoraproject.javapackages.validator.validators;
 
-import java.io.ByteArrayInputStream;
-import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
-import java.util.jar.JarInputStream;
 
 import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
 import org.fedoraproject.javapackages.validator.DefaultValidator;
 import org.fedoraproject.javapackages.validator.spi.Decorated;
 import org.fedoraproject.javapackages.validator.util.Common;
+import org.fedoraproject.javapackages.validator.util.DataRequirements;
+import org.fedoraproject.javapackages.validator.util.JarFactConsumer;
+import org.fedoraproject.javapackages.validator.util.JarFacts;
 import org.fedoraproject.javapackages.validator.util.JarValidator;
-import org.fedoraproject.javapackages.validator.util.RpmJarConsumer;
+import org.fedoraproject.javapackages.validator.util.RpmData;
 
 import io.kojan.javadeptools.rpm.RpmPackage;
 
-public class NVRJarMetadataValidator extends DefaultValidator {
+public class NVRJarMetadataValidator extends DefaultValidator implements DataRequirements {
     @Override
     public String getTestName() {
         return "/java/nvr-jar-metadata";
     }
 
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER, RpmData.JAR_CONTENT);
+    }
+
     private static interface Entry {
         String name();
         String valueOf(RpmPackage rpm);
@@ -74,48 +81,49 @@ public class NVRJarMetadataValidator extends DefaultValidator {
 
     private static List<Entry> ENTRIES = List.of(new RpmName(), new RpmEpoch(), new RpmVersion(), new RpmRelease());
 
-    private class RpmEntry implements RpmJarConsumer {
+    private class RpmEntry implements JarFactConsumer {
         RpmPackage sourceRpm = null;
         List<RpmPackage> binaryRpms = new ArrayList<>();
 
         @Override
-        public void acceptJarEntry(RpmPackage rpm, CpioArchiveEntry rpmEntry, byte[] content) throws Exception {
-            var jarPath = Path.of(rpmEntry.getName());
+        public void acceptJarFacts(RpmPackage rpm, CpioArchiveEntry rpmEntry, JarFacts facts) throws Exception {
+            var jarPath = Common.getEntryPath(rpmEntry);
+            var decoratedJar = Decorated.custom(jarPath, JarValidator.DECORATION_JAR);
             var standardLocations = List.of("/usr/share/java", "/usr/lib/java");
             if (standardLocations.stream().anyMatch(jarPath::startsWith)) {
-                try (var is = new JarInputStream(new ByteArrayInputStream(content))) {
-                    var mf = is.getManifest();
-                    var attrs = mf.getMainAttributes();
-
-                    for (var entry : ENTRIES) {
-                        var srpmValue = entry.valueOf(sourceRpm);
-                        var attrValue = attrs.getValue(entry.name());
-
-                        if (attrValue == null) {
-                            fail("{0}: {1}: Jar manifest attribute {2} is not present",
-                                    Decorated.rpm(rpm),
-                                    Decorated.custom(Common.getEntryPath(rpmEntry), JarValidator.DECORATION_JAR),
-                                    Decorated.struct(entry.name()));
-                        } else if (srpmValue.equals(attrValue)) {
-                            pass("{0}: {1}: Jar manifest attribute {2} with value \"{3}\" matches the RPM attribute",
-                                    Decorated.rpm(rpm),
-                                    Decorated.custom(Common.getEntryPath(rpmEntry), JarValidator.DECORATION_JAR),
-                                    Decorated.struct(entry.name()),
-                                    Decorated.actual(attrValue));
-                        } else {
-                            fail("{0}: {1}: Jar manifest attribute {2} with value \"{3}\" does not match the RPM attribute value \"{4}\"",
-                                    Decorated.rpm(rpm),
-                                    Decorated.custom(Common.getEntryPath(rpmEntry), JarValidator.DECORATION_JAR),
-                                    Decorated.struct(entry.name()),
-                                    Decorated.actual(attrValue),
-                                    Decorated.expected(srpmValue));
-                        }
+                var attrs = facts.getManifestAttributes();
+                if (attrs == null) {
+                    attrs = Map.of();
+                }
+
+                for (var entry : ENTRIES) {
+                    var srpmValue = entry.valueOf(sourceRpm);
+                    var attrValue = attrs.get(entry.name());
+
+                    if (attrValue == null) {
+                        fail("{0}: {1}: Jar manifest attribute {2} is not present",
+                                Decorated.rpm(rpm),
+                                decoratedJar,
+                                Decorated.struct(entry.name()));
+                    } else if (srpmValue.equals(attrValue)) {
+                        pass("{0}: {1}: Jar manifest attribute {2} with value \"{3}\" matches the RPM attribute",
+                                Decorated.rpm(rpm),
+                                decoratedJar,
+                                Decorated.struct(entry.name()),
+                                Decorated.actual(attrValue));
+                    } else {
+                        fail("{0}: {1}: Jar manifest attribute {2} with value \"{3}\" does not match the RPM attribute value \"{4}\"",
+                                Decorated.rpm(rpm),
+                                decoratedJar,
+                                Decorated.struct(entry.name()),
+                                Decorated.actual(attrValue),
+                                Decorated.expected(srpmValue));
                     }
                 }
             } else {
                 skip("{0}: Ignoring Jar file {1} installed in a non-standard location: none of {2}",
                         Decorated.rpm(rpm),
-                        Decorated.custom(Common.getEntryPath(rpmEntry), JarValidator.DECORATION_JAR),
+                        decoratedJar,
                         Decorated.outer(standardLocations));
             }
         }
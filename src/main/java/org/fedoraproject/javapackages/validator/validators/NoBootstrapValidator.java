@@ -1,16 +1,31 @@
 package org.fedoraproject.javapackages.validator.validators;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.util.DataRequirements;
 import org.fedoraproject.javapackages.validator.util.ElementwiseValidator;
+import org.fedoraproject.javapackages.validator.util.RpmData;
 
 import io.kojan.javadeptools.rpm.RpmPackage;
 
-public class NoBootstrapValidator extends ElementwiseValidator {
+public class NoBootstrapValidator extends ElementwiseValidator implements DataRequirements {
     @Override
     public String getTestName() {
         return "/no-bootstrap";
     }
 
+    @Override
+    protected NoBootstrapValidator fork() {
+        return new NoBootstrapValidator();
+    }
+
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER);
+    }
+
     @Override
     public void validate(RpmPackage rpm) throws Exception {
         Decorated suffix = Decorated.actual("~bootstrap");
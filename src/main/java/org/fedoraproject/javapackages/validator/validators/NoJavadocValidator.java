@@ -1,17 +1,32 @@
 package org.fedoraproject.javapackages.validator.validators;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import org.fedoraproject.javapackages.validator.spi.Decorated;
 import org.fedoraproject.javapackages.validator.util.Common;
+import org.fedoraproject.javapackages.validator.util.DataRequirements;
 import org.fedoraproject.javapackages.validator.util.ElementwiseValidator;
+import org.fedoraproject.javapackages.validator.util.RpmData;
 
 import io.kojan.javadeptools.rpm.RpmPackage;
 
-public class NoJavadocValidator extends ElementwiseValidator {
+public class NoJavadocValidator extends ElementwiseValidator implements DataRequirements {
     @Override
     public String getTestName() {
         return "/java/no-javadoc";
     }
 
+    @Override
+    protected NoJavadocValidator fork() {
+        return new NoJavadocValidator();
+    }
+
+    @Override
+    public Set<RpmData> getRequiredData() {
+        return EnumSet.of(RpmData.HEADER);
+    }
+
     public NoJavadocValidator() {
         super(rpm -> !rpm.isSourcePackage() && rpm.getName().equals(Common.getPackageName(rpm) + "-javadoc"));
     }
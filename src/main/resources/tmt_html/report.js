@@ -0,0 +1,135 @@
+// Renders the log entries of a page written by PagedHtmlReport.
+//
+// The entries are loaded in chunks and rendered in batches while the end of the
+// table is close to the viewport. Chunks without any entry of the selected
+// kinds are not loaded at all.
+var jpvReport = (function() {
+    "use strict";
+
+    // Distance in pixels below the viewport up to which rows are rendered
+    var MARGIN = 2000;
+    // Number of rows rendered at once
+    var BATCH = 200;
+
+    var dataPath;
+    var kindNames;
+    var kindLabels;
+    var chunkKinds;
+    var chunks = [];
+    var requested = [];
+    var body;
+    var selected = 0;
+    var chunkIndex = 0;
+    var entryIndex = 0;
+    var scheduled = false;
+
+    function schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            window.requestAnimationFrame(fill);
+        }
+    }
+
+    function load(index) {
+        if (!requested[index]) {
+            requested[index] = true;
+            var script = document.createElement("script");
+            script.src = dataPath + index + ".js";
+            document.head.appendChild(script);
+        }
+    }
+
+    // Skips the chunks without any entry of the selected kinds
+    function seek() {
+        while (chunkIndex < chunkKinds.length && (chunkKinds[chunkIndex] & selected) === 0) {
+            ++chunkIndex;
+            entryIndex = 0;
+        }
+        return chunkIndex < chunkKinds.length;
+    }
+
+    function row(entry) {
+        var result = document.createElement("tr");
+        result.className = kindNames[entry[0]];
+        result.insertCell().innerHTML = kindLabels[entry[0]];
+        result.insertCell().innerHTML = entry[1];
+        return result;
+    }
+
+    function fill() {
+        scheduled = false;
+        if (body.getBoundingClientRect().bottom > window.innerHeight + MARGIN) {
+            return;
+        }
+        var rows = document.createDocumentFragment();
+        var count = 0;
+        while (count < BATCH && seek()) {
+            var chunk = chunks[chunkIndex];
+            if (chunk === undefined) {
+                // Rendering resumes once the chunk is loaded
+                load(chunkIndex);
+                break;
+            }
+            if (entryIndex === chunk.length) {
+                ++chunkIndex;
+                entryIndex = 0;
+                continue;
+            }
+            var entry = chunk[entryIndex++];
+            if ((selected & (1 << entry[0])) !== 0) {
+                rows.appendChild(row(entry));
+                ++count;
+            }
+        }
+        body.appendChild(rows);
+        if (count === BATCH) {
+            schedule();
+        }
+    }
+
+    function refresh() {
+        selected = 0;
+        document.querySelectorAll(".filter_checkbox").forEach(function(checkbox) {
+            if (checkbox.checked) {
+                selected |= 1 << kindNames.indexOf(checkbox.value);
+            }
+        });
+        var table = document.getElementById("entries");
+        var empty = document.createElement("tbody");
+        table.replaceChild(empty, body);
+        body = empty;
+        chunkIndex = 0;
+        entryIndex = 0;
+        schedule();
+    }
+
+    return {
+        // Receives the entries of a chunk, as pairs of kind and message
+        chunk: function(index, entries) {
+            chunks[index] = entries;
+            schedule();
+        },
+
+        // Starts rendering the entries of the page
+        open: function(path, names, labels, kinds) {
+            dataPath = path;
+            kindNames = names;
+            kindLabels = labels;
+            chunkKinds = kinds;
+
+            var table = document.getElementById("entries");
+            body = document.createElement("tbody");
+            table.appendChild(body);
+
+            var shown = ["info", "warn", "fail", "error"];
+            document.querySelectorAll(".filter_checkbox").forEach(function(checkbox) {
+                checkbox.checked = checkbox.classList.contains("checkbox_shown_by_default")
+                        || shown.indexOf(checkbox.value) !== -1;
+                checkbox.addEventListener("change", refresh);
+            });
+            window.addEventListener("scroll", schedule);
+            window.addEventListener("resize", schedule);
+            refresh();
+        }
+    };
+})();
@@ -0,0 +1,30 @@
+#!/bin/sh
+set -eu
+
+# Runs a main class of the tool, such as
+# org.fedoraproject.javapackages.validator.MainTmt, from validator.jar next to
+# this script.
+#
+# The AppCDS archive validator.jsa next to validator.jar, produced by the
+# appcds profile of pom.xml, is used if present. If JPV_CDS_ARCHIVE is set, the
+# archive at that path is used instead. It is created at exit when missing or
+# stale, so that a run of validators compiled from --source-path also archives
+# the compiler and the libraries used by those validators. Warnings of the JVM,
+# such as an archive which does not match the JVM or validator.jar, are logged to
+# the standard error output, apart from the output of the tool.
+
+dir=$(dirname "$(readlink -f "${0}")")
+
+if [ -n "${JAVA_HOME:-}" ]; then
+    java="${JAVA_HOME}/bin/java"
+else
+    java=java
+fi
+
+if [ -n "${JPV_CDS_ARCHIVE:-}" ]; then
+    set -- -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile="${JPV_CDS_ARCHIVE}" -Xlog:disable -Xlog:all=warning:stderr "${@}"
+elif [ -f "${dir}/validator.jsa" ]; then
+    set -- -XX:SharedArchiveFile="${dir}/validator.jsa" -Xlog:disable -Xlog:all=warning:stderr "${@}"
+fi
+
+exec "${java}" --enable-native-access ALL-UNNAMED -cp "${dir}/validator.jar" "${@}"
@@ -1,18 +1,25 @@
 package org.fedoraproject.javapackages.validator;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class ArgFileIteratorTest {
+    @TempDir
+    Path tempDir;
+
     static List<Path> toPaths(String... strings) {
         return Arrays.asList(strings).stream().map(Paths::get).toList();
     }
@@ -79,4 +86,35 @@ public class ArgFileIteratorTest {
         var ex = assertThrows(Exception.class, it::next);
         assertFalse(ex instanceof NoSuchElementException);
     }
+
+    @Test
+    void testParallelOrder() {
+        var args = List.of(TestCommon.RPM_PATH_PREFIX, TestCommon.SRPM_PATH_PREFIX);
+        var expected = ArgFileIterator.listPaths(args);
+        assertTrue(expected.size() > 8);
+
+        var paths = new ArrayList<Path>();
+        try (var it = ArgFileIterator.create(args, 4)) {
+            it.forEachRemaining(rpm -> paths.add(rpm.getPath()));
+        }
+        assertEquals(expected, paths);
+    }
+
+    @Test
+    void testParallelLoadException() throws Exception {
+        var rpm = Path.of("src/test/resources/arg_file_iterator/dangling-symlink-1-1.noarch.rpm");
+        var first = Files.copy(rpm, tempDir.resolve("first-1-1.noarch.rpm"));
+        var unreadable = Files.writeString(tempDir.resolve("unreadable-1-1.noarch.rpm"), "not an RPM file");
+        var last = Files.copy(rpm, tempDir.resolve("last-1-1.noarch.rpm"));
+
+        try (var it = ArgFileIterator.create(List.of(first, unreadable, last), 2)) {
+            assertEquals(first, it.next().getPath());
+            var ex = assertThrows(ArgFileIterator.LoadException.class, it::next);
+            assertEquals(unreadable, ex.getPath());
+            // The following files are still read
+            assertTrue(it.hasNext());
+            assertEquals(last, it.next().getPath());
+            assertFalse(it.hasNext());
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.spi.ResultBuilder;
+import org.junit.jupiter.api.Test;
+
+public class ConsoleReportTest {
+    private static List<String> messages(ByteArrayOutputStream out) {
+        return out.toString(StandardCharsets.UTF_8).lines().map(line -> line.substring(line.indexOf("] ") + 2)).toList();
+    }
+
+    @Test
+    void testOrder() throws Exception {
+        var out = new ByteArrayOutputStream();
+        var err = new ByteArrayOutputStream();
+        int exitCode;
+        try (var report = new ConsoleReport(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8), Main.NULL_OUTPUT_STREAM, TextDecorator.NO_DECORATOR)) {
+            var first = new ResultBuilder();
+            first.fail("first fail");
+            first.pass("first pass");
+            report.accept(new NamedResult(first.build(), "/first"));
+            var second = new ResultBuilder();
+            second.fail("second fail");
+            second.info("second info");
+            report.accept(new NamedResult(second.build(), "/second"));
+            exitCode = report.finish();
+        }
+
+        assertEquals(1, exitCode);
+        assertEquals(List.of("first pass", "second info", "first fail", "second fail"), messages(out));
+        assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Summary: 2 failed test"));
+    }
+
+    @Test
+    void testSpill() throws Exception {
+        var out = new ByteArrayOutputStream();
+        var expected = new ArrayList<String>();
+        int exitCode;
+        try (var report = new ConsoleReport(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(OutputStream.nullOutputStream()), Main.NULL_OUTPUT_STREAM, TextDecorator.NO_DECORATOR)) {
+            var padding = "é".repeat(1000);
+            // Each line takes 2000 bytes
+            for (int i = 0; i < 2 * ConsoleReport.MEMORY_LIMIT / 1000; ++i) {
+                var result = new ResultBuilder();
+                result.error("{0} {1}", Decorated.plain(i), Decorated.plain(padding));
+                report.accept(new NamedResult(result.build(), "/test"));
+                expected.add(i + " " + padding);
+            }
+            exitCode = report.finish();
+        }
+
+        assertEquals(2, exitCode);
+        assertEquals(expected, messages(out));
+    }
+}
@@ -0,0 +1,82 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DaemonTest {
+    @TempDir
+    Path tempDir;
+
+    Path socket;
+    Path rpmDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        socket = tempDir.resolve("daemon.sock");
+        rpmDir = Files.createDirectory(tempDir.resolve("rpms"));
+        TestFactory.validators.clear();
+    }
+
+    private record Response(int exitCode, String out, String err) {
+    }
+
+    private Response send(Daemon.Mode mode, List<String> args) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var err = new ByteArrayOutputStream();
+        int exitCode = Daemon.send(socket, new Daemon.Request(mode, tempDir, null, null, args), out, err);
+        return new Response(exitCode, out.toString(StandardCharsets.UTF_8), err.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testServe() throws Exception {
+        try (var executor = Executors.newSingleThreadExecutor(); var daemon = new Daemon(socket)) {
+            var serving = executor.submit(() -> {
+                daemon.serve();
+                return null;
+            });
+            assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(socket));
+
+            for (int i = 0; i != 2; ++i) {
+                TestFactory.validators.clear();
+                TestFactory.validators.add(new TestValidator("/daemon", (_, rb) -> rb.pass("served")));
+
+                // Relative paths are resolved against the working directory of the client
+                var response = send(Daemon.Mode.plain, List.of("-x", "-f", "rpms", TestFactory.class.getCanonicalName()));
+                assertEquals(0, response.exitCode(), response.out() + response.err());
+                assertTrue(response.out().contains("served"), response.out() + response.err());
+                assertTrue(response.err().contains("Summary: all tests passed"), response.err());
+            }
+
+            var response = send(Daemon.Mode.plain, List.of());
+            assertEquals(1, response.exitCode());
+            assertTrue(response.out().contains("error: no arguments provided"), response.out());
+
+            assertEquals(0, send(Daemon.Mode.stop, List.of()).exitCode());
+            serving.get();
+            assertFalse(Files.exists(socket));
+        }
+    }
+
+    @Test
+    void testAlreadyListening() throws Exception {
+        try (var _ = new Daemon(socket)) {
+            assertThrows(IOException.class, () -> new Daemon(socket));
+        }
+        assertFalse(Files.exists(socket));
+    }
+}
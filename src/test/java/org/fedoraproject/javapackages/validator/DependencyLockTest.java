@@ -0,0 +1,76 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DependencyLockTest {
+    private static final String DEPENDENCIES = "org.example:foo:1.0 org.example:bar:2.0";
+    private static final String REPOSITORIES = "https://repo.example.org/maven2";
+
+    @TempDir
+    Path tempDir;
+
+    Path localRepo;
+    Path foo;
+    Path bar;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        localRepo = tempDir.resolve("local-repo");
+        foo = Files.createDirectories(localRepo.resolve("org/example/foo/1.0")).resolve("foo-1.0.jar");
+        bar = Files.createDirectories(localRepo.resolve("org/example/bar/2.0")).resolve("bar-2.0.jar");
+        Files.writeString(foo, "foo");
+        Files.writeString(bar, "bar");
+    }
+
+    private DependencyLock lock() throws Exception {
+        return DependencyLock.of(DEPENDENCIES, REPOSITORIES, localRepo,
+                List.of("org.example:foo:1.0", "org.example:bar:2.0"), List.of(foo, bar));
+    }
+
+    @Test
+    void testWriteRead() throws Exception {
+        assertNull(DependencyLock.read(tempDir));
+        var lock = lock();
+        lock.write(tempDir);
+        var read = DependencyLock.read(tempDir);
+        assertEquals(lock, read);
+        assertEquals("org/example/foo/1.0/foo-1.0.jar", read.artifacts().get(0).path());
+        assertTrue(read.matches(DEPENDENCIES, REPOSITORIES));
+        assertFalse(read.matches("org.example:foo:1.0", REPOSITORIES));
+        assertFalse(read.matches(DEPENDENCIES, ""));
+    }
+
+    @Test
+    void testResolve() throws Exception {
+        var lock = lock();
+        assertEquals(List.of(foo, bar), lock.resolve(localRepo));
+
+        Files.writeString(bar, "modified");
+        assertNull(lock.resolve(localRepo));
+
+        Files.delete(bar);
+        assertNull(lock.resolve(localRepo));
+    }
+
+    @Test
+    void testVerify() throws Exception {
+        var lock = lock();
+        lock.verify(lock());
+
+        Files.writeString(foo, "modified");
+        var ex = assertThrows(RuntimeException.class, () -> lock.verify(lock()));
+        assertTrue(ex.getMessage().contains("org.example:foo:1.0"), ex.getMessage());
+    }
+}
@@ -0,0 +1,128 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IncrementalCompilerTest {
+    private static final FileTime OLD_TIME = FileTime.fromMillis(1000);
+
+    @TempDir
+    Path tempDir;
+
+    Path sourceDir;
+    Path outputDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sourceDir = Files.createDirectories(tempDir.resolve("src/foo"));
+        outputDir = Files.createDirectories(tempDir.resolve("out"));
+        Files.writeString(sourceDir.resolve("A.java"), "package foo; public class A { public static int value() { return 1; } }");
+        Files.writeString(sourceDir.resolve("B.java"), "package foo; public class B { int value = A.value(); class Inner {} }");
+        Files.writeString(sourceDir.resolve("C.java"), "package foo; public class C {}");
+    }
+
+    private void compile(Path output, Path cacheDir) throws Exception {
+        new IncrementalCompiler(sourceDir.getParent(), output, Integer.toString(Runtime.version().feature()),
+                List.of(), cacheDir, new Logger()).compile();
+    }
+
+    private void ageClassFiles() throws Exception {
+        for (var name : List.of("A.class", "B.class", "B$Inner.class", "C.class")) {
+            Files.setLastModifiedTime(outputDir.resolve("foo").resolve(name), OLD_TIME);
+        }
+    }
+
+    private FileTime time(String name) throws Exception {
+        return Files.getLastModifiedTime(outputDir.resolve("foo").resolve(name));
+    }
+
+    @Test
+    void testManifest() throws Exception {
+        compile(outputDir, null);
+        var manifest = IncrementalCompiler.readManifest(outputDir);
+        assertEquals(Set.of("foo/A.java", "foo/B.java", "foo/C.java"), manifest.units().keySet());
+        var b = manifest.units().get("foo/B.java");
+        assertEquals(Set.of("foo/B.class", "foo/B$Inner.class"), b.classFiles());
+        assertEquals(Set.of("foo.B"), b.declaredTypes());
+        assertTrue(b.referencedTypes().contains("foo.A"));
+        assertFalse(manifest.units().get("foo/C.java").referencedTypes().contains("foo.A"));
+    }
+
+    @Test
+    void testUnchanged() throws Exception {
+        compile(outputDir, null);
+        ageClassFiles();
+
+        // Only the modification times of the sources change
+        for (var name : List.of("A.java", "B.java", "C.java")) {
+            Files.setLastModifiedTime(sourceDir.resolve(name), FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        }
+        compile(outputDir, null);
+        assertEquals(OLD_TIME, time("A.class"));
+        assertEquals(OLD_TIME, time("B.class"));
+        assertEquals(OLD_TIME, time("C.class"));
+    }
+
+    @Test
+    void testDependents() throws Exception {
+        compile(outputDir, null);
+        ageClassFiles();
+
+        Files.writeString(sourceDir.resolve("A.java"), "package foo; public class A { public static int value() { return 2; } }");
+        compile(outputDir, null);
+        assertNotEquals(OLD_TIME, time("A.class"));
+        assertNotEquals(OLD_TIME, time("B.class"));
+        assertNotEquals(OLD_TIME, time("B$Inner.class"));
+        assertEquals(OLD_TIME, time("C.class"));
+    }
+
+    @Test
+    void testRemoved() throws Exception {
+        compile(outputDir, null);
+        ageClassFiles();
+
+        Files.delete(sourceDir.resolve("C.java"));
+        compile(outputDir, null);
+        assertFalse(Files.exists(outputDir.resolve("foo/C.class")));
+        assertEquals(OLD_TIME, time("A.class"));
+        assertEquals(Set.of("foo/A.java", "foo/B.java"), IncrementalCompiler.readManifest(outputDir).units().keySet());
+    }
+
+    @Test
+    void testCache() throws Exception {
+        var cacheDir = tempDir.resolve("cache");
+        compile(outputDir, cacheDir);
+        var key = IncrementalCompiler.readManifest(outputDir).key();
+        var cachedClass = cacheDir.resolve(key).resolve("foo/C.class");
+        assertTrue(Files.isRegularFile(cachedClass));
+
+        // The classes of another output directory are copied from the cache
+        Files.write(cachedClass, new byte[] {1, 2, 3});
+        var otherOutputDir = Files.createDirectories(tempDir.resolve("other"));
+        compile(otherOutputDir, cacheDir);
+        assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(otherOutputDir.resolve("foo/C.class")));
+        assertEquals(key, IncrementalCompiler.readManifest(otherOutputDir).key());
+    }
+
+    @Test
+    void testCompilationFailure() throws Exception {
+        compile(outputDir, null);
+        Files.writeString(sourceDir.resolve("C.java"), "package foo; public class C { D d; }");
+        var ex = assertThrows(RuntimeException.class, () -> compile(outputDir, null));
+        assertTrue(ex.getMessage().startsWith("Failed to compile sources:"), ex.getMessage());
+    }
+}
@@ -90,18 +90,25 @@ class MainTmtTest {
     }
 
     @Test
-    void testCrashLog() throws Exception {
-        // Corrupted empty file triggers the crash
+    void testUnreadableRpm() throws Exception {
+        // Corrupted empty file is reported without aborting the run
         Files.createFile(artifactsDir.resolve("empty.rpm"));
-        addValidator("/something", (_, _) -> {
-            // not expected to be ran, crash happens before the code gets here
+        copyResources(artifactsDir, "arg_file_iterator/dangling-symlink-1-1.noarch.rpm");
+        addValidator("/something", (rpms, v) -> {
+            for (var rpm : rpms) {
+                v.pass("{0}", Decorated.rpm(rpm));
+            }
         });
-        runMain(2);
-        expectResults("results.yaml", "crash.log");
+        runMain(0);
+        expectResults("results.yaml", "results/something.log", "results/load-rpms.log");
 
         assertTrue(readResult("results.yaml").contains("result: error"), "result is error");
-        assertTrue(readResult("crash.log").contains("java.io.IOException: Unable to open RPM file"),
-                "crash.log contains stack trace");
+        assertTrue(readResult("results/something.log").contains("dangling-symlink"),
+                "readable RPM is validated");
+        assertTrue(readResult("results/load-rpms.log").contains("empty.rpm"),
+                "unreadable RPM is reported");
+        assertTrue(readResult("results/load-rpms.log").contains("java.io.IOException: Unable to open RPM file"),
+                "reason of the failure is reported");
     }
 
     @Test
@@ -0,0 +1,92 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.util.ScanMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetricsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFormat() {
+        var metrics = new Metrics();
+        metrics.addPhase(new Metrics.Sample("discovery", 1_500_000_000L, -1, -1));
+        metrics.addPhase(new Metrics.Sample("discovery", 500_000_000L, -1, -1));
+        metrics.addValidators(List.of("/a", "/b\"c"), new Metrics.Sample("/a /b\"c", 3_000_000_000L, 1_000_000_000L, 42), new ScanMetrics());
+        metrics.addRpmLoad(Path.of("/x.rpm"), new Metrics.Sample("/x.rpm", 1_000_000L, -1, 7));
+
+        assertEquals(1, metrics.getPhases().size());
+        assertEquals(2_000_000_000L, metrics.getPhases().get(0).wallNanos());
+
+        var json = metrics.toJson();
+        assertTrue(json.contains("{\"name\": \"discovery\", \"wallSeconds\": 2.0, \"cpuSeconds\": null, \"allocatedBytes\": null}"), json);
+        assertTrue(json.contains("{\"tests\": [\"/a\", \"/b\\\"c\"], \"wallSeconds\": 3.0, \"cpuSeconds\": 1.0, \"allocatedBytes\": 42"), json);
+        assertTrue(json.contains("{\"path\": \"/x.rpm\", \"loadWallSeconds\": 0.001"), json);
+
+        var text = metrics.toOpenMetrics();
+        assertTrue(text.endsWith("\n# EOF\n"), text);
+        assertTrue(text.contains("# TYPE javapackages_validator_phase_wall_seconds gauge\n"
+                + "# UNIT javapackages_validator_phase_wall_seconds seconds\n"), text);
+        assertTrue(text.contains("javapackages_validator_phase_wall_seconds{phase=\"discovery\"} 2.0\n"), text);
+        assertFalse(text.contains("javapackages_validator_phase_cpu_seconds{"), text);
+        assertTrue(text.contains("javapackages_validator_validator_cpu_seconds{tests=\"/a /b\\\"c\"} 1.0\n"), text);
+        assertTrue(text.contains("javapackages_validator_rpm_load_wall_seconds{rpm=\"/x.rpm\"} 0.001\n"), text);
+    }
+
+    @Test
+    void testRun() throws Exception {
+        var rpm = Path.of("src/test/resources/arg_file_iterator/dangling-symlink-1-1.noarch.rpm");
+        TestFactory.validators.clear();
+        TestFactory.validators.add(new TestValidator("/something", (rpms, v) -> {
+            for (var r : rpms) {
+                v.pass("{0}", Decorated.rpm(r));
+            }
+        }));
+
+        var main = new Main();
+        var discard = new PrintStream(OutputStream.nullOutputStream());
+        main.setOutput(discard, discard);
+        var metricsDir = tempDir.resolve("metrics");
+        assertEquals(0, main.run(new String[] {"--metrics", metricsDir.toString(), "-f", rpm.toString(),
+                TestFactory.class.getCanonicalName()}));
+
+        var json = Files.readString(metricsDir.resolve(Metrics.JSON_FILE));
+        for (var phase : List.of("discovery", "validation", "reporting")) {
+            assertTrue(json.contains("{\"name\": \"" + phase + "\""), json);
+        }
+        assertTrue(json.contains("{\"tests\": [\"/something\"]"), json);
+        assertTrue(json.contains("dangling-symlink-1-1.noarch.rpm\", \"loadWallSeconds\""), json);
+
+        var text = Files.readString(metricsDir.resolve(Metrics.OPENMETRICS_FILE));
+        assertTrue(text.contains("javapackages_validator_validator_wall_seconds{tests=\"/something\"} "), text);
+        assertTrue(text.endsWith("# EOF\n"), text);
+    }
+
+    @Test
+    void testProcessStopwatch() throws Exception {
+        var stopwatch = Metrics.Stopwatch.startProcess();
+        var thread = Thread.ofPlatform().start(() -> {
+            long end = System.nanoTime() + 50_000_000L;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+        });
+        thread.join();
+        var sample = stopwatch.stop("phase");
+        if (sample.cpuNanos() != -1) {
+            assertTrue(sample.cpuNanos() >= 10_000_000L, sample.toString());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.spi.Decoration;
+import org.fedoraproject.javapackages.validator.spi.LogEntry;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
+import org.fedoraproject.javapackages.validator.spi.Result;
+import org.fedoraproject.javapackages.validator.spi.ResultBuilder;
+import org.fedoraproject.javapackages.validator.spi.TestResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+public class ResultCacheTest {
+    private static final Path DUPLICATE_FILE1_RPM = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/duplicate-file1-1-1.noarch.rpm"));
+    private static final Path DUPLICATE_FILE2_RPM = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/duplicate-file2-1-1.noarch.rpm"));
+
+    @TempDir
+    Path tempDir;
+
+    private static class TestValidator extends DefaultValidator {
+        @Override
+        public String getTestName() {
+            return "/test";
+        }
+
+        @Override
+        protected void validate(Iterable<RpmPackage> rpms) {
+            pass("ok");
+        }
+    }
+
+    private static Result createResult() {
+        var result = new ResultBuilder();
+        result.pass("{0} passed with {1}", Decorated.actual(Path.of("/usr/share/java/foo.jar")),
+                Decorated.custom("value", new Decoration(Decoration.Color.blue, Decoration.Modifier.bright)));
+        result.fail("{0} failed", Decorated.plain(42));
+        result.debug("no objects");
+        return result.build();
+    }
+
+    private static List<String> describe(Result result) {
+        var entries = new ArrayList<String>();
+        for (LogEntry entry : result) {
+            entries.add(entry.kind() + " " + Main.decoratedObjects(entry, AnsiDecorator.INSTANCE));
+        }
+        entries.add(result.getResult().toString());
+        return entries;
+    }
+
+    @Test
+    void testStoreLoad() throws Exception {
+        var cache = new ResultCache(tempDir.resolve("cache"), ResultCache.DEFAULT_MAX_SIZE);
+        var key = ResultCache.key(new TestValidator(), null, ResultCache.inputDigest(List.of(DUPLICATE_FILE1_RPM)));
+        assertNotNull(key);
+        assertNull(cache.load(key));
+
+        var result = createResult();
+        cache.store(key, result);
+        var loaded = cache.load(key);
+        assertNotNull(loaded);
+        assertEquals(TestResult.fail, loaded.getResult());
+        assertEquals(describe(result), describe(loaded));
+    }
+
+    @Test
+    void testKey() throws Exception {
+        var validator = new TestValidator();
+        var input1 = ResultCache.inputDigest(List.of(DUPLICATE_FILE1_RPM));
+        var input2 = ResultCache.inputDigest(List.of(DUPLICATE_FILE1_RPM, DUPLICATE_FILE2_RPM));
+        assertEquals(ResultCache.key(validator, null, input1), ResultCache.key(new TestValidator(), null, input1));
+        assertNotEquals(ResultCache.key(validator, null, input1), ResultCache.key(validator, null, input2));
+        assertNotEquals(ResultCache.key(validator, null, input1), ResultCache.key(validator, List.of(), input1));
+        assertNotEquals(ResultCache.key(validator, List.of("a"), input1), ResultCache.key(validator, List.of("b"), input1));
+        assertEquals(ResultCache.key(validator, null, input1), ResultCache.key(validator, null, LogEvent.debug, input1));
+        assertNotEquals(ResultCache.key(validator, null, input1), ResultCache.key(validator, null, LogEvent.skip, input1));
+    }
+
+    @Test
+    void testCodeDigest() throws Exception {
+        assertNotNull(ResultCache.codeDigest(TestValidator.class.getClassLoader()));
+
+        // The dependencies of validators are part of the digest
+        var jar = tempDir.resolve("dependency.jar");
+        Files.writeString(jar, "first");
+        byte[] first;
+        try (var loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, TestValidator.class.getClassLoader())) {
+            first = ResultCache.codeDigest(loader);
+        }
+        Files.writeString(jar, "second");
+        try (var loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, TestValidator.class.getClassLoader())) {
+            assertFalse(Arrays.equals(first, ResultCache.codeDigest(loader)));
+        }
+    }
+
+    @Test
+    void testCorrupted() throws Exception {
+        var cache = new ResultCache(tempDir, ResultCache.DEFAULT_MAX_SIZE);
+        var key = ResultCache.key(new TestValidator(), null, ResultCache.inputDigest(List.of()));
+        cache.store(key, createResult());
+        var file = tempDir.resolve(key + ".result");
+        Files.write(file, new byte[] {0, 0, 0, 1, 0, 0});
+        assertNull(cache.load(key));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testEvict() throws Exception {
+        var cache = new ResultCache(tempDir, 0);
+        var validator = new TestValidator();
+        var key1 = ResultCache.key(validator, List.of("1"), ResultCache.inputDigest(List.of()));
+        var key2 = ResultCache.key(validator, List.of("2"), ResultCache.inputDigest(List.of()));
+        cache.store(key1, createResult());
+        cache.store(key2, createResult());
+        long size = Files.size(tempDir.resolve(key1 + ".result"));
+        Files.setLastModifiedTime(tempDir.resolve(key1 + ".result"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(tempDir.resolve(key2 + ".result"), FileTime.fromMillis(2000));
+
+        // Loading marks the result as recently used
+        assertNotNull(cache.load(key1));
+
+        new ResultCache(tempDir, size).evict();
+        assertNotNull(cache.load(key1));
+        assertNull(cache.load(key2));
+
+        cache.clear();
+        assertNull(cache.load(key1));
+    }
+
+    @Test
+    void testUnwritableCache() throws Exception {
+        var cacheDir = tempDir.resolve("cache");
+        TestFactory.validators.clear();
+        TestFactory.validators.add(new DefaultValidator() {
+            @Override
+            public String getTestName() {
+                return "/unwritable";
+            }
+
+            @Override
+            protected void validate(Iterable<RpmPackage> rpms) throws Exception {
+                // The cache directory is replaced by a file before the result
+                // is stored
+                try (var paths = Files.walk(cacheDir)) {
+                    for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.delete(path);
+                    }
+                }
+                Files.createFile(cacheDir);
+                pass("ok");
+            }
+        });
+
+        var main = new Main();
+        var discard = new PrintStream(OutputStream.nullOutputStream());
+        main.setOutput(discard, discard);
+        assertEquals(0, main.run(new String[] {"--cache-dir", cacheDir.toString(), "-f", DUPLICATE_FILE1_RPM.toString(),
+                TestFactory.class.getCanonicalName()}));
+    }
+}
@@ -0,0 +1,97 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+public class RpmPipelineTest {
+    private static List<Path> paths(Iterable<RpmPackage> rpms) {
+        var result = new ArrayList<Path>();
+        for (var rpm : rpms) {
+            result.add(rpm.getPath());
+        }
+        return result;
+    }
+
+    @Test
+    void testIterateTwice() throws Exception {
+        List<Path> expected;
+        try (var paths = Files.list(TestCommon.RPM_PATH_PREFIX.resolve("noarch"))) {
+            expected = paths.sorted().toList();
+        }
+
+        var pipeline = new RpmPipeline(TestCommon.fromPaths(expected.toArray(Path[]::new)).iterator(), 1);
+        var closed = pipeline.subscribe();
+        var rpms = pipeline.subscribe();
+        closed.close();
+        pipeline.start();
+
+        // The first package is taken before the second iterator is created
+        var first = rpms.iterator();
+        assertEquals(expected.getFirst(), first.next().getPath());
+        assertEquals(expected, paths(rpms));
+        assertEquals(expected, paths(rpms));
+        var rest = new ArrayList<Path>();
+        first.forEachRemaining(rpm -> rest.add(rpm.getPath()));
+        assertEquals(expected.subList(1, expected.size()), rest);
+        pipeline.await();
+    }
+
+    private static void awaitLoaded(AtomicInteger loaded, int count) throws InterruptedException {
+        var deadline = System.nanoTime() + 10_000_000_000L;
+        while (loaded.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // Gives the producer the chance to run further ahead than allowed
+        Thread.sleep(100);
+        assertEquals(count, loaded.get());
+    }
+
+    @Test
+    void testLookAhead() throws Exception {
+        List<Path> paths;
+        try (var stream = Files.list(TestCommon.RPM_PATH_PREFIX.resolve("noarch"))) {
+            paths = stream.sorted().toList();
+        }
+        assertTrue(paths.size() > 5);
+
+        var loaded = new AtomicInteger();
+        var source = TestCommon.fromPaths(paths.toArray(Path[]::new)).iterator();
+        var pipeline = new RpmPipeline(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public RpmPackage next() {
+                loaded.incrementAndGet();
+                return source.next();
+            }
+        }, 2);
+        var slow = pipeline.subscribe();
+        pipeline.start();
+
+        // Two packages are buffered and the producer waits with the third one
+        awaitLoaded(loaded, 3);
+        var rpms = slow.iterator();
+        assertEquals(paths.get(0), rpms.next().getPath());
+        awaitLoaded(loaded, 4);
+
+        // The closed subscription buffers nothing, the rest of the packages is
+        // loaded without waiting for the consumer
+        slow.close();
+        pipeline.await();
+        assertEquals(paths.size(), loaded.get());
+    }
+}
@@ -0,0 +1,103 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.fedoraproject.javapackages.validator.spi.LogEntry;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
+import org.fedoraproject.javapackages.validator.spi.ResultBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TmtReportTest {
+    @TempDir
+    Path tmtTestData;
+
+    @Test
+    void testWrite() throws Exception {
+        var excluded = new ResultBuilder();
+        excluded.skip("excluded");
+        var reports = new TreeMap<String, ResultBuilder>(Map.of("/excluded", excluded));
+        var additionalLogs = Map.of("/test/0", List.of(LogEntry.debug("additional")));
+
+        try (var report = new TmtReport(tmtTestData, additionalLogs, reports, 2, false, TextDecorator.NO_DECORATOR)) {
+            for (int i = 0; i < 20; ++i) {
+                var result = new ResultBuilder();
+                result.pass("pass " + i);
+                report.accept(new NamedResult(result.build(), "/test/" + i));
+            }
+            assertEquals(0, report.finish());
+        }
+
+        var names = Files.readAllLines(tmtTestData.resolve("results.yaml")).stream()
+                .filter(line -> line.startsWith("- name: ")).toList();
+        assertEquals(21, names.size());
+        for (int i = 0; i < 20; ++i) {
+            assertEquals("- name: '/test/" + i + "'", names.get(i));
+            var log = Files.readAllLines(tmtTestData.resolve("results/test." + i + ".log"));
+            assertTrue(log.getLast().endsWith("pass " + i), log.toString());
+            var html = Files.readString(tmtTestData.resolve("results/test." + i + ".html"));
+            assertTrue(html.contains("pass " + i), html);
+            assertTrue(html.endsWith("</html>" + System.lineSeparator()), html);
+        }
+        assertEquals("- name: '/excluded'", names.get(20));
+        assertTrue(Files.readString(tmtTestData.resolve("results/test.0.log")).contains("additional"));
+        assertTrue(Files.readString(tmtTestData.resolve("results/excluded.log")).contains("excluded"));
+    }
+
+    @Test
+    void testWriteFailure() throws Exception {
+        // The log file of the second result cannot be created
+        Files.createDirectories(tmtTestData.resolve("results/test.1.log"));
+
+        try (var report = new TmtReport(tmtTestData, Map.of(), Map.of(), 2, false, TextDecorator.NO_DECORATOR)) {
+            for (int i = 0; i < 3; ++i) {
+                var result = new ResultBuilder();
+                result.pass("pass " + i);
+                report.accept(new NamedResult(result.build(), "/test/" + i));
+            }
+            assertThrows(IOException.class, report::finish);
+        }
+
+        var names = Files.readAllLines(tmtTestData.resolve("results.yaml")).stream()
+                .filter(line -> line.startsWith("- name: ")).toList();
+        assertEquals(List.of("- name: '/test/0'", "- name: '/test/2'"), names);
+    }
+
+    @Test
+    void testPaged() throws Exception {
+        try (var report = new TmtReport(tmtTestData, Map.of(), Map.of(), 2, true, TextDecorator.NO_DECORATOR)) {
+            var result = new ResultBuilder();
+            for (int i = 0; i < 2 * PagedHtmlReport.CHUNK_SIZE; ++i) {
+                result.pass("pass <" + i + ">");
+            }
+            result.fail("failed");
+            report.accept(new NamedResult(result.build(), "/test"));
+            assertEquals(0, report.finish());
+        }
+
+        var results = tmtTestData.resolve("results");
+        assertTrue(Files.isRegularFile(results.resolve(PagedHtmlReport.ASSETS_DIRECTORY).resolve("report.js")));
+        assertTrue(Files.isRegularFile(results.resolve(PagedHtmlReport.ASSETS_DIRECTORY).resolve("style.css")));
+
+        var page = Files.readString(results.resolve("test.html"));
+        var pass = 1 << LogEvent.pass.ordinal();
+        var fail = 1 << LogEvent.fail.ordinal();
+        assertTrue(page.contains("jpvReport.open(\"test.d/\""), page);
+        assertTrue(page.contains("], [" + pass + ", " + pass + ", " + fail + "]);"), page);
+
+        var chunk = Files.readString(results.resolve("test.d/0.js"));
+        assertTrue(chunk.startsWith("jpvReport.chunk(0, ["), chunk);
+        assertTrue(chunk.contains("[" + LogEvent.pass.ordinal() + ", \"pass &lt;0&gt;\"]"), chunk);
+        assertTrue(Files.readString(results.resolve("test.d/2.js")).contains("failed"));
+        assertEquals(PagedHtmlReport.CHUNK_SIZE + 1, Files.readString(results.resolve("test.d/1.js")).lines().count());
+    }
+}
@@ -0,0 +1,75 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.spi.TestResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ValidationEngineTest {
+    private static final Path DUPLICATE_FILE1_RPM = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/duplicate-file1-1-1.noarch.rpm"));
+    private static final Path DUPLICATE_FILE2_RPM = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/duplicate-file2-1-1.noarch.rpm"));
+
+    @BeforeEach
+    void setUp() {
+        resetValidators();
+    }
+
+    /// Registers new validators, the results of a validator are held by the
+    /// validator itself.
+    private static void resetValidators() {
+        TestFactory.validators.clear();
+        TestFactory.validators.add(new TestValidator("/count", (rpms, rb) -> {
+            int count = 0;
+            for (var _ : rpms) {
+                ++count;
+            }
+            if (count == 2) {
+                rb.pass("{0} RPMs", Decorated.plain(count));
+            } else {
+                rb.fail("{0} RPMs", Decorated.plain(count));
+            }
+        }));
+        TestFactory.validators.add(new TestValidator("/other", (_, rb) -> rb.pass("ok")));
+    }
+
+    private static ValidationEngine.Builder builder() {
+        return ValidationEngine.builder().factory(TestFactory.class.getCanonicalName());
+    }
+
+    @Test
+    void testValidateFiles() throws Exception {
+        try (var engine = builder().test("/count").build()) {
+            assertEquals(Set.of("/count"), engine.getTestNames());
+            for (int i = 0; i != 2; ++i) {
+                resetValidators();
+                var results = engine.validateFiles(List.of(DUPLICATE_FILE1_RPM, DUPLICATE_FILE2_RPM));
+                assertEquals(1, results.size());
+                assertEquals("/count", results.get(0).getTestName());
+                assertEquals(TestResult.pass, results.get(0).getResult());
+            }
+        }
+    }
+
+    @Test
+    void testValidate() throws Exception {
+        try (var engine = builder().build()) {
+            assertEquals(Set.of("/count", "/other"), engine.getTestNames());
+            var results = engine.validate(TestCommon.fromPaths(DUPLICATE_FILE1_RPM));
+            assertEquals(List.of("/count", "/other"), results.stream().map(NamedResult::getTestName).toList());
+            assertEquals(TestResult.fail, results.get(0).getResult());
+            assertEquals(TestResult.pass, results.get(1).getResult());
+        }
+    }
+
+    @Test
+    void testUnknownTest() {
+        assertThrows(RuntimeException.class, () -> builder().test("/unknown").build());
+    }
+}
@@ -0,0 +1,48 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.consumer.RecordingFile;
+
+public class ValidatorEventsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecording() throws Exception {
+        var rpm = Path.of("src/test/resources/arg_file_iterator/dangling-symlink-1-1.noarch.rpm");
+        TestFactory.validators.clear();
+        TestFactory.validators.add(new TestValidator("/something", (rpms, v) -> {
+            for (var r : rpms) {
+                v.pass("{0}", Decorated.rpm(r));
+            }
+        }));
+
+        var main = new Main();
+        var discard = new PrintStream(OutputStream.nullOutputStream());
+        main.setOutput(discard, discard);
+        var jfrFile = tempDir.resolve("run.jfr");
+        assertEquals(0, main.run(new String[] {"--jfr", jfrFile.toString(), "-f", rpm.toString(),
+                TestFactory.class.getCanonicalName()}));
+
+        var invocations = RecordingFile.readAllEvents(jfrFile).stream().filter(event ->
+                event.getEventType().getName().equals("org.fedoraproject.javapackages.validator.ValidatorInvocation")).toList();
+        assertEquals(1, invocations.size());
+        assertEquals("/something", invocations.get(0).getString("testName"));
+        assertEquals(TestValidator.class.getName(), invocations.get(0).getString("validatorClass"));
+        assertEquals("pass", invocations.get(0).getString("result"));
+
+        var reports = RecordingFile.readAllEvents(jfrFile).stream().filter(event ->
+                event.getEventType().getName().equals("org.fedoraproject.javapackages.validator.ReportWrite")).toList();
+        assertEquals(1, reports.size());
+        assertEquals(1, reports.get(0).getLong("entries"));
+    }
+}
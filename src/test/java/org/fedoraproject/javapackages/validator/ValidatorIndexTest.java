@@ -0,0 +1,136 @@
+package org.fedoraproject.javapackages.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.fedoraproject.javapackages.validator.spi.Validator;
+import org.fedoraproject.javapackages.validator.spi.ValidatorFactory;
+import org.fedoraproject.javapackages.validator.validators.DefaultValidatorFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+public class ValidatorIndexTest {
+    private static final String CALLED_PROPERTY = "javapackages-validator.test.indexed-factory-called";
+    private static final String CONSTRUCTED_PROPERTY = "javapackages-validator.test.indexed-validator-constructed";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDefaultFactory() throws Exception {
+        var index = ValidatorIndex.read(getClass().getClassLoader(), DefaultValidatorFactory.class.getName());
+        assertNotNull(index);
+        assertTrue(index.instantiable());
+        assertEquals(ValidatorIndex.of(new DefaultValidatorFactory().getValidators()), index);
+    }
+
+    @Test
+    void testOf() {
+        // The test validator is not public, it is created by its factory
+        assertEquals(new ValidatorIndex.Index(Map.of("/test", List.of(TestValidator.class.getName())), false),
+                ValidatorIndex.of(List.of(new TestValidator("/test", (_, _) -> {}))));
+    }
+
+    private static Path location(Class<?> type) throws Exception {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private ValidationEngine.Builder builder(Path sourceDir, Path outputDir) throws Exception {
+        return ValidationEngine.builder().sourcePath(sourceDir).outputDirectory(outputDir)
+                .classPath(location(Validator.class)).classPath(location(RpmPackage.class));
+    }
+
+    @Test
+    void testCompiledFactory() throws Exception {
+        var sourceDir = Files.createDirectories(tempDir.resolve("src"));
+        var outputDir = tempDir.resolve("out");
+        var validatorSource = """
+                package indexed;
+                public class %1$s extends org.fedoraproject.javapackages.validator.DefaultValidator {
+                    public %1$s() { System.setProperty("%3$s.%1$s", "true"); }
+                    public String getTestName() { return "/indexed/%2$s"; }
+                    protected void validate(Iterable<io.kojan.javadeptools.rpm.RpmPackage> rpms) { pass("ok"); }
+                }
+                """;
+        Files.createDirectories(sourceDir.resolve("indexed"));
+        Files.writeString(sourceDir.resolve("indexed/A.java"), validatorSource.formatted("A", "a", CONSTRUCTED_PROPERTY));
+        Files.writeString(sourceDir.resolve("indexed/B.java"), validatorSource.formatted("B", "b", CONSTRUCTED_PROPERTY));
+        Files.writeString(sourceDir.resolve("indexed/C.java"), validatorSource.formatted("C", "c", CONSTRUCTED_PROPERTY));
+        var factorySource = """
+                package indexed;
+                public class %s implements org.fedoraproject.javapackages.validator.spi.ValidatorFactory {
+                    public java.util.List<org.fedoraproject.javapackages.validator.spi.Validator> getValidators() {
+                        System.setProperty("%s", "true");
+                        return java.util.List.of(%s);
+                    }
+                }
+                """;
+        Files.writeString(sourceDir.resolve("indexed/Factory.java"), factorySource.formatted("Factory", CALLED_PROPERTY, "new A(), new B()"));
+        Files.writeString(sourceDir.resolve("indexed/Other.java"), factorySource.formatted("Other", CALLED_PROPERTY + ".other", "new C()"));
+        Files.writeString(sourceDir.resolve("indexed/Configured.java"), factorySource.formatted("Configured", CALLED_PROPERTY + ".configured",
+                "new A() { public String getTestName() { return \"/indexed/d\"; } }"));
+        Files.writeString(sourceDir.resolve(ValidatorFactory.class.getName()), "indexed.Factory # validators to index\n");
+        Files.writeString(sourceDir.resolve("javapackages-validator.properties"), "compiler.release=" + Runtime.version().feature());
+
+        try (var engine = builder(sourceDir, outputDir).factory("indexed.Factory").build()) {
+            assertEquals(Set.of("/indexed/a", "/indexed/b"), engine.getTestNames());
+        }
+        try (var classLoader = new URLClassLoader(new URL[] {outputDir.toUri().toURL()}, null)) {
+            assertEquals(new ValidatorIndex.Index(Map.of("/indexed/a", List.of("indexed.A"), "/indexed/b", List.of("indexed.B")), true),
+                    ValidatorIndex.read(classLoader, "indexed.Factory"));
+        }
+
+        // Only the validator of the requested test is constructed, without
+        // calling the factory
+        System.clearProperty(CALLED_PROPERTY);
+        System.clearProperty(CONSTRUCTED_PROPERTY + ".A");
+        System.clearProperty(CONSTRUCTED_PROPERTY + ".B");
+        try (var engine = builder(sourceDir, outputDir).factory("indexed.Factory").test("/indexed/b").build()) {
+            assertEquals(Set.of("/indexed/b"), engine.getTestNames());
+            assertTrue(engine.validate(List.of()).stream().allMatch(result -> result.getTestName().equals("/indexed/b")));
+        }
+        assertNull(System.getProperty(CALLED_PROPERTY));
+        assertNull(System.getProperty(CONSTRUCTED_PROPERTY + ".A"));
+        assertEquals("true", System.getProperty(CONSTRUCTED_PROPERTY + ".B"));
+
+        // A change of the service file alone indexes the added factory
+        Files.writeString(sourceDir.resolve(ValidatorFactory.class.getName()), "indexed.Factory\nindexed.Other\nindexed.Configured\n");
+        System.clearProperty(CALLED_PROPERTY);
+        try (var engine = builder(sourceDir, outputDir).test("/indexed/c").build()) {
+            assertEquals(Set.of("/indexed/c"), engine.getTestNames());
+        }
+        try (var classLoader = new URLClassLoader(new URL[] {outputDir.toUri().toURL()}, null)) {
+            assertEquals(new ValidatorIndex.Index(Map.of("/indexed/c", List.of("indexed.C")), true),
+                    ValidatorIndex.read(classLoader, "indexed.Other"));
+            assertFalse(ValidatorIndex.read(classLoader, "indexed.Configured").instantiable());
+        }
+
+        // The factory implementing none of the requested tests is not called
+        System.clearProperty(CALLED_PROPERTY);
+        try (var engine = builder(sourceDir, outputDir).test("/indexed/c").build()) {
+            assertEquals(Set.of("/indexed/c"), engine.getTestNames());
+        }
+        assertNull(System.getProperty(CALLED_PROPERTY));
+
+        // The validators which cannot be instantiated on their own are
+        // created by their factory
+        System.clearProperty(CALLED_PROPERTY + ".configured");
+        try (var engine = builder(sourceDir, outputDir).test("/indexed/d").build()) {
+            assertEquals(Set.of("/indexed/d"), engine.getTestNames());
+        }
+        assertEquals("true", System.getProperty(CALLED_PROPERTY + ".configured"));
+    }
+}
@@ -0,0 +1,168 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.fedoraproject.javapackages.validator.TestCommon;
+import org.fedoraproject.javapackages.validator.spi.Decorated;
+import org.fedoraproject.javapackages.validator.spi.LogEntry;
+import org.fedoraproject.javapackages.validator.spi.LogEvent;
+import org.fedoraproject.javapackages.validator.spi.Result;
+import org.fedoraproject.javapackages.validator.spi.TestResult;
+import org.junit.jupiter.api.Test;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+public class ElementwiseValidatorTest {
+    private static class NameValidator extends ElementwiseValidator {
+        private final boolean forkable;
+
+        NameValidator(boolean forkable) {
+            super(rpm -> !rpm.getName().startsWith("duplicate-file"));
+            this.forkable = forkable;
+        }
+
+        @Override
+        public String getTestName() {
+            return "/name";
+        }
+
+        @Override
+        protected boolean canFork() {
+            return forkable;
+        }
+
+        @Override
+        protected NameValidator fork() {
+            return forkable ? new NameValidator(true) : null;
+        }
+
+        @Override
+        public void validate(RpmPackage rpm) throws Exception {
+            pass("{0}", Decorated.rpm(rpm));
+        }
+    }
+
+    private static List<String> messages(Result result) {
+        var messages = new ArrayList<String>();
+        for (LogEntry entry : result) {
+            messages.add(entry.kind() + " " + entry.objects()[entry.objects().length - 1].getObject());
+        }
+        return messages;
+    }
+
+    @Test
+    void testParallelOrder() throws Exception {
+        try (var paths = Files.list(TestCommon.RPM_PATH_PREFIX.resolve("noarch"))) {
+            var rpms = TestCommon.fromPaths(paths.sorted().toArray(Path[]::new));
+
+            var sequential = new NameValidator(false);
+            sequential.validate(rpms);
+            var parallel = new NameValidator(true);
+            parallel.validate(rpms);
+
+            var sequentialResult = sequential.build();
+            var parallelResult = parallel.build();
+            assertEquals(sequentialResult.getResult(), parallelResult.getResult());
+            assertEquals(messages(sequentialResult), messages(parallelResult));
+        }
+    }
+
+    @Test
+    void testScanPool() throws Exception {
+        var pools = ConcurrentHashMap.<ForkJoinPool>newKeySet();
+        class PoolValidator extends NameValidator {
+            PoolValidator() {
+                super(true);
+            }
+
+            @Override
+            protected PoolValidator fork() {
+                return new PoolValidator();
+            }
+
+            @Override
+            public void validate(RpmPackage rpm) throws Exception {
+                pools.add(ForkJoinTask.getPool());
+                super.validate(rpm);
+            }
+        }
+
+        try (var paths = Files.list(TestCommon.RPM_PATH_PREFIX.resolve("noarch"));
+                var scanPool = new ScanPool(1)) {
+            var rpms = TestCommon.fromPaths(paths.sorted().toArray(Path[]::new));
+            scanPool.call(() -> {
+                new PoolValidator().validate(rpms);
+                return null;
+            });
+        }
+
+        // The packages are validated in the pool of the run
+        assertEquals(1, pools.size());
+        var pool = pools.iterator().next();
+        assertNotSame(ForkJoinPool.commonPool(), pool);
+        assertEquals(1, pool.getParallelism());
+    }
+
+    @Test
+    void testForkedMetrics() throws Exception {
+        try (var paths = Files.list(TestCommon.RPM_PATH_PREFIX.resolve("noarch"))) {
+            var rpms = TestCommon.fromPaths(paths.sorted().toArray(Path[]::new));
+            var metrics = new ScanMetrics();
+            metrics.call(() -> {
+                new NameValidator(true).validate(rpms);
+                return null;
+            });
+            // The forked instances allocate their log entries
+            assertTrue(metrics.getForkedAllocatedBytes() > 0);
+        }
+    }
+
+    @Test
+    void testFailingFork() throws Exception {
+        var rpms = TestCommon.fromPaths(TestCommon.RPM_PATH_PREFIX.resolve("noarch/dangling-symlink-1-1.noarch.rpm"));
+        var validator = new NameValidator(true) {
+            @Override
+            protected NameValidator fork() {
+                return null;
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> validator.validate(rpms));
+    }
+
+    @Test
+    void testLogLevel() throws Exception {
+        try (var paths = Files.list(TestCommon.RPM_PATH_PREFIX.resolve("noarch"))) {
+            var rpms = TestCommon.fromPaths(paths.sorted().toArray(Path[]::new));
+
+            var all = new NameValidator(true);
+            all.validate(rpms);
+            var allResult = all.build();
+
+            // The shards keep the log level, the result is unchanged
+            var passOnly = new NameValidator(true);
+            passOnly.setLogLevel(LogEvent.pass);
+            passOnly.validate(rpms);
+            var passOnlyResult = passOnly.build();
+            assertEquals(allResult.getResult(), passOnlyResult.getResult());
+            assertEquals(messages(allResult).stream().filter(message -> message.startsWith("pass ")).toList(),
+                    messages(passOnlyResult));
+
+            var failOnly = new NameValidator(false);
+            failOnly.setLogLevel(LogEvent.fail);
+            failOnly.validate(rpms);
+            assertEquals(TestResult.pass, failOnly.build().getResult());
+            assertEquals(List.of(), messages(failOnly.build()));
+        }
+    }
+}
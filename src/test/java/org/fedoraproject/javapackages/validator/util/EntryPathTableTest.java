@@ -0,0 +1,43 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+public class EntryPathTableTest {
+    private static final String[] NAMES = {
+        "/", "./", ".", "/usr", "/usr/share/java/foo.jar", "./usr/share/java/foo.jar", "usr/share/java",
+        "/usr//share", "/usr/share/", "/usr/./share", "/usr/../share", "/usr/.share/..foo", "/usr/share/.",
+        "/usr/share/..", "/.", "/..", "/><", "/a b/c",
+    };
+
+    private static Path expected(String name) {
+        return Path.of("/").resolve(Path.of("/").relativize(Path.of("/").resolve(Path.of(name))));
+    }
+
+    @Test
+    void testNormalize() {
+        for (var name : NAMES) {
+            assertEquals(expected(name), EntryPathTable.normalize(name), name);
+        }
+    }
+
+    @Test
+    void testGet() {
+        var table = new EntryPathTable();
+        for (var name : NAMES) {
+            assertEquals(expected(name), table.get(name), name);
+        }
+    }
+
+    @Test
+    void testInterned() {
+        var table = new EntryPathTable();
+        var file = table.get("/usr/share/java/foo.jar");
+        assertSame(file, table.get("./usr/share/java/foo.jar"));
+        assertSame(table.get("/usr/share/java"), table.get("/usr/share/java/"));
+    }
+}
@@ -0,0 +1,85 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.fedoraproject.javapackages.validator.TestCommon;
+import org.junit.jupiter.api.Test;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+public class FileCollisionIndexTest {
+    private static final Path DUPLICATE_FILE1_RPM = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/duplicate-file1-1-1.noarch.rpm"));
+    private static final Path DUPLICATE_FILE2_RPM = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/duplicate-file2-1-1.noarch.rpm"));
+    private static final Path DUPLICATE_FILE3_RPM = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/duplicate-file3-1-1.noarch.rpm"));
+
+    private static String describe(FileCollisionIndex index) throws Exception {
+        var result = new StringBuilder();
+        for (var entry : index.collisions().entrySet()) {
+            result.append(entry.getKey()).append(":");
+            for (var provider : entry.getValue()) {
+                result.append(" ").append(provider.path().getFileName()).append(provider.directory() ? "/" : "");
+            }
+            result.append("\n");
+        }
+        return result.toString();
+    }
+
+    @Test
+    void testCollisions() throws Exception {
+        try (var index = new FileCollisionIndex()) {
+            for (var rpm : TestCommon.fromPaths(DUPLICATE_FILE1_RPM, DUPLICATE_FILE2_RPM, DUPLICATE_FILE3_RPM)) {
+                index.add(rpm);
+            }
+            var collisions = index.collisions();
+            assertEquals(List.of("/><"), List.copyOf(collisions.keySet()));
+            assertEquals(List.of(DUPLICATE_FILE1_RPM, DUPLICATE_FILE2_RPM, DUPLICATE_FILE3_RPM),
+                    collisions.get("/><").stream().map(FileCollisionIndex.Provider::path).toList());
+            assertEquals(List.of("noarch", "noarch", "noarch"),
+                    collisions.get("/><").stream().map(FileCollisionIndex.Provider::arch).toList());
+        }
+    }
+
+    @Test
+    void testNoCollisions() throws Exception {
+        try (var index = new FileCollisionIndex()) {
+            for (var rpm : TestCommon.fromPaths(DUPLICATE_FILE1_RPM)) {
+                index.add(rpm);
+            }
+            assertTrue(index.collisions().isEmpty());
+        }
+    }
+
+    @Test
+    void testSpill() throws Exception {
+        List<Path> paths;
+        try (var files = Files.find(TestCommon.RPM_PATH_PREFIX, Integer.MAX_VALUE,
+                (path, _) -> path.toString().endsWith(".rpm"))) {
+            paths = files.sorted().toList();
+        }
+        var rpms = TestCommon.fromPaths(paths.toArray(Path[]::new));
+
+        String expected;
+        try (var index = new FileCollisionIndex()) {
+            for (var rpm : rpms) {
+                index.add(rpm);
+            }
+            expected = describe(index);
+        }
+        assertFalse(expected.isEmpty());
+
+        for (int runSize : new int[] {1, 2, 3}) {
+            try (var index = new FileCollisionIndex(runSize)) {
+                for (RpmPackage rpm : rpms) {
+                    index.add(rpm);
+                }
+                assertEquals(expected, describe(index), "run size " + runSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.jupiter.api.Test;
+
+public class JarAccessTest {
+    private static byte[] createJar(Manifest manifest) throws IOException {
+        var bos = new ByteArrayOutputStream();
+        try (var os = manifest != null ? new JarOutputStream(bos, manifest) : new JarOutputStream(bos)) {
+            os.putNextEntry(new JarEntry("module-info.class"));
+            os.write("module".getBytes(StandardCharsets.UTF_8));
+            os.putNextEntry(new JarEntry("a/B.class"));
+            os.write("class".getBytes(StandardCharsets.UTF_8));
+        }
+        return bos.toByteArray();
+    }
+
+    @Test
+    void testInMemory() throws Exception {
+        var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Automatic-Module-Name", "foo.bar");
+        var bytes = createJar(manifest);
+
+        try (var jar = JarAccess.open(new ByteArrayInputStream(bytes), bytes.length)) {
+            assertEquals(List.of("META-INF/MANIFEST.MF", "module-info.class", "a/B.class"), jar.getEntryNames());
+            assertTrue(jar.hasEntry("a/B.class"));
+            assertFalse(jar.hasEntry("a/C.class"));
+            assertArrayEquals("module".getBytes(StandardCharsets.UTF_8), jar.readEntry("module-info.class"));
+            assertNull(jar.readEntry("a/C.class"));
+            assertEquals("foo.bar", jar.getManifest().getMainAttributes().getValue("Automatic-Module-Name"));
+        }
+    }
+
+    @Test
+    void testUnknownSize() throws Exception {
+        var bytes = createJar(null);
+
+        try (var jar = JarAccess.open(new ByteArrayInputStream(bytes), -1)) {
+            assertEquals(List.of("module-info.class", "a/B.class"), jar.getEntryNames());
+            assertArrayEquals("class".getBytes(StandardCharsets.UTF_8), jar.readEntry("a/B.class"));
+            assertNull(jar.getManifest());
+        }
+    }
+
+    @Test
+    void testMalformed() throws Exception {
+        var bytes = "not a jar".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> JarAccess.open(new ByteArrayInputStream(bytes), bytes.length));
+    }
+}
@@ -0,0 +1,152 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.apache.commons.compress.archivers.cpio.CpioConstants;
+import org.fedoraproject.javapackages.validator.util.BytecodeVersionJarValidator.Version;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JarFactCacheTest {
+    private static final String DIGEST = "sha256:0123456789abcdef";
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] createJar() throws IOException {
+        var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Automatic-Module-Name", "foo.bar");
+        var bos = new ByteArrayOutputStream();
+        try (var os = new JarOutputStream(bos, manifest)) {
+            os.putNextEntry(new JarEntry("module-info.class"));
+            os.write("module".getBytes(StandardCharsets.UTF_8));
+            os.putNextEntry(new JarEntry("a/B.class"));
+            os.write(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 61, 1, 2, 3});
+            os.putNextEntry(new JarEntry("a/C.class"));
+            os.write(new byte[] {(byte) 0xCA, (byte) 0xFE});
+        }
+        return bos.toByteArray();
+    }
+
+    private static PayloadEntry createEntry(String digest, long size) {
+        var header = new CpioArchiveEntry(CpioConstants.FORMAT_NEW, "./usr/share/java/foo.jar");
+        header.setMode(CpioConstants.C_ISREG | 0644);
+        header.setSize(size);
+        return new PayloadEntry(header, Path.of("/usr/share/java/foo.jar"), null, digest);
+    }
+
+    private static InputStream unreadable() {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("The content must not be read");
+            }
+        };
+    }
+
+    private static void assertFacts(JarFacts facts) throws IOException {
+        var classVersions = new LinkedHashMap<String, Version>();
+        classVersions.put("module-info.class", null);
+        classVersions.put("a/B.class", new Version((short) 61, (short) 0));
+        classVersions.put("a/C.class", null);
+        assertEquals(classVersions, facts.getClassVersions());
+        assertEquals(1, facts.getModuleInfos().size());
+        assertEquals("module-info.class", facts.getModuleInfos().get(0).entryName());
+        assertNull(facts.getModuleInfos().get(0).moduleName());
+        assertNotNull(facts.getModuleInfos().get(0).error());
+        assertEquals("foo.bar", facts.getManifestAttributes().get("automatic-module-name"));
+    }
+
+    @Test
+    void testCompute() throws Exception {
+        var bytes = createJar();
+        var cache = new JarFactCache(JarFactCache.DEFAULT_MEMORY_LIMIT);
+        assertNull(cache.get(createEntry(DIGEST, bytes.length)));
+
+        var facts = cache.compute(createEntry(DIGEST, bytes.length), new ByteArrayInputStream(bytes));
+        assertFacts(facts);
+        assertSame(facts, cache.get(createEntry(DIGEST, bytes.length)));
+        assertSame(facts, cache.compute(createEntry(DIGEST, bytes.length), unreadable()));
+    }
+
+    @Test
+    void testNoDigest() throws Exception {
+        var bytes = createJar();
+        var cache = new JarFactCache(JarFactCache.DEFAULT_MEMORY_LIMIT);
+        var entry = createEntry(null, bytes.length);
+        var facts = cache.compute(entry, new ByteArrayInputStream(bytes));
+        assertFacts(facts);
+        assertNull(cache.get(createEntry(null, bytes.length)));
+
+        // Other visitors of the same entry share the facts
+        assertSame(facts, cache.compute(entry, unreadable()));
+    }
+
+    @Test
+    void testEvict() throws Exception {
+        var bytes = createJar();
+        var cache = new JarFactCache(0);
+        cache.compute(createEntry(DIGEST, bytes.length), new ByteArrayInputStream(bytes));
+        assertNull(cache.get(createEntry(DIGEST, bytes.length)));
+    }
+
+    @Test
+    void testStore() throws Exception {
+        var bytes = createJar();
+        var cache = new JarFactCache(tempDir, 0);
+        cache.compute(createEntry(DIGEST, bytes.length), new ByteArrayInputStream(bytes));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of("sha256-0123456789abcdef" + JarFactCache.SUFFIX),
+                    files.map(path -> path.getFileName().toString()).toList());
+        }
+
+        var other = new JarFactCache(tempDir, JarFactCache.DEFAULT_MEMORY_LIMIT);
+        var facts = other.compute(createEntry(DIGEST, bytes.length), unreadable());
+        assertFacts(facts);
+    }
+
+    @Test
+    void testCurrent() throws Exception {
+        var bytes = createJar();
+        var cache = new JarFactCache(JarFactCache.DEFAULT_MEMORY_LIMIT);
+        var facts = cache.call(() -> JarFactCache.current().compute(createEntry(DIGEST, bytes.length), new ByteArrayInputStream(bytes)));
+        assertSame(facts, cache.get(createEntry(DIGEST, bytes.length)));
+
+        // Without a bound cache no facts are kept
+        JarFactCache.current().compute(createEntry(DIGEST, bytes.length), new ByteArrayInputStream(bytes));
+        assertNull(JarFactCache.current().get(createEntry(DIGEST, bytes.length)));
+    }
+
+    @Test
+    void testCorrupted() throws Exception {
+        var bytes = createJar();
+        var cache = new JarFactCache(tempDir, 0);
+        cache.compute(createEntry(DIGEST, bytes.length), new ByteArrayInputStream(bytes));
+        Files.write(tempDir.resolve("sha256-0123456789abcdef" + JarFactCache.SUFFIX), new byte[] {0, 0, 0, 1, 0, 0, 0, 7});
+        assertNull(cache.get(createEntry(DIGEST, bytes.length)));
+        assertThrows(IOException.class, () -> cache.compute(createEntry(DIGEST, bytes.length), unreadable()));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.fedoraproject.javapackages.validator.TestCommon;
+import org.fedoraproject.javapackages.validator.spi.TestResult;
+import org.junit.jupiter.api.Test;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+public class PayloadScannerTest {
+    private static final Path JPMS_AUTOMATIC = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/jpms-automatic-1-1.noarch.rpm"));
+    private static final Path DANGLING_SYMLINK = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/dangling-symlink-1-1.noarch.rpm"));
+
+    private static class JarCollector implements RpmEntryVisitor {
+        List<Path> paths = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        boolean ended = false;
+
+        @Override
+        public boolean needsContent(RpmPackage rpm, PayloadEntry entry) {
+            return entry.getPath().toString().endsWith(".jar");
+        }
+
+        @Override
+        public void visitEntry(RpmPackage rpm, PayloadEntry entry, InputStream content) throws Exception {
+            paths.add(entry.getPath());
+            if (content != null) {
+                contents.add(content.readAllBytes());
+            }
+        }
+
+        @Override
+        public void visitEnd(RpmPackage rpm) {
+            ended = true;
+        }
+    }
+
+    @Test
+    void testSharedContent() throws Exception {
+        var rpm = TestCommon.fromPaths(JPMS_AUTOMATIC).iterator().next();
+        var first = new JarCollector();
+        var second = new JarCollector();
+        var failures = PayloadScanner.scan(rpm, List.of(first, second));
+
+        assertTrue(failures.isEmpty());
+        assertTrue(first.ended);
+        assertEquals(first.paths, second.paths);
+        assertFalse(first.contents.isEmpty());
+        assertEquals(first.contents.size(), second.contents.size());
+        for (int i = 0; i != first.contents.size(); ++i) {
+            assertArrayEquals(first.contents.get(i), second.contents.get(i));
+        }
+    }
+
+    @Test
+    void testFailingVisitor() throws Exception {
+        var rpm = TestCommon.fromPaths(JPMS_AUTOMATIC).iterator().next();
+        var collector = new JarCollector();
+        var failing = new JarCollector() {
+            @Override
+            public void visitEntry(RpmPackage rpm, PayloadEntry entry, InputStream content) throws Exception {
+                throw new IllegalStateException("failing visitor");
+            }
+        };
+        var failures = PayloadScanner.scan(rpm, List.of(failing, collector));
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(failing) instanceof IllegalStateException);
+        assertFalse(failing.ended);
+        assertTrue(collector.ended);
+        assertFalse(collector.contents.isEmpty());
+    }
+
+    @Test
+    void testSkipPayload() throws Exception {
+        var rpms = TestCommon.fromPaths(JPMS_AUTOMATIC, DANGLING_SYMLINK).iterator();
+        var jars = List.of(new JarCollector());
+        assertTrue(PayloadScanner.needsContent(rpms.next(), jars));
+
+        var noJars = rpms.next();
+        assertFalse(PayloadScanner.needsContent(noJars, jars));
+        var failures = PayloadScanner.scan(noJars, jars, false);
+        assertTrue(failures.isEmpty());
+        assertTrue(jars.getFirst().ended);
+        assertTrue(jars.getFirst().paths.isEmpty());
+    }
+
+    @Test
+    void testManifest() throws Exception {
+        var rpm = TestCommon.fromPaths(JPMS_AUTOMATIC).iterator().next();
+        var manifests = new ArrayList<RpmFileManifest>();
+        var collector = new JarCollector() {
+            @Override
+            public void visitStart(RpmPackage rpm, RpmFileManifest manifest) {
+                manifests.add(manifest);
+            }
+        };
+        var failures = PayloadScanner.scan(rpm, List.of(collector));
+
+        assertTrue(failures.isEmpty());
+        assertEquals(1, manifests.size());
+        assertEquals(collector.paths, manifests.getFirst().getEntries().stream().map(PayloadEntry::getPath).toList());
+    }
+
+    private static class Checking extends PayloadValidator {
+        private final boolean forkable;
+
+        Checking(boolean forkable) {
+            this.forkable = forkable;
+        }
+
+        @Override
+        public String getTestName() {
+            return "/checking";
+        }
+
+        @Override
+        protected boolean canFork() {
+            return forkable;
+        }
+
+        @Override
+        protected Checking fork() {
+            return forkable ? new Checking(true) : null;
+        }
+
+        @Override
+        public void visitEntry(RpmPackage rpm, PayloadEntry entry, InputStream content) {
+        }
+
+        @Override
+        public void visitEnd(RpmPackage rpm) {
+            if (!TestResult.fail.equals(getResult())) {
+                pass("ok");
+            }
+            fail("checked");
+        }
+    }
+
+    private static List<String> patterns(Checking validator) {
+        var patterns = new ArrayList<String>();
+        for (var entry : validator.build()) {
+            patterns.add(entry.pattern());
+        }
+        return patterns;
+    }
+
+    @Test
+    void testEngineShards() throws Exception {
+        var rpms = TestCommon.fromPaths(JPMS_AUTOMATIC, DANGLING_SYMLINK);
+        var alone = new Checking(true);
+        new PayloadScanEngine(List.of(alone)).run(rpms, _ -> null);
+        // Not all the validators can be forked, the packages are scanned
+        // sequentially
+        var mixed = new Checking(true);
+        new PayloadScanEngine(List.of(mixed, new Checking(false))).run(rpms, _ -> null);
+
+        assertEquals(List.of("ok", "checked", "ok", "checked"), patterns(alone));
+        assertEquals(patterns(alone), patterns(mixed));
+    }
+
+    @Test
+    void testEngineFailingFork() throws Exception {
+        var rpms = TestCommon.fromPaths(JPMS_AUTOMATIC, DANGLING_SYMLINK);
+        var failing = new Checking(true) {
+            @Override
+            protected Checking fork() {
+                return null;
+            }
+        };
+        var checking = new Checking(true);
+        new PayloadScanEngine(List.of(failing, checking)).run(rpms, _ -> null);
+
+        assertEquals(TestResult.error, failing.build().getResult());
+        assertEquals(List.of("ok", "checked", "ok", "checked"), patterns(checking));
+    }
+
+    @Test
+    void testCanDrive() {
+        class Visiting extends PayloadValidator {
+            @Override
+            public String getTestName() {
+                return "/test";
+            }
+
+            @Override
+            public void visitEntry(RpmPackage rpm, PayloadEntry entry, InputStream content) {
+            }
+        }
+        class Jars extends JarValidator {
+            @Override
+            public String getTestName() {
+                return "/test";
+            }
+
+            @Override
+            public void acceptJarEntry(RpmPackage rpm, CpioArchiveEntry rpmEntry, InputStream content) {
+            }
+        }
+        class Validating extends Visiting {
+            @Override
+            public void validate(RpmPackage rpm) {
+            }
+        }
+        class Accepting extends Jars {
+            @Override
+            public void accept(RpmPackage rpm) {
+            }
+        }
+        assertTrue(PayloadScanEngine.canDrive(new Visiting()));
+        assertTrue(PayloadScanEngine.canDrive(new Jars()));
+        assertFalse(PayloadScanEngine.canDrive(new Validating()));
+        assertFalse(PayloadScanEngine.canDrive(new Accepting()));
+    }
+}
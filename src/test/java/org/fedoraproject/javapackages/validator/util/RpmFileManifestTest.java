@@ -0,0 +1,76 @@
+package org.fedoraproject.javapackages.validator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fedoraproject.javapackages.validator.TestCommon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.kojan.javadeptools.rpm.RpmPackage;
+
+public class RpmFileManifestTest {
+    private static final Path DUPLICATE_FILE3 = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/duplicate-file3-1-1.noarch.rpm"));
+    private static final Path VALID_SYMLINK = TestCommon.RPM_PATH_PREFIX.resolve(Path.of("noarch/valid-symlink-1-1.noarch.rpm"));
+
+    @TempDir
+    Path tempDir;
+
+    private static String describe(PayloadEntry entry) {
+        return entry.getHeader().getName() + " " + entry.getPath() + " " + entry.getHeader().getMode() + " "
+                + (entry.isRegularFile() ? entry.getHeader().getSize() : 0) + " " + entry.getSymlinkTarget();
+    }
+
+    @Test
+    void testMatchesPayload() throws Exception {
+        try (var paths = Files.find(TestCommon.RPM_PATH_PREFIX, Integer.MAX_VALUE,
+                (path, _) -> path.toString().endsWith(".rpm"))) {
+            for (var path : paths.toList()) {
+                var rpm = new RpmPackage(path);
+                var expected = new ArrayList<String>();
+                PayloadScanner.scan(rpm, (_, entry, _) -> expected.add(describe(entry)));
+
+                var actual = RpmFileManifest.read(rpm).getEntries().stream().map(RpmFileManifestTest::describe).toList();
+                assertEquals(expected, actual, path.toString());
+            }
+        }
+    }
+
+    @Test
+    void testSymlink() throws Exception {
+        var entries = RpmFileManifest.read(VALID_SYMLINK).getEntries();
+        assertTrue(entries.stream().anyMatch(PayloadEntry::isSymbolicLink));
+        for (var entry : entries) {
+            if (!entry.isSymbolicLink()) {
+                assertNull(entry.getSymlinkTarget());
+            }
+        }
+    }
+
+    @Test
+    void testGhost() throws Exception {
+        var paths = RpmFileManifest.read(DUPLICATE_FILE3).getEntries().stream().map(entry -> entry.getPath().toString()).toList();
+        assertEquals(List.of("/><", "/other"), paths);
+    }
+
+    @Test
+    void testMalformed() throws Exception {
+        var empty = Files.createFile(tempDir.resolve("empty.rpm"));
+        assertThrows(IOException.class, () -> RpmFileManifest.read(empty));
+
+        var truncated = tempDir.resolve("truncated.rpm");
+        try (InputStream is = Files.newInputStream(VALID_SYMLINK)) {
+            Files.write(truncated, is.readNBytes(200));
+        }
+        assertThrows(IOException.class, () -> RpmFileManifest.read(truncated));
+    }
+}
@@ -4,17 +4,22 @@ import static org.fedoraproject.javapackages.validator.TestCommon.assertError;
 import static org.fedoraproject.javapackages.validator.TestCommon.assertFailOne;
 import static org.fedoraproject.javapackages.validator.TestCommon.assertPass;
 import static org.fedoraproject.javapackages.validator.TestCommon.assertWarn;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
 import org.fedoraproject.javapackages.validator.TestCommon;
 import org.fedoraproject.javapackages.validator.spi.Decorated;
 import org.fedoraproject.javapackages.validator.spi.LogEntry;
+import org.fedoraproject.javapackages.validator.util.BytecodeVersionJarValidator;
+import org.fedoraproject.javapackages.validator.util.BytecodeVersionJarValidator.Version;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -88,4 +93,33 @@ public class BytecodeVersionValidatorTest {
         assertError(validator.build());
         assertMsg("Wrong number of arguments, expected 1");
     }
+
+    @Test
+    @SuppressWarnings("removal")
+    void testAcceptJarEntry() throws Exception {
+        var contents = new ArrayList<byte[]>();
+        var versions = new ArrayList<Version>();
+        var legacy = new BytecodeVersionJarValidator() {
+            @Override
+            public String getTestName() {
+                return "/legacy";
+            }
+
+            @Override
+            public void acceptJarEntry(RpmPackage rpm, CpioArchiveEntry rpmEntry, byte[] content) throws Exception {
+                contents.add(content);
+                super.acceptJarEntry(rpm, rpmEntry, content);
+            }
+
+            @Override
+            public void validate(RpmPackage rpm, Path jarPath, Map<Path, Version> classVersions) {
+                versions.addAll(classVersions.values());
+                pass("{0}: bytecode versions: {1}", Decorated.actual(jarPath), Decorated.actual(classVersions.values()));
+            }
+        };
+        legacy.validate(RPMS, null);
+        assertPass(legacy.build());
+        assertEquals(2, contents.size());
+        assertEquals(List.of(new Version((short) 65, (short) 0)), versions.stream().distinct().toList());
+    }
 }